@@ -22,18 +22,27 @@ import static org.apache.qpid.server.store.berkeleydb.BDBUtils.DEFAULT_DATABASE_
 import static org.apache.qpid.server.store.berkeleydb.BDBUtils.abortTransactionSafely;
 import static org.apache.qpid.server.store.berkeleydb.BDBUtils.closeCursorSafely;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import com.sleepycat.bind.tuple.IntegerBinding;
 import com.sleepycat.bind.tuple.LongBinding;
+import com.sleepycat.bind.tuple.TupleBinding;
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
 import com.sleepycat.je.Cursor;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseEntry;
@@ -48,9 +57,12 @@ import org.slf4j.Logger;
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
 import org.apache.qpid.server.message.EnqueueableMessage;
 import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.server.store.ContentEncodingMessageStore;
 import org.apache.qpid.server.store.Event;
 import org.apache.qpid.server.store.EventListener;
 import org.apache.qpid.server.store.EventManager;
+import org.apache.qpid.server.store.MessageContentBlobLog;
+import org.apache.qpid.server.store.MessageContentEncoder;
 import org.apache.qpid.server.store.MessageEnqueueRecord;
 import org.apache.qpid.server.store.MessageHandle;
 import org.apache.qpid.server.store.MessageStore;
@@ -61,7 +73,8 @@ import org.apache.qpid.server.store.TransactionLogResource;
 import org.apache.qpid.server.store.Xid;
 import org.apache.qpid.server.store.berkeleydb.entry.PreparedTransaction;
 import org.apache.qpid.server.store.berkeleydb.entry.QueueEntryKey;
-import org.apache.qpid.server.store.berkeleydb.tuple.ByteBufferBinding;
+import org.apache.qpid.server.store.berkeleydb.replication.ReplicatedEnvironmentFacade;
+import org.apache.qpid.server.store.berkeleydb.tuple.MessageContentKeyBinding;
 import org.apache.qpid.server.store.berkeleydb.tuple.MessageMetaDataBinding;
 import org.apache.qpid.server.store.berkeleydb.tuple.PreparedTransactionBinding;
 import org.apache.qpid.server.store.berkeleydb.tuple.QueueEntryBinding;
@@ -69,16 +82,17 @@ import org.apache.qpid.server.store.berkeleydb.tuple.XidBinding;
 import org.apache.qpid.server.store.handler.DistributedTransactionHandler;
 import org.apache.qpid.server.store.handler.MessageHandler;
 import org.apache.qpid.server.store.handler.MessageInstanceHandler;
+import org.apache.qpid.server.virtualhost.berkeleydb.BDBVirtualHost;
 
 
-public abstract class AbstractBDBMessageStore implements MessageStore
+public abstract class AbstractBDBMessageStore implements ContentEncodingMessageStore
 {
 
     private static final int LOCK_RETRY_ATTEMPTS = 5;
 
     private static final String MESSAGE_META_DATA_DB_NAME = "MESSAGE_METADATA";
     private static final String MESSAGE_META_DATA_SEQ_DB_NAME = "MESSAGE_METADATA.SEQ";
-    private static final String MESSAGE_CONTENT_DB_NAME = "MESSAGE_CONTENT";
+    private static final String MESSAGE_CONTENT_DB_NAME = "MESSAGE_CONTENT_CHUNKS";
     private static final String DELIVERY_DB_NAME = "QUEUE_ENTRIES";
 
     //TODO: Add upgrader to remove BRIDGES and LINKS
@@ -98,6 +112,9 @@ public abstract class AbstractBDBMessageStore implements MessageStore
             setWrap(true).
             setCacheSize(100000);
 
+    private volatile MessageContentBlobLog _contentBlobLog;
+    private volatile MessageContentEncoder _contentEncoder = new MessageContentEncoder(null, -1);
+
     private boolean _limitBusted;
     private long _totalStoreSize;
     private final Random _lockConflictRandom = new Random();
@@ -108,6 +125,8 @@ public abstract class AbstractBDBMessageStore implements MessageStore
         try
         {
             getEnvironmentFacade().upgradeIfNecessary(getParent());
+            openContentBlobLog();
+            _contentEncoder = MessageContentEncoder.create(getParent());
 
             // TODO this relies on the fact that the VH will call upgrade just before putting the VH into service.
             _totalStoreSize = getSizeOnDisk();
@@ -118,6 +137,74 @@ public abstract class AbstractBDBMessageStore implements MessageStore
         }
     }
 
+    private void openContentBlobLog()
+    {
+        if (_contentBlobLog != null)
+        {
+            return;
+        }
+
+        MessageContentBlobLog blobLog = MessageContentBlobLog.create(getParent());
+        if (blobLog != null)
+        {
+            if (getEnvironmentFacade() instanceof ReplicatedEnvironmentFacade)
+            {
+                getLogger().warn("Large message content log {} is not supported by a replicated store and will not be used",
+                                 blobLog.getDirectory());
+                return;
+            }
+
+            try
+            {
+                blobLog.open();
+            }
+            catch (IOException e)
+            {
+                throw new StoreException("Cannot open large message content log " + blobLog.getDirectory(), e);
+            }
+
+            // content appended for messages whose transaction did not commit, or removed before the log was closed
+            for (long messageId : blobLog.getMessageIds())
+            {
+                if (!hasContentReference(messageId))
+                {
+                    blobLog.remove(messageId);
+                }
+            }
+            _contentBlobLog = blobLog;
+        }
+    }
+
+    protected void closeContentBlobLog()
+    {
+        MessageContentBlobLog blobLog = _contentBlobLog;
+        if (blobLog != null)
+        {
+            _contentBlobLog = null;
+            blobLog.close();
+        }
+    }
+
+    MessageContentBlobLog getContentBlobLog()
+    {
+        return _contentBlobLog;
+    }
+
+    @Override
+    public MessageContentEncoder getContentEncoder()
+    {
+        return _contentEncoder;
+    }
+
+    private boolean hasContentReference(final long messageId)
+    {
+        DatabaseEntry key = new DatabaseEntry();
+        MessageContentKeyBinding.keyToEntry(messageId, MessageContentKeyBinding.REFERENCE_CHUNK_INDEX, key);
+        DatabaseEntry value = new DatabaseEntry();
+        value.setPartial(0, 0, true);
+        return getMessageContentDb().get(null, key, value, LockMode.READ_UNCOMMITTED) == OperationStatus.SUCCESS;
+    }
+
     @Override
     public <T extends StorableMessageMetaData> MessageHandle<T> addMessage(T metaData)
     {
@@ -242,9 +329,7 @@ public abstract class AbstractBDBMessageStore implements MessageStore
                     getLogger().debug("Deleted metadata for message {}", messageId);
 
                     //now remove the content data from the store if there is any.
-                    DatabaseEntry contentKeyEntry = new DatabaseEntry();
-                    LongBinding.longToEntry(messageId, contentKeyEntry);
-                    getMessageContentDb().delete(tx, contentKeyEntry);
+                    deleteContent(tx, messageId);
 
                     getLogger().debug("Deleted content for message {}", messageId);
 
@@ -252,6 +337,12 @@ public abstract class AbstractBDBMessageStore implements MessageStore
 
                     complete = true;
                     tx = null;
+
+                    MessageContentBlobLog blobLog = _contentBlobLog;
+                    if (blobLog != null)
+                    {
+                        blobLog.remove(messageId);
+                    }
                 }
                 catch (LockConflictException e)
                 {
@@ -313,7 +404,7 @@ public abstract class AbstractBDBMessageStore implements MessageStore
 
     /**
      * Fills the provided ByteBuffer with as much content for the specified message as possible, starting
-     * from the specified offset in the message.
+     * from the specified offset in the message.  Only the chunks of content covering the requested range are read.
      *
      * @param messageId The message to get the data for.
      * @param offset    The offset of the data within the message.
@@ -325,38 +416,83 @@ public abstract class AbstractBDBMessageStore implements MessageStore
      */
     int getContent(long messageId, int offset, ByteBuffer dst) throws StoreException
     {
-        DatabaseEntry contentKeyEntry = new DatabaseEntry();
-        LongBinding.longToEntry(messageId, contentKeyEntry);
-        DatabaseEntry value = new DatabaseEntry();
-        ByteBufferBinding contentTupleBinding = ByteBufferBinding.getInstance();
-
-
         getLogger().debug("Message Id: {} Getting content body from offset: {}", messageId, offset);
 
+        MessageContentBlobLog blobLog = _contentBlobLog;
+        if (blobLog != null)
+        {
+            try
+            {
+                int written = blobLog.read(messageId, offset, dst);
+                if (written >= 0)
+                {
+                    return written;
+                }
+            }
+            catch (IOException | IllegalArgumentException e)
+            {
+                throw new StoreException("Error getting content for message with id " + messageId
+                                         + " from large message content log: " + e.getMessage(), e);
+            }
+        }
 
+        Cursor cursor = null;
         try
         {
+            cursor = getMessageContentDb().openCursor(null, null);
+            DatabaseEntry key = new DatabaseEntry();
+            DatabaseEntry value = new DatabaseEntry();
 
-            int written = 0;
-            OperationStatus status = getMessageContentDb().get(null, contentKeyEntry, value, LockMode.READ_UNCOMMITTED);
-            if (status == OperationStatus.SUCCESS)
+            // the first record of the message shows whether its content is encoded, without reading the record
+            int chunkIndex = offset / MessageContentKeyBinding.CHUNK_SIZE;
+            int chunkOffset = offset % MessageContentKeyBinding.CHUNK_SIZE;
+            MessageContentKeyBinding.keyToEntry(messageId, MessageContentKeyBinding.ENCODING_CHUNK_INDEX, key);
+            value.setPartial(0, 0, true);
+            OperationStatus status = cursor.getSearchKeyRange(key, value, LockMode.READ_UNCOMMITTED);
+            value.setPartial(false);
+            if (status == OperationStatus.SUCCESS
+                && MessageContentKeyBinding.entryToMessageId(key) == messageId
+                && MessageContentKeyBinding.entryToChunkIndex(key) == MessageContentKeyBinding.ENCODING_CHUNK_INDEX)
+            {
+                return getDecodedContent(cursor, messageId, offset, dst);
+            }
+            else if (status == OperationStatus.SUCCESS
+                     && MessageContentKeyBinding.entryToMessageId(key) == messageId
+                     && MessageContentKeyBinding.entryToChunkIndex(key) == chunkIndex)
+            {
+                status = cursor.getCurrent(key, value, LockMode.READ_UNCOMMITTED);
+            }
+            else
             {
-                QpidByteBuffer buffer = contentTupleBinding.entryToObject(value);
-                int size = buffer.remaining();
-                if (offset > size)
+                MessageContentKeyBinding.keyToEntry(messageId, chunkIndex, key);
+                status = cursor.getSearchKey(key, value, LockMode.READ_UNCOMMITTED);
+            }
+
+            if (status != OperationStatus.SUCCESS || chunkOffset > value.getSize())
+            {
+                int size = getContentSize(cursor, messageId);
+                if (size >= 0 && offset > size)
                 {
                     throw new RuntimeException("Offset " + offset + " is greater than message size " + size
                                                + " for message id " + messageId + "!");
-
                 }
+                return 0;
+            }
 
-                written = size - offset;
-                if(written > dst.remaining())
+            int written = 0;
+            while (dst.hasRemaining())
+            {
+                int length = Math.min(value.getSize() - chunkOffset, dst.remaining());
+                dst.put(value.getData(), value.getOffset() + chunkOffset, length);
+                written += length;
+                chunkOffset = 0;
+
+                if (!dst.hasRemaining()
+                    || cursor.getNext(key, value, LockMode.READ_UNCOMMITTED) != OperationStatus.SUCCESS
+                    || MessageContentKeyBinding.entryToMessageId(key) != messageId)
                 {
-                    written = dst.remaining();
+                    break;
                 }
-                buffer = buffer.view(offset, written);
-                buffer.get(dst);
             }
             return written;
         }
@@ -367,48 +503,293 @@ public abstract class AbstractBDBMessageStore implements MessageStore
                                                                  + " to database: "
                                                                  + e.getMessage(), e);
         }
+        finally
+        {
+            closeCursorSafely(cursor, getEnvironmentFacade());
+        }
+    }
+
+    /**
+     * Fills the given buffer from the offset within the encoded content of the message whose encoding record the cursor
+     * is positioned at.  Only the chunks covering the range read are decoded.
+     */
+    private int getDecodedContent(final Cursor cursor, final long messageId, final int offset, final ByteBuffer dst)
+    {
+        DatabaseEntry key = new DatabaseEntry();
+        DatabaseEntry value = new DatabaseEntry();
+        cursor.getCurrent(key, value, LockMode.READ_UNCOMMITTED);
+        TupleInput input = TupleBinding.entryToInput(value);
+        int codecOrdinal = input.readInt();
+        int contentSize = input.readInt();
+        if (offset > contentSize)
+        {
+            throw new RuntimeException("Offset " + offset + " is greater than message size " + contentSize
+                                       + " for message id " + messageId + "!");
+        }
+
+        int chunkOffset = offset % MessageContentKeyBinding.CHUNK_SIZE;
+        MessageContentKeyBinding.keyToEntry(messageId, offset / MessageContentKeyBinding.CHUNK_SIZE, key);
+        if (cursor.getSearchKey(key, value, LockMode.READ_UNCOMMITTED) != OperationStatus.SUCCESS)
+        {
+            return 0;
+        }
+
+        int written = 0;
+        while (dst.hasRemaining())
+        {
+            int chunkLength = getChunkContentLength(contentSize, MessageContentKeyBinding.entryToChunkIndex(key));
+            if (value.getSize() == chunkLength)
+            {
+                int length = Math.min(chunkLength - chunkOffset, dst.remaining());
+                dst.put(value.getData(), value.getOffset() + chunkOffset, length);
+                written += length;
+            }
+            else
+            {
+                Collection<QpidByteBuffer> chunk = decodeContentChunk(messageId, codecOrdinal, chunkLength, value);
+                try
+                {
+                    written += copyContent(chunk, chunkOffset, dst);
+                }
+                finally
+                {
+                    for (QpidByteBuffer buf : chunk)
+                    {
+                        buf.dispose();
+                    }
+                }
+            }
+            chunkOffset = 0;
+
+            if (!dst.hasRemaining()
+                || cursor.getNext(key, value, LockMode.READ_UNCOMMITTED) != OperationStatus.SUCCESS
+                || MessageContentKeyBinding.entryToMessageId(key) != messageId)
+            {
+                break;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Copies as much of the given content as possible from the offset into the given buffer, returning the number of
+     * bytes copied.  The positions of the content buffers are advanced.
+     */
+    private static int copyContent(final Collection<QpidByteBuffer> content, final int offset, final ByteBuffer dst)
+    {
+        int skip = offset;
+        int written = 0;
+        for (QpidByteBuffer buf : content)
+        {
+            if (!dst.hasRemaining())
+            {
+                break;
+            }
+            if (skip >= buf.remaining())
+            {
+                skip -= buf.remaining();
+                continue;
+            }
+            buf.position(buf.position() + skip);
+            skip = 0;
+            int length = Math.min(buf.remaining(), dst.remaining());
+            buf.limit(buf.position() + length);
+            buf.get(dst);
+            written += length;
+        }
+        return written;
+    }
+
+    /**
+     * Returns the size of the content of the given message from the position of its last chunk, or -1 if the
+     * message has no content.
+     */
+    private int getContentSize(final Cursor cursor, final long messageId)
+    {
+        DatabaseEntry key = new DatabaseEntry();
+        DatabaseEntry value = new DatabaseEntry();
+        MessageContentKeyBinding.keyToEntry(messageId, Integer.MAX_VALUE, key);
+        OperationStatus status = cursor.getSearchKeyRange(key, value, LockMode.READ_UNCOMMITTED);
+        status = status == OperationStatus.SUCCESS
+                ? cursor.getPrev(key, value, LockMode.READ_UNCOMMITTED)
+                : cursor.getLast(key, value, LockMode.READ_UNCOMMITTED);
+        if (status == OperationStatus.SUCCESS
+            && MessageContentKeyBinding.entryToMessageId(key) == messageId
+            && MessageContentKeyBinding.entryToChunkIndex(key) >= 0)
+        {
+            return MessageContentKeyBinding.entryToChunkIndex(key) * MessageContentKeyBinding.CHUNK_SIZE
+                   + value.getSize();
+        }
+        return -1;
     }
 
     Collection<QpidByteBuffer> getAllContent(long messageId) throws StoreException
     {
-        DatabaseEntry contentKeyEntry = new DatabaseEntry();
-        LongBinding.longToEntry(messageId, contentKeyEntry);
+        DatabaseEntry key = new DatabaseEntry();
+        MessageContentKeyBinding.keyToEntry(messageId, MessageContentKeyBinding.ENCODING_CHUNK_INDEX, key);
         DatabaseEntry value = new DatabaseEntry();
 
         getLogger().debug("Message Id: {} Getting content body", messageId);
 
-        try
+        MessageContentBlobLog blobLog = _contentBlobLog;
+        if (blobLog != null)
         {
-            OperationStatus status = getMessageContentDb().get(null, contentKeyEntry, value, LockMode.READ_UNCOMMITTED);
-
-            if (status == OperationStatus.SUCCESS)
+            try
             {
-                byte[] data = value.getData();
-                int offset = value.getOffset();
-                int length = value.getSize();
-                Collection<QpidByteBuffer> buffers = QpidByteBuffer.allocateDirectCollection(length);
-                for(QpidByteBuffer buf : buffers)
+                Collection<QpidByteBuffer> content = blobLog.readAll(messageId);
+                if (content != null)
                 {
-                    int bufSize = buf.remaining();
-                    buf.put(data, offset, bufSize);
-                    buf.flip();
-                    offset+=bufSize;
+                    return content;
                 }
-                return buffers;
             }
-            else
+            catch (IOException e)
+            {
+                throw new StoreException("Error getting content for message with id " + messageId
+                                         + " from large message content log", e);
+            }
+        }
+
+        Cursor cursor = null;
+        List<QpidByteBuffer> buffers = new ArrayList<>();
+        try
+        {
+            cursor = getMessageContentDb().openCursor(null, null);
+            OperationStatus status = cursor.getSearchKeyRange(key, value, LockMode.READ_UNCOMMITTED);
+            if (status == OperationStatus.SUCCESS
+                && MessageContentKeyBinding.entryToMessageId(key) == messageId
+                && MessageContentKeyBinding.entryToChunkIndex(key) == MessageContentKeyBinding.ENCODING_CHUNK_INDEX)
+            {
+                return getDecodedContent(cursor, messageId, value);
+            }
+            if (status != OperationStatus.SUCCESS
+                || MessageContentKeyBinding.entryToMessageId(key) != messageId
+                || MessageContentKeyBinding.entryToChunkIndex(key) != 0)
             {
                 throw new StoreException("Unable to find message with id " + messageId);
             }
 
+            do
+            {
+                buffers.addAll(copyToDirectBuffers(value));
+            }
+            while (cursor.getNext(key, value, LockMode.READ_UNCOMMITTED) == OperationStatus.SUCCESS
+                   && MessageContentKeyBinding.entryToMessageId(key) == messageId);
+
+            return buffers;
         }
         catch (RuntimeException e)
         {
+            for (QpidByteBuffer buf : buffers)
+            {
+                buf.dispose();
+            }
             throw getEnvironmentFacade().handleDatabaseException("Error getting AMQMessage with id "
                                                                  + messageId
                                                                  + " to database: "
                                                                  + e.getMessage(), e);
         }
+        finally
+        {
+            closeCursorSafely(cursor, getEnvironmentFacade());
+        }
+    }
+
+    private static Collection<QpidByteBuffer> copyToDirectBuffers(final DatabaseEntry value)
+    {
+        Collection<QpidByteBuffer> buffers = QpidByteBuffer.allocateDirectCollection(value.getSize());
+        byte[] data = value.getData();
+        int offset = value.getOffset();
+        for (QpidByteBuffer buf : buffers)
+        {
+            int bufSize = buf.remaining();
+            buf.put(data, offset, bufSize);
+            buf.flip();
+            offset += bufSize;
+        }
+        return buffers;
+    }
+
+    /**
+     * Reads and decodes the chunks following the encoding record at which the cursor is positioned.
+     */
+    private Collection<QpidByteBuffer> getDecodedContent(final Cursor cursor,
+                                                         final long messageId,
+                                                         final DatabaseEntry encodingValue)
+    {
+        TupleInput input = TupleBinding.entryToInput(encodingValue);
+        int codecOrdinal = input.readInt();
+        int contentSize = input.readInt();
+
+        DatabaseEntry key = new DatabaseEntry();
+        DatabaseEntry value = new DatabaseEntry();
+        List<QpidByteBuffer> buffers = new ArrayList<>();
+        boolean success = false;
+        try
+        {
+            int position = 0;
+            while (position < contentSize
+                   && cursor.getNext(key, value, LockMode.READ_UNCOMMITTED) == OperationStatus.SUCCESS
+                   && MessageContentKeyBinding.entryToMessageId(key) == messageId)
+            {
+                int chunkIndex = MessageContentKeyBinding.entryToChunkIndex(key);
+                if (chunkIndex * MessageContentKeyBinding.CHUNK_SIZE != position)
+                {
+                    break;
+                }
+                int chunkLength = getChunkContentLength(contentSize, chunkIndex);
+                buffers.addAll(decodeContentChunk(messageId, codecOrdinal, chunkLength, value));
+                position += chunkLength;
+            }
+            if (position != contentSize)
+            {
+                throw new StoreException("Encoded content of message with id " + messageId
+                                         + " is shorter than the expected length " + contentSize);
+            }
+            success = true;
+            return buffers;
+        }
+        finally
+        {
+            if (!success)
+            {
+                for (QpidByteBuffer buf : buffers)
+                {
+                    buf.dispose();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the part of the content of the given size held by the chunk with the given index.
+     */
+    private static int getChunkContentLength(final int contentSize, final int chunkIndex)
+    {
+        return Math.min(MessageContentKeyBinding.CHUNK_SIZE,
+                        contentSize - chunkIndex * MessageContentKeyBinding.CHUNK_SIZE);
+    }
+
+    /**
+     * Decodes a chunk of encoded content into direct buffers, which must be disposed by the caller.  A chunk is stored
+     * encoded only if that made it smaller, so a chunk as long as the part of the content it holds is not encoded.
+     */
+    private Collection<QpidByteBuffer> decodeContentChunk(final long messageId,
+                                                          final int codecOrdinal,
+                                                          final int chunkLength,
+                                                          final DatabaseEntry value)
+    {
+        if (value.getSize() == chunkLength)
+        {
+            return copyToDirectBuffers(value);
+        }
+        try
+        {
+            return _contentEncoder.decode(codecOrdinal, value.getData(), value.getOffset(), value.getSize(), chunkLength);
+        }
+        catch (IOException e)
+        {
+            throw new StoreException("Error decoding content for message with id " + messageId, e);
+        }
     }
 
     private void visitMessagesInternal(MessageHandler handler, EnvironmentFacade environmentFacade)
@@ -419,7 +800,6 @@ public abstract class AbstractBDBMessageStore implements MessageStore
             cursor = getMessageMetaDataDb().openCursor(null, null);
             DatabaseEntry key = new DatabaseEntry();
             DatabaseEntry value = new DatabaseEntry();
-            MessageMetaDataBinding valueBinding = MessageMetaDataBinding.getInstance();
 
             int attempts = 0;
             boolean completed = false;
@@ -430,8 +810,8 @@ public abstract class AbstractBDBMessageStore implements MessageStore
                     while (cursor.getNext(key, value, LockMode.RMW) == OperationStatus.SUCCESS)
                     {
                         long messageId = LongBinding.entryToLong(key);
-                        StorableMessageMetaData metaData = valueBinding.entryToObject(value);
-                        StoredBDBMessage message = new StoredBDBMessage(messageId, metaData, true);
+                        // the meta-data is only deserialised if the handler asks for it
+                        StoredBDBMessage message = new StoredBDBMessage(messageId, copyEntry(value));
                         if (!handler.handle(message))
                         {
                             break;
@@ -488,18 +868,22 @@ public abstract class AbstractBDBMessageStore implements MessageStore
         }
     }
 
+    private static DatabaseEntry copyEntry(final DatabaseEntry entry)
+    {
+        byte[] data = Arrays.copyOfRange(entry.getData(), entry.getOffset(), entry.getOffset() + entry.getSize());
+        return new DatabaseEntry(data);
+    }
+
     private StoredBDBMessage<?> getMessageInternal(long messageId, EnvironmentFacade environmentFacade)
     {
         try
         {
             DatabaseEntry key = new DatabaseEntry();
             DatabaseEntry value = new DatabaseEntry();
-            MessageMetaDataBinding valueBinding = MessageMetaDataBinding.getInstance();
             LongBinding.longToEntry(messageId, key);
             if(getMessageMetaDataDb().get(null, key, value, LockMode.READ_COMMITTED) == OperationStatus.SUCCESS)
             {
-                StorableMessageMetaData metaData = valueBinding.entryToObject(value);
-                StoredBDBMessage message = new StoredBDBMessage(messageId, metaData, true);
+                StoredBDBMessage message = new StoredBDBMessage(messageId, value);
                 return message;
             }
             else
@@ -515,44 +899,119 @@ public abstract class AbstractBDBMessageStore implements MessageStore
     }
 
     /**
-     * Stores a chunk of message data.
+     * Stores the content of a message as a sequence of fixed size chunks, writing each chunk as it is filled so that
+     * the content is never copied in its entirety.  A message without content is stored as a single empty chunk.
+     * Content to be encoded is encoded a chunk at a time, so that any chunk can be decoded on its own.
      *
      * @param tx         The transaction for the operation.
      * @param messageId       The message to store the data for.
-     * @param contentBody     The content of the data chunk.
+     * @param contentBody     The content of the message.
      *
      * @throws org.apache.qpid.server.store.StoreException If the operation fails for any reason, or if the specified message does not exist.
      */
     private void addContent(final Transaction tx, long messageId,
                             Collection<QpidByteBuffer> contentBody) throws StoreException
     {
+        int size = 0;
+        for(QpidByteBuffer buf : contentBody)
+        {
+            size += buf.remaining();
+        }
+
+        MessageContentBlobLog blobLog = _contentBlobLog;
+        if (blobLog != null && blobLog.isLargeContent(size))
+        {
+            addContentReference(tx, messageId, contentBody, size, blobLog);
+            return;
+        }
+
+        MessageContentEncoder contentEncoder = _contentEncoder;
+        MessageContentEncoder encoder = contentEncoder.isEncoded(size) ? contentEncoder : null;
+        boolean encoded = false;
+
         DatabaseEntry key = new DatabaseEntry();
-        LongBinding.longToEntry(messageId, key);
         DatabaseEntry value = new DatabaseEntry();
+        byte[] chunk = new byte[Math.min(size, MessageContentKeyBinding.CHUNK_SIZE)];
+        int chunkIndex = 0;
+        int chunkLength = 0;
+        try
+        {
+            Database contentDb = getMessageContentDb();
+            for(QpidByteBuffer buf : contentBody)
+            {
+                QpidByteBuffer src = buf.duplicate();
+                try
+                {
+                    while (src.hasRemaining())
+                    {
+                        int length = Math.min(src.remaining(), chunk.length - chunkLength);
+                        src.get(chunk, chunkLength, length);
+                        chunkLength += length;
+                        if (chunkLength == chunk.length)
+                        {
+                            encoded |= putContentChunk(contentDb, tx, messageId, chunkIndex++, chunk, chunkLength,
+                                                       encoder, key, value);
+                            chunkLength = 0;
+                        }
+                    }
+                }
+                finally
+                {
+                    src.dispose();
+                }
+            }
+            if (chunkLength > 0 || chunkIndex == 0)
+            {
+                encoded |= putContentChunk(contentDb, tx, messageId, chunkIndex++, chunk, chunkLength,
+                                           encoder, key, value);
+            }
+            if (encoded)
+            {
+                putContentEncoding(contentDb, tx, messageId, size, encoder.getCodecOrdinal(), key, value);
+            }
 
-        int size = 0;
+            getLogger().debug("Storing content for message {} in {} chunk(s){} in transaction {}",
+                              messageId, chunkIndex, encoded ? " encoded" : "", tx);
 
-        for(QpidByteBuffer buf : contentBody)
+        }
+        catch (RuntimeException e)
         {
-            size += buf.remaining();
+            throw getEnvironmentFacade().handleDatabaseException("Error writing AMQMessage with id "
+                                                                 + messageId
+                                                                 + " to database: "
+                                                                 + e.getMessage(), e);
         }
-        byte[] data = new byte[size];
-        ByteBuffer dst = ByteBuffer.wrap(data);
-        for(QpidByteBuffer buf : contentBody)
+    }
+
+    /**
+     * Appends the content to the large message content log, then records only a reference to it in the transaction.
+     */
+    private void addContentReference(final Transaction tx, final long messageId,
+                                     final Collection<QpidByteBuffer> contentBody, final int size,
+                                     final MessageContentBlobLog blobLog)
+    {
+        try
+        {
+            blobLog.append(messageId, contentBody);
+        }
+        catch (IOException e)
         {
-            buf.copyTo(dst);
+            throw new StoreException("Error writing content for message id " + messageId
+                                     + " to large message content log " + blobLog.getDirectory(), e);
         }
-        value.setData(data);
+
+        DatabaseEntry key = new DatabaseEntry();
+        MessageContentKeyBinding.keyToEntry(messageId, MessageContentKeyBinding.REFERENCE_CHUNK_INDEX, key);
+        DatabaseEntry value = new DatabaseEntry();
+        IntegerBinding.intToEntry(size, value);
         try
         {
             OperationStatus status = getMessageContentDb().put(tx, key, value);
             if (status != OperationStatus.SUCCESS)
             {
-                throw new StoreException("Error adding content for message id " + messageId + ": " + status);
+                throw new StoreException("Error adding content reference for message id " + messageId + ": " + status);
             }
-
-            getLogger().debug("Storing content for message {} in transaction {}", messageId, tx);
-
+            getLogger().debug("Storing reference to content for message {} in transaction {}", messageId, tx);
         }
         catch (RuntimeException e)
         {
@@ -563,6 +1022,82 @@ public abstract class AbstractBDBMessageStore implements MessageStore
         }
     }
 
+    /**
+     * Records the codec with which chunks of the content of a message were encoded and the size of the content before
+     * encoding.
+     */
+    private void putContentEncoding(final Database contentDb, final Transaction tx, final long messageId,
+                                    final int size, final int codecOrdinal,
+                                    final DatabaseEntry key, final DatabaseEntry value)
+    {
+        MessageContentKeyBinding.keyToEntry(messageId, MessageContentKeyBinding.ENCODING_CHUNK_INDEX, key);
+        TupleOutput output = new TupleOutput(new byte[8]);
+        output.writeInt(codecOrdinal);
+        output.writeInt(size);
+        TupleBinding.outputToEntry(output, value);
+        OperationStatus status = contentDb.put(tx, key, value);
+        if (status != OperationStatus.SUCCESS)
+        {
+            throw new StoreException("Error adding content encoding for message id " + messageId + ": " + status);
+        }
+    }
+
+    /**
+     * Stores a chunk of content, encoded if an encoder is given and encoding reduces its size.  Returns true if the
+     * chunk was stored encoded.
+     */
+    private boolean putContentChunk(final Database contentDb, final Transaction tx, final long messageId,
+                                    final int chunkIndex, final byte[] chunk, final int length,
+                                    final MessageContentEncoder encoder,
+                                    final DatabaseEntry key, final DatabaseEntry value)
+    {
+        byte[] encodedChunk = encoder == null ? null : encoder.encodePart(chunk, 0, length);
+        if (encodedChunk == null)
+        {
+            putContentChunk(contentDb, tx, messageId, chunkIndex, chunk, 0, length, key, value);
+            return false;
+        }
+        putContentChunk(contentDb, tx, messageId, chunkIndex, encodedChunk, 0, encodedChunk.length, key, value);
+        return true;
+    }
+
+    private void putContentChunk(final Database contentDb, final Transaction tx, final long messageId,
+                                 final int chunkIndex, final byte[] chunk, final int offset, final int length,
+                                 final DatabaseEntry key, final DatabaseEntry value)
+    {
+        MessageContentKeyBinding.keyToEntry(messageId, chunkIndex, key);
+        value.setData(chunk, offset, length);
+        OperationStatus status = contentDb.put(tx, key, value);
+        if (status != OperationStatus.SUCCESS)
+        {
+            throw new StoreException("Error adding content for message id " + messageId + ": " + status);
+        }
+    }
+
+    private void deleteContent(final Transaction tx, final long messageId)
+    {
+        Cursor cursor = null;
+        try
+        {
+            cursor = getMessageContentDb().openCursor(tx, null);
+            DatabaseEntry key = new DatabaseEntry();
+            MessageContentKeyBinding.keyToEntry(messageId, MessageContentKeyBinding.ENCODING_CHUNK_INDEX, key);
+            DatabaseEntry value = new DatabaseEntry();
+            value.setPartial(0, 0, true);
+
+            OperationStatus status = cursor.getSearchKeyRange(key, value, LockMode.RMW);
+            while (status == OperationStatus.SUCCESS && MessageContentKeyBinding.entryToMessageId(key) == messageId)
+            {
+                cursor.delete();
+                status = cursor.getNext(key, value, LockMode.RMW);
+            }
+        }
+        finally
+        {
+            closeCursorSafely(cursor, getEnvironmentFacade());
+        }
+    }
+
     /**
      * Stores message meta-data.
      *
@@ -1030,11 +1565,20 @@ public abstract class AbstractBDBMessageStore implements MessageStore
 
         private MessageDataRef<T> _messageDataRef;
 
+        /** The serialised meta-data of a recovered message, held until the meta-data is first asked for. */
+        private DatabaseEntry _encodedMetaData;
+
         StoredBDBMessage(long messageId, T metaData)
         {
             this(messageId, metaData, false);
         }
 
+        StoredBDBMessage(long messageId, DatabaseEntry encodedMetaData)
+        {
+            this(messageId, null, true);
+            _encodedMetaData = encodedMetaData;
+        }
+
         StoredBDBMessage(long messageId, T metaData, boolean isRecovered)
         {
             _messageId = messageId;
@@ -1062,8 +1606,16 @@ public abstract class AbstractBDBMessageStore implements MessageStore
 
                 if (metaData == null)
                 {
-                    checkMessageStoreOpen();
-                    metaData = (T) getMessageMetaData(_messageId);
+                    if (_encodedMetaData != null)
+                    {
+                        metaData = (T) MessageMetaDataBinding.getInstance().entryToObject(_encodedMetaData);
+                        _encodedMetaData = null;
+                    }
+                    else
+                    {
+                        checkMessageStoreOpen();
+                        metaData = (T) getMessageMetaData(_messageId);
+                    }
                     _messageDataRef = new MessageDataSoftRef<>(metaData, _messageDataRef.getData());
                 }
                 return metaData;
@@ -1104,6 +1656,13 @@ public abstract class AbstractBDBMessageStore implements MessageStore
         @Override
         public synchronized int getContent(final ByteBuffer dst)
         {
+            if (_messageDataRef != null && _messageDataRef.getData() == null && stored())
+            {
+                // read straight from the store rather than faulting in the whole of the content
+                checkMessageStoreOpen();
+                return AbstractBDBMessageStore.this.getContent(_messageId, 0, dst);
+            }
+
             // These do not need to be disposed of because getContentAsByteBuffer() retains a reference
             Collection<QpidByteBuffer> allContent = getContentAsByteBuffer();
             int length = 0;
@@ -1221,6 +1780,14 @@ public abstract class AbstractBDBMessageStore implements MessageStore
             _messageDataRef = null;
         }
 
+        synchronized void prefetchContent()
+        {
+            if (stored())
+            {
+                getContentAsByteBuffer();
+            }
+        }
+
         @Override
         public synchronized boolean isInMemory()
         {
@@ -1232,6 +1799,25 @@ public abstract class AbstractBDBMessageStore implements MessageStore
             return _messageDataRef != null && !_messageDataRef.isHardRef();
         }
 
+        @Override
+        public synchronized void reallocate()
+        {
+            if (_messageDataRef != null)
+            {
+                T metaData = _messageDataRef.getMetaData();
+                if (metaData != null)
+                {
+                    metaData.reallocate();
+                }
+                Collection<QpidByteBuffer> data = _messageDataRef.getData();
+                Collection<QpidByteBuffer> reallocated = QpidByteBuffer.reallocateIfNecessary(data);
+                if (reallocated != data)
+                {
+                    _messageDataRef.setData(Collections.unmodifiableCollection(reallocated));
+                }
+            }
+        }
+
         @Override
         public synchronized boolean flowToDisk()
         {
@@ -1240,6 +1826,7 @@ public abstract class AbstractBDBMessageStore implements MessageStore
             if(_messageDataRef != null && !_messageDataRef.isHardRef())
             {
                 ((MessageDataSoftRef)_messageDataRef).clear();
+                _encodedMetaData = null;
             }
             return true;
         }
@@ -1458,8 +2045,48 @@ public abstract class AbstractBDBMessageStore implements MessageStore
 
     }
 
+    /**
+     * The meta-data read ahead for the current batch of a queue being visited, and the ids of the messages whose
+     * content is to be read in when they are looked up.
+     */
+    private static final class QueuePrefetch
+    {
+        private final Map<Long, DatabaseEntry> _metaData = new HashMap<>();
+        private final Set<Long> _contentIds = new HashSet<>();
+
+        private void clear()
+        {
+            _metaData.clear();
+            _contentIds.clear();
+        }
+    }
+
     private class BDBMessageStoreReader implements MessageStoreReader
     {
+        // a gap between the ids of a queue's messages small enough to be skipped by stepping through the meta-data
+        private static final int META_DATA_SCAN_DISTANCE = 16;
+
+        private final int _recoveryBatchSize;
+        private final int _contentPrefetchCount;
+        // the reader may visit several queues at once, each on its own thread, so what has been prefetched for a
+        // queue is held by that visit and found by getMessage() through the visiting thread
+        private final ThreadLocal<QueuePrefetch> _currentPrefetch = new ThreadLocal<>();
+
+        private BDBMessageStoreReader()
+        {
+            _recoveryBatchSize = Math.max(1, getContextValue(BDBVirtualHost.QPID_BROKER_BDB_RECOVERY_BATCH_SIZE,
+                                                             BDBVirtualHost.DEFAULT_RECOVERY_BATCH_SIZE));
+            _contentPrefetchCount = getContextValue(BDBVirtualHost.QPID_BROKER_BDB_RECOVERY_CONTENT_PREFETCH,
+                                                    BDBVirtualHost.DEFAULT_RECOVERY_CONTENT_PREFETCH);
+        }
+
+        private int getContextValue(final String name, final int defaultValue)
+        {
+            ConfiguredObject<?> parent = getParent();
+            Integer value = parent == null ? null : parent.getContextValue(Integer.class, name);
+            return value == null ? defaultValue : value;
+        }
+
         @Override
         public void visitMessages(final MessageHandler handler) throws StoreException
         {
@@ -1471,70 +2098,170 @@ public abstract class AbstractBDBMessageStore implements MessageStore
         public StoredMessage<?> getMessage(final long messageId)
         {
             checkMessageStoreOpen();
-            return getMessageInternal(messageId, getEnvironmentFacade());
+            QueuePrefetch prefetch = _currentPrefetch.get();
+            DatabaseEntry encodedMetaData = prefetch == null ? null : prefetch._metaData.remove(messageId);
+            StoredBDBMessage<?> message = encodedMetaData == null
+                    ? getMessageInternal(messageId, getEnvironmentFacade())
+                    : new StoredBDBMessage(messageId, encodedMetaData);
+            if (message != null && prefetch != null && prefetch._contentIds.remove(messageId))
+            {
+                try
+                {
+                    message.prefetchContent();
+                }
+                catch (StoreException e)
+                {
+                    getLogger().debug("Failed to prefetch content of message {}", messageId, e);
+                }
+            }
+            return message;
         }
 
         @Override
         public void close()
         {
-
         }
 
         @Override
         public void visitMessageInstances(final TransactionLogResource queue, final MessageInstanceHandler handler) throws StoreException
         {
             checkMessageStoreOpen();
+            visitMessageInstancesInternal(queue.getId(), handler);
+        }
+
+        @Override
+        public void visitMessageInstances(final MessageInstanceHandler handler) throws StoreException
+        {
+            checkMessageStoreOpen();
+            visitMessageInstancesInternal(null, handler);
+        }
+
+        /**
+         * Passes the queue entries of the given queue, or of all queues if the queue id is null, to the handler in key
+         * order.  The entries are read in batches, so the first are handled without waiting for the whole of the queue
+         * to be read, and no cursor is held open while the handler is called.
+         *
+         * When visiting a single queue the meta-data of each batch's messages is read in the same pass, to be
+         * deserialised only when the message is looked up, and the content of the first messages on the queue is read
+         * in so they are ready to be delivered.  The time taken before a queue's first message can be delivered then
+         * does not depend on the number of messages held by the store.
+         */
+        private void visitMessageInstancesInternal(final UUID queueId, final MessageInstanceHandler handler)
+        {
+            final QueuePrefetch prefetch = queueId == null ? null : new QueuePrefetch();
+            final QueuePrefetch previousPrefetch = _currentPrefetch.get();
+            _currentPrefetch.set(prefetch);
+            try
+            {
+                List<QueueEntryKey> batch = new ArrayList<>();
+                // a null key starts from the first entry of the store; once started a null key means there are no more
+                QueueEntryKey next = queueId == null ? null : new QueueEntryKey(queueId, 0l);
+                boolean headOfQueue = true;
+                do
+                {
+                    next = readQueueEntries(next, queueId, batch);
+                    if (prefetch != null)
+                    {
+                        prefetchMetaData(batch, prefetch);
+                        if (headOfQueue)
+                        {
+                            for (int i = 0; i < Math.min(_contentPrefetchCount, batch.size()); i++)
+                            {
+                                prefetch._contentIds.add(batch.get(i).getMessageId());
+                            }
+                            headOfQueue = false;
+                        }
+                    }
+
+                    try
+                    {
+                        for (QueueEntryKey entry : batch)
+                        {
+                            if (!handler.handle(new BDBEnqueueRecord(entry.getQueueId(), entry.getMessageId())))
+                            {
+                                return;
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        if (prefetch != null)
+                        {
+                            prefetch.clear();
+                        }
+                    }
+                }
+                while (next != null);
+            }
+            finally
+            {
+                if (previousPrefetch == null)
+                {
+                    _currentPrefetch.remove();
+                }
+                else
+                {
+                    _currentPrefetch.set(previousPrefetch);
+                }
+            }
+        }
 
+        /**
+         * Reads up to a batch of queue entries into the given list, starting from the given key or, if that is null,
+         * from the first entry of the store.  Returns the key from which to read the next batch, or null if there are
+         * no more entries to read.
+         */
+        private QueueEntryKey readQueueEntries(final QueueEntryKey from,
+                                               final UUID queueId,
+                                               final List<QueueEntryKey> entries)
+        {
             Cursor cursor = null;
-            List<QueueEntryKey> entries = new ArrayList<QueueEntryKey>();
             try
             {
                 cursor = getDeliveryDb().openCursor(null, null);
                 DatabaseEntry key = new DatabaseEntry();
                 DatabaseEntry value = new DatabaseEntry();
-
+                value.setPartial(0, 0, true);
                 QueueEntryBinding keyBinding = QueueEntryBinding.getInstance();
-                keyBinding.objectToEntry(new QueueEntryKey(queue.getId(),0l), key);
 
-                boolean searchCompletedSuccessfully = false;
                 int attempts = 0;
-                boolean completed = false;
-                do
+                while (true)
                 {
+                    entries.clear();
                     try
                     {
-                        if (!searchCompletedSuccessfully && (searchCompletedSuccessfully = cursor.getSearchKeyRange(key,value, LockMode.DEFAULT) == OperationStatus.SUCCESS))
+                        OperationStatus status;
+                        if (from == null)
                         {
-                            QueueEntryKey entry = keyBinding.entryToObject(key);
-                            if(entry.getQueueId().equals(queue.getId()))
-                            {
-                                entries.add(entry);
-                            }
+                            status = cursor.getFirst(key, value, LockMode.DEFAULT);
+                        }
+                        else
+                        {
+                            keyBinding.objectToEntry(from, key);
+                            status = cursor.getSearchKeyRange(key, value, LockMode.DEFAULT);
                         }
 
-                        if (searchCompletedSuccessfully)
+                        while (status == OperationStatus.SUCCESS)
                         {
-                            while(cursor.getNext(key, value, LockMode.DEFAULT) == OperationStatus.SUCCESS)
+                            QueueEntryKey entry = keyBinding.entryToObject(key);
+                            if (queueId != null && !queueId.equals(entry.getQueueId()))
+                            {
+                                return null;
+                            }
+                            if (entries.size() == _recoveryBatchSize)
                             {
-                                QueueEntryKey entry = keyBinding.entryToObject(key);
-                                if(entry.getQueueId().equals(queue.getId()))
-                                {
-                                    entries.add(entry);
-                                }
-                                else
-                                {
-                                    break;
-                                }
+                                return entry;
                             }
+                            entries.add(entry);
+                            status = cursor.getNext(key, value, LockMode.DEFAULT);
                         }
-                        completed = true;
+                        return null;
                     }
                     catch (LockConflictException e)
                     {
                         sleepOrThrowOnLockConflict(attempts++, "Cannot visit messages", e);
                     }
                 }
-                while (!completed);
             }
             catch (RuntimeException e)
             {
@@ -1544,60 +2271,66 @@ public abstract class AbstractBDBMessageStore implements MessageStore
             {
                 closeCursorSafely(cursor, getEnvironmentFacade());
             }
-
-            for(QueueEntryKey entry : entries)
-            {
-                UUID queueId = entry.getQueueId();
-                long messageId = entry.getMessageId();
-                if (!handler.handle(new BDBEnqueueRecord(queueId, messageId)))
-                {
-                    break;
-                }
-            }
-
         }
 
-
-
-        @Override
-        public void visitMessageInstances(final MessageInstanceHandler handler) throws StoreException
+        /**
+         * Reads the meta-data of the messages of the given queue entries, which are in message id order, in a single
+         * pass over the meta-data database.
+         */
+        private void prefetchMetaData(final List<QueueEntryKey> entries, final QueuePrefetch prefetch)
         {
-            checkMessageStoreOpen();
+            if (entries.isEmpty())
+            {
+                return;
+            }
 
             Cursor cursor = null;
-            List<QueueEntryKey> entries = new ArrayList<QueueEntryKey>();
             try
             {
-                cursor = getDeliveryDb().openCursor(null, null);
+                cursor = getMessageMetaDataDb().openCursor(null, null);
                 DatabaseEntry key = new DatabaseEntry();
-                QueueEntryBinding keyBinding = QueueEntryBinding.getInstance();
-
                 DatabaseEntry value = new DatabaseEntry();
-                while (cursor.getNext(key, value, LockMode.DEFAULT) == OperationStatus.SUCCESS)
+                boolean positioned = false;
+                long current = 0l;
+                for (QueueEntryKey entry : entries)
                 {
-                    QueueEntryKey entry = keyBinding.entryToObject(key);
-                    entries.add(entry);
+                    long messageId = entry.getMessageId();
+                    if (positioned && current < messageId && messageId - current <= META_DATA_SCAN_DISTANCE)
+                    {
+                        while (current < messageId)
+                        {
+                            if (cursor.getNext(key, value, LockMode.READ_COMMITTED) != OperationStatus.SUCCESS)
+                            {
+                                return;
+                            }
+                            current = LongBinding.entryToLong(key);
+                        }
+                    }
+                    else if (!positioned || current < messageId)
+                    {
+                        LongBinding.longToEntry(messageId, key);
+                        if (cursor.getSearchKeyRange(key, value, LockMode.READ_COMMITTED) != OperationStatus.SUCCESS)
+                        {
+                            return;
+                        }
+                        current = LongBinding.entryToLong(key);
+                        positioned = true;
+                    }
+
+                    if (current == messageId)
+                    {
+                        prefetch._metaData.put(messageId, copyEntry(value));
+                    }
                 }
             }
             catch (RuntimeException e)
             {
-                throw getEnvironmentFacade().handleDatabaseException("Cannot visit message instances", e);
+                throw getEnvironmentFacade().handleDatabaseException("Cannot read message meta-data", e);
             }
             finally
             {
                 closeCursorSafely(cursor, getEnvironmentFacade());
             }
-
-            for(QueueEntryKey entry : entries)
-            {
-                UUID queueId = entry.getQueueId();
-                long messageId = entry.getMessageId();
-                if (!handler.handle(new BDBEnqueueRecord(queueId, messageId)))
-                {
-                    break;
-                }
-            }
-
         }
 
         @Override
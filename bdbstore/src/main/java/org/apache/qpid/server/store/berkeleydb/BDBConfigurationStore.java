@@ -45,6 +45,7 @@ import org.apache.qpid.server.model.ConfiguredObject;
 import org.apache.qpid.server.store.ConfiguredObjectRecord;
 import org.apache.qpid.server.store.DurableConfigurationStore;
 import org.apache.qpid.server.store.FileBasedSettings;
+import org.apache.qpid.server.store.MessageContentBlobLog;
 import org.apache.qpid.server.store.MessageStore;
 import org.apache.qpid.server.store.MessageStoreProvider;
 import org.apache.qpid.server.store.SizeMonitoringSettings;
@@ -65,7 +66,7 @@ public class BDBConfigurationStore implements MessageStoreProvider, DurableConfi
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(BDBConfigurationStore.class);
 
-    public static final int VERSION = 8;
+    public static final int VERSION = 9;
     private static final String CONFIGURED_OBJECTS_DB_NAME = "CONFIGURED_OBJECTS";
     private static final String CONFIGURED_OBJECT_HIERARCHY_DB_NAME = "CONFIGURED_OBJECT_HIERARCHY";
 
@@ -549,6 +550,7 @@ public class BDBConfigurationStore implements MessageStoreProvider, DurableConfi
         public void closeMessageStore()
         {
             _messageStoreOpen.set(false);
+            closeContentBlobLog();
         }
 
         @Override
@@ -560,7 +562,8 @@ public class BDBConfigurationStore implements MessageStoreProvider, DurableConfi
         @Override
         public void onDelete(ConfiguredObject<?> parent)
         {
-            // Nothing to do, message store will be deleted when configuration store is deleted
+            // The message store will be deleted when configuration store is deleted, but not the large content log
+            MessageContentBlobLog.delete(parent);
         }
 
         @Override
@@ -29,6 +29,7 @@ import org.slf4j.LoggerFactory;
 
 import org.apache.qpid.server.model.ConfiguredObject;
 import org.apache.qpid.server.store.FileBasedSettings;
+import org.apache.qpid.server.store.MessageContentBlobLog;
 import org.apache.qpid.server.store.SizeMonitoringSettings;
 import org.apache.qpid.server.store.StoreException;
 import org.apache.qpid.util.FileUtils;
@@ -86,6 +87,7 @@ public class BDBMessageStore extends AbstractBDBMessageStore
     {
         if (_messageStoreOpen.compareAndSet(true, false))
         {
+            closeContentBlobLog();
             if (_environmentFacade != null)
             {
                 try
@@ -120,6 +122,7 @@ public class BDBMessageStore extends AbstractBDBMessageStore
                 LOGGER.info("Failed to delete the store at location " + storePath);
             }
         }
+        MessageContentBlobLog.delete(parent);
     }
 
     @Override
@@ -140,6 +140,21 @@ public class BDBUtils
         return Collections.unmodifiableMap(parameters);
     }
 
+    public static <T> T getFacadeParameter(final ConfiguredObject<?> object,
+                                           final Class<T> parameterClass,
+                                           final String parameterName,
+                                           final T defaultValue)
+    {
+        if (object.getContextKeys(false).contains(parameterName))
+        {
+            return object.getContextValue(parameterClass, parameterName);
+        }
+        else
+        {
+            return defaultValue;
+        }
+    }
+
     private static Map<String, String> getContextSettingsWithNameMatchingRegExpPattern(ConfiguredObject<?> object, Pattern pattern)
     {
         Map<String, String> targetMap = new HashMap<>();
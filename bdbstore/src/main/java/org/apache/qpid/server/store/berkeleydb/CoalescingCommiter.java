@@ -29,6 +29,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -38,11 +39,48 @@ import org.slf4j.LoggerFactory;
 
 public class CoalescingCommiter implements Committer
 {
+    public static final String MAX_BATCH_SIZE_PROPERTY_NAME = "qpid.bdb.commit.max_batch_size";
+    public static final String MAX_LINGER_PROPERTY_NAME = "qpid.bdb.commit.max_linger_micros";
+    public static final String ADAPTIVE_LINGER_PROPERTY_NAME = "qpid.bdb.commit.adaptive_linger";
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 0;
+    private static final int DEFAULT_MAX_LINGER = 0;
+    private static final boolean DEFAULT_ADAPTIVE_LINGER = false;
+
     private final CommitThread _commitThread;
 
-    public CoalescingCommiter(String name, EnvironmentFacade environmentFacade)
+    public CoalescingCommiter(String name,
+                              StandardEnvironmentConfiguration configuration,
+                              CommitStatistics statistics,
+                              EnvironmentFacade environmentFacade)
+    {
+        this(name,
+             configuration.getFacadeParameter(MAX_BATCH_SIZE_PROPERTY_NAME, DEFAULT_MAX_BATCH_SIZE),
+             configuration.getFacadeParameter(MAX_LINGER_PROPERTY_NAME, DEFAULT_MAX_LINGER),
+             configuration.getFacadeParameter(ADAPTIVE_LINGER_PROPERTY_NAME, DEFAULT_ADAPTIVE_LINGER),
+             statistics,
+             environmentFacade);
+    }
+
+    /**
+     * @param maxBatchSize the most transactions made durable by one log flush, or zero for no limit
+     * @param maxLingerMicros the longest the commit thread waits for further transactions to arrive before flushing
+     * @param adaptiveLinger whether the commit thread waits less than the maximum linger, or not at all, according to
+     *                       the rate at which transactions are arriving
+     */
+    CoalescingCommiter(String name,
+                       int maxBatchSize,
+                       long maxLingerMicros,
+                       boolean adaptiveLinger,
+                       CommitStatistics statistics,
+                       EnvironmentFacade environmentFacade)
     {
-        _commitThread = new CommitThread("Commit-Thread-" + name, environmentFacade);
+        _commitThread = new CommitThread("Commit-Thread-" + name,
+                                         Math.max(0, maxBatchSize),
+                                         TimeUnit.MICROSECONDS.toNanos(Math.max(0l, maxLingerMicros)),
+                                         adaptiveLinger,
+                                         statistics,
+                                         environmentFacade);
     }
 
     @Override
@@ -91,7 +129,7 @@ public class CoalescingCommiter implements Committer
     }
 
 
-    private static final class BDBCommitFutureResult<X> implements CommitThreadJob
+    private static final class BDBCommitFutureResult<X> extends CommitThreadJob
     {
         private final X _value;
         private final ThreadNotifyingSettableFuture<X> _future;
@@ -114,11 +152,18 @@ public class CoalescingCommiter implements Committer
         }
     }
 
-    private interface CommitThreadJob
+    private static abstract class CommitThreadJob
     {
-        void complete();
+        private final long _createTime = System.nanoTime();
 
-        void abort(RuntimeException e);
+        abstract void complete();
+
+        abstract void abort(RuntimeException e);
+
+        long getCreateTime()
+        {
+            return _createTime;
+        }
     }
 
     /**
@@ -127,23 +172,46 @@ public class CoalescingCommiter implements Committer
      * continuing, but it is the responsibility of this thread to tell the commit operations when they have been
      * completed by calling back on their {@link org.apache.qpid.server.store.berkeleydb.CoalescingCommiter.BDBCommitFutureResult#complete()} and {@link org.apache.qpid.server.store.berkeleydb.CoalescingCommiter.BDBCommitFutureResult#abort} methods.
      *
+     * <p/>Once woken with operations queued the thread may linger, waiting for further operations to arrive so that one
+     * log flush makes more of them durable, until the linger time has passed or the batch is full.  With adaptive
+     * linger the thread only waits as long as the observed arrival rate suggests it takes to fill the batch, and does
+     * not wait at all when operations arrive further apart than the maximum linger.
+     *
      * <p/><table id="crc"><caption>CRC Card</caption> <tr><th> Responsibilities <th> Collaborations </table>
      */
     private static class CommitThread extends Thread
     {
         private static final Logger LOGGER = LoggerFactory.getLogger(CommitThread.class);
         private static final int JOB_QUEUE_NOTIFY_THRESHOLD = 8;
+        // weight given to the latest sample in the moving average of the time between arrivals
+        private static final int INTER_ARRIVAL_SMOOTHING = 8;
 
         private final AtomicBoolean _stopped = new AtomicBoolean(false);
         private final Queue<CommitThreadJob> _jobQueue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger _jobQueueSize = new AtomicInteger();
         private final Object _lock = new Object();
         private final EnvironmentFacade _environmentFacade;
+        private final int _maxBatchSize;
+        private final long _maxLingerNanos;
+        private final boolean _adaptiveLinger;
+        private final CommitStatistics _statistics;
 
         private final List<CommitThreadJob> _inProcessJobs = new ArrayList<>(256);
-
-        public CommitThread(String name, EnvironmentFacade environmentFacade)
+        private long _lastBatchTime;
+        private long _meanInterArrivalNanos = -1l;
+
+        public CommitThread(String name,
+                            int maxBatchSize,
+                            long maxLingerNanos,
+                            boolean adaptiveLinger,
+                            CommitStatistics statistics,
+                            EnvironmentFacade environmentFacade)
         {
             super(name);
+            _maxBatchSize = maxBatchSize;
+            _maxLingerNanos = maxLingerNanos;
+            _adaptiveLinger = adaptiveLinger;
+            _statistics = statistics;
             _environmentFacade = environmentFacade;
         }
 
@@ -173,39 +241,92 @@ public class CoalescingCommiter implements Committer
                         {
                         }
                     }
+                    linger();
                 }
                 processJobs();
             }
         }
 
+        private void linger()
+        {
+            long lingerNanos = getLingerNanos();
+            if (lingerNanos > 0)
+            {
+                long deadline = System.nanoTime() + lingerNanos;
+                long remaining = lingerNanos;
+                while (!_stopped.get() && !isBatchFull() && remaining > 0)
+                {
+                    try
+                    {
+                        _lock.wait(remaining / 1000000l, (int) (remaining % 1000000l));
+                    }
+                    catch (InterruptedException e)
+                    {
+                    }
+                    remaining = deadline - System.nanoTime();
+                }
+            }
+        }
+
+        private long getLingerNanos()
+        {
+            if (!_adaptiveLinger || _maxLingerNanos == 0)
+            {
+                return _maxLingerNanos;
+            }
+            else if (_meanInterArrivalNanos < 0 || _meanInterArrivalNanos >= _maxLingerNanos)
+            {
+                // another operation is unlikely to arrive before the linger time is up
+                return 0;
+            }
+            else if (_maxBatchSize > 0)
+            {
+                long remainingJobs = Math.max(0, _maxBatchSize - _jobQueueSize.get());
+                return Math.min(_maxLingerNanos, _meanInterArrivalNanos * remainingJobs);
+            }
+            else
+            {
+                return _maxLingerNanos;
+            }
+        }
+
+        private boolean isBatchFull()
+        {
+            return _maxBatchSize > 0 && _jobQueueSize.get() >= _maxBatchSize;
+        }
+
         private void processJobs()
         {
             CommitThreadJob job;
-            while((job = _jobQueue.poll()) != null)
+            while((_maxBatchSize == 0 || _inProcessJobs.size() < _maxBatchSize) && (job = _jobQueue.poll()) != null)
             {
+                _jobQueueSize.decrementAndGet();
                 _inProcessJobs.add(job);
             }
 
             int completedJobsIndex = 0;
             try
             {
-                long startTime = 0;
-                if(LOGGER.isDebugEnabled())
-                {
-                    startTime = System.currentTimeMillis();
-                }
+                long startTime = System.nanoTime();
+                updateInterArrivalTime(startTime, _inProcessJobs.size());
 
                 _environmentFacade.flushLog();
 
+                long completionTime = System.nanoTime();
                 if(LOGGER.isDebugEnabled())
                 {
-                    long duration = System.currentTimeMillis() - startTime;
-                    LOGGER.debug("flushLog completed in " + duration  + " ms");
+                    LOGGER.debug("flushLog completed in " + TimeUnit.NANOSECONDS.toMillis(completionTime - startTime) + " ms");
+                }
+                if (!_inProcessJobs.isEmpty())
+                {
+                    _statistics.recordFlush(_inProcessJobs.size(), completionTime - startTime);
                 }
 
                 while(completedJobsIndex < _inProcessJobs.size())
                 {
-                    _inProcessJobs.get(completedJobsIndex).complete();
+                    CommitThreadJob completedJob = _inProcessJobs.get(completedJobsIndex);
+                    completedJob.complete();
+                    _statistics.recordCommit(completionTime - completedJob.getCreateTime());
                     completedJobsIndex++;
                 }
 
@@ -242,6 +363,18 @@ public class CoalescingCommiter implements Committer
             }
         }
 
+        private void updateInterArrivalTime(final long batchTime, final int batchSize)
+        {
+            if (_lastBatchTime != 0 && batchSize > 0)
+            {
+                long sample = (batchTime - _lastBatchTime) / batchSize;
+                _meanInterArrivalNanos = _meanInterArrivalNanos < 0
+                        ? sample
+                        : _meanInterArrivalNanos + (sample - _meanInterArrivalNanos) / INTER_ARRIVAL_SMOOTHING;
+            }
+            _lastBatchTime = batchTime;
+        }
+
         private boolean hasJobs()
         {
             return !_jobQueue.isEmpty();
@@ -254,7 +387,8 @@ public class CoalescingCommiter implements Committer
                 throw new IllegalStateException("Commit thread is stopped");
             }
             _jobQueue.add(commit);
-            if(sync || _jobQueue.size() >= JOB_QUEUE_NOTIFY_THRESHOLD)
+            int queueSize = _jobQueueSize.incrementAndGet();
+            if(sync || queueSize == JOB_QUEUE_NOTIFY_THRESHOLD || queueSize == _maxBatchSize)
             {
                 synchronized (_lock)
                 {
@@ -275,6 +409,7 @@ public class CoalescingCommiter implements Committer
                     _environmentFacade.flushLog();
                     while ((commit = _jobQueue.poll()) != null)
                     {
+                        _jobQueueSize.decrementAndGet();
                         commit.complete();
                     }
                 }
@@ -284,6 +419,7 @@ public class CoalescingCommiter implements Committer
                     int abortedCommits = 0;
                     while ((commit = _jobQueue.poll()) != null)
                     {
+                        _jobQueueSize.decrementAndGet();
                         abortedCommits++;
                         commit.abort(e);
                     }
@@ -341,7 +477,7 @@ public class CoalescingCommiter implements Committer
         }
     }
 
-    private class SynchronousCommitThreadJob implements CommitThreadJob
+    private class SynchronousCommitThreadJob extends CommitThreadJob
     {
         private boolean _done;
         private RuntimeException _exception;
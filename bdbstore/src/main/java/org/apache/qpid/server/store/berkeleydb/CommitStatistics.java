@@ -0,0 +1,75 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store.berkeleydb;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.server.util.Histogram;
+
+/**
+ * Statistics of the transactions committed to disk by a {@link CoalescingCommiter}, in microseconds.
+ *
+ * The commit latency of a transaction runs from its being handed to the committer until the log flush which made it
+ * durable has completed, so comparing it with the flush time shows how much of it was spent waiting to be coalesced.
+ */
+public class CommitStatistics
+{
+    private final Histogram _commitLatency = new Histogram();
+    private final Histogram _flushTime = new Histogram();
+    private final Histogram _batchSize = new Histogram();
+
+    void recordCommit(final long latencyNanos)
+    {
+        _commitLatency.record(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+    }
+
+    void recordFlush(final int batchSize, final long flushTimeNanos)
+    {
+        _batchSize.record(batchSize);
+        _flushTime.record(TimeUnit.NANOSECONDS.toMicros(flushTimeNanos));
+    }
+
+    public Histogram getCommitLatency()
+    {
+        return _commitLatency;
+    }
+
+    public Histogram getFlushTime()
+    {
+        return _flushTime;
+    }
+
+    public Histogram getBatchSize()
+    {
+        return _batchSize;
+    }
+
+    public Map<String, Map<String, Long>> getHistograms()
+    {
+        Map<String, Map<String, Long>> histograms = new LinkedHashMap<>();
+        histograms.put("commitLatency", _commitLatency.getBuckets());
+        histograms.put("flushTime", _flushTime.getBuckets());
+        histograms.put("batchSize", _batchSize.getBuckets());
+        return histograms;
+    }
+}
@@ -69,6 +69,8 @@ public interface EnvironmentFacade
 
     void flushLog();
 
+    CommitStatistics getCommitStatistics();
+
     void setCacheSize(long cacheSize);
 
 }
@@ -36,4 +36,6 @@ public interface HASettings extends FileBasedSettings
     int getQuorumOverride();
 
     String getHelperNodeName();
+
+    int getReplayQueueSize();
 }
@@ -26,4 +26,6 @@ public interface StandardEnvironmentConfiguration
     String getName();
     String getStorePath();
     Map<String, String> getParameters();
+    int getFacadeParameter(String parameterName, int defaultValue);
+    boolean getFacadeParameter(String parameterName, boolean defaultValue);
 }
@@ -58,6 +58,7 @@ public class StandardEnvironmentFacade implements EnvironmentFacade
     private final AtomicReference<Environment> _environment;
 
     private final Committer _committer;
+    private final CommitStatistics _commitStatistics = new CommitStatistics();
     private final File _environmentPath;
 
     public StandardEnvironmentFacade(StandardEnvironmentConfiguration configuration)
@@ -122,7 +123,7 @@ public class StandardEnvironmentFacade implements EnvironmentFacade
             }
         }
 
-        _committer =  new CoalescingCommiter(name, this);
+        _committer =  new CoalescingCommiter(name, configuration, _commitStatistics, this);
         _committer.start();
     }
 
@@ -217,6 +218,12 @@ public class StandardEnvironmentFacade implements EnvironmentFacade
         }
     }
 
+    @Override
+    public CommitStatistics getCommitStatistics()
+    {
+        return _commitStatistics;
+    }
+
     @Override
     public void setCacheSize(long cacheSize)
     {
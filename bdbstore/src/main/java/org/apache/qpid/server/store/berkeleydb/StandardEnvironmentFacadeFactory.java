@@ -64,6 +64,18 @@ public class StandardEnvironmentFacadeFactory implements EnvironmentFacadeFactor
             {
                 return BDBUtils.getEnvironmentConfigurationParameters(parent);
             }
+
+            @Override
+            public int getFacadeParameter(final String parameterName, final int defaultValue)
+            {
+                return BDBUtils.getFacadeParameter(parent, Integer.class, parameterName, defaultValue);
+            }
+
+            @Override
+            public boolean getFacadeParameter(final String parameterName, final boolean defaultValue)
+            {
+                return BDBUtils.getFacadeParameter(parent, Boolean.class, parameterName, defaultValue);
+            }
         };
 
         return new StandardEnvironmentFacade(sec);
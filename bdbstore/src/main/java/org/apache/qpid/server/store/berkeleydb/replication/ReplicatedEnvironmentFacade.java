@@ -82,6 +82,7 @@ import org.apache.qpid.server.configuration.IllegalConfigurationException;
 import org.apache.qpid.server.store.StoreException;
 import org.apache.qpid.server.store.berkeleydb.BDBUtils;
 import org.apache.qpid.server.store.berkeleydb.CoalescingCommiter;
+import org.apache.qpid.server.store.berkeleydb.CommitStatistics;
 import org.apache.qpid.server.store.berkeleydb.EnvHomeRegistry;
 import org.apache.qpid.server.store.berkeleydb.EnvironmentFacade;
 import org.apache.qpid.server.store.berkeleydb.logging.Slf4jLoggingHandler;
@@ -182,6 +183,12 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
 
     public static final String PERMITTED_NODE_LIST = "permittedNodes";
 
+    /**
+     * Size of the queue between the thread reading the replication stream from the master and the thread replaying it,
+     * allowing a replica to go on receiving the stream whilst replay catches up.
+     */
+    static final String REPLICA_MESSAGE_QUEUE_SIZE = "je.rep.replicaMessageQueueSize";
+
     private final ReplicatedEnvironmentConfiguration _configuration;
     private final String _prettyGroupNodeName;
     private final File _environmentDirectory;
@@ -192,6 +199,7 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
     private final AtomicReference<State> _state = new AtomicReference<State>(State.OPENING);
     private final ConcurrentMap<String, ReplicationNode> _remoteReplicationNodes = new ConcurrentHashMap<String, ReplicationNode>();
     private final AtomicReference<ReplicationGroupListener> _replicationGroupListener = new AtomicReference<ReplicationGroupListener>();
+    private final AtomicReference<ReplicationLagListener> _replicationLagListener = new AtomicReference<>();
     private final AtomicReference<StateChangeListener> _stateChangeListener = new AtomicReference<StateChangeListener>();
     private final Durability _defaultDurability;
     private final ConcurrentMap<String, Database> _cachedDatabases = new ConcurrentHashMap<>();
@@ -202,7 +210,9 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
     private volatile Durability _realMessageStoreDurability = null;
     private volatile Durability _messageStoreDurability;
     private volatile CoalescingCommiter _coalescingCommiter = null;
+    private final CommitStatistics _commitStatistics = new CommitStatistics();
     private volatile long _joinTime;
+    private volatile long _replicationLag;
     private volatile ReplicatedEnvironment.State _lastKnownEnvironmentState;
     private volatile long _envSetupTimeoutMillis;
     /** Flag set true when JE need to discard transactions in order to rejoin the group */
@@ -676,6 +686,12 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
         }
     }
 
+    @Override
+    public CommitStatistics getCommitStatistics()
+    {
+        return _commitStatistics;
+    }
+
     @Override
     public void setCacheSize(final long cacheSize)
     {
@@ -1058,6 +1074,15 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
         }
     }
 
+    /**
+     * Returns the number of replication log entries by which this node trails the master or, on the master, by which
+     * the furthest behind replica trails it, as of the last time the state of the other nodes was discovered.
+     */
+    public long getReplicationLag()
+    {
+        return _replicationLag;
+    }
+
     private ReplicationGroupAdmin createReplicationGroupAdmin()
     {
         final Set<InetSocketAddress> helpers = new HashSet<InetSocketAddress>();
@@ -1299,6 +1324,10 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
         }
 
         Map<String, String> replicationEnvironmentParameters = new HashMap<>(ReplicatedEnvironmentFacade.REPCONFIG_DEFAULTS);
+        if (_configuration.getReplayQueueSize() > 0)
+        {
+            replicationEnvironmentParameters.put(REPLICA_MESSAGE_QUEUE_SIZE, String.valueOf(_configuration.getReplayQueueSize()));
+        }
         replicationEnvironmentParameters.putAll(_configuration.getReplicationParameters());
 
         ReplicationConfig replicationConfig = new ReplicationConfig(groupName, nodeName, hostPort);
@@ -1479,6 +1508,11 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
         }
     }
 
+    public void setReplicationLagListener(ReplicationLagListener replicationLagListener)
+    {
+        _replicationLagListener.set(replicationLagListener);
+    }
+
     /**
      * This method should only be invoked from configuration thread on virtual host activation.
      * Otherwise, invocation of this method whilst coalescing committer is committing transactions might result in transaction aborts.
@@ -1500,7 +1534,7 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
             if (localTransactionSynchronizationPolicy == LOCAL_TRANSACTION_SYNCHRONIZATION_POLICY)
             {
                 localTransactionSynchronizationPolicy = SyncPolicy.NO_SYNC;
-                _coalescingCommiter = new CoalescingCommiter(_configuration.getGroupName(), this);
+                _coalescingCommiter = new CoalescingCommiter(_configuration.getGroupName(), _configuration, _commitStatistics, this);
                 _coalescingCommiter.start();
             }
             _realMessageStoreDurability = new Durability(localTransactionSynchronizationPolicy, remoteTransactionSynchronizationPolicy, replicaAcknowledgmentPolicy);
@@ -1790,6 +1824,8 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
                         executeDatabasePingerOnNodeChangesIfMaster(nodeStates);
 
                         notifyGroupListenerAboutNodeStates(nodeStates);
+
+                        updateReplicationLag(nodeStates);
                     }
 
                 }
@@ -2046,6 +2082,48 @@ public class ReplicatedEnvironmentFacade implements EnvironmentFacade, StateChan
             }
         }
 
+        /**
+         * Compares the position of this node in the replication stream with the positions of the other nodes: on the
+         * master with those of the replicas, and on a replica with that of the master.  Nodes which could not be
+         * reached are not considered.
+         */
+        private void updateReplicationLag(final Map<ReplicationNode, NodeState> nodeStates)
+        {
+            try
+            {
+                boolean isMaster = ReplicatedEnvironment.State.MASTER == getEnvironment().getState();
+                long lastTxnEnd = getLastKnownReplicationTransactionId();
+                long replicationLag = 0;
+                for (NodeState nodeState : nodeStates.values())
+                {
+                    if (nodeState != null && lastTxnEnd >= 0)
+                    {
+                        ReplicatedEnvironment.State state = nodeState.getNodeState();
+                        if (isMaster && state == ReplicatedEnvironment.State.REPLICA)
+                        {
+                            replicationLag = Math.max(replicationLag, lastTxnEnd - nodeState.getCurrentTxnEndVLSN());
+                        }
+                        else if (!isMaster && state == ReplicatedEnvironment.State.MASTER)
+                        {
+                            replicationLag = Math.max(replicationLag, nodeState.getCurrentTxnEndVLSN() - lastTxnEnd);
+                        }
+                    }
+                }
+                _replicationLag = replicationLag;
+
+                ReplicationLagListener replicationLagListener = _replicationLagListener.get();
+                if (isMaster && replicationLagListener != null)
+                {
+                    replicationLagListener.onReplicationLag(replicationLag);
+                }
+            }
+            catch(RuntimeException e)
+            {
+                Exception handledException = handleDatabaseException("Exception on replication lag check", e);
+                LOGGER.debug("Non fatal exception on determining replication lag. Ignoring...", handledException);
+            }
+        }
+
         private void notifyGroupListenerAboutNodeStates(final Map<ReplicationNode, NodeState> nodeStates)
         {
             ReplicationGroupListener replicationGroupListener = _replicationGroupListener.get();
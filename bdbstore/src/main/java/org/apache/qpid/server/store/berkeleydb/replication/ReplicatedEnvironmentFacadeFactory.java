@@ -103,17 +103,22 @@ public class ReplicatedEnvironmentFacadeFactory implements EnvironmentFacadeFact
                 return settings.getGroupName();
             }
 
+            @Override
+            public int getReplayQueueSize()
+            {
+                return settings.getReplayQueueSize();
+            }
+
             @Override
             public int getFacadeParameter(final String parameterName, final int defaultValue)
             {
-                if (parent.getContextKeys(false).contains(parameterName))
-                {
-                    return parent.getContextValue(Integer.class, parameterName);
-                }
-                else
-                {
-                    return defaultValue;
-                }
+                return BDBUtils.getFacadeParameter(parent, Integer.class, parameterName, defaultValue);
+            }
+
+            @Override
+            public boolean getFacadeParameter(final String parameterName, final boolean defaultValue)
+            {
+                return BDBUtils.getFacadeParameter(parent, Boolean.class, parameterName, defaultValue);
             }
 
         };
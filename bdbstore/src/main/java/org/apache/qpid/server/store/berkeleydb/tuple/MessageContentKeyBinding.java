@@ -0,0 +1,66 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store.berkeleydb.tuple;
+
+import com.sleepycat.bind.tuple.TupleBinding;
+import com.sleepycat.bind.tuple.TupleInput;
+import com.sleepycat.bind.tuple.TupleOutput;
+import com.sleepycat.je.DatabaseEntry;
+
+/**
+ * Key of a chunk of message content: ( message-id: long, chunk-index: int ).
+ *
+ * Every chunk but the last of a message holds exactly {@link #CHUNK_SIZE} bytes, so the chunk holding any offset
+ * within the content can be found without reading those before it.  The keys sort by message id then chunk index,
+ * so the chunks of a message are adjacent and in order.  A message whose content is held outside the database has
+ * instead a single record with chunk index {@link #REFERENCE_CHUNK_INDEX}, which sorts before its chunks.  A message
+ * whose content has been encoded has a record with chunk index {@link #ENCODING_CHUNK_INDEX} identifying the codec,
+ * which sorts before both.  Each of its chunks holds the same part of the content as it otherwise would, encoded on
+ * its own if that made it smaller.
+ */
+public class MessageContentKeyBinding
+{
+    public static final int CHUNK_SIZE = 64 * 1024;
+    public static final int REFERENCE_CHUNK_INDEX = -1;
+    public static final int ENCODING_CHUNK_INDEX = -2;
+
+    private MessageContentKeyBinding() { }
+
+    public static void keyToEntry(long messageId, int chunkIndex, DatabaseEntry entry)
+    {
+        TupleOutput output = new TupleOutput(new byte[12]);
+        output.writeLong(messageId);
+        output.writeInt(chunkIndex);
+        TupleBinding.outputToEntry(output, entry);
+    }
+
+    public static long entryToMessageId(DatabaseEntry entry)
+    {
+        return TupleBinding.entryToInput(entry).readLong();
+    }
+
+    public static int entryToChunkIndex(DatabaseEntry entry)
+    {
+        TupleInput input = TupleBinding.entryToInput(entry);
+        input.skipFast(8);
+        return input.readInt();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.qpid.server.virtualhost.berkeleydb;
+
+import java.util.Map;
+
+import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.server.model.ManagedOperation;
+import org.apache.qpid.server.model.ManagedStatistic;
+import org.apache.qpid.server.model.StatisticType;
+import org.apache.qpid.server.model.StatisticUnit;
+
+/**
+ * Statistics of the log flushes made by the coalescing committer of a virtualhost's BDB environment.  Durations are
+ * in microseconds.
+ */
+public interface BDBCommitStatistics<X extends BDBCommitStatistics<X>> extends ConfiguredObject<X>
+{
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Commit Flushes",
+                      description = "The number of log flushes made to commit transactions")
+    long getCommitFlushCount();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Coalesced Commits",
+                      description = "The number of transactions made durable by the coalescing committer")
+    long getCoalescedCommitCount();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Commit Latency (median)",
+                      description = "The median time in microseconds from a transaction being queued to commit until the log flush making it durable completed")
+    long getCommitLatencyMedian();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Commit Latency (99th percentile)",
+                      description = "The 99th percentile time in microseconds from a transaction being queued to commit until the log flush making it durable completed")
+    long getCommitLatency99thPercentile();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Flush Time (median)",
+                      description = "The median time in microseconds taken by a log flush")
+    long getCommitFlushTimeMedian();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Flush Time (99th percentile)",
+                      description = "The 99th percentile time in microseconds taken by a log flush")
+    long getCommitFlushTime99thPercentile();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Commit Batch Size (99th percentile)",
+                      description = "The 99th percentile number of transactions made durable by a single log flush")
+    long getCommitBatchSize99thPercentile();
+
+    /**
+     * Returns the histograms of commit latency, flush time and batch size, each as a map from the upper bound of
+     * every non-empty bucket to the number of values recorded in it.
+     */
+    @ManagedOperation(nonModifying = true)
+    Map<String, Map<String, Long>> getCommitHistograms();
+}
@@ -450,6 +450,15 @@ public class BDBHAReplicaVirtualHostImpl extends AbstractConfiguredObject<BDBHAR
         return null;
     }
 
+    @Override
+    public void executeQueueRunner(final String name,
+                                   final QueueRunnerScheduler.PriorityClass priorityClass,
+                                   final Runnable runner,
+                                   final AccessControlContext context)
+    {
+        throwUnsupportedForReplica();
+    }
+
     @Override
     public boolean getDefaultDeadLetterQueueEnabled()
     {
@@ -31,13 +31,16 @@ import org.apache.qpid.server.virtualhost.VirtualHostImpl;
 public interface BDBHAVirtualHost<X extends BDBHAVirtualHost<X>>
         extends VirtualHostImpl<X, AMQQueue<?>, ExchangeImpl<?>>,
                 SizeMonitoringSettings,
-                NonStandardVirtualHost<X,AMQQueue<?>,ExchangeImpl<?>>
+                NonStandardVirtualHost<X,AMQQueue<?>,ExchangeImpl<?>>,
+                BDBCommitStatistics<X>
 {
     String REMOTE_TRANSACTION_SYNCHRONIZATION_POLICY = "remoteTransactionSynchronizationPolicy";
     String LOCAL_TRANSACTION_SYNCHRONIZATION_POLICY = "localTransactionSynchronizationPolicy";
     String COALESCING_SYNC = "coalescingSync";
     String DURABILITY = "durability";
     String STORE_PATH = "storePath";
+    String REPLICA_LAG_FLOW_CONTROL_THRESHOLD = "replicaLagFlowControlThreshold";
+    String REPLICA_LAG_FLOW_CONTROL_RESUME_THRESHOLD = "replicaLagFlowControlResumeThreshold";
 
     @ManagedAttribute( defaultValue = "SYNC")
     String getLocalTransactionSynchronizationPolicy();
@@ -56,4 +59,13 @@ public interface BDBHAVirtualHost<X extends BDBHAVirtualHost<X>>
 
     @ManagedAttribute(mandatory = true, defaultValue = "0")
     Long getStoreOverfullSize();
+
+    @ManagedAttribute(defaultValue = "0", description = "The number of replication log entries by which a replica may "
+                                                        + "trail the master before producers are flow controlled, or "
+                                                        + "zero to never flow control producers on replica lag.")
+    long getReplicaLagFlowControlThreshold();
+
+    @ManagedAttribute(defaultValue = "0", description = "The replica lag at or below which producer flow control is "
+                                                        + "removed once enforced.")
+    long getReplicaLagFlowControlResumeThreshold();
 }
@@ -20,9 +20,11 @@
  */
 package org.apache.qpid.server.virtualhost.berkeleydb;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.qpid.server.logging.messages.HighAvailabilityMessages;
 import org.apache.qpid.server.model.ConfiguredObject;
 import org.apache.qpid.server.model.ManagedAttributeField;
 import org.apache.qpid.server.model.ManagedObject;
@@ -30,7 +32,9 @@ import org.apache.qpid.server.model.ManagedObjectFactoryConstructor;
 import org.apache.qpid.server.model.VirtualHostNode;
 import org.apache.qpid.server.store.MessageStore;
 import org.apache.qpid.server.store.berkeleydb.BDBConfigurationStore;
+import org.apache.qpid.server.store.berkeleydb.CommitStatistics;
 import org.apache.qpid.server.store.berkeleydb.replication.ReplicatedEnvironmentFacade;
+import org.apache.qpid.server.store.berkeleydb.replication.ReplicationLagListener;
 import org.apache.qpid.server.virtualhost.AbstractVirtualHost;
 
 import com.sleepycat.je.Durability.SyncPolicy;
@@ -54,6 +58,14 @@ public class BDBHAVirtualHostImpl extends AbstractVirtualHost<BDBHAVirtualHostIm
     @ManagedAttributeField
     private Long _storeOverfullSize;
 
+    @ManagedAttributeField
+    private long _replicaLagFlowControlThreshold;
+
+    @ManagedAttributeField
+    private long _replicaLagFlowControlResumeThreshold;
+
+    private final ReplicationLagFlowController _replicationLagFlowController = new ReplicationLagFlowController();
+
     @ManagedObjectFactoryConstructor
     public BDBHAVirtualHostImpl(final Map<String, Object> attributes, VirtualHostNode<?> virtualHostNode)
     {
@@ -107,10 +119,22 @@ public class BDBHAVirtualHostImpl extends AbstractVirtualHost<BDBHAVirtualHostIm
                     SyncPolicy.valueOf(getLocalTransactionSynchronizationPolicy()),
                     SyncPolicy.valueOf(getRemoteTransactionSynchronizationPolicy()),
                     ReplicatedEnvironmentFacade.REPLICA_REPLICA_ACKNOWLEDGMENT_POLICY);
+            facade.setReplicationLagListener(_replicationLagFlowController);
         }
         super.onOpen();
     }
 
+    @Override
+    protected void onClose()
+    {
+        ReplicatedEnvironmentFacade facade = getReplicatedEnvironmentFacade();
+        if (facade != null)
+        {
+            facade.setReplicationLagListener(null);
+        }
+        super.onClose();
+    }
+
     @Override
     protected void validateChange(final ConfiguredObject<?> proxyForValidation, final Set<String> changedAttributes)
     {
@@ -142,6 +166,68 @@ public class BDBHAVirtualHostImpl extends AbstractVirtualHost<BDBHAVirtualHostIm
         }
     }
 
+    @Override
+    public long getCommitFlushCount()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getFlushTime().getCount();
+    }
+
+    @Override
+    public long getCoalescedCommitCount()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getCommitLatency().getCount();
+    }
+
+    @Override
+    public long getCommitLatencyMedian()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getCommitLatency().getPercentile(50);
+    }
+
+    @Override
+    public long getCommitLatency99thPercentile()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getCommitLatency().getPercentile(99);
+    }
+
+    @Override
+    public long getCommitFlushTimeMedian()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getFlushTime().getPercentile(50);
+    }
+
+    @Override
+    public long getCommitFlushTime99thPercentile()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getFlushTime().getPercentile(99);
+    }
+
+    @Override
+    public long getCommitBatchSize99thPercentile()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getBatchSize().getPercentile(99);
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getCommitHistograms()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? Collections.<String, Map<String, Long>>emptyMap() : statistics.getHistograms();
+    }
+
+    private CommitStatistics getCommitStatistics()
+    {
+        ReplicatedEnvironmentFacade facade = getReplicatedEnvironmentFacade();
+        return facade == null ? null : facade.getCommitStatistics();
+    }
+
     private ReplicatedEnvironmentFacade getReplicatedEnvironmentFacade()
     {
         return (ReplicatedEnvironmentFacade) _configurationStore.getEnvironmentFacade();
@@ -168,4 +254,53 @@ public class BDBHAVirtualHostImpl extends AbstractVirtualHost<BDBHAVirtualHostIm
         validateTransactionSynchronizationPolicy(this.getRemoteTransactionSynchronizationPolicy());
     }
 
+
+    @Override
+    public long getReplicaLagFlowControlThreshold()
+    {
+        return _replicaLagFlowControlThreshold;
+    }
+
+    @Override
+    public long getReplicaLagFlowControlResumeThreshold()
+    {
+        return _replicaLagFlowControlResumeThreshold;
+    }
+
+    /**
+     * Blocks producers whilst the furthest behind replica trails the master by more than the flow control threshold,
+     * until it has caught up to within the resume threshold.  Only ever invoked from the thread monitoring the group.
+     */
+    private class ReplicationLagFlowController implements ReplicationLagListener
+    {
+        private boolean _flowControlled;
+
+        @Override
+        public void onReplicationLag(final long replicationLag)
+        {
+            long threshold = getReplicaLagFlowControlThreshold();
+            long resumeThreshold = getReplicaLagFlowControlResumeThreshold();
+            if (resumeThreshold > threshold || resumeThreshold < 0l)
+            {
+                resumeThreshold = threshold;
+            }
+
+            if (!_flowControlled && threshold > 0l && replicationLag > threshold)
+            {
+                _flowControlled = true;
+                getEventLogger().message(getMessageStoreLogSubject(),
+                                         HighAvailabilityMessages.REPLICA_LAG_OVERFULL(String.valueOf(replicationLag),
+                                                                                       String.valueOf(threshold)));
+                block(BlockingType.REPLICATION);
+            }
+            else if (_flowControlled && (threshold <= 0l || replicationLag <= resumeThreshold))
+            {
+                _flowControlled = false;
+                getEventLogger().message(getMessageStoreLogSubject(),
+                                         HighAvailabilityMessages.REPLICA_LAG_UNDERFULL(String.valueOf(replicationLag),
+                                                                                        String.valueOf(resumeThreshold)));
+                unblock(BlockingType.REPLICATION);
+            }
+        }
+    }
 }
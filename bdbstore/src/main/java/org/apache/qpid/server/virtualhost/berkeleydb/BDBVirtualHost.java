@@ -28,7 +28,7 @@ import org.apache.qpid.server.store.SizeMonitoringSettings;
 import org.apache.qpid.server.store.berkeleydb.BDBEnvironmentContainer;
 import org.apache.qpid.server.virtualhost.VirtualHostImpl;
 
-public interface BDBVirtualHost<X extends BDBVirtualHost<X>> extends VirtualHostImpl<X, AMQQueue<?>, ExchangeImpl<?>>, org.apache.qpid.server.store.FileBasedSettings, SizeMonitoringSettings, BDBEnvironmentContainer
+public interface BDBVirtualHost<X extends BDBVirtualHost<X>> extends VirtualHostImpl<X, AMQQueue<?>, ExchangeImpl<?>>, org.apache.qpid.server.store.FileBasedSettings, SizeMonitoringSettings, BDBEnvironmentContainer, BDBCommitStatistics<X>
 {
 
     String STORE_PATH = "storePath";
@@ -40,6 +40,16 @@ public interface BDBVirtualHost<X extends BDBVirtualHost<X>> extends VirtualHost
     @ManagedContextDefault(name= QPID_BROKER_BDB_TOTAL_CACHE_SIZE)
     long DEFAULT_JE_CACHE_SIZE = Math.max(BDB_MIN_CACHE_SIZE, Runtime.getRuntime().maxMemory()/20l);
 
+    // Number of queue entries read from the store at a time when recovering a queue
+    String QPID_BROKER_BDB_RECOVERY_BATCH_SIZE = "qpid.broker.bdbRecoveryBatchSize";
+    @ManagedContextDefault(name = QPID_BROKER_BDB_RECOVERY_BATCH_SIZE)
+    int DEFAULT_RECOVERY_BATCH_SIZE = 1000;
+
+    // Number of messages at the head of each queue whose content is read in while the queue is recovered
+    String QPID_BROKER_BDB_RECOVERY_CONTENT_PREFETCH = "qpid.broker.bdbRecoveryContentPrefetch";
+    @ManagedContextDefault(name = QPID_BROKER_BDB_RECOVERY_CONTENT_PREFETCH)
+    int DEFAULT_RECOVERY_CONTENT_PREFETCH = 16;
+
     @ManagedAttribute(mandatory = true, defaultValue = "${qpid.work_dir}${file.separator}${this:name}${file.separator}messages")
     String getStorePath();
 
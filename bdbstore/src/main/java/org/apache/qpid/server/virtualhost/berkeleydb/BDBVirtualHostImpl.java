@@ -20,6 +20,7 @@
  */
 package org.apache.qpid.server.virtualhost.berkeleydb;
 
+import java.util.Collections;
 import java.util.Map;
 
 import org.apache.qpid.server.model.ManagedAttributeField;
@@ -28,6 +29,7 @@ import org.apache.qpid.server.model.ManagedObjectFactoryConstructor;
 import org.apache.qpid.server.model.VirtualHostNode;
 import org.apache.qpid.server.store.MessageStore;
 import org.apache.qpid.server.store.berkeleydb.BDBMessageStore;
+import org.apache.qpid.server.store.berkeleydb.CommitStatistics;
 import org.apache.qpid.server.store.berkeleydb.EnvironmentFacade;
 import org.apache.qpid.server.store.berkeleydb.BDBCacheSizeSetter;
 import org.apache.qpid.server.virtualhost.AbstractVirtualHost;
@@ -92,4 +94,67 @@ public class BDBVirtualHostImpl extends AbstractVirtualHost<BDBVirtualHostImpl>
             }
         }
     }
+
+    @Override
+    public long getCommitFlushCount()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getFlushTime().getCount();
+    }
+
+    @Override
+    public long getCoalescedCommitCount()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getCommitLatency().getCount();
+    }
+
+    @Override
+    public long getCommitLatencyMedian()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getCommitLatency().getPercentile(50);
+    }
+
+    @Override
+    public long getCommitLatency99thPercentile()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getCommitLatency().getPercentile(99);
+    }
+
+    @Override
+    public long getCommitFlushTimeMedian()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getFlushTime().getPercentile(50);
+    }
+
+    @Override
+    public long getCommitFlushTime99thPercentile()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getFlushTime().getPercentile(99);
+    }
+
+    @Override
+    public long getCommitBatchSize99thPercentile()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? 0 : statistics.getBatchSize().getPercentile(99);
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getCommitHistograms()
+    {
+        CommitStatistics statistics = getCommitStatistics();
+        return statistics == null ? Collections.<String, Map<String, Long>>emptyMap() : statistics.getHistograms();
+    }
+
+    private CommitStatistics getCommitStatistics()
+    {
+        BDBMessageStore bdbMessageStore = (BDBMessageStore) getMessageStore();
+        EnvironmentFacade environmentFacade = bdbMessageStore == null ? null : bdbMessageStore.getEnvironmentFacade();
+        return environmentFacade == null ? null : environmentFacade.getCommitStatistics();
+    }
 }
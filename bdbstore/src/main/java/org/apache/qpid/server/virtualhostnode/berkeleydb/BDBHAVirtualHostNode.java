@@ -24,6 +24,9 @@ import java.util.List;
 
 import org.apache.qpid.server.model.DerivedAttribute;
 import org.apache.qpid.server.model.ManagedAttribute;
+import org.apache.qpid.server.model.ManagedStatistic;
+import org.apache.qpid.server.model.StatisticType;
+import org.apache.qpid.server.model.StatisticUnit;
 import org.apache.qpid.server.store.berkeleydb.HASettings;
 import org.apache.qpid.server.store.berkeleydb.BDBEnvironmentContainer;
 
@@ -42,6 +45,7 @@ public interface BDBHAVirtualHostNode<X extends BDBHAVirtualHostNode<X>> extends
     public static final String JOIN_TIME = "joinTime";
     public static final String HELPER_NODE_NAME = "helperNodeName";
     public static final String PERMITTED_NODES = "permittedNodes";
+    public static final String REPLAY_QUEUE_SIZE = "replayQueueSize";
 
     @ManagedAttribute(mandatory=true)
     String getGroupName();
@@ -75,4 +79,14 @@ public interface BDBHAVirtualHostNode<X extends BDBHAVirtualHostNode<X>> extends
 
     @ManagedAttribute(persist = true)
     List<String> getPermittedNodes();
+
+    @ManagedAttribute(defaultValue = "0", description = "The number of replication stream messages a replica receives "
+                                                        + "ahead of replaying them, or zero for the default.  "
+                                                        + "Changes take effect when the node is next restarted.")
+    int getReplayQueueSize();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.COUNT, label = "Replication Lag",
+                      description = "On the master, the number of replication log entries by which the furthest behind "
+                                    + "replica trails it.  On a replica, the number by which it trails the master.")
+    long getReplicationLag();
 }
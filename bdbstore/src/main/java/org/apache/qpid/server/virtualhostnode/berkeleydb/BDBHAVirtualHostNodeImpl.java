@@ -150,6 +150,9 @@ public class BDBHAVirtualHostNodeImpl extends AbstractVirtualHostNode<BDBHAVirtu
     @ManagedAttributeField(afterSet = "postSetPermittedNodes")
     private List<String> _permittedNodes;
 
+    @ManagedAttributeField
+    private int _replayQueueSize;
+
     private boolean _isClosed;
 
     @ManagedObjectFactoryConstructor
@@ -244,6 +247,23 @@ public class BDBHAVirtualHostNodeImpl extends AbstractVirtualHostNode<BDBHAVirtu
         return -1L;
     }
 
+    @Override
+    public long getReplicationLag()
+    {
+        ReplicatedEnvironmentFacade environmentFacade = getReplicatedEnvironmentFacade();
+        if (environmentFacade != null)
+        {
+            return environmentFacade.getReplicationLag();
+        }
+        return 0L;
+    }
+
+    @Override
+    public int getReplayQueueSize()
+    {
+        return _replayQueueSize;
+    }
+
     @Override
     public Long getJoinTime()
     {
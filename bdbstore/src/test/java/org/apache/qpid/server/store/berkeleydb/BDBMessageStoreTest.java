@@ -25,24 +25,38 @@ import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
 import org.apache.qpid.framing.AMQShortString;
 import org.apache.qpid.framing.BasicContentHeaderProperties;
 import org.apache.qpid.framing.ContentHeaderBody;
 import org.apache.qpid.framing.MessagePublishInfo;
+import org.apache.qpid.server.message.EnqueueableMessage;
 import org.apache.qpid.server.model.VirtualHost;
 import org.apache.qpid.server.protocol.v0_10.MessageMetaDataType_0_10;
 import org.apache.qpid.server.protocol.v0_10.MessageMetaData_0_10;
 import org.apache.qpid.server.protocol.v0_8.MessageMetaData;
 import org.apache.qpid.server.protocol.v0_8.MessageMetaDataType_0_8;
+import org.apache.qpid.server.store.DeflateMessageContentCodec;
+import org.apache.qpid.server.store.MessageDurability;
+import org.apache.qpid.server.store.MessageEnqueueRecord;
+import org.apache.qpid.server.store.MessageContentEncoder;
 import org.apache.qpid.server.store.MessageHandle;
 import org.apache.qpid.server.store.MessageStore;
 import org.apache.qpid.server.store.MessageStoreTestCase;
 import org.apache.qpid.server.store.StorableMessageMetaData;
 import org.apache.qpid.server.store.StoreException;
 import org.apache.qpid.server.store.StoredMessage;
+import org.apache.qpid.server.store.Transaction;
+import org.apache.qpid.server.store.TransactionLogResource;
+import org.apache.qpid.server.store.berkeleydb.tuple.MessageContentKeyBinding;
+import org.apache.qpid.server.store.handler.MessageInstanceHandler;
 import org.apache.qpid.server.virtualhost.berkeleydb.BDBVirtualHost;
 import org.apache.qpid.transport.DeliveryProperties;
 import org.apache.qpid.transport.Header;
@@ -63,6 +77,7 @@ public class BDBMessageStoreTest extends MessageStoreTestCase
     private static byte[] CONTENT_BYTES = new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
 
     private String _storeLocation;
+    private BDBVirtualHost _virtualHost;
 
     @Override
     protected void tearDown() throws Exception
@@ -343,11 +358,290 @@ public class BDBMessageStoreTest extends MessageStoreTestCase
                         0, bdbStore.getContent(messageid_0_8, 0, dst));
     }
 
+    public void testContentSpanningSeveralChunks() throws Exception
+    {
+        BDBMessageStore bdbStore = (BDBMessageStore) getStore();
+
+        int chunkSize = MessageContentKeyBinding.CHUNK_SIZE;
+        byte[] content = new byte[chunkSize * 2 + chunkSize / 2];
+        for (int i = 0; i < content.length; i++)
+        {
+            content[i] = (byte) i;
+        }
+        StoredMessage<MessageMetaData> storedMessage = createAndStoreMessage_0_8(bdbStore,
+                                                                                 Arrays.copyOfRange(content, 0, 100),
+                                                                                 Arrays.copyOfRange(content, 100, content.length));
+        long messageId = storedMessage.getMessageNumber();
+
+        // a read crossing the boundary between the first and second chunks
+        ByteBuffer dst = ByteBuffer.allocate(20);
+        assertEquals("Unexpected length", 20, bdbStore.getContent(messageId, chunkSize - 10, dst));
+        assertTrue("Unexpected content",
+                   Arrays.equals(Arrays.copyOfRange(content, chunkSize - 10, chunkSize + 10), dst.array()));
+
+        // a read from the start of the last chunk
+        dst = ByteBuffer.allocate(content.length);
+        assertEquals("Unexpected length", chunkSize / 2, bdbStore.getContent(messageId, chunkSize * 2, dst));
+        assertTrue("Unexpected content",
+                   Arrays.equals(Arrays.copyOfRange(content, chunkSize * 2, content.length),
+                                 Arrays.copyOf(dst.array(), chunkSize / 2)));
+
+        dst = ByteBuffer.allocate(content.length);
+        assertEquals("Unexpected length", content.length, bdbStore.getContent(messageId, 0, dst));
+        assertTrue("Unexpected content", Arrays.equals(content, dst.array()));
+
+        assertEquals("Unexpected length at end of content", 0, bdbStore.getContent(messageId, content.length, dst));
+        try
+        {
+            bdbStore.getContent(messageId, chunkSize * 3, ByteBuffer.allocate(10));
+            fail("Should fail for the offset greater than message size");
+        }
+        catch (RuntimeException e)
+        {
+            assertEquals("Unexpected exception message", "Offset " + (chunkSize * 3)
+                    + " is greater than message size " + content.length + " for message id "
+                    + messageId + "!", e.getCause().getMessage());
+        }
+
+        int length = 0;
+        ByteBuffer allContent = ByteBuffer.allocate(content.length);
+        for (QpidByteBuffer buf : bdbStore.getAllContent(messageId))
+        {
+            length += buf.remaining();
+            buf.get(allContent);
+            buf.dispose();
+        }
+        assertEquals("Unexpected length", content.length, length);
+        assertTrue("Unexpected content", Arrays.equals(content, allContent.array()));
+
+        bdbStore.removeMessage(messageId, true);
+        for (int offset = 0; offset < content.length; offset += chunkSize)
+        {
+            assertEquals("Retrieved content when none was expected",
+                         0, bdbStore.getContent(messageId, offset, ByteBuffer.allocate(1)));
+        }
+    }
+
+    public void testCompressedContent() throws Exception
+    {
+        when(_virtualHost.getContextValue(Integer.class, VirtualHost.MESSAGE_CONTENT_COMPRESSION_THRESHOLD))
+                .thenReturn(CONTENT_BYTES.length + 1);
+        when(_virtualHost.getContextValue(String.class, VirtualHost.MESSAGE_CONTENT_COMPRESSION_CODEC))
+                .thenReturn(DeflateMessageContentCodec.TYPE);
+        BDBMessageStore bdbStore = (BDBMessageStore) getStore();
+        bdbStore.upgradeStoreStructure();
+
+        int chunkSize = MessageContentKeyBinding.CHUNK_SIZE;
+        byte[] content = new byte[chunkSize * 2];
+        for (int i = 0; i < content.length; i++)
+        {
+            content[i] = (byte) (i % 16);
+        }
+        long compressedMessageId = createAndStoreMessage_0_8(bdbStore, content).getMessageNumber();
+        long uncompressedMessageId = createAndStoreSingleChunkMessage_0_8(bdbStore).getMessageNumber();
+
+        MessageContentEncoder encoder = bdbStore.getContentEncoder();
+        assertEquals("Unexpected size before compression", content.length, encoder.getBytesBeforeEncoding());
+        assertTrue("Content was not compressed", encoder.getBytesAfterEncoding() < chunkSize);
+
+        // compression is disabled on reopening, but the compressed content must remain readable
+        reopenStore();
+        bdbStore = (BDBMessageStore) getStore();
+
+        ByteBuffer dst = ByteBuffer.allocate(20);
+        assertEquals("Unexpected length", 20, bdbStore.getContent(compressedMessageId, chunkSize - 10, dst));
+        assertTrue("Unexpected content",
+                   Arrays.equals(Arrays.copyOfRange(content, chunkSize - 10, chunkSize + 10), dst.array()));
+
+        ByteBuffer allContent = ByteBuffer.allocate(content.length);
+        for (QpidByteBuffer buf : bdbStore.getAllContent(compressedMessageId))
+        {
+            buf.get(allContent);
+            buf.dispose();
+        }
+        assertTrue("Unexpected content", Arrays.equals(content, allContent.array()));
+
+        try
+        {
+            bdbStore.getContent(compressedMessageId, content.length + 1, ByteBuffer.allocate(10));
+            fail("Should fail for the offset greater than message size");
+        }
+        catch (RuntimeException e)
+        {
+            assertEquals("Unexpected exception message", "Offset " + (content.length + 1)
+                    + " is greater than message size " + content.length + " for message id "
+                    + compressedMessageId + "!", e.getCause().getMessage());
+        }
+
+        dst = ByteBuffer.allocate(CONTENT_BYTES.length);
+        assertEquals("Unexpected length", CONTENT_BYTES.length, bdbStore.getContent(uncompressedMessageId, 0, dst));
+        assertTrue("Unexpected content", Arrays.equals(CONTENT_BYTES, dst.array()));
+
+        bdbStore.removeMessage(compressedMessageId, true);
+        assertEquals("Retrieved content when none was expected",
+                     0, bdbStore.getContent(compressedMessageId, 0, ByteBuffer.allocate(1)));
+    }
+
+    public void testCompressedContentWithIncompressibleChunk() throws Exception
+    {
+        when(_virtualHost.getContextValue(Integer.class, VirtualHost.MESSAGE_CONTENT_COMPRESSION_THRESHOLD))
+                .thenReturn(0);
+        when(_virtualHost.getContextValue(String.class, VirtualHost.MESSAGE_CONTENT_COMPRESSION_CODEC))
+                .thenReturn(DeflateMessageContentCodec.TYPE);
+        BDBMessageStore bdbStore = (BDBMessageStore) getStore();
+        bdbStore.upgradeStoreStructure();
+
+        // the first chunk cannot be compressed, so is stored as it is, while the second and third can
+        int chunkSize = MessageContentKeyBinding.CHUNK_SIZE;
+        byte[] content = new byte[chunkSize * 2 + 100];
+        new Random(1).nextBytes(content);
+        for (int i = chunkSize; i < content.length; i++)
+        {
+            content[i] = (byte) (i % 16);
+        }
+        long messageId = createAndStoreMessage_0_8(bdbStore, content).getMessageNumber();
+
+        MessageContentEncoder encoder = bdbStore.getContentEncoder();
+        assertEquals("Unexpected size before compression", chunkSize + 100, encoder.getBytesBeforeEncoding());
+
+        ByteBuffer dst = ByteBuffer.allocate(chunkSize + 40);
+        assertEquals("Unexpected length", dst.capacity(), bdbStore.getContent(messageId, chunkSize - 20, dst));
+        assertTrue("Unexpected content across the chunks",
+                   Arrays.equals(Arrays.copyOfRange(content, chunkSize - 20, chunkSize * 2 + 20), dst.array()));
+
+        dst = ByteBuffer.allocate(200);
+        assertEquals("Unexpected length at the end of the content",
+                     50, bdbStore.getContent(messageId, content.length - 50, dst));
+        assertEquals("Unexpected length at the end of the content",
+                     0, bdbStore.getContent(messageId, content.length, dst));
+
+        ByteBuffer allContent = ByteBuffer.allocate(content.length);
+        for (QpidByteBuffer buf : bdbStore.getAllContent(messageId))
+        {
+            buf.get(allContent);
+            buf.dispose();
+        }
+        assertTrue("Unexpected content", Arrays.equals(content, allContent.array()));
+    }
+
+    public void testQueueEntriesRecoveredInBatches() throws Exception
+    {
+        when(_virtualHost.getContextValue(Integer.class, BDBVirtualHost.QPID_BROKER_BDB_RECOVERY_BATCH_SIZE))
+                .thenReturn(2);
+        when(_virtualHost.getContextValue(Integer.class, BDBVirtualHost.QPID_BROKER_BDB_RECOVERY_CONTENT_PREFETCH))
+                .thenReturn(1);
+
+        TransactionLogResource queue = createQueue();
+        TransactionLogResource otherQueue = createQueue();
+        List<Long> messageIds = new ArrayList<>();
+        Transaction txn = getStore().newTransaction();
+        for (int i = 0; i < 5; i++)
+        {
+            StoredMessage<MessageMetaData> message = createAndStoreSingleChunkMessage_0_8(getStore());
+            messageIds.add(message.getMessageNumber());
+            txn.enqueueMessage(queue, createEnqueueableMessage(message));
+            if (i % 2 == 1)
+            {
+                txn.enqueueMessage(otherQueue, createEnqueueableMessage(message));
+            }
+        }
+        txn.commitTran();
+
+        reopenStore();
+
+        final MessageStore.MessageStoreReader reader = getStore().newMessageStoreReader();
+        final List<Long> visitedIds = new ArrayList<>();
+        final List<StoredMessage<?>> recoveredMessages = new ArrayList<>();
+        reader.visitMessageInstances(queue, new MessageInstanceHandler()
+        {
+            @Override
+            public boolean handle(final MessageEnqueueRecord record)
+            {
+                visitedIds.add(record.getMessageNumber());
+                recoveredMessages.add(reader.getMessage(record.getMessageNumber()));
+                return true;
+            }
+        });
+
+        assertEquals("Unexpected queue entries", messageIds, visitedIds);
+        assertTrue("Content at the head of the queue should have been read", recoveredMessages.get(0).isInMemory());
+        assertFalse("Content beyond the head of the queue should not have been read",
+                    recoveredMessages.get(1).isInMemory());
+        for (StoredMessage<?> message : recoveredMessages)
+        {
+            assertEquals(CONTENT_BYTES.length, message.getMetaData().getContentSize());
+            ByteBuffer content = ByteBuffer.allocate(CONTENT_BYTES.length);
+            assertEquals(CONTENT_BYTES.length, message.getContent(content));
+            assertTrue("Unexpected content", Arrays.equals(CONTENT_BYTES, content.array()));
+        }
+
+        visitedIds.clear();
+        reader.visitMessageInstances(queue, new MessageInstanceHandler()
+        {
+            @Override
+            public boolean handle(final MessageEnqueueRecord record)
+            {
+                visitedIds.add(record.getMessageNumber());
+                return visitedIds.size() < 3;
+            }
+        });
+        assertEquals("Visit should stop when the handler returns false", messageIds.subList(0, 3), visitedIds);
+
+        visitedIds.clear();
+        reader.visitMessageInstances(otherQueue, new MessageInstanceHandler()
+        {
+            @Override
+            public boolean handle(final MessageEnqueueRecord record)
+            {
+                visitedIds.add(record.getMessageNumber());
+                return true;
+            }
+        });
+        assertEquals(Arrays.asList(messageIds.get(1), messageIds.get(3)), visitedIds);
+
+        final AtomicInteger count = new AtomicInteger();
+        reader.visitMessageInstances(new MessageInstanceHandler()
+        {
+            @Override
+            public boolean handle(final MessageEnqueueRecord record)
+            {
+                count.incrementAndGet();
+                return true;
+            }
+        });
+        assertEquals("Unexpected number of queue entries across all queues", 7, count.get());
+        reader.close();
+    }
+
+    private TransactionLogResource createQueue()
+    {
+        TransactionLogResource queue = mock(TransactionLogResource.class);
+        when(queue.getId()).thenReturn(UUID.randomUUID());
+        when(queue.getMessageDurability()).thenReturn(MessageDurability.DEFAULT);
+        return queue;
+    }
+
+    private EnqueueableMessage createEnqueueableMessage(final StoredMessage<?> storedMessage)
+    {
+        EnqueueableMessage message = mock(EnqueueableMessage.class);
+        when(message.isPersistent()).thenReturn(true);
+        when(message.getMessageNumber()).thenReturn(storedMessage.getMessageNumber());
+        when(message.getStoredMessage()).thenReturn(storedMessage);
+        return message;
+    }
+
     private StoredMessage<MessageMetaData> createAndStoreSingleChunkMessage_0_8(MessageStore store)
     {
-        QpidByteBuffer chunk1 = QpidByteBuffer.wrap(CONTENT_BYTES);
+        return createAndStoreMessage_0_8(store, CONTENT_BYTES);
+    }
 
-        int bodySize = CONTENT_BYTES.length;
+    private StoredMessage<MessageMetaData> createAndStoreMessage_0_8(MessageStore store, byte[]... contentChunks)
+    {
+        int bodySize = 0;
+        for (byte[] contentChunk : contentChunks)
+        {
+            bodySize += contentChunk.length;
+        }
 
         //create and store the message using the MessageStore interface
         MessagePublishInfo pubInfoBody_0_8 = createPublishInfoBody_0_8();
@@ -358,7 +652,10 @@ public class BDBMessageStoreTest extends MessageStoreTestCase
         MessageMetaData messageMetaData_0_8 = new MessageMetaData(pubInfoBody_0_8, chb_0_8);
         MessageHandle<MessageMetaData> storedMessage_0_8 = store.addMessage(messageMetaData_0_8);
 
-        storedMessage_0_8.addContent(chunk1);
+        for (byte[] contentChunk : contentChunks)
+        {
+            storedMessage_0_8.addContent(QpidByteBuffer.wrap(contentChunk));
+        }
         ((AbstractBDBMessageStore.StoredBDBMessage)storedMessage_0_8).flushToStore();
 
         return storedMessage_0_8.allContentAdded();
@@ -392,6 +689,7 @@ public class BDBMessageStoreTest extends MessageStoreTestCase
 
         final BDBVirtualHost parent = mock(BDBVirtualHost.class);
         when(parent.getStorePath()).thenReturn(_storeLocation);
+        _virtualHost = parent;
         return parent;
     }
 
@@ -0,0 +1,117 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store.berkeleydb;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class CoalescingCommiterTest extends QpidTestCase
+{
+    private EnvironmentFacade _environmentFacade;
+    private CommitStatistics _statistics;
+    private CoalescingCommiter _commiter;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _environmentFacade = mock(EnvironmentFacade.class);
+        _statistics = new CommitStatistics();
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            if (_commiter != null)
+            {
+                _commiter.stop();
+            }
+        }
+        finally
+        {
+            super.tearDown();
+        }
+    }
+
+    public void testCommitsRecordedInStatistics() throws Exception
+    {
+        _commiter = new CoalescingCommiter("test", 0, 0, false, _statistics, _environmentFacade);
+        _commiter.start();
+
+        _commiter.commit(null, true);
+        assertEquals("test", _commiter.commitAsync(null, "test").get(10, TimeUnit.SECONDS));
+
+        long timeout = System.currentTimeMillis() + 10000l;
+        while (_statistics.getCommitLatency().getCount() < 2 && System.currentTimeMillis() < timeout)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(2, _statistics.getCommitLatency().getCount());
+        assertTrue(_statistics.getFlushTime().getCount() >= 1);
+        assertEquals(2, _statistics.getBatchSize().getTotal());
+    }
+
+    public void testBatchSizeLimited() throws Exception
+    {
+        _commiter = new CoalescingCommiter("test", 2, 0, false, _statistics, _environmentFacade);
+
+        List<ListenableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+        {
+            futures.add(_commiter.commitAsync(null, i));
+        }
+        _commiter.start();
+
+        for (int i = 0; i < 5; i++)
+        {
+            assertEquals(Integer.valueOf(i), futures.get(i).get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(2, _statistics.getBatchSize().getMax());
+        assertEquals(5, _statistics.getBatchSize().getTotal());
+    }
+
+    public void testLingerEndsWhenBatchFull() throws Exception
+    {
+        _commiter = new CoalescingCommiter("test", 3, TimeUnit.MINUTES.toMicros(1), false, _statistics, _environmentFacade);
+        _commiter.start();
+
+        List<ListenableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+        {
+            futures.add(_commiter.commitAsync(null, i));
+        }
+
+        for (int i = 0; i < 3; i++)
+        {
+            assertEquals("Commit should not have waited for the linger time to pass",
+                         Integer.valueOf(i), futures.get(i).get(10, TimeUnit.SECONDS));
+        }
+    }
+}
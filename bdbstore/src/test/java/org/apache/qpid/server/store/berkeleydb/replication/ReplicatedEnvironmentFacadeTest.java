@@ -40,6 +40,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -429,6 +430,33 @@ public class ReplicatedEnvironmentFacadeTest extends QpidTestCase
         assertEquals("Unexpected node state", State.REPLICA, stateRef.get().getNodeState());
     }
 
+    public void testMasterHearsReplicationLag() throws Exception
+    {
+        final CountDownLatch lagLatch = new CountDownLatch(1);
+        final AtomicLong lagRef = new AtomicLong(-1);
+        TestStateChangeListener stateChangeListener = new TestStateChangeListener(State.MASTER);
+        ReplicatedEnvironmentFacade replicatedEnvironmentFacade = addNode(stateChangeListener, new NoopReplicationGroupListener());
+        assertTrue("Master was not started", stateChangeListener.awaitForStateChange(LISTENER_TIMEOUT, TimeUnit.SECONDS));
+
+        String node2NodeHostPort = "localhost" + ":" + _portHelper.getNextAvailable();
+        replicatedEnvironmentFacade.setPermittedNodes(Arrays.asList(replicatedEnvironmentFacade.getHostPort(), node2NodeHostPort));
+        createReplica(TEST_NODE_NAME + "_2", node2NodeHostPort, new NoopReplicationGroupListener());
+
+        replicatedEnvironmentFacade.setReplicationLagListener(new ReplicationLagListener()
+        {
+            @Override
+            public void onReplicationLag(final long replicationLag)
+            {
+                lagRef.set(replicationLag);
+                lagLatch.countDown();
+            }
+        });
+
+        assertTrue("Replication lag not fired within timeout", lagLatch.await(LISTENER_TIMEOUT, TimeUnit.SECONDS));
+        assertTrue("Unexpected replication lag " + lagRef.get(), lagRef.get() >= 0);
+        assertTrue("Unexpected replication lag statistic", replicatedEnvironmentFacade.getReplicationLag() >= 0);
+    }
+
     public void testRemoveNodeFromGroup() throws Exception
     {
         TestStateChangeListener stateChangeListener = new TestStateChangeListener(State.MASTER);
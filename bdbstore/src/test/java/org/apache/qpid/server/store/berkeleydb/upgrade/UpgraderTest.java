@@ -21,16 +21,13 @@
 package org.apache.qpid.server.store.berkeleydb.upgrade;
 
 import java.io.File;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.qpid.bytebuffer.QpidByteBuffer;
 import org.apache.qpid.server.store.berkeleydb.BDBConfigurationStore;
-import org.apache.qpid.server.store.berkeleydb.tuple.ByteBufferBinding;
+import org.apache.qpid.server.store.berkeleydb.tuple.MessageContentKeyBinding;
 
 import com.sleepycat.bind.tuple.IntegerBinding;
-import com.sleepycat.bind.tuple.LongBinding;
 import com.sleepycat.je.Cursor;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseConfig;
@@ -129,7 +126,9 @@ public class UpgraderTest extends AbstractUpgradeTestCase
 
     private void assertContent()
     {
-        final ByteBufferBinding contentBinding = ByteBufferBinding.getInstance();
+        assertFalse("Unchunked content database should have been removed",
+                    _environment.getDatabaseNames().contains(UpgradeFrom8To9.OLD_CONTENT_DB_NAME));
+
         CursorOperation contentCursorOperation = new CursorOperation()
         {
 
@@ -137,13 +136,13 @@ public class UpgraderTest extends AbstractUpgradeTestCase
             public void processEntry(Database sourceDatabase, Database targetDatabase, Transaction transaction, DatabaseEntry key,
                     DatabaseEntry value)
             {
-                long id = LongBinding.entryToLong(key);
+                long id = MessageContentKeyBinding.entryToMessageId(key);
                 assertTrue("Unexpected id", id > 0);
-                QpidByteBuffer content = contentBinding.entryToObject(value);
-                assertNotNull("Unexpected content", content);
-                assertTrue("Expected content", content.hasRemaining());
+                assertTrue("Unexpected chunk index", MessageContentKeyBinding.entryToChunkIndex(key) >= 0);
+                assertTrue("Expected content", value.getSize() > 0);
             }
         };
-        new DatabaseTemplate(_environment, "MESSAGE_CONTENT", null).run(contentCursorOperation);
+        new DatabaseTemplate(_environment, UpgradeFrom8To9.NEW_CONTENT_DB_NAME, null).run(contentCursorOperation);
+        assertTrue("Expected content chunks", contentCursorOperation.getRowCount() > 0);
     }
 }
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.security.PrivilegedExceptionAction;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Properties;
 import java.util.Set;
@@ -41,6 +42,7 @@ import org.apache.qpid.configuration.CommonProperties;
 import org.apache.qpid.server.configuration.BrokerProperties;
 import org.apache.qpid.server.configuration.updater.TaskExecutor;
 import org.apache.qpid.server.configuration.updater.TaskExecutorImpl;
+import org.apache.qpid.server.logging.AsyncMessageLogger;
 import org.apache.qpid.server.logging.EventLogger;
 import org.apache.qpid.server.logging.LoggingMessageLogger;
 import org.apache.qpid.server.logging.MessageLogger;
@@ -107,6 +109,11 @@ public class Broker
     {
         _taskExecutor.stop();
 
+        if (_eventLogger != null && _eventLogger.getMessageLogger() instanceof AsyncMessageLogger)
+        {
+            ((AsyncMessageLogger) _eventLogger.getMessageLogger()).stop();
+        }
+
         if (_shutdownAction != null)
         {
             _shutdownAction.performAction(exitStatusCode);
@@ -172,6 +179,13 @@ public class Broker
         // Create the RootLogger to be used during broker operation
         boolean statusUpdatesEnabled = Boolean.parseBoolean(System.getProperty(BrokerProperties.PROPERTY_STATUS_UPDATES, "true"));
         MessageLogger messageLogger = new LoggingMessageLogger(statusUpdatesEnabled);
+        if (Boolean.getBoolean(BrokerProperties.PROPERTY_ASYNC_STATUS_UPDATES))
+        {
+            int bufferSize = Integer.getInteger(BrokerProperties.PROPERTY_ASYNC_STATUS_UPDATES_BUFFER_SIZE,
+                                                BrokerProperties.DEFAULT_ASYNC_STATUS_UPDATES_BUFFER_SIZE);
+            AsyncMessageLogger.OverflowPolicy overflowPolicy = getAsyncStatusUpdatesOverflowPolicy();
+            messageLogger = new AsyncMessageLogger((LoggingMessageLogger) messageLogger, bufferSize, overflowPolicy);
+        }
         _eventLogger.setMessageLogger(messageLogger);
 
 
@@ -193,6 +207,26 @@ public class Broker
         }
     }
 
+    private AsyncMessageLogger.OverflowPolicy getAsyncStatusUpdatesOverflowPolicy()
+    {
+        AsyncMessageLogger.OverflowPolicy overflowPolicy = AsyncMessageLogger.OverflowPolicy.BLOCK;
+        String value = System.getProperty(BrokerProperties.PROPERTY_ASYNC_STATUS_UPDATES_OVERFLOW_POLICY);
+        if (value != null)
+        {
+            try
+            {
+                overflowPolicy = AsyncMessageLogger.OverflowPolicy.valueOf(value.trim().toUpperCase());
+            }
+            catch (IllegalArgumentException e)
+            {
+                LOGGER.warn("Invalid value '" + value + "' for system property "
+                            + BrokerProperties.PROPERTY_ASYNC_STATUS_UPDATES_OVERFLOW_POLICY + ", expected one of "
+                            + Arrays.toString(AsyncMessageLogger.OverflowPolicy.values()) + ". Using " + overflowPolicy);
+            }
+        }
+        return overflowPolicy;
+    }
+
     private void closeSystemConfigAndCleanUp()
     {
         try
@@ -35,6 +35,10 @@ public class BrokerProperties
     public static final String PROPERTY_DEAD_LETTER_QUEUE_SUFFIX = "qpid.broker_dead_letter_queue_suffix";
 
     public static final String PROPERTY_STATUS_UPDATES = "qpid.broker_status_updates";
+    public static final String PROPERTY_ASYNC_STATUS_UPDATES = "qpid.broker_async_status_updates";
+    public static final String PROPERTY_ASYNC_STATUS_UPDATES_BUFFER_SIZE = "qpid.broker_async_status_updates_buffer_size";
+    public static final int DEFAULT_ASYNC_STATUS_UPDATES_BUFFER_SIZE = 8192;
+    public static final String PROPERTY_ASYNC_STATUS_UPDATES_OVERFLOW_POLICY = "qpid.broker_async_status_updates_overflow_policy";
     public static final String PROPERTY_LOCALE = "qpid.broker_locale";
     public static final String PROPERTY_DEFAULT_SUPPORTED_PROTOCOL_REPLY = "qpid.broker_default_supported_protocol_version_reply";
     public static final String PROPERTY_DISABLED_FEATURES = "qpid.broker_disabled_features";
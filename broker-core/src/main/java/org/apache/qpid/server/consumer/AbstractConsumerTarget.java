@@ -22,6 +22,7 @@ package org.apache.qpid.server.consumer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -35,6 +36,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.apache.qpid.server.message.MessageInstance;
+import org.apache.qpid.server.model.Consumer;
 import org.apache.qpid.server.transport.AMQPConnection;
 import org.apache.qpid.server.util.StateChangeListener;
 
@@ -49,6 +51,7 @@ public abstract class AbstractConsumerTarget implements ConsumerTarget
     private final Lock _stateChangeLock = new ReentrantLock();
     private final AtomicInteger _stateActivates = new AtomicInteger();
     private ConcurrentLinkedQueue<ConsumerMessageInstancePair> _queue = new ConcurrentLinkedQueue();
+    private volatile int _priority = Consumer.DEFAULT_PRIORITY;
 
 
     protected AbstractConsumerTarget(final State initialState)
@@ -56,6 +59,32 @@ public abstract class AbstractConsumerTarget implements ConsumerTarget
         _state = new AtomicReference<State>(initialState);
     }
 
+    protected final void setPriority(final Map<String, Object> arguments)
+    {
+        final Object priority = arguments == null ? null : arguments.get(Consumer.PRIORITY_ARGUMENT);
+        if(priority instanceof Number)
+        {
+            _priority = ((Number) priority).intValue();
+        }
+        else if(priority instanceof String)
+        {
+            try
+            {
+                _priority = Integer.parseInt((String) priority);
+            }
+            catch (NumberFormatException e)
+            {
+                LOGGER.warn("Ignoring consumer priority '{}' as it is not a number", priority);
+            }
+        }
+    }
+
+    @Override
+    public int getPriority()
+    {
+        return _priority;
+    }
+
     @Override
     public boolean processPending()
     {
@@ -76,6 +76,8 @@ public interface ConsumerTarget
 
     boolean isSuspended();
 
+    int getPriority();
+
     boolean close();
 
     boolean trySendLock();
@@ -0,0 +1,313 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.logging;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.security.auth.Subject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A message logger which formats operational log messages on the calling thread but hands them to a dedicated
+ * thread to be appended by the underlying logger, so that slow appenders do not hold up the IO threads.
+ *
+ * Messages are passed through a bounded ring buffer and appended in batches. Each message retains the
+ * {@link Subject} of the thread which logged it, and is appended within that subject so that principal-based
+ * log inclusion rules continue to apply. What happens when the buffer is full is determined by the
+ * {@link OverflowPolicy}.
+ */
+public class AsyncMessageLogger extends AbstractMessageLogger
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncMessageLogger.class);
+
+    public enum OverflowPolicy
+    {
+        /** The logging thread waits until there is space in the buffer */
+        BLOCK,
+        /** The message is discarded */
+        DROP,
+        /** The message is discarded, and a single message summarising the number discarded is logged later */
+        SUMMARISE
+    }
+
+    static final int DEFAULT_BATCH_SIZE = 256;
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCKED_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long STOP_TIMEOUT_MILLIS = 10000L;
+
+    private final AbstractMessageLogger _delegate;
+    private final OverflowPolicy _overflowPolicy;
+    private final int _batchSize;
+    private final LogEventRingBuffer<LogEntry> _buffer;
+    private final AtomicLong _droppedMessageCount = new AtomicLong();
+    private final AtomicLong _unreportedDroppedMessageCount = new AtomicLong();
+    private final Thread _writerThread;
+    private volatile boolean _writerWaiting;
+    private volatile boolean _stopped;
+
+    public AsyncMessageLogger(final AbstractMessageLogger delegate,
+                              final int bufferSize,
+                              final OverflowPolicy overflowPolicy)
+    {
+        this(delegate, bufferSize, overflowPolicy, DEFAULT_BATCH_SIZE);
+    }
+
+    AsyncMessageLogger(final AbstractMessageLogger delegate,
+                       final int bufferSize,
+                       final OverflowPolicy overflowPolicy,
+                       final int batchSize)
+    {
+        super(delegate.isEnabled());
+        _delegate = delegate;
+        _overflowPolicy = overflowPolicy;
+        _batchSize = batchSize;
+        _buffer = new LogEventRingBuffer<>(bufferSize);
+        _writerThread = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                writeLoop();
+            }
+        }, "OperationalLogWriter");
+        _writerThread.setDaemon(true);
+        _writerThread.start();
+    }
+
+    @Override
+    public boolean isMessageEnabled(final String logHierarchy)
+    {
+        return _delegate.isMessageEnabled(logHierarchy);
+    }
+
+    @Override
+    void rawMessage(final String message, final String logHierarchy)
+    {
+        rawMessage(message, null, logHierarchy);
+    }
+
+    @Override
+    void rawMessage(final String message, final Throwable throwable, final String logHierarchy)
+    {
+        if (_stopped || Thread.currentThread() == _writerThread)
+        {
+            _delegate.rawMessage(message, throwable, logHierarchy);
+            return;
+        }
+
+        LogEntry entry = new LogEntry(message,
+                                      throwable,
+                                      logHierarchy,
+                                      Subject.getSubject(AccessController.getContext()));
+        while (!_buffer.offer(entry))
+        {
+            if (_overflowPolicy != OverflowPolicy.BLOCK)
+            {
+                _droppedMessageCount.incrementAndGet();
+                if (_overflowPolicy == OverflowPolicy.SUMMARISE)
+                {
+                    _unreportedDroppedMessageCount.incrementAndGet();
+                }
+                return;
+            }
+            else if (_stopped)
+            {
+                _delegate.rawMessage(message, throwable, logHierarchy);
+                return;
+            }
+            LockSupport.unpark(_writerThread);
+            LockSupport.parkNanos(this, BLOCKED_WAIT_NANOS);
+        }
+
+        if (_writerWaiting)
+        {
+            LockSupport.unpark(_writerThread);
+        }
+    }
+
+    public long getDroppedMessageCount()
+    {
+        return _droppedMessageCount.get();
+    }
+
+    public OverflowPolicy getOverflowPolicy()
+    {
+        return _overflowPolicy;
+    }
+
+    /**
+     * Stops the writer thread once the messages already buffered have been appended.  Messages logged after
+     * this point are appended synchronously.
+     */
+    public void stop()
+    {
+        _stopped = true;
+        LockSupport.unpark(_writerThread);
+        try
+        {
+            _writerThread.join(STOP_TIMEOUT_MILLIS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        // pick up anything which raced with the writer thread's final drain
+        List<LogEntry> batch = new ArrayList<>(_batchSize);
+        while (_buffer.drainTo(batch, _batchSize) > 0)
+        {
+            write(batch);
+            batch.clear();
+        }
+        reportDroppedMessages();
+    }
+
+    private void writeLoop()
+    {
+        List<LogEntry> batch = new ArrayList<>(_batchSize);
+        while (true)
+        {
+            if (_buffer.drainTo(batch, _batchSize) > 0)
+            {
+                write(batch);
+                batch.clear();
+            }
+            else
+            {
+                reportDroppedMessages();
+                if (_stopped)
+                {
+                    break;
+                }
+                _writerWaiting = true;
+                if (_buffer.isEmpty() && !_stopped)
+                {
+                    LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+                }
+                _writerWaiting = false;
+            }
+        }
+    }
+
+    private void write(final List<LogEntry> batch)
+    {
+        int start = 0;
+        while (start < batch.size())
+        {
+            // append runs of consecutive entries logged within the same subject together
+            final Subject subject = batch.get(start).getSubject();
+            int end = start + 1;
+            while (end < batch.size() && batch.get(end).getSubject() == subject)
+            {
+                end++;
+            }
+            final List<LogEntry> run = batch.subList(start, end);
+            try
+            {
+                if (subject == null)
+                {
+                    append(run);
+                }
+                else
+                {
+                    Subject.doAs(subject, new PrivilegedAction<Void>()
+                    {
+                        @Override
+                        public Void run()
+                        {
+                            append(run);
+                            return null;
+                        }
+                    });
+                }
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.warn("Failed to append operational log messages", e);
+            }
+            start = end;
+        }
+    }
+
+    private void append(final List<LogEntry> entries)
+    {
+        for (LogEntry entry : entries)
+        {
+            _delegate.rawMessage(entry.getMessage(), entry.getThrowable(), entry.getLogHierarchy());
+        }
+    }
+
+    private void reportDroppedMessages()
+    {
+        long dropped = _unreportedDroppedMessageCount.getAndSet(0L);
+        if (dropped > 0)
+        {
+            LOGGER.warn("{} operational log message(s) were discarded as the log buffer was full", dropped);
+        }
+    }
+
+    private static final class LogEntry
+    {
+        private final String _message;
+        private final Throwable _throwable;
+        private final String _logHierarchy;
+        private final Subject _subject;
+
+        private LogEntry(final String message,
+                         final Throwable throwable,
+                         final String logHierarchy,
+                         final Subject subject)
+        {
+            _message = message;
+            _throwable = throwable;
+            _logHierarchy = logHierarchy;
+            _subject = subject;
+        }
+
+        String getMessage()
+        {
+            return _message;
+        }
+
+        Throwable getThrowable()
+        {
+            return _throwable;
+        }
+
+        String getLogHierarchy()
+        {
+            return _logHierarchy;
+        }
+
+        Subject getSubject()
+        {
+            return _subject;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.logging;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free, multi-producer ring buffer.
+ *
+ * Each slot carries a sequence number which tells producers and consumers whether the slot is free for
+ * the position they have claimed; positions are claimed by compare-and-set on the head/tail counters.
+ * The capacity is rounded up to the next power of two.
+ */
+final class LogEventRingBuffer<E>
+{
+    private final int _mask;
+    private final AtomicReferenceArray<E> _elements;
+    private final AtomicLongArray _sequences;
+    private final AtomicLong _head = new AtomicLong();
+    private final AtomicLong _tail = new AtomicLong();
+
+    LogEventRingBuffer(final int requestedCapacity)
+    {
+        if (requestedCapacity <= 0)
+        {
+            throw new IllegalArgumentException("Capacity must be positive: " + requestedCapacity);
+        }
+        int capacity = Integer.highestOneBit(requestedCapacity);
+        if (capacity < requestedCapacity)
+        {
+            capacity <<= 1;
+        }
+        _mask = capacity - 1;
+        _elements = new AtomicReferenceArray<>(capacity);
+        _sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++)
+        {
+            _sequences.set(i, i);
+        }
+    }
+
+    int capacity()
+    {
+        return _mask + 1;
+    }
+
+    /**
+     * @return false if the buffer is full
+     */
+    boolean offer(final E element)
+    {
+        if (element == null)
+        {
+            throw new NullPointerException();
+        }
+        long position = _tail.get();
+        while (true)
+        {
+            int index = (int) (position & _mask);
+            long difference = _sequences.get(index) - position;
+            if (difference == 0)
+            {
+                if (_tail.compareAndSet(position, position + 1))
+                {
+                    _elements.set(index, element);
+                    _sequences.set(index, position + 1);
+                    return true;
+                }
+            }
+            else if (difference < 0)
+            {
+                return false;
+            }
+            position = _tail.get();
+        }
+    }
+
+    /**
+     * @return the oldest element, or null if the buffer is empty
+     */
+    E poll()
+    {
+        long position = _head.get();
+        while (true)
+        {
+            int index = (int) (position & _mask);
+            long difference = _sequences.get(index) - (position + 1);
+            if (difference == 0)
+            {
+                if (_head.compareAndSet(position, position + 1))
+                {
+                    E element = _elements.get(index);
+                    _elements.set(index, null);
+                    _sequences.set(index, position + _mask + 1);
+                    return element;
+                }
+            }
+            else if (difference < 0)
+            {
+                return null;
+            }
+            position = _head.get();
+        }
+    }
+
+    int drainTo(final Collection<? super E> target, final int maxElements)
+    {
+        int drained = 0;
+        E element;
+        while (drained < maxElements && (element = poll()) != null)
+        {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    boolean isEmpty()
+    {
+        return _head.get() >= _tail.get();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.message;
+
+import java.util.List;
+
+public class MessageInfoPageImpl implements MessageInfoPage
+{
+    private final List<MessageInfo> _messages;
+    private final String _cursor;
+    private final long _firstPosition;
+
+    public MessageInfoPageImpl(final List<MessageInfo> messages, final String cursor, final long firstPosition)
+    {
+        _messages = messages;
+        _cursor = cursor;
+        _firstPosition = firstPosition;
+    }
+
+    @Override
+    public List<MessageInfo> getMessages()
+    {
+        return _messages;
+    }
+
+    @Override
+    public String getCursor()
+    {
+        return _cursor;
+    }
+
+    @Override
+    public long getFirstPosition()
+    {
+        return _firstPosition;
+    }
+}
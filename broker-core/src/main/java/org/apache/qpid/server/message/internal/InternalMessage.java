@@ -258,6 +258,12 @@ public class InternalMessage extends AbstractServerMessageImpl<InternalMessage,
                     {
                         return false;
                     }
+
+                    @Override
+                    public void reallocate()
+                    {
+
+                    }
                 };
             }
         }
@@ -108,6 +108,12 @@ public class InternalMessageMetaData implements StorableMessageMetaData
 
     }
 
+    @Override
+    public void reallocate()
+    {
+
+    }
+
     static InternalMessageMetaData create(boolean persistent, final InternalMessageHeader header, int contentSize)
     {
         return new InternalMessageMetaData(persistent, header, contentSize);
@@ -50,6 +50,8 @@ public interface Broker<X extends Broker<X>> extends ConfiguredObject<X>, EventL
     String CONNECTION_CLOSE_WHEN_NO_ROUTE = "connection.closeWhenNoRoute";
 
     String BROKER_FLOW_TO_DISK_THRESHOLD = "broker.flowToDiskThreshold";
+    String BROKER_DIRECT_MEMORY_FLOW_CONTROL_THRESHOLD = "broker.directMemoryFlowControlThreshold";
+    String BROKER_DIRECT_MEMORY_FLOW_RESUME_THRESHOLD = "broker.directMemoryFlowResumeThreshold";
     String BROKER_FAIL_STARTUP_WITH_ERRORED_CHILD = "broker.failStartupWithErroredChild";
 
     String BROKER_MSG_AUTH = "qpid.broker_msg_auth";
@@ -81,6 +83,16 @@ public interface Broker<X extends Broker<X>> extends ConfiguredObject<X>, EventL
     @ManagedContextDefault(name = BROKER_FLOW_TO_DISK_THRESHOLD)
     long DEFAULT_FLOW_TO_DISK_THRESHOLD = (long)(0.4 * (double) BrokerAdapter.getMaxDirectMemorySize());
 
+    // AMQP 1.0 receiving links reduce their credit as the pooled direct memory claimed by buffers rises from the resume
+    // threshold to the threshold.  0-8/0-9/0-10 producers are not throttled.  Above the threshold the producers of every
+    // protocol on every virtualhost are blocked until it falls back to the resume threshold.  A threshold of zero
+    // disables this flow control.
+    @ManagedContextDefault(name = BROKER_DIRECT_MEMORY_FLOW_CONTROL_THRESHOLD)
+    long DEFAULT_DIRECT_MEMORY_FLOW_CONTROL_THRESHOLD = (long)(0.8 * (double) BrokerAdapter.getMaxDirectMemorySize());
+
+    @ManagedContextDefault(name = BROKER_DIRECT_MEMORY_FLOW_RESUME_THRESHOLD)
+    long DEFAULT_DIRECT_MEMORY_FLOW_RESUME_THRESHOLD = (long)(0.7 * (double) BrokerAdapter.getMaxDirectMemorySize());
+
     @ManagedContextDefault(name = CHANNEL_FLOW_CONTROL_ENFORCEMENT_TIMEOUT)
     long DEFAULT_CHANNEL_FLOW_CONTROL_ENFORCEMENT_TIMEOUT = 5000l;
 
@@ -145,6 +157,12 @@ public interface Broker<X extends Broker<X>> extends ConfiguredObject<X>, EventL
     @ManagedContextDefault(name = BROKER_DIRECT_BYTE_BUFFER_POOL_SIZE)
     int DEFAULT_BROKER_DIRECT_BYTE_BUFFER_POOL_SIZE = 1024;
 
+    // Pooled buffers of which less than this fraction is in use are sparse.  While the pooled buffers in use are sparse
+    // overall, the queue housekeeping pass copies the content of queued messages held in sparse buffers to compact ones
+    String BROKER_DIRECT_BYTE_BUFFER_POOL_SPARSITY_REALLOCATION_FRACTION = "broker.directByteBufferPoolSparsityReallocationFraction";
+    @ManagedContextDefault(name = BROKER_DIRECT_BYTE_BUFFER_POOL_SPARSITY_REALLOCATION_FRACTION)
+    double DEFAULT_BROKER_DIRECT_BYTE_BUFFER_POOL_SPARSITY_REALLOCATION_FRACTION = 0.5;
+
     @ManagedAttribute(validValues = {"org.apache.qpid.server.model.adapter.BrokerAdapter#getAvailableConfigurationEncrypters()"})
     String getConfidentialConfigurationEncryptionProvider();
 
@@ -163,6 +181,22 @@ public interface Broker<X extends Broker<X>> extends ConfiguredObject<X>, EventL
     @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.MESSAGES, label = "Outbound")
     long getMessagesOut();
 
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Dropped Operational Log Messages")
+    long getDroppedOperationalLogMessages();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES, label = "Pooled Direct Memory",
+                      description = "Direct memory held by the pooled network buffers currently in use.")
+    long getPooledDirectMemoryBytes();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES, label = "Pooled Direct Memory In Use",
+                      description = "Direct memory of the pooled network buffers in use which is referenced by messages"
+                                    + " or connections. The remainder is pinned only by the references.")
+    long getPooledDirectMemoryClaimedBytes();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.BYTES, label = "Direct Memory Used",
+                      description = "Direct memory allocated by the JVM for direct buffers, pooled or otherwise.")
+    long getUsedDirectMemorySize();
+
     @ManagedOperation(nonModifying = true, description = "Initiates an orderly shutdown of the Broker.")
     void initiateShutdown();
 
@@ -51,6 +51,20 @@ public interface Connection<X extends Connection<X>> extends ConfiguredObject<X>
     @ManagedContextDefault(name = MAX_UNCOMMITTED_IN_MEMORY_SIZE)
     long DEFAULT_MAX_UNCOMMITTED_IN_MEMORY_SIZE = 10l * 1024l * 1024l;
 
+    String PUBLISH_ENQUEUE_BATCH_SIZE = "connection.publishEnqueueBatchSize";
+
+    // Maximum number of auto-committed publishes whose enqueue records share a single store transaction; 0 disables
+    // batching.  Routing and the queue enqueues themselves are still performed per message.
+    @ManagedContextDefault(name = PUBLISH_ENQUEUE_BATCH_SIZE)
+    int DEFAULT_PUBLISH_ENQUEUE_BATCH_SIZE = 0;
+
+    String PUBLISH_CREDIT_TARGET_COMMIT_LATENCY = "connection.publishCreditTargetCommitLatency";
+
+    // Average store commit latency, in milliseconds, above which the credit offered to AMQP 1.0 producers is reduced
+    // in proportion; 0 disables this
+    @ManagedContextDefault(name = PUBLISH_CREDIT_TARGET_COMMIT_LATENCY)
+    long DEFAULT_PUBLISH_CREDIT_TARGET_COMMIT_LATENCY = 50l;
+
     @DerivedAttribute
     String getClientId();
 
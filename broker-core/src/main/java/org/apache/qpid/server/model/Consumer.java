@@ -28,6 +28,12 @@ public interface Consumer<X extends Consumer<X>> extends ConfiguredObject<X>
     public String NO_LOCAL = "noLocal";
     public String SELECTOR = "selector";
     public String SETTLEMENT_MODE = "settlementMode";
+    public String PRIORITY = "priority";
+
+    // Consume argument with which a client requests a consumer priority.  A queue does not deliver a message to a
+    // consumer while a consumer of higher priority is able to accept it.
+    String PRIORITY_ARGUMENT = "x-priority";
+    int DEFAULT_PRIORITY = 0;
 
     String SUSPEND_NOTIFICATION_PERIOD = "consumer.suspendNotificationPeriod";
 
@@ -49,6 +55,9 @@ public interface Consumer<X extends Consumer<X>> extends ConfiguredObject<X>
     @ManagedAttribute
     String getSelector();
 
+    @ManagedAttribute
+    int getPriority();
+
     @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.BYTES, label = "Outbound")
     long getBytesOut();
 
@@ -27,6 +27,8 @@ import java.util.Map;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import org.apache.qpid.server.message.MessageInfo;
+import org.apache.qpid.server.message.MessageInfoPage;
+import org.apache.qpid.server.queue.QueueEntryPage;
 import org.apache.qpid.server.queue.QueueEntryVisitor;
 import org.apache.qpid.server.store.MessageDurability;
 
@@ -69,10 +71,39 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>
     @ManagedContextDefault( name = QUEUE_ESTIMATED_MESSAGE_MEMORY_OVERHEAD)
     long DEFAULT_ESTIMATED_MESSAGE_MEMORY_OVERHEAD = 1024l;
 
+    String QUEUE_EXPIRY_TICK_PERIOD = "queue.expiryTickPeriod";
+    @ManagedContextDefault( name = QUEUE_EXPIRY_TICK_PERIOD)
+    long DEFAULT_EXPIRY_TICK_PERIOD = 1000l;
+
+    // Time in milliseconds for which a browse cursor remains usable after it was last used
+    String QUEUE_BROWSE_CURSOR_TIMEOUT = "queue.browseCursorTimeout";
+    @ManagedContextDefault( name = QUEUE_BROWSE_CURSOR_TIMEOUT)
+    long DEFAULT_BROWSE_CURSOR_TIMEOUT = 300000l;
+
+    // The maximum number of browse cursors held by a queue, beyond which the least recently used are discarded
+    String QUEUE_MAX_BROWSE_CURSORS = "queue.maxBrowseCursors";
+    @ManagedContextDefault( name = QUEUE_MAX_BROWSE_CURSORS)
+    int DEFAULT_MAX_BROWSE_CURSORS = 100;
+
+    // The maximum number of entries examined for reallocation out of sparse pooled buffers by each housekeeping pass
+    String QUEUE_REALLOCATION_BATCH_SIZE = "queue.reallocationBatchSize";
+    @ManagedContextDefault( name = QUEUE_REALLOCATION_BATCH_SIZE)
+    int DEFAULT_QUEUE_REALLOCATION_BATCH_SIZE = 1000;
+
     String MAX_ASYNCHRONOUS_DELIVERIES = "queue.maxAsynchronousDeliveries";
     @ManagedContextDefault(name = MAX_ASYNCHRONOUS_DELIVERIES )
     int DEFAULT_MAX_ASYNCHRONOUS_DELIVERIES = 80;
 
+    // The class in which the queue's runner is scheduled: LATENCY_CRITICAL, NORMAL or BULK
+    String QUEUE_RUNNER_PRIORITY_CLASS = "queue.runnerPriorityClass";
+    @ManagedContextDefault( name = QUEUE_RUNNER_PRIORITY_CLASS)
+    String DEFAULT_QUEUE_RUNNER_PRIORITY_CLASS = "NORMAL";
+
+    // Time in microseconds after which a run of the queue's runner stops delivering and schedules itself again
+    String QUEUE_RUNNER_TIME_SLICE = "queue.runnerTimeSlice";
+    @ManagedContextDefault( name = QUEUE_RUNNER_TIME_SLICE)
+    long DEFAULT_QUEUE_RUNNER_TIME_SLICE = 5000l;
+
     @ManagedAttribute
     Exchange getAlternateExchange();
 
@@ -183,6 +214,16 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>
 
     void visit(QueueEntryVisitor visitor);
 
+    /**
+     * Returns up to count entries following the position recorded by the given cursor, or from the head of the queue
+     * if the cursor is null or empty.  The cost is proportional to the size of the page rather than its position.
+     * The given cursor is advanced past the returned entries and returned with the page; a new cursor is created only
+     * when browsing from the head of the queue.
+     *
+     * @throws IllegalArgumentException if the cursor is unknown or has expired
+     */
+    QueueEntryPage browse(String cursor, int count);
+
     ListenableFuture<Integer> deleteAndReturnCount();
 
     void setNotificationListener(QueueNotificationListener listener);
@@ -235,6 +276,27 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>
     @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.ABSOLUTE_TIME, label = "Oldest Message")
     long getOldestMessageAge();
 
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Dispatch Passes")
+    long getDispatchPasses();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Consumers Skipped Without Credit")
+    long getConsumersSkippedWithoutCredit();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Lower Priority Dispatch Deferrals")
+    long getLowerPriorityDispatchDeferrals();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Queue Runner Delay (median)",
+                      description = "The median time in microseconds from the queue's runner being scheduled until it started to run")
+    long getQueueRunnerDelayMedian();
+
+    @ManagedStatistic(statisticType = StatisticType.POINT_IN_TIME, units = StatisticUnit.TIME_DURATION, label = "Queue Runner Delay (99th percentile)",
+                      description = "The 99th percentile time in microseconds from the queue's runner being scheduled until it started to run")
+    long getQueueRunnerDelay99thPercentile();
+
+    @ManagedStatistic(statisticType = StatisticType.CUMULATIVE, units = StatisticUnit.COUNT, label = "Queue Runner Time Slice Expiries",
+                      description = "The number of runs of the queue's runner that were ended by its time slice")
+    long getQueueRunnerTimeSliceExpiries();
+
     @ManagedOperation
     List<Long> moveMessages(@Param(name = "destination") Queue<?> destination, @Param(name = "messageIds") List<Long> messageIds);
 
@@ -250,12 +312,24 @@ public interface Queue<X extends Queue<X>> extends ConfiguredObject<X>
     @ManagedOperation
     long clearQueue();
 
+    /**
+     * Returns the histogram of the delay in microseconds from the queue's runner being scheduled until it started to
+     * run, as a map from the upper bound of every non-empty bucket to the number of delays recorded in it.
+     */
+    @ManagedOperation(nonModifying = true)
+    Map<String, Long> getQueueRunnerDelayHistogram();
+
     @ManagedOperation(nonModifying = true)
     Content getMessageContent(@Param(name = "messageId") long messageId);
 
     @ManagedOperation(nonModifying = true)
     List<MessageInfo> getMessageInfo(@Param(name = "first", defaultValue = "-1") int first, @Param(name = "last", defaultValue = "-1") int last);
 
+    @ManagedOperation(nonModifying = true)
+    MessageInfoPage getMessageInfoPage(@Param(name = "cursor", defaultValue = "") String cursor,
+                                       @Param(name = "count", defaultValue = "100") int count,
+                                       @Param(name = "includeHeaders", defaultValue = "false") boolean includeHeaders);
+
     @ManagedOperation(nonModifying = true)
     MessageInfo getMessageInfoById(@Param(name = "messageId") long messageId);
 
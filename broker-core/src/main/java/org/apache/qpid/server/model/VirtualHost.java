@@ -146,6 +146,76 @@ public interface VirtualHost<X extends VirtualHost<X, Q, E>, Q extends Queue<?>,
     @ManagedContextDefault( name = "virtualhost.disabledConnectionValidators")
     String DEFAULT_DISABLED_VALIDATORS = "[]";
 
+    // The message spill settings apply only to virtualhosts whose message store holds all messages in memory.
+    // Spilling is off unless enabled, as it writes message content to the virtualhost's work directory.
+    String MESSAGE_SPILL_ENABLED = "virtualhost.messageSpillEnabled";
+    @ManagedContextDefault( name = MESSAGE_SPILL_ENABLED)
+    boolean DEFAULT_MESSAGE_SPILL_ENABLED = false;
+
+    String MESSAGE_SPILL_DIRECTORY = "virtualhost.messageSpillDirectory";
+    @ManagedContextDefault( name = MESSAGE_SPILL_DIRECTORY)
+    String DEFAULT_MESSAGE_SPILL_DIRECTORY = "${" + VIRTUALHOST_WORK_DIR_VAR + "}${file.separator}spill";
+
+    String MESSAGE_SPILL_SEGMENT_SIZE = "virtualhost.messageSpillSegmentSize";
+    @ManagedContextDefault( name = MESSAGE_SPILL_SEGMENT_SIZE)
+    long DEFAULT_MESSAGE_SPILL_SEGMENT_SIZE = 64l * 1024l * 1024l;
+
+    // Producers are blocked while the total depth of the virtualhost's queues exceeds the flow control size, until it
+    // falls to the resume size.  Producers of every protocol are blocked, and none is throttled beforehand.  A flow
+    // control size of zero disables this flow control.
+    String VIRTUALHOST_FLOW_CONTROL_SIZE_BYTES = "virtualhost.flowControlSizeBytes";
+    @ManagedContextDefault( name = VIRTUALHOST_FLOW_CONTROL_SIZE_BYTES)
+    long DEFAULT_FLOW_CONTROL_SIZE_BYTES = 0l;
+
+    String VIRTUALHOST_FLOW_RESUME_SIZE_BYTES = "virtualhost.flowResumeSizeBytes";
+    @ManagedContextDefault( name = VIRTUALHOST_FLOW_RESUME_SIZE_BYTES)
+    long DEFAULT_FLOW_RESUME_SIZE_BYTES = 0l;
+
+    // Period in milliseconds at which queue depth and direct memory usage are checked against their flow control thresholds
+    String VIRTUALHOST_FLOW_CONTROL_CHECK_PERIOD = "virtualhost.flowControlCheckPeriod";
+    @ManagedContextDefault( name = VIRTUALHOST_FLOW_CONTROL_CHECK_PERIOD)
+    long DEFAULT_FLOW_CONTROL_CHECK_PERIOD = 1000l;
+
+    // Queue runners are run on their own pool of threads, with further threads reserved for latency critical queues
+    String VIRTUALHOST_QUEUE_RUNNER_THREAD_COUNT = "virtualhost.queueRunnerThreadCount";
+    @ManagedContextDefault( name = VIRTUALHOST_QUEUE_RUNNER_THREAD_COUNT)
+    int DEFAULT_QUEUE_RUNNER_THREAD_COUNT = Math.max(Runtime.getRuntime().availableProcessors(), 2);
+
+    String VIRTUALHOST_QUEUE_RUNNER_LATENCY_CRITICAL_THREAD_COUNT = "virtualhost.queueRunnerLatencyCriticalThreadCount";
+    @ManagedContextDefault( name = VIRTUALHOST_QUEUE_RUNNER_LATENCY_CRITICAL_THREAD_COUNT)
+    int DEFAULT_QUEUE_RUNNER_LATENCY_CRITICAL_THREAD_COUNT = 1;
+
+    // Time in milliseconds by which the runners of bulk queues are ordered behind those of normal queues
+    String VIRTUALHOST_QUEUE_RUNNER_BULK_DEFERRAL = "virtualhost.queueRunnerBulkDeferral";
+    @ManagedContextDefault( name = VIRTUALHOST_QUEUE_RUNNER_BULK_DEFERRAL)
+    long DEFAULT_QUEUE_RUNNER_BULK_DEFERRAL = 50l;
+
+    // The large message content settings apply only to virtualhosts whose message store is BDB (not HA) or JDBC
+    String LARGE_MESSAGE_CONTENT_THRESHOLD = "virtualhost.largeMessageContentThreshold";
+    @ManagedContextDefault( name = LARGE_MESSAGE_CONTENT_THRESHOLD)
+    int DEFAULT_LARGE_MESSAGE_CONTENT_THRESHOLD = -1;
+
+    String LARGE_MESSAGE_CONTENT_DIRECTORY = "virtualhost.largeMessageContentDirectory";
+    @ManagedContextDefault( name = LARGE_MESSAGE_CONTENT_DIRECTORY)
+    String DEFAULT_LARGE_MESSAGE_CONTENT_DIRECTORY = "${" + VIRTUALHOST_WORK_DIR_VAR + "}${file.separator}largecontent";
+
+    String LARGE_MESSAGE_CONTENT_SEGMENT_SIZE = "virtualhost.largeMessageContentSegmentSize";
+    @ManagedContextDefault( name = LARGE_MESSAGE_CONTENT_SEGMENT_SIZE)
+    long DEFAULT_LARGE_MESSAGE_CONTENT_SEGMENT_SIZE = 256l * 1024l * 1024l;
+
+    String LARGE_MESSAGE_CONTENT_COMPACTION_OCCUPANCY = "virtualhost.largeMessageContentCompactionOccupancy";
+    @ManagedContextDefault( name = LARGE_MESSAGE_CONTENT_COMPACTION_OCCUPANCY)
+    int DEFAULT_LARGE_MESSAGE_CONTENT_COMPACTION_OCCUPANCY = 50;
+
+    // The message content compression settings apply only to virtualhosts whose message store is BDB or JDBC
+    String MESSAGE_CONTENT_COMPRESSION_THRESHOLD = "virtualhost.messageContentCompressionThreshold";
+    @ManagedContextDefault( name = MESSAGE_CONTENT_COMPRESSION_THRESHOLD)
+    int DEFAULT_MESSAGE_CONTENT_COMPRESSION_THRESHOLD = -1;
+
+    String MESSAGE_CONTENT_COMPRESSION_CODEC = "virtualhost.messageContentCompressionCodec";
+    @ManagedContextDefault( name = MESSAGE_CONTENT_COMPRESSION_CODEC)
+    String DEFAULT_MESSAGE_CONTENT_COMPRESSION_CODEC = "deflate";
+
     @ManagedAttribute( defaultValue = "${virtualhost.disabledConnectionValidators}")
     List<String> getDisabledConnectionValidators();
 
@@ -20,6 +20,7 @@
  */
 package org.apache.qpid.server.model.adapter;
 
+import java.lang.management.BufferPoolMXBean;
 import java.lang.management.ManagementFactory;
 import java.lang.management.PlatformManagedObject;
 import java.lang.management.RuntimeMXBean;
@@ -54,8 +55,10 @@ import org.slf4j.LoggerFactory;
 import org.apache.qpid.configuration.CommonProperties;
 import org.apache.qpid.server.BrokerOptions;
 import org.apache.qpid.server.configuration.IllegalConfigurationException;
+import org.apache.qpid.server.logging.AsyncMessageLogger;
 import org.apache.qpid.server.logging.EventLogger;
 import org.apache.qpid.server.logging.LogRecorder;
+import org.apache.qpid.server.logging.MessageLogger;
 import org.apache.qpid.server.logging.messages.BrokerMessages;
 import org.apache.qpid.server.logging.messages.VirtualHostMessages;
 import org.apache.qpid.server.model.*;
@@ -185,8 +188,9 @@ public class BrokerAdapter extends AbstractConfiguredObject<BrokerAdapter> imple
         _networkBufferSize = networkBufferSize;
 
         int poolSize = getContextValue(Integer.class, BROKER_DIRECT_BYTE_BUFFER_POOL_SIZE);
+        double sparsityFraction = getContextValue(Double.class, BROKER_DIRECT_BYTE_BUFFER_POOL_SPARSITY_REALLOCATION_FRACTION);
 
-        QpidByteBuffer.initialisePool(_networkBufferSize, poolSize);
+        QpidByteBuffer.initialisePool(_networkBufferSize, poolSize, sparsityFraction);
     }
 
     @Override
@@ -610,6 +614,33 @@ public class BrokerAdapter extends AbstractConfiguredObject<BrokerAdapter> imple
         return getMessageDeliveryStatistics().getTotal();
     }
 
+    @Override
+    public long getPooledDirectMemoryBytes()
+    {
+        return QpidByteBuffer.getPooledBufferBytes();
+    }
+
+    @Override
+    public long getPooledDirectMemoryClaimedBytes()
+    {
+        return QpidByteBuffer.getPooledBufferClaimedBytes();
+    }
+
+    @Override
+    public long getUsedDirectMemorySize()
+    {
+        return getDirectMemoryUsed();
+    }
+
+    @Override
+    public long getDroppedOperationalLogMessages()
+    {
+        MessageLogger messageLogger = getEventLogger().getMessageLogger();
+        return messageLogger instanceof AsyncMessageLogger
+                ? ((AsyncMessageLogger) messageLogger).getDroppedMessageCount()
+                : 0L;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <C extends ConfiguredObject> ListenableFuture<C> addChildAsync(final Class<C> childClass, final Map<String, Object> attributes, final ConfiguredObject... otherParents)
@@ -979,6 +1010,18 @@ public class BrokerAdapter extends AbstractConfiguredObject<BrokerAdapter> imple
         return maxMemory;
     }
 
+    public static long getDirectMemoryUsed()
+    {
+        for (BufferPoolMXBean bufferPool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class))
+        {
+            if ("direct".equals(bufferPool.getName()))
+            {
+                return bufferPool.getMemoryUsed();
+            }
+        }
+        return 0l;
+    }
+
     @Override
     public int getNetworkBufferSize()
     {
@@ -59,6 +59,7 @@ public interface AmqpPort<X extends AmqpPort<X>> extends ClientAuthCapablePort<X
     String PORT_AMQP_NUMBER_OF_SELECTORS = "qpid.port.amqp.threadPool.numberOfSelectors";
     String PORT_AMQP_ACCEPT_BACKLOG = "qpid.port.amqp.acceptBacklog";
     String PORT_AMQP_OUTBOUND_MESSAGE_BUFFER_SIZE = "qpid.port.amqp.outboundMessageBufferSize";
+    String PORT_AMQP_IDLE_BUFFER_RELEASE_PERIOD = "qpid.port.amqp.idleBufferReleasePeriod";
 
     @ManagedContextDefault(name = DEFAULT_AMQP_PROTOCOLS)
     String INSTALLED_PROTOCOLS = AmqpPortImpl.getInstalledProtocolsAsString();
@@ -98,6 +99,9 @@ public interface AmqpPort<X extends AmqpPort<X>> extends ClientAuthCapablePort<X
     @ManagedContextDefault(name = PORT_AMQP_OUTBOUND_MESSAGE_BUFFER_SIZE)
     long DEFAULT_PORT_AMQP_OUTBOUND_MESSAGE_BUFFER_SIZE = 1024 * 1024;
 
+    @ManagedContextDefault(name = PORT_AMQP_IDLE_BUFFER_RELEASE_PERIOD)
+    long DEFAULT_PORT_AMQP_IDLE_BUFFER_RELEASE_PERIOD = 5000; // Milliseconds
+
     SSLContext getSSLContext();
 
     @ManagedAttribute(defaultValue = "*")
@@ -0,0 +1,48 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.plugin;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+
+/**
+ * A codec applied by the persistent message stores to message content before it is written.  The ordinal of the codec
+ * is recorded beside the content it has encoded, so must not change once a codec has been released.
+ */
+public interface MessageContentCodec extends Pluggable
+{
+    int ordinal();
+
+    /**
+     * Encodes the given content, returning null if the encoded form would be no smaller than the content itself.
+     * The positions of the given buffers are unaffected.
+     */
+    byte[] encode(Collection<QpidByteBuffer> content, int length);
+
+    /**
+     * Decodes the given data into direct buffers, which must be disposed by the caller.
+     *
+     * @param decodedLength the length of the content before it was encoded
+     */
+    Collection<QpidByteBuffer> decode(byte[] data, int offset, int length, int decodedLength) throws IOException;
+}
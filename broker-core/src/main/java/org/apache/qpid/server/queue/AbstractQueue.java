@@ -29,11 +29,14 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -41,6 +44,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -54,6 +58,8 @@ import com.google.common.util.concurrent.ListenableFuture;
 import org.apache.qpid.server.configuration.updater.Task;
 import org.apache.qpid.server.message.MessageInfo;
 import org.apache.qpid.server.message.MessageInfoImpl;
+import org.apache.qpid.server.message.MessageInfoPage;
+import org.apache.qpid.server.message.MessageInfoPageImpl;
 import org.apache.qpid.server.model.CustomRestHeaders;
 import org.apache.qpid.server.model.RestContentHeader;
 
@@ -61,6 +67,7 @@ import com.google.common.util.concurrent.SettableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
 import org.apache.qpid.server.binding.BindingImpl;
 import org.apache.qpid.server.configuration.IllegalConfigurationException;
 import org.apache.qpid.server.connection.SessionPrincipal;
@@ -83,6 +90,7 @@ import org.apache.qpid.server.model.AbstractConfiguredObject;
 import org.apache.qpid.server.model.Binding;
 import org.apache.qpid.server.model.ConfigurationChangeListener;
 import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.server.model.Consumer;
 import org.apache.qpid.server.model.Exchange;
 import org.apache.qpid.server.model.ExclusivityPolicy;
 import org.apache.qpid.server.model.LifetimePolicy;
@@ -109,9 +117,11 @@ import org.apache.qpid.server.txn.ServerTransaction;
 import org.apache.qpid.server.util.Action;
 import org.apache.qpid.server.util.ConnectionScopedRuntimeException;
 import org.apache.qpid.server.util.Deletable;
+import org.apache.qpid.server.util.Histogram;
 import org.apache.qpid.server.util.MapValueConverter;
 import org.apache.qpid.server.util.ServerScopedRuntimeException;
 import org.apache.qpid.server.util.StateChangeListener;
+import org.apache.qpid.server.virtualhost.QueueRunnerScheduler;
 import org.apache.qpid.server.virtualhost.VirtualHostImpl;
 import org.apache.qpid.server.virtualhost.VirtualHostUnavailableException;
 import org.apache.qpid.transport.TransportException;
@@ -140,6 +150,15 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
     private static final long INITIAL_TARGET_QUEUE_SIZE = 102400l;
 
+    private static final Comparator<QueueConsumer<?>> CONSUMER_PRIORITY_COMPARATOR = new Comparator<QueueConsumer<?>>()
+    {
+        @Override
+        public int compare(final QueueConsumer<?> consumer1, final QueueConsumer<?> consumer2)
+        {
+            return Integer.compare(consumer2.getPriority(), consumer1.getPriority());
+        }
+    };
+
     private final VirtualHostImpl _virtualHost;
     private final DeletedChildListener _deletedChildListener = new DeletedChildListener();
 
@@ -151,6 +170,14 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
     private final QueueConsumerList _consumerList = new QueueConsumerList();
 
+    // The consumers in descending priority order, rebuilt as consumers are added and removed.  Null while no consumer
+    // has a non-default priority, when entries are offered to the consumers of _consumerList in turn.
+    private volatile QueueConsumerList _consumersByPriority;
+    // The same consumers split into one list per priority, highest first, each offered entries in turn.  Null whenever
+    // _consumersByPriority is null.
+    private volatile List<QueueConsumerList> _consumerPriorityBands;
+    private final Object _consumersByPriorityLock = new Object();
+
     private volatile QueueConsumer<?> _exclusiveSubscriber;
 
 
@@ -162,6 +189,13 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     private final AtomicLong _targetQueueSize = new AtomicLong(INITIAL_TARGET_QUEUE_SIZE);
 
     private final AtomicInteger _activeSubscriberCount = new AtomicInteger();
+    private final AtomicInteger _prioritisedConsumerCount = new AtomicInteger();
+
+    private final AtomicLong _dispatchPasses = new AtomicLong();
+    private final AtomicLong _consumersSkippedWithoutCredit = new AtomicLong();
+    private final AtomicLong _lowerPriorityDispatchDeferrals = new AtomicLong();
+    private final AtomicLong _queueRunnerTimeSliceExpiries = new AtomicLong();
+    private final Histogram _queueRunnerDelay = new Histogram();
 
     private final AtomicLong _totalMessagesReceived = new AtomicLong();
 
@@ -220,6 +254,8 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
 
     private int _maxAsyncDeliveries;
+    private QueueRunnerScheduler.PriorityClass _queueRunnerPriorityClass;
+    private long _queueRunnerTimeSliceNanos;
 
     private final AtomicLong _stateChangeCount = new AtomicLong(Long.MIN_VALUE);
 
@@ -243,6 +279,16 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     private final AtomicBoolean _overfull = new AtomicBoolean(false);
     private final FlowToDiskChecker _flowToDiskChecker = new FlowToDiskChecker();
     private final long _estimatedAverageMessageHeaderSize = getContextValue(Long.class, QUEUE_ESTIMATED_MESSAGE_MEMORY_OVERHEAD);
+    private final ExpiryTimingWheel<QueueEntry> _expiryWheel =
+            new ExpiryTimingWheel<QueueEntry>(getContextValue(Long.class, QUEUE_EXPIRY_TICK_PERIOD),
+                                              System.currentTimeMillis())
+            {
+                @Override
+                protected long getExpiration(final QueueEntry entry)
+                {
+                    return entry.getExpiration();
+                }
+            };
     private final CopyOnWriteArrayList<BindingImpl> _bindings = new CopyOnWriteArrayList<BindingImpl>();
     private Map<String, Object> _arguments;
 
@@ -282,6 +328,20 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     private final QueueRunner _queueRunner;
     private boolean _closing;
     private final ConcurrentMap<String, Callable<MessageFilter>> _defaultFiltersMap = new ConcurrentHashMap<>();
+    private volatile int _maxBrowseCursors = DEFAULT_MAX_BROWSE_CURSORS;
+    private volatile int _reallocationBatchSize = DEFAULT_QUEUE_REALLOCATION_BATCH_SIZE;
+    // the entry reached by the last housekeeping pass reallocating messages, used only by the housekeeping task
+    private QueueEntryIterator _reallocationIterator;
+    // access ordered, so that the least recently used cursors are discarded once there are too many
+    private final Map<String, BrowseCursor> _browseCursors =
+            Collections.synchronizedMap(new LinkedHashMap<String, BrowseCursor>(16, 0.75f, true)
+            {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, BrowseCursor> eldest)
+                {
+                    return size() > _maxBrowseCursors;
+                }
+            });
 
     protected AbstractQueue(Map<String, Object> attributes, VirtualHostImpl virtualHost)
     {
@@ -470,6 +530,10 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         }
 
         _maxAsyncDeliveries = getContextValue(Integer.class, Queue.MAX_ASYNCHRONOUS_DELIVERIES);
+        _maxBrowseCursors = getContextValue(Integer.class, QUEUE_MAX_BROWSE_CURSORS);
+        _reallocationBatchSize = getContextValue(Integer.class, QUEUE_REALLOCATION_BATCH_SIZE);
+        _queueRunnerPriorityClass = getContextValue(QueueRunnerScheduler.PriorityClass.class, QUEUE_RUNNER_PRIORITY_CLASS);
+        _queueRunnerTimeSliceNanos = TimeUnit.MICROSECONDS.toNanos(getContextValue(Long.class, QUEUE_RUNNER_TIME_SLICE));
 
         if(_defaultFilters != null)
         {
@@ -569,7 +633,7 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         {
             if (_virtualHost.getState() != State.UNAVAILABLE)
             {
-                _virtualHost.executeTask(name, runnable, context);
+                _virtualHost.executeQueueRunner(name, _queueRunnerPriorityClass, runnable, context);
             }
         }
         catch (RejectedExecutionException ree)
@@ -897,6 +961,11 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         if (!isDeleted())
         {
             _consumerList.add(consumer);
+            if (consumer.getPriority() != Consumer.DEFAULT_PRIORITY)
+            {
+                _prioritisedConsumerCount.incrementAndGet();
+            }
+            updateConsumersByPriority();
 
             if (isDeleted())
             {
@@ -936,6 +1005,11 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
         if (removed)
         {
+            if (consumer.getPriority() != Consumer.DEFAULT_PRIORITY)
+            {
+                _prioritisedConsumerCount.decrementAndGet();
+            }
+            updateConsumersByPriority();
             consumer.closeAsync();
             // No longer can the queue have an exclusive consumer
             setExclusiveSubscriber(null);
@@ -1153,6 +1227,14 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         final QueueConsumer<?> exclusiveSub = _exclusiveSubscriber;
         final QueueEntry entry = getEntries().add(message, enqueueRecord);
         updateExpiration(entry);
+        if (entry.getExpiration() != 0L)
+        {
+            _expiryWheel.add(entry);
+            if (entry.isDeleted())
+            {
+                _expiryWheel.remove(entry);
+            }
+        }
 
         try
         {
@@ -1231,50 +1313,23 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     {
         try
         {
-            QueueConsumerList.ConsumerNode node = _consumerList.getMarkedNode();
-            QueueConsumerList.ConsumerNode nextNode = node.findNext();
-            if (nextNode == null)
+            final List<QueueConsumerList> consumerPriorityBands = _consumerPriorityBands;
+            if (consumerPriorityBands == null)
             {
-                nextNode = _consumerList.getHead().findNext();
+                tryDeliverInTurn(_consumerList, entry);
             }
-            while (nextNode != null)
+            else
             {
-                if (_consumerList.updateMarkedNode(node, nextNode))
-                {
-                    break;
-                }
-                else
+                // lower priority consumers are only offered the entry if no higher priority consumer takes it
+                for (QueueConsumerList band : consumerPriorityBands)
                 {
-                    node = _consumerList.getMarkedNode();
-                    nextNode = node.findNext();
-                    if (nextNode == null)
+                    if (!entry.isAvailable())
                     {
-                        nextNode = _consumerList.getHead().findNext();
+                        break;
                     }
+                    tryDeliverInTurn(band, entry);
                 }
             }
-            // always do one extra loop after we believe we've finished
-            // this catches the case where we *just* miss an update
-            int loops = 2;
-
-            while (entry.isAvailable() && loops != 0)
-            {
-                if (nextNode == null)
-                {
-                    loops--;
-                    nextNode = _consumerList.getHead();
-                }
-                else
-                {
-                    // if consumer at end, and active, offer
-                    final QueueConsumer<?> sub = nextNode.getConsumer();
-                    deliverToConsumer(sub, entry);
-
-
-                }
-                nextNode = nextNode.findNext();
-
-            }
         }
         catch (ConnectionScopedRuntimeException | TransportException e)
         {
@@ -1292,6 +1347,63 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         }
     }
 
+    /**
+     * offer the entry to each of the consumers in turn, starting after the one the previous entry started with, so that
+     * consumers share entries delivered straight through
+     */
+    private void tryDeliverInTurn(final QueueConsumerList consumers, final QueueEntry entry)
+    {
+        QueueConsumerList.ConsumerNode node = consumers.getMarkedNode();
+        QueueConsumerList.ConsumerNode nextNode = node.findNext();
+        if (nextNode == null)
+        {
+            nextNode = consumers.getHead().findNext();
+        }
+        while (nextNode != null)
+        {
+            if (consumers.updateMarkedNode(node, nextNode))
+            {
+                break;
+            }
+            else
+            {
+                node = consumers.getMarkedNode();
+                nextNode = node.findNext();
+                if (nextNode == null)
+                {
+                    nextNode = consumers.getHead().findNext();
+                }
+            }
+        }
+        // always do one extra loop after we believe we've finished
+        // this catches the case where we *just* miss an update
+        int loops = 2;
+
+        while (entry.isAvailable() && loops != 0)
+        {
+            if (nextNode == null)
+            {
+                loops--;
+                nextNode = consumers.getHead();
+            }
+            else
+            {
+                // if consumer at end, and active, offer
+                final QueueConsumer<?> sub = nextNode.getConsumer();
+                if (sub.isSuspended())
+                {
+                    _consumersSkippedWithoutCredit.incrementAndGet();
+                }
+                else
+                {
+                    deliverToConsumer(sub, entry);
+                }
+            }
+            nextNode = nextNode.findNext();
+
+        }
+    }
+
     private void deliverToConsumer(final QueueConsumer<?> sub, final QueueEntry entry)
     {
 
@@ -1396,6 +1508,53 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         return _enqueueCount.get();
     }
 
+    @Override
+    public long getDispatchPasses()
+    {
+        return _dispatchPasses.get();
+    }
+
+    @Override
+    public long getConsumersSkippedWithoutCredit()
+    {
+        return _consumersSkippedWithoutCredit.get();
+    }
+
+    @Override
+    public long getLowerPriorityDispatchDeferrals()
+    {
+        return _lowerPriorityDispatchDeferrals.get();
+    }
+
+    @Override
+    public long getQueueRunnerDelayMedian()
+    {
+        return _queueRunnerDelay.getPercentile(50d);
+    }
+
+    @Override
+    public long getQueueRunnerDelay99thPercentile()
+    {
+        return _queueRunnerDelay.getPercentile(99d);
+    }
+
+    @Override
+    public long getQueueRunnerTimeSliceExpiries()
+    {
+        return _queueRunnerTimeSliceExpiries.get();
+    }
+
+    @Override
+    public Map<String, Long> getQueueRunnerDelayHistogram()
+    {
+        return _queueRunnerDelay.getBuckets();
+    }
+
+    void recordQueueRunnerDelay(final long delayNanos)
+    {
+        _queueRunnerDelay.record(TimeUnit.NANOSECONDS.toMicros(delayNanos));
+    }
+
     private void incrementQueueCount()
     {
         getAtomicQueueCount().incrementAndGet();
@@ -1474,6 +1633,10 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     {
         decrementQueueCount();
         decrementQueueSize(entry);
+        if (entry.getExpiration() != 0L)
+        {
+            _expiryWheel.remove(entry);
+        }
         if (entry.acquiredByConsumer())
         {
             _deliveredMessages.decrementAndGet();
@@ -2241,6 +2404,57 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         return atTail || !subActive;
     }
 
+    /**
+     * Returns the consumers to offer entries to: highest priority first if any consumer has a non-default priority,
+     * otherwise in the order they were added.  Consumers of equal priority are in the order they were added.
+     */
+    private QueueConsumerList getDispatchConsumers()
+    {
+        final QueueConsumerList consumersByPriority = _consumersByPriority;
+        return consumersByPriority == null ? _consumerList : consumersByPriority;
+    }
+
+    private void updateConsumersByPriority()
+    {
+        synchronized (_consumersByPriorityLock)
+        {
+            if (_prioritisedConsumerCount.get() == 0)
+            {
+                _consumersByPriority = null;
+                _consumerPriorityBands = null;
+            }
+            else
+            {
+                final List<QueueConsumer<?>> consumers = new ArrayList<>(_consumerList.size());
+                final QueueConsumerList.ConsumerNodeIterator consumerNodeIterator = _consumerList.iterator();
+                while (consumerNodeIterator.advance())
+                {
+                    consumers.add(consumerNodeIterator.getNode().getConsumer());
+                }
+                // the sort is stable, so consumers of equal priority keep the order they were added in
+                Collections.sort(consumers, CONSUMER_PRIORITY_COMPARATOR);
+
+                final QueueConsumerList consumersByPriority = new QueueConsumerList();
+                final List<QueueConsumerList> consumerPriorityBands = new ArrayList<>();
+                QueueConsumerList band = null;
+                int bandPriority = 0;
+                for (QueueConsumer<?> consumer : consumers)
+                {
+                    consumersByPriority.add(consumer);
+                    if (band == null || consumer.getPriority() != bandPriority)
+                    {
+                        band = new QueueConsumerList();
+                        bandPriority = consumer.getPriority();
+                        consumerPriorityBands.add(band);
+                    }
+                    band.add(consumer);
+                }
+                _consumerPriorityBands = consumerPriorityBands;
+                _consumersByPriority = consumersByPriority;
+            }
+        }
+    }
+
     protected void advanceAllConsumers()
     {
         QueueConsumerList.ConsumerNodeIterator consumerNodeIterator = _consumerList.iterator();
@@ -2331,9 +2545,9 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
      * indefinitely to prevent starving other tasks of CPU (e.g jobs to process
      * incoming messages may not be able to be scheduled in the thread pool
      * because all threads are working on clearing down large queues). To solve
-     * this problem, after an arbitrary number of message deliveries the
-     * processQueue job stops iterating, resubmits itself to the executor, and
-     * ends the current instance
+     * this problem, after an arbitrary number of message deliveries, or once
+     * the queue's runner time slice has expired, the processQueue job stops
+     * iterating, resubmits itself to the executor, and ends the current instance
      *
      * @param runner the Runner to schedule
      */
@@ -2346,6 +2560,8 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
         boolean lastLoop = false;
         int iterations = getMaxAsyncDeliveries();
+        boolean timeSliceExpired = false;
+        final long timeSliceEnd = System.nanoTime() + _queueRunnerTimeSliceNanos;
 
         final int numSubs = _consumerList.size();
 
@@ -2356,7 +2572,8 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         // (detected by setting previousStateChangeCount to stateChangeCount in the loop body)
         // then we will continue to run for a maximum of iterations.
         // So whilst delivery/rejection is going on a processQueue thread will be running
-        while (iterations != 0 && ((previousStateChangeCount != (stateChangeCount = _stateChangeCount.get())) || deliveryIncomplete))
+        while (iterations != 0 && !timeSliceExpired
+               && ((previousStateChangeCount != (stateChangeCount = _stateChangeCount.get())) || deliveryIncomplete))
         {
             // we want to have one extra loop after every consumer has reached the point where it cannot move
             // further, just in case the advance of one consumer in the last loop allows a different consumer to
@@ -2374,11 +2591,29 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
             boolean allConsumersDone = true;
             boolean consumerDone;
 
-            QueueConsumerList.ConsumerNodeIterator consumerNodeIterator = _consumerList.iterator();
-            //iterate over the subscribers and try to advance their pointer
+            _dispatchPasses.incrementAndGet();
+            int dispatchPriority = Integer.MAX_VALUE;
+
+            //iterate over the subscribers and try to advance their pointer.  Consumers without credit are only
+            //visited on the last loop, and lower priority consumers only once higher priority ones are done.
+            final QueueConsumerList.ConsumerNodeIterator consumerNodeIterator = getDispatchConsumers().iterator();
             while (consumerNodeIterator.advance())
             {
-                QueueConsumer<?> sub = consumerNodeIterator.getNode().getConsumer();
+                final QueueConsumer<?> sub = consumerNodeIterator.getNode().getConsumer();
+                if (!lastLoop && sub.isSuspended())
+                {
+                    _consumersSkippedWithoutCredit.incrementAndGet();
+                    continue;
+                }
+                if (sub.getPriority() < dispatchPriority)
+                {
+                    if (!allConsumersDone)
+                    {
+                        _lowerPriorityDispatchDeferrals.incrementAndGet();
+                        break;
+                    }
+                    dispatchPriority = sub.getPriority();
+                }
                 sub.getSendLock();
 
                     try
@@ -2408,6 +2643,13 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
                                     sub.flushBatched();
                                     break;
                                 }
+                                if(_queueRunnerTimeSliceNanos > 0l && System.nanoTime() - timeSliceEnd >= 0l)
+                                {
+                                    _queueRunnerTimeSliceExpiries.incrementAndGet();
+                                    timeSliceExpired = true;
+                                    sub.flushBatched();
+                                    break;
+                                }
                             }
 
                         }
@@ -2418,6 +2660,11 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
                     {
                         sub.releaseSendLock();
                     }
+
+                if (timeSliceExpired)
+                {
+                    break;
+                }
             }
 
             if(allConsumersDone && lastLoop)
@@ -2445,9 +2692,9 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
         }
 
-        // If iterations == 0 then the limiting factor was the time-slicing rather than available messages or credit
-        // therefore we should schedule this runner again (unless someone beats us to it :-) ).
-        if (iterations == 0)
+        // If iterations == 0 or the time slice expired then the limiting factor was the time-slicing rather than
+        // available messages or credit therefore we should schedule this runner again (unless someone beats us to it :-) ).
+        if (iterations == 0 || timeSliceExpired)
         {
             _logger.debug("Rescheduling runner: {}", runner);
             return 0L;
@@ -2458,19 +2705,72 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
     public void checkMessageStatus()
     {
-        QueueEntryIterator queueListIterator = getEntries().iterator();
-
         final long estimatedQueueSize = _atomicQueueSize.get() + _atomicQueueCount.get() * _estimatedAverageMessageHeaderSize;
-        _flowToDiskChecker.reportFlowToDiskStatusIfNecessary(estimatedQueueSize, _targetQueueSize.get());
+        final long targetQueueSize = _targetQueueSize.get();
+        _flowToDiskChecker.reportFlowToDiskStatusIfNecessary(estimatedQueueSize, targetQueueSize);
 
-        long cumulativeQueueSize = 0;
-        while (queueListIterator.advance())
+        expireMessages();
+        expireBrowseCursors();
+
+        // The message specific checks are made as each message is enqueued, so only those based on the queue's
+        // counters need repeating
+        checkForNotification(null);
+
+        if (estimatedQueueSize > targetQueueSize)
+        {
+            flowMessagesToDiskIfNecessary();
+        }
+
+        if (QpidByteBuffer.arePooledBuffersSparse())
+        {
+            reallocateMessages();
+        }
+        else
+        {
+            _reallocationIterator = null;
+        }
+    }
+
+    /**
+     * Copies queued messages held in sparsely used pooled buffers into compact buffers, so that a few long-lived
+     * small messages do not keep whole network buffers in memory.  Each pass examines at most a batch of entries,
+     * resuming where the previous pass stopped, so that the work done by a pass does not grow with the queue depth.
+     */
+    private void reallocateMessages()
+    {
+        QueueEntryIterator queueListIterator = _reallocationIterator;
+        if (queueListIterator == null)
         {
+            queueListIterator = getEntries().iterator();
+        }
+        int examined = 0;
+        while (examined < _reallocationBatchSize && queueListIterator.advance())
+        {
+            examined++;
             final QueueEntry node = queueListIterator.getNode();
+            if (!node.isDeleted())
+            {
+                ServerMessage msg = node.getMessage();
+                if (msg != null)
+                {
+                    msg.getStoredMessage().reallocate();
+                }
+            }
+        }
+        // once the end of the queue is reached the next pass starts again from the head
+        _reallocationIterator = examined < _reallocationBatchSize ? null : queueListIterator;
+    }
+
+    /**
+     * Dequeues the messages whose expiration time has passed since the last check.  Only those messages are visited.
+     */
+    private void expireMessages()
+    {
+        for (final QueueEntry node : _expiryWheel.advance(System.currentTimeMillis()))
+        {
             // Only process nodes that are not currently deleted and not dequeued
             if (!node.isDeleted())
             {
-                // If the node has expired then acquire it
                 if (node.expired())
                 {
                     boolean acquiredForDequeueing = node.acquireOrSteal(new Runnable()
@@ -2491,18 +2791,33 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
                 }
                 else
                 {
-                    // There is a chance that the node could be deleted by
-                    // the time the check actually occurs. So verify we
-                    // can actually get the message to perform the check.
-                    ServerMessage msg = node.getMessage();
+                    // the clock has moved backwards, so keep waiting
+                    _expiryWheel.add(node);
+                }
+            }
+        }
+    }
 
-                    if (msg != null)
-                    {
-                        cumulativeQueueSize += msg.getSize() + _estimatedAverageMessageHeaderSize;
-                        _flowToDiskChecker.flowToDiskIfNecessary(msg.getStoredMessage(), cumulativeQueueSize,
-                                                                 _targetQueueSize.get());
-                        checkForNotification(msg);
-                    }
+    private void flowMessagesToDiskIfNecessary()
+    {
+        QueueEntryIterator queueListIterator = getEntries().iterator();
+
+        long cumulativeQueueSize = 0;
+        while (queueListIterator.advance())
+        {
+            final QueueEntry node = queueListIterator.getNode();
+            if (!node.isDeleted())
+            {
+                // There is a chance that the node could be deleted by
+                // the time the check actually occurs. So verify we
+                // can actually get the message to perform the check.
+                ServerMessage msg = node.getMessage();
+
+                if (msg != null)
+                {
+                    cumulativeQueueSize += msg.getSize() + _estimatedAverageMessageHeaderSize;
+                    _flowToDiskChecker.flowToDiskIfNecessary(msg.getStoredMessage(), cumulativeQueueSize,
+                                                             _targetQueueSize.get());
                 }
             }
         }
@@ -2729,7 +3044,8 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
     }
 
     /**
-     * Checks if there is any notification to send to the listeners
+     * Checks if there is any notification to send to the listeners.  If no message is given, only the checks which
+     * are not message specific are made.
      */
     private void checkForNotification(ServerMessage<?> msg)
     {
@@ -2746,7 +3062,7 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
 
             for (NotificationCheck check : notificationChecks)
             {
-                if (check.isMessageSpecific() || (_lastNotificationTimes[check.ordinal()] < thresholdTime))
+                if (check.isMessageSpecific() ? msg != null : _lastNotificationTimes[check.ordinal()] < thresholdTime)
                 {
                     if (check.notifyIfNecessary(msg, this, listener))
                     {
@@ -3374,6 +3690,93 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         return messageFinder.getMessageInfo();
     }
 
+    @Override
+    public MessageInfoPage getMessageInfoPage(final String cursor, final int count, final boolean includeHeaders)
+    {
+        final QueueEntryPage page = browse(cursor, count);
+        final List<MessageInfo> messages = new ArrayList<>(page.getEntries().size());
+        for (QueueEntry entry : page.getEntries())
+        {
+            MessageReference reference = entry.newMessageReference();
+            if (reference != null)
+            {
+                try
+                {
+                    if (!entry.isDeleted())
+                    {
+                        messages.add(new MessageInfoImpl(entry, includeHeaders));
+                    }
+                }
+                finally
+                {
+                    reference.release();
+                }
+            }
+        }
+        return new MessageInfoPageImpl(messages, page.getCursor(), page.getFirstPosition());
+    }
+
+    @Override
+    public QueueEntryPage browse(final String cursor, final int count)
+    {
+        final QueueEntryList entries = getEntries();
+        final String browseCursorId;
+        final BrowseCursor browseCursor;
+        if (cursor == null || "".equals(cursor))
+        {
+            browseCursorId = UUID.randomUUID().toString();
+            browseCursor = new BrowseCursor(entries.getHead());
+            _browseCursors.put(browseCursorId, browseCursor);
+        }
+        else
+        {
+            browseCursorId = cursor;
+            browseCursor = _browseCursors.get(cursor);
+            if (browseCursor == null)
+            {
+                throw new IllegalArgumentException("Unknown or expired cursor '" + cursor + "'");
+            }
+        }
+
+        synchronized (browseCursor)
+        {
+            QueueEntry position = browseCursor.getLastEntry();
+            final long firstPosition = browseCursor.getNextPosition();
+            final List<QueueEntry> page = new ArrayList<>();
+            QueueEntry next;
+            while (page.size() < count && (next = entries.next(position)) != null)
+            {
+                position = next;
+                if (!next.isDeleted())
+                {
+                    page.add(next);
+                }
+            }
+
+            browseCursor.advance(position, firstPosition + page.size());
+            return new QueueEntryPage(page, browseCursorId, firstPosition);
+        }
+    }
+
+    private void expireBrowseCursors()
+    {
+        if (!_browseCursors.isEmpty())
+        {
+            final long expiryTime = System.currentTimeMillis() - getContextValue(Long.class, QUEUE_BROWSE_CURSOR_TIMEOUT);
+            synchronized (_browseCursors)
+            {
+                Iterator<BrowseCursor> iterator = _browseCursors.values().iterator();
+                while (iterator.hasNext())
+                {
+                    if (iterator.next().getLastUsedTime() < expiryTime)
+                    {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+    }
+
     private void authorizeMethod(String methodName)
     {
         getSecurityManager().authoriseMethod(Operation.UPDATE,
@@ -3528,6 +3931,45 @@ public abstract class AbstractQueue<X extends AbstractQueue<X>>
         }
     }
 
+    /**
+     * The position reached by browsing a queue: the last entry visited, which may since have been deleted, from which
+     * the queue entry list can find the entries that follow.  The position is advanced as each page is browsed, under
+     * the cursor's lock.
+     */
+    private static final class BrowseCursor
+    {
+        private QueueEntry _lastEntry;
+        private long _nextPosition = 1;
+        private volatile long _lastUsedTime = System.currentTimeMillis();
+
+        private BrowseCursor(final QueueEntry head)
+        {
+            _lastEntry = head;
+        }
+
+        QueueEntry getLastEntry()
+        {
+            return _lastEntry;
+        }
+
+        long getNextPosition()
+        {
+            return _nextPosition;
+        }
+
+        void advance(final QueueEntry lastEntry, final long nextPosition)
+        {
+            _lastEntry = lastEntry;
+            _nextPosition = nextPosition;
+            _lastUsedTime = System.currentTimeMillis();
+        }
+
+        long getLastUsedTime()
+        {
+            return _lastUsedTime;
+        }
+    }
+
     private class FlowToDiskChecker
     {
         final AtomicBoolean _lastReportedFlowToDiskStatus = new AtomicBoolean(false);
@@ -0,0 +1,234 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A hierarchical timing wheel holding elements by expiration time.
+ *
+ * Time is divided into ticks of a fixed period.  Each level of the wheel has {@link #SLOTS_PER_LEVEL} slots, a slot at
+ * level n covering SLOTS_PER_LEVEL^n ticks; elements due further in the future than the top level covers are held in
+ * an overflow set.  As the wheel advances, the slot of each higher level which comes into range is cascaded into the
+ * levels below, so that an element is only visited a bounded number of times before it is returned as expired,
+ * regardless of how many other elements the wheel holds.
+ *
+ * Elements are returned by {@link #advance(long)} once the tick containing their expiration time has fully elapsed,
+ * so are never returned early and are returned at most one tick late.  The expiration time of an element must not
+ * change while it is held by the wheel.
+ */
+abstract class ExpiryTimingWheel<E>
+{
+    static final int SLOT_BITS = 6;
+    static final int SLOTS_PER_LEVEL = 1 << SLOT_BITS;
+    static final int LEVELS = 4;
+
+    private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+
+    private final long _tickPeriod;
+
+    private Set<E>[][] _slots;
+    private final Set<E> _overflow = new HashSet<>();
+    private final Set<E> _due = new LinkedHashSet<>();
+    private long _currentTick;
+    private int _size;
+
+    ExpiryTimingWheel(final long tickPeriod, final long currentTime)
+    {
+        if (tickPeriod <= 0)
+        {
+            throw new IllegalArgumentException("Tick period must be positive: " + tickPeriod);
+        }
+        _tickPeriod = tickPeriod;
+        _currentTick = currentTime / tickPeriod;
+    }
+
+    protected abstract long getExpiration(E element);
+
+    synchronized void add(final E element)
+    {
+        long tick = getExpiration(element) / _tickPeriod;
+        if (tick < _currentTick)
+        {
+            _due.add(element);
+        }
+        else
+        {
+            place(element, tick);
+        }
+        _size++;
+    }
+
+    synchronized boolean remove(final E element)
+    {
+        long tick = getExpiration(element) / _tickPeriod;
+        boolean removed;
+        if (tick < _currentTick)
+        {
+            removed = _due.remove(element);
+        }
+        else
+        {
+            removed = false;
+            if (_slots != null)
+            {
+                for (int level = 0; level < LEVELS && !removed; level++)
+                {
+                    Set<E> slot = _slots[level][slotIndex(tick, level)];
+                    removed = slot != null && slot.remove(element);
+                }
+            }
+            removed = removed || _overflow.remove(element);
+        }
+        if (removed)
+        {
+            _size--;
+        }
+        return removed;
+    }
+
+    /**
+     * Advances the wheel to the given time, returning the elements whose expiration tick has elapsed.
+     */
+    synchronized List<E> advance(final long currentTime)
+    {
+        long targetTick = currentTime / _tickPeriod;
+        if (_size == 0)
+        {
+            _currentTick = Math.max(_currentTick, targetTick);
+            return Collections.emptyList();
+        }
+
+        List<E> expired = new ArrayList<>(_due);
+        _due.clear();
+        while (_currentTick < targetTick && expired.size() < _size)
+        {
+            if (_slots != null)
+            {
+                int index = slotIndex(_currentTick, 0);
+                Set<E> slot = _slots[0][index];
+                if (slot != null)
+                {
+                    expired.addAll(slot);
+                    _slots[0][index] = null;
+                }
+            }
+            _currentTick++;
+            cascade();
+        }
+        if (expired.size() == _size)
+        {
+            _currentTick = Math.max(_currentTick, targetTick);
+        }
+        _size -= expired.size();
+        return expired;
+    }
+
+    synchronized int size()
+    {
+        return _size;
+    }
+
+    long getTickPeriod()
+    {
+        return _tickPeriod;
+    }
+
+    /**
+     * Moves the elements held in any higher level slot whose range starts at the current tick into the levels below.
+     */
+    private void cascade()
+    {
+        for (int level = 1; level <= LEVELS; level++)
+        {
+            if ((_currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0)
+            {
+                break;
+            }
+
+            Set<E> elements;
+            if (level == LEVELS)
+            {
+                elements = new HashSet<>(_overflow);
+                _overflow.clear();
+            }
+            else if (_slots != null)
+            {
+                int index = slotIndex(_currentTick, level);
+                elements = _slots[level][index];
+                _slots[level][index] = null;
+            }
+            else
+            {
+                elements = null;
+            }
+
+            if (elements != null)
+            {
+                for (E element : elements)
+                {
+                    place(element, getExpiration(element) / _tickPeriod);
+                }
+            }
+        }
+    }
+
+    private void place(final E element, final long tick)
+    {
+        for (int level = 0; level < LEVELS; level++)
+        {
+            // the element belongs at the lowest level whose parent slot also holds the current tick
+            int parentShift = SLOT_BITS * (level + 1);
+            if ((tick >>> parentShift) == (_currentTick >>> parentShift))
+            {
+                addToSlot(element, level, slotIndex(tick, level));
+                return;
+            }
+        }
+        _overflow.add(element);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addToSlot(final E element, final int level, final int index)
+    {
+        if (_slots == null)
+        {
+            _slots = new Set[LEVELS][SLOTS_PER_LEVEL];
+        }
+        Set<E> slot = _slots[level][index];
+        if (slot == null)
+        {
+            slot = new HashSet<>();
+            _slots[level][index] = slot;
+        }
+        slot.add(element);
+    }
+
+    private static int slotIndex(final long tick, final int level)
+    {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+}
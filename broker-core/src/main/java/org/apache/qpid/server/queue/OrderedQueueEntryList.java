@@ -108,9 +108,24 @@ public abstract class OrderedQueueEntryList implements QueueEntryList
     abstract protected OrderedQueueEntry createQueueEntry(ServerMessage<?> message,
                                                           final MessageEnqueueRecord enqueueRecord);
 
+    /**
+     * Returns the first undeleted entry after the given one, which may itself have been deleted.
+     *
+     * An entry that has been deleted since it was last seen, typically by a browser, is usually followed by a run of
+     * entries that were consumed along with it.  When the oldest entry is beyond the given entry, every entry in
+     * between has been deleted, so the traversal resumes from the oldest entry instead of walking that run.
+     */
     @Override
     public QueueEntry next(QueueEntry node)
     {
+        if (node != _head && node.isDeleted())
+        {
+            QueueEntry oldest = _head.getNextValidEntry();
+            if (oldest == null || oldest.compareTo(node) > 0)
+            {
+                return oldest;
+            }
+        }
         return node.getNextValidEntry();
     }
 
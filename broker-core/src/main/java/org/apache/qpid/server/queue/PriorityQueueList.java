@@ -104,11 +104,11 @@ abstract public class PriorityQueueList extends OrderedQueueEntryList
         @Override
         public PriorityQueueEntry next(QueueEntry node)
         {
-            PriorityQueueEntry next = (PriorityQueueEntry) node.getNextValidEntry();
+            final PriorityQueueList nodeEntryList = (PriorityQueueList) ((PriorityQueueEntry)node).getQueueEntryList();
+            PriorityQueueEntry next = (PriorityQueueEntry) nodeEntryList.next(node);
 
             if(next == null)
             {
-                final PriorityQueueList nodeEntryList = (PriorityQueueList) ((PriorityQueueEntry)node).getQueueEntryList();
                 int index;
                 for(index = _priorityLists.length-1; _priorityLists[index] != nodeEntryList; index--)
                 {
@@ -114,6 +114,8 @@ class QueueConsumerImpl
     private String _settlementMode;
     @ManagedAttributeField
     private String _selector;
+    @ManagedAttributeField
+    private int _priority;
 
     QueueConsumerImpl(final AbstractQueue<?> queue,
                       ConsumerTarget target, final String consumerName,
@@ -122,7 +124,7 @@ class QueueConsumerImpl
                       EnumSet<Option> optionSet)
     {
         super(parentsMap(queue, target.getSessionModel().getModelObject()),
-              createAttributeMap(consumerName, filters, optionSet));
+              createAttributeMap(consumerName, filters, optionSet, target.getPriority()));
         _messageClass = messageClass;
         _sessionReference = target.getSessionModel().getConnectionReference();
         _consumerNumber = CONSUMER_NUMBER_GENERATOR.getAndIncrement();
@@ -168,7 +170,10 @@ class QueueConsumerImpl
         return _queue.getVirtualHost().getSecurityManager();
     }
 
-    private static Map<String, Object> createAttributeMap(String name, FilterManager filters, EnumSet<Option> optionSet)
+    private static Map<String, Object> createAttributeMap(String name,
+                                                          FilterManager filters,
+                                                          EnumSet<Option> optionSet,
+                                                          int priority)
     {
         Map<String,Object> attributes = new HashMap<String, Object>();
         attributes.put(ID, UUID.randomUUID());
@@ -178,6 +183,7 @@ class QueueConsumerImpl
         attributes.put(DISTRIBUTION_MODE, optionSet.contains(Option.ACQUIRES) ? "MOVE" : "COPY");
         attributes.put(DURABLE,optionSet.contains(Option.DURABLE));
         attributes.put(LIFETIME_POLICY, LifetimePolicy.DELETE_ON_SESSION_END);
+        attributes.put(PRIORITY, priority);
         if(filters != null)
         {
             Iterator<MessageFilter> iter = filters.filters();
@@ -595,6 +601,12 @@ class QueueConsumerImpl
         return _selector;
     }
 
+    @Override
+    public int getPriority()
+    {
+        return _priority;
+    }
+
 
     @Override
     public String toLogString()
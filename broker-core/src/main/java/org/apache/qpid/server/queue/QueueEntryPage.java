@@ -0,0 +1,59 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.List;
+
+/**
+ * A page of the entries on a queue, together with the cursor from which the following page may be browsed.
+ */
+public class QueueEntryPage
+{
+    private final List<QueueEntry> _entries;
+    private final String _cursor;
+    private final long _firstPosition;
+
+    public QueueEntryPage(final List<QueueEntry> entries, final String cursor, final long firstPosition)
+    {
+        _entries = entries;
+        _cursor = cursor;
+        _firstPosition = firstPosition;
+    }
+
+    public List<QueueEntry> getEntries()
+    {
+        return _entries;
+    }
+
+    public String getCursor()
+    {
+        return _cursor;
+    }
+
+    /**
+     * Returns the queue position of the first entry in the page, counting from 1.  Positions are those at the time
+     * each page was browsed, so they do not account for entries removed from earlier pages since.
+     */
+    public long getFirstPosition()
+    {
+        return _firstPosition;
+    }
+}
@@ -53,6 +53,7 @@ public class QueueRunner implements Runnable
 
     private final AtomicLong _lastRunAgain = new AtomicLong();
     private final AtomicLong _lastRunTime = new AtomicLong();
+    private volatile long _scheduledTime;
     private final AccessControlContext _context;
     private final String _taskName;
 
@@ -68,6 +69,7 @@ public class QueueRunner implements Runnable
     {
         if(_scheduled.compareAndSet(SCHEDULED,RUNNING))
         {
+            _queue.recordQueueRunnerDelay(System.nanoTime() - _scheduledTime);
             long runAgain = Long.MIN_VALUE;
             _stateChange.set(false);
             try
@@ -96,6 +98,7 @@ public class QueueRunner implements Runnable
                 {
                     if(_scheduled.compareAndSet(IDLE, SCHEDULED))
                     {
+                        _scheduledTime = System.nanoTime();
                         _queue.execute(_taskName, QueueRunner.this, _context);
                     }
                 }
@@ -114,6 +117,7 @@ public class QueueRunner implements Runnable
         _stateChange.set(true);
         if(_scheduled.compareAndSet(IDLE, SCHEDULED))
         {
+            _scheduledTime = System.nanoTime();
             _queue.execute(_taskName, this, _context);
         }
     }
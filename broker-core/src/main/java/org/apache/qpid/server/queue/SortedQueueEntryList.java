@@ -287,21 +287,27 @@ public class SortedQueueEntryList implements QueueEntryList
         {
             if(node.isDeleted() && _head != node)
             {
-                SortedQueueEntry current = _head;
-                SortedQueueEntry next;
+                // The deleted node is no longer linked into the tree, so search the tree for its successor rather
+                // than walking the list from the head
+                SortedQueueEntry current = _root;
+                SortedQueueEntry successor = null;
                 while(current != null)
                 {
-                    next = current.getNextValidEntry();
-                    if(current.compareTo(node)>0 && !current.isDeleted())
+                    if(current.compareTo(node)>0)
                     {
-                        break;
+                        successor = current;
+                        current = current.getLeft();
                     }
                     else
                     {
-                        current = next;
+                        current = current.getRight();
                     }
                 }
-                return current;
+                while(successor != null && successor.isDeleted())
+                {
+                    successor = successor.getNextValidEntry();
+                }
+                return successor;
             }
             else
             {
@@ -84,10 +84,15 @@ public class SecurityManager
                                                      Collections.emptySet(),
                                                      Collections.emptySet());
 
+    public static final String PUBLISH_ACCESS_CHECK_CACHE_SIZE = "qpid.security.publish_access_check_cache_size";
+    public static final int DEFAULT_PUBLISH_ACCESS_CHECK_CACHE_SIZE = 1000;
+
     private final boolean _managementMode;
     private final ConfiguredObject<?> _aclProvidersParent;
 
     private final ConcurrentMap<PublishAccessCheckCacheEntry, PublishAccessCheck> _publishAccessCheckCache = new ConcurrentHashMap<>();
+    private final int _publishAccessCheckCacheSize =
+            Integer.getInteger(PUBLISH_ACCESS_CHECK_CACHE_SIZE, DEFAULT_PUBLISH_ACCESS_CHECK_CACHE_SIZE);
 
     public SecurityManager(ConfiguredObject<?> aclProvidersParent, boolean managementMode)
     {
@@ -646,13 +651,7 @@ public class SecurityManager
 
     public void authorisePublish(final boolean immediate, String routingKey, String exchangeName, String virtualHostName)
     {
-        PublishAccessCheckCacheEntry key = new PublishAccessCheckCacheEntry(immediate, routingKey, exchangeName, virtualHostName);
-        PublishAccessCheck check = _publishAccessCheckCache.get(key);
-        if (check == null)
-        {
-            check = new PublishAccessCheck(new ObjectProperties(virtualHostName, exchangeName, routingKey, immediate));
-            _publishAccessCheckCache.putIfAbsent(key, check);
-        }
+        PublishAccessCheck check = getPublishAccessCheck(immediate, routingKey, exchangeName, virtualHostName);
         if(!checkAllPlugins(check))
         {
             throw new AccessControlException("Permission denied, publish to: exchange-name '" + exchangeName + "'");
@@ -660,18 +659,36 @@ public class SecurityManager
     }
 
     public void authorisePublish(final boolean immediate, String routingKey, String exchangeName, String virtualHostName, Subject currentSubject)
+    {
+        PublishAccessCheck check = getPublishAccessCheck(immediate, routingKey, exchangeName, virtualHostName);
+        if(!checkAllPlugins(check, currentSubject))
+        {
+            throw new AccessControlException("Permission denied, publish to: exchange-name '" + exchangeName + "'");
+        }
+    }
+
+    private PublishAccessCheck getPublishAccessCheck(final boolean immediate,
+                                                     final String routingKey,
+                                                     final String exchangeName,
+                                                     final String virtualHostName)
     {
         PublishAccessCheckCacheEntry key = new PublishAccessCheckCacheEntry(immediate, routingKey, exchangeName, virtualHostName);
         PublishAccessCheck check = _publishAccessCheckCache.get(key);
         if (check == null)
         {
             check = new PublishAccessCheck(new ObjectProperties(virtualHostName, exchangeName, routingKey, immediate));
-            _publishAccessCheckCache.putIfAbsent(key, check);
-        }
-        if(!checkAllPlugins(check, currentSubject))
-        {
-            throw new AccessControlException("Permission denied, publish to: exchange-name '" + exchangeName + "'");
+            if (_publishAccessCheckCacheSize > 0)
+            {
+                // bounded so that publishers using a unique routing key per message cannot grow the cache without
+                // limit; once full it is simply emptied and repopulated by the routing keys currently in use
+                if (_publishAccessCheckCache.size() >= _publishAccessCheckCacheSize)
+                {
+                    _publishAccessCheckCache.clear();
+                }
+                _publishAccessCheckCache.putIfAbsent(key, check);
+            }
         }
+        return check;
     }
 
 
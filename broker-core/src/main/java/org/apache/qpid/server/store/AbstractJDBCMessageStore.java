@@ -55,7 +55,7 @@ import org.apache.qpid.server.store.handler.DistributedTransactionHandler;
 import org.apache.qpid.server.store.handler.MessageHandler;
 import org.apache.qpid.server.store.handler.MessageInstanceHandler;
 
-public abstract class AbstractJDBCMessageStore implements MessageStore
+public abstract class AbstractJDBCMessageStore implements ContentEncodingMessageStore
 {
     private static final String DB_VERSION_TABLE_NAME = "QPID_DB_VERSION";
 
@@ -63,6 +63,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     private static final String META_DATA_TABLE_NAME = "QPID_MESSAGE_METADATA";
     private static final String MESSAGE_CONTENT_TABLE_NAME = "QPID_MESSAGE_CONTENT";
+    private static final String MESSAGE_CONTENT_ENCODING_TABLE_NAME = "QPID_MESSAGE_CONTENT_ENCODING";
 
 
     private static final String XID_TABLE_NAME = "QPID_XIDS";
@@ -70,6 +71,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     public static final Set<String> MESSAGE_STORE_TABLE_NAMES = new HashSet<String>(Arrays.asList(DB_VERSION_TABLE_NAME,
                                                                                                   META_DATA_TABLE_NAME, MESSAGE_CONTENT_TABLE_NAME,
+                                                                                                  MESSAGE_CONTENT_ENCODING_TABLE_NAME,
                                                                                                   QUEUE_ENTRY_TABLE_NAME,
                                                                                                   XID_TABLE_NAME, XID_ACTIONS_TABLE_NAME));
 
@@ -90,10 +92,23 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     private static final String INSERT_INTO_MESSAGE_CONTENT = "INSERT INTO " + MESSAGE_CONTENT_TABLE_NAME
                                                               + "( message_id, content ) values (?, ?)";
-    private static final String SELECT_FROM_MESSAGE_CONTENT = "SELECT content FROM " + MESSAGE_CONTENT_TABLE_NAME
-                                                              + " WHERE message_id = ?";
+    // content without a row in the encoding table was stored as it is
+    private static final String SELECT_FROM_MESSAGE_CONTENT = "SELECT c.content, e.codec, e.content_size FROM "
+                                                              + MESSAGE_CONTENT_TABLE_NAME + " c LEFT OUTER JOIN "
+                                                              + MESSAGE_CONTENT_ENCODING_TABLE_NAME
+                                                              + " e ON c.message_id = e.message_id"
+                                                              + " WHERE c.message_id = ?";
     private static final String DELETE_FROM_MESSAGE_CONTENT = "DELETE FROM " + MESSAGE_CONTENT_TABLE_NAME
                                                               + " WHERE message_id = ?";
+    // a row without content refers to content held in the large message content log
+    private static final String INSERT_INTO_MESSAGE_CONTENT_REFERENCE = "INSERT INTO " + MESSAGE_CONTENT_TABLE_NAME
+                                                                        + "( message_id ) values (?)";
+    private static final String INSERT_INTO_MESSAGE_CONTENT_ENCODING = "INSERT INTO " + MESSAGE_CONTENT_ENCODING_TABLE_NAME
+                                                                       + "( message_id, codec, content_size ) values (?, ?, ?)";
+    private static final String DELETE_FROM_MESSAGE_CONTENT_ENCODING = "DELETE FROM " + MESSAGE_CONTENT_ENCODING_TABLE_NAME
+                                                                       + " WHERE message_id = ?";
+    private static final String SELECT_MESSAGE_CONTENT_REFERENCES = "SELECT message_id FROM " + MESSAGE_CONTENT_TABLE_NAME
+                                                                    + " WHERE content IS NULL";
 
     private static final String INSERT_INTO_META_DATA = "INSERT INTO " + META_DATA_TABLE_NAME + "( message_id , meta_data ) values (?, ?)";
     private static final String SELECT_FROM_META_DATA =
@@ -118,6 +133,8 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     protected final EventManager _eventManager = new EventManager();
     private ConfiguredObject<?> _parent;
+    private volatile MessageContentBlobLog _contentBlobLog;
+    private volatile MessageContentEncoder _contentEncoder = new MessageContentEncoder(null, -1);
 
     protected abstract boolean isMessageStoreOpen();
 
@@ -192,6 +209,8 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             {
                 upgradeIfNecessary(parent);
             }
+            openContentBlobLog(parent);
+            _contentEncoder = MessageContentEncoder.create(parent);
         }
         catch (SQLException e)
         {
@@ -203,6 +222,51 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         }
     }
 
+    private void openContentBlobLog(final ConfiguredObject<?> parent) throws SQLException
+    {
+        if (_contentBlobLog != null)
+        {
+            return;
+        }
+
+        MessageContentBlobLog blobLog = MessageContentBlobLog.create(parent);
+        if (blobLog != null)
+        {
+            try
+            {
+                blobLog.open();
+            }
+            catch (IOException e)
+            {
+                throw new StoreException("Cannot open large message content log " + blobLog.getDirectory(), e);
+            }
+
+            // content appended for messages whose transaction did not commit, or removed before the log was closed
+            Set<Long> referencedMessageIds = new HashSet<>();
+            try (Connection conn = newAutoCommitConnection())
+            {
+                try (PreparedStatement statement = conn.prepareStatement(SELECT_MESSAGE_CONTENT_REFERENCES))
+                {
+                    try (ResultSet rs = statement.executeQuery())
+                    {
+                        while (rs.next())
+                        {
+                            referencedMessageIds.add(rs.getLong(1));
+                        }
+                    }
+                }
+            }
+            for (long messageId : blobLog.getMessageIds())
+            {
+                if (!referencedMessageIds.contains(messageId))
+                {
+                    blobLog.remove(messageId);
+                }
+            }
+            _contentBlobLog = blobLog;
+        }
+    }
+
     private void upgradeIfNecessary(ConfiguredObject<?> parent) throws SQLException
     {
         try (Connection conn = newAutoCommitConnection())
@@ -282,6 +346,13 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             _executor.shutdown();
         }
 
+        MessageContentBlobLog blobLog = _contentBlobLog;
+        if (blobLog != null)
+        {
+            _contentBlobLog = null;
+            blobLog.close();
+        }
+
     }
 
     protected abstract Logger getLogger();
@@ -303,6 +374,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             createQueueEntryTable(conn);
             createMetaDataTable(conn);
             createMessageContentTable(conn);
+            createMessageContentEncodingTable(conn);
             createXidTable(conn);
             createXidActionTable(conn);
         }
@@ -382,6 +454,22 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
     }
 
+    private void createMessageContentEncodingTable(final Connection conn) throws SQLException
+    {
+        if(!tableExists(MESSAGE_CONTENT_ENCODING_TABLE_NAME, conn))
+        {
+            try (Statement stmt = conn.createStatement())
+            {
+                stmt.execute("CREATE TABLE "
+                             + MESSAGE_CONTENT_ENCODING_TABLE_NAME
+                             + " ( message_id "
+                             + getSqlBigIntType()
+                             + " not null, codec int not null, content_size int not null"
+                             + ", PRIMARY KEY (message_id) )");
+            }
+        }
+    }
+
     private void createXidTable(final Connection conn) throws SQLException
     {
         if(!tableExists(XID_TABLE_NAME, conn))
@@ -475,12 +563,23 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
                     stmt = conn.prepareStatement(DELETE_FROM_MESSAGE_CONTENT);
                     stmt.setLong(1, messageId);
                     results = stmt.executeUpdate();
+                    stmt.close();
+
+                    stmt = conn.prepareStatement(DELETE_FROM_MESSAGE_CONTENT_ENCODING);
+                    stmt.setLong(1, messageId);
+                    stmt.executeUpdate();
                 }
                 finally
                 {
                     stmt.close();
                 }
                 conn.commit();
+
+                MessageContentBlobLog blobLog = _contentBlobLog;
+                if (blobLog != null)
+                {
+                    blobLog.remove(messageId);
+                }
             }
             catch(SQLException e)
             {
@@ -1022,11 +1121,25 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         {
             size += buf.remaining();
         }
-        byte[] data = new byte[size];
-        ByteBuffer dst = ByteBuffer.wrap(data);
-        for(QpidByteBuffer buf : contentBody)
+
+        MessageContentBlobLog blobLog = _contentBlobLog;
+        if (blobLog != null && blobLog.isLargeContent(size))
         {
-            buf.copyTo(dst);
+            addContentReference(conn, messageId, contentBody, blobLog);
+            return;
+        }
+
+        MessageContentEncoder encoder = _contentEncoder;
+        byte[] data = encoder.encode(contentBody, size);
+        boolean encoded = data != null;
+        if (!encoded)
+        {
+            data = new byte[size];
+            ByteBuffer dst = ByteBuffer.wrap(data);
+            for(QpidByteBuffer buf : contentBody)
+            {
+                buf.copyTo(dst);
+            }
         }
 
         try
@@ -1036,6 +1149,16 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             stmt.setLong(1, messageId);
             stmt.setBinaryStream(2, new ByteArrayInputStream(data), data.length);
             stmt.executeUpdate();
+
+            if (encoded)
+            {
+                stmt.close();
+                stmt = conn.prepareStatement(INSERT_INTO_MESSAGE_CONTENT_ENCODING);
+                stmt.setLong(1, messageId);
+                stmt.setInt(2, encoder.getCodecOrdinal());
+                stmt.setInt(3, size);
+                stmt.executeUpdate();
+            }
         }
         catch (SQLException e)
         {
@@ -1048,6 +1171,52 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         }
     }
 
+    /**
+     * Appends the content to the large message content log, then records only a reference to it in the transaction.
+     */
+    private void addContentReference(final Connection conn, long messageId,
+                                     Collection<QpidByteBuffer> contentBody, MessageContentBlobLog blobLog)
+    {
+        try
+        {
+            blobLog.append(messageId, contentBody);
+        }
+        catch (IOException e)
+        {
+            JdbcUtils.closeConnection(conn, getLogger());
+            throw new StoreException("Error writing content for message " + messageId
+                                     + " to large message content log " + blobLog.getDirectory(), e);
+        }
+
+        PreparedStatement stmt = null;
+        try
+        {
+            stmt = conn.prepareStatement(INSERT_INTO_MESSAGE_CONTENT_REFERENCE);
+            stmt.setLong(1, messageId);
+            stmt.executeUpdate();
+        }
+        catch (SQLException e)
+        {
+            JdbcUtils.closeConnection(conn, getLogger());
+            throw new StoreException("Error adding content reference for message " + messageId + ": " + e.getMessage(), e);
+        }
+        finally
+        {
+            JdbcUtils.closePreparedStatement(stmt, getLogger());
+        }
+    }
+
+    MessageContentBlobLog getContentBlobLog()
+    {
+        return _contentBlobLog;
+    }
+
+    @Override
+    public MessageContentEncoder getContentEncoder()
+    {
+        return _contentEncoder;
+    }
+
     Collection<QpidByteBuffer> getAllContent(long messageId) throws StoreException
     {
         Connection conn = null;
@@ -1055,6 +1224,24 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
 
         getLogger().debug("Message Id: {} Getting content body", messageId);
 
+        MessageContentBlobLog blobLog = _contentBlobLog;
+        if (blobLog != null)
+        {
+            try
+            {
+                Collection<QpidByteBuffer> content = blobLog.readAll(messageId);
+                if (content != null)
+                {
+                    return content;
+                }
+            }
+            catch (IOException e)
+            {
+                throw new StoreException("Error retrieving content for message " + messageId
+                                         + " from large message content log", e);
+            }
+        }
+
         try
         {
             conn = newAutoCommitConnection();
@@ -1066,6 +1253,11 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             if (rs.next())
             {
                 byte[] data = getBlobAsBytes(rs, 1);
+                int codec = rs.getInt(2);
+                if (!rs.wasNull())
+                {
+                    return _contentEncoder.decode(codec, data, 0, data.length, rs.getInt(3));
+                }
                 int offset = 0;
                 int length = data.length;
                 Collection<QpidByteBuffer> buffers = QpidByteBuffer.allocateDirectCollection(length);
@@ -1088,6 +1280,10 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         {
             throw new StoreException("Error retrieving content for message " + messageId + ": " + e.getMessage(), e);
         }
+        catch (IOException e)
+        {
+            throw new StoreException("Error decoding content for message " + messageId + ": " + e.getMessage(), e);
+        }
         finally
         {
             JdbcUtils.closePreparedStatement(stmt, getLogger());
@@ -1615,6 +1811,25 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
             return _messageDataRef != null && !_messageDataRef.isHardRef();
         }
 
+        @Override
+        public synchronized void reallocate()
+        {
+            if (_messageDataRef != null)
+            {
+                T metaData = _messageDataRef.getMetaData();
+                if (metaData != null)
+                {
+                    metaData.reallocate();
+                }
+                Collection<QpidByteBuffer> data = _messageDataRef.getData();
+                Collection<QpidByteBuffer> reallocated = QpidByteBuffer.reallocateIfNecessary(data);
+                if (reallocated != data)
+                {
+                    _messageDataRef.setData(Collections.unmodifiableCollection(reallocated));
+                }
+            }
+        }
+
         @Override
         public synchronized boolean flowToDisk()
         {
@@ -1982,6 +2197,7 @@ public abstract class AbstractJDBCMessageStore implements MessageStore
         {
             getLogger().error("Exception while deleting store tables", e);
         }
+        MessageContentBlobLog.delete(parent);
     }
 
 
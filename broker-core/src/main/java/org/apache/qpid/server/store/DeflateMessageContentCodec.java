@@ -0,0 +1,165 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.plugin.MessageContentCodec;
+import org.apache.qpid.server.plugin.PluggableService;
+
+/**
+ * Compresses message content with zlib at its fastest setting, which typically still reduces text payloads such as
+ * XML or JSON to a fraction of their size.
+ */
+@PluggableService
+public class DeflateMessageContentCodec implements MessageContentCodec
+{
+    public static final int DEFLATE_ORDINAL = 1;
+    public static final String TYPE = "deflate";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_OUTPUT_SIZE = 4096;
+
+    @Override
+    public int ordinal()
+    {
+        return DEFLATE_ORDINAL;
+    }
+
+    @Override
+    public String getType()
+    {
+        return TYPE;
+    }
+
+    @Override
+    public byte[] encode(final Collection<QpidByteBuffer> content, final int length)
+    {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try
+        {
+            byte[] input = new byte[Math.min(length, BUFFER_SIZE)];
+            byte[] buffer = new byte[Math.min(length, BUFFER_SIZE)];
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.min(length, INITIAL_OUTPUT_SIZE));
+            for (QpidByteBuffer buf : content)
+            {
+                QpidByteBuffer src = buf.duplicate();
+                try
+                {
+                    while (src.hasRemaining())
+                    {
+                        int inputLength = Math.min(src.remaining(), input.length);
+                        src.get(input, 0, inputLength);
+                        deflater.setInput(input, 0, inputLength);
+                        while (!deflater.needsInput())
+                        {
+                            if (!drain(deflater, buffer, output, length))
+                            {
+                                return null;
+                            }
+                        }
+                    }
+                }
+                finally
+                {
+                    src.dispose();
+                }
+            }
+
+            deflater.finish();
+            while (!deflater.finished())
+            {
+                if (!drain(deflater, buffer, output, length))
+                {
+                    return null;
+                }
+            }
+            return output.toByteArray();
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns false once the output has grown to the given limit, beyond which encoding is not worthwhile.
+     */
+    private static boolean drain(final Deflater deflater,
+                                 final byte[] buffer,
+                                 final ByteArrayOutputStream output,
+                                 final int limit)
+    {
+        int deflated = deflater.deflate(buffer);
+        output.write(buffer, 0, deflated);
+        return output.size() < limit;
+    }
+
+    @Override
+    public Collection<QpidByteBuffer> decode(final byte[] data, final int offset, final int length,
+                                             final int decodedLength) throws IOException
+    {
+        Inflater inflater = new Inflater();
+        Collection<QpidByteBuffer> buffers = QpidByteBuffer.allocateDirectCollection(decodedLength);
+        boolean success = false;
+        try
+        {
+            inflater.setInput(data, offset, length);
+            byte[] output = new byte[Math.min(decodedLength, BUFFER_SIZE)];
+            for (QpidByteBuffer buf : buffers)
+            {
+                while (buf.hasRemaining())
+                {
+                    int inflated = inflater.inflate(output, 0, Math.min(output.length, buf.remaining()));
+                    if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+                    {
+                        throw new IOException("Encoded content is shorter than the expected length " + decodedLength);
+                    }
+                    buf.put(output, 0, inflated);
+                }
+                buf.flip();
+            }
+            success = true;
+            return buffers;
+        }
+        catch (DataFormatException e)
+        {
+            throw new IOException("Encoded content is corrupt", e);
+        }
+        finally
+        {
+            inflater.end();
+            if (!success)
+            {
+                for (QpidByteBuffer buf : buffers)
+                {
+                    buf.dispose();
+                }
+            }
+        }
+    }
+}
@@ -51,7 +51,22 @@ public class MemoryMessageStore implements MessageStore
     private final Object _transactionLock = new Object();
     private final Map<UUID, Set<Long>> _messageInstances = new HashMap<UUID, Set<Long>>();
     private final Map<Xid, DistributedTransactionRecords> _distributedTransactions = new HashMap<Xid, DistributedTransactionRecords>();
+    private final MessageContentSpillStore _spillStore;
 
+    public MemoryMessageStore()
+    {
+        this(null);
+    }
+
+    /**
+     * Creates a store whose message content may be evicted to the given spill store when flowed to disk.
+     *
+     * @param spillStore spill store to use, or null if message content must always be held in memory
+     */
+    public MemoryMessageStore(final MessageContentSpillStore spillStore)
+    {
+        _spillStore = spillStore;
+    }
 
     private final class MemoryMessageStoreTransaction implements Transaction
     {
@@ -284,7 +299,7 @@ public class MemoryMessageStore implements MessageStore
     {
         long id = getNextMessageId();
 
-        StoredMemoryMessage<T> storedMemoryMessage = new StoredMemoryMessage<T>(id, metaData)
+        StoredMemoryMessage<T> storedMemoryMessage = new StoredMemoryMessage<T>(id, metaData, _spillStore)
         {
 
             @Override
@@ -327,6 +342,15 @@ public class MemoryMessageStore implements MessageStore
             _messageInstances.clear();
             _distributedTransactions.clear();
         }
+        if (_spillStore != null)
+        {
+            _spillStore.close();
+        }
+    }
+
+    public MessageContentSpillStore getSpillStore()
+    {
+        return _spillStore;
     }
 
     @Override
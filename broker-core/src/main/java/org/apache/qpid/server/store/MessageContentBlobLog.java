@@ -0,0 +1,882 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.server.model.VirtualHost;
+import org.apache.qpid.util.FileUtils;
+
+/**
+ * A durable store for the content of large messages, kept beside a transactional message store so that the
+ * transactional store need only record a reference to the content.
+ *
+ * Content is appended to segment files, each record holding the message id and length of the content which follows
+ * it, and is forced to disk before {@link #append(long, Collection)} returns; the transactional store must therefore
+ * commit its reference only after the append.  The index from message id to record is held in memory and is rebuilt
+ * by scanning the segments when the log is opened, after which the owning store must {@link #remove(long)} any
+ * message for which it holds no reference.
+ *
+ * A segment is deleted once none of its records are in use, and a segment whose occupancy falls below the compaction
+ * threshold has its live records copied to the current segment in the background so that its space can be reclaimed.
+ *
+ * The monitor of the log guards the index and the set of segments and is never held during file I/O, so that locating
+ * and removing content does not wait for a write to be forced to disk.  Appends and compaction copies are serialised
+ * by a separate append lock, and the channel of each segment is used only while holding the segment's own monitor.
+ * The log monitor may be taken before a segment's monitor but never while holding it.
+ */
+public class MessageContentBlobLog
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageContentBlobLog.class);
+
+    private static final String SEGMENT_FILE_PREFIX = "blob-";
+    private static final String SEGMENT_FILE_SUFFIX = ".log";
+
+    private static final int RECORD_MAGIC = 0x51424C42;
+    static final int RECORD_HEADER_SIZE = 16;
+
+    private final File _directory;
+    private final int _threshold;
+    private final long _segmentSize;
+    private final int _compactionOccupancy;
+
+    private final Map<Long, BlobLocation> _index = new HashMap<>();
+    private final TreeMap<Long, Segment> _segments = new TreeMap<>();
+    private Segment _currentSegment;
+    private long _nextSegmentId;
+    private boolean _open;
+    private ExecutorService _compactionExecutor;
+    private final Set<Segment> _pendingCompaction = new HashSet<>();
+    private final Object _appendLock = new Object();
+
+    private final AtomicLong _bytesWritten = new AtomicLong();
+    private final AtomicLong _bytesRead = new AtomicLong();
+    private final AtomicLong _bytesCompacted = new AtomicLong();
+
+    /**
+     * @param directory the directory holding the segment files
+     * @param threshold the content size at and above which messages should be held in the log, or a negative value
+     *                  if no new content is to be added to the log
+     * @param segmentSize the size at which a new segment is started
+     * @param compactionOccupancy the percentage of a full segment's content still in use below which it is compacted
+     */
+    public MessageContentBlobLog(final File directory,
+                                 final int threshold,
+                                 final long segmentSize,
+                                 final int compactionOccupancy)
+    {
+        if (segmentSize <= 0)
+        {
+            throw new IllegalArgumentException("Segment size must be positive: " + segmentSize);
+        }
+        _directory = directory;
+        _threshold = threshold;
+        _segmentSize = segmentSize;
+        _compactionOccupancy = compactionOccupancy;
+    }
+
+    /**
+     * Creates the log configured by the context of the given message store parent.  Returns null if the log is
+     * disabled and no content was left in it when it was last used.
+     */
+    public static MessageContentBlobLog create(final ConfiguredObject<?> parent)
+    {
+        String directory = parent.getContextValue(String.class, VirtualHost.LARGE_MESSAGE_CONTENT_DIRECTORY);
+        if (directory == null)
+        {
+            return null;
+        }
+        Integer threshold = parent.getContextValue(Integer.class, VirtualHost.LARGE_MESSAGE_CONTENT_THRESHOLD);
+        File directoryFile = new File(directory);
+        if ((threshold == null || threshold < 0) && !containsSegments(directoryFile))
+        {
+            return null;
+        }
+        return new MessageContentBlobLog(directoryFile,
+                                         threshold == null ? -1 : threshold,
+                                         parent.getContextValue(Long.class,
+                                                                VirtualHost.LARGE_MESSAGE_CONTENT_SEGMENT_SIZE),
+                                         parent.getContextValue(Integer.class,
+                                                                VirtualHost.LARGE_MESSAGE_CONTENT_COMPACTION_OCCUPANCY));
+    }
+
+    /**
+     * Deletes the log configured by the context of the given message store parent.
+     */
+    public static void delete(final ConfiguredObject<?> parent)
+    {
+        String directory = parent.getContextValue(String.class, VirtualHost.LARGE_MESSAGE_CONTENT_DIRECTORY);
+        if (directory != null && new File(directory).exists() && !FileUtils.delete(new File(directory), true))
+        {
+            LOGGER.info("Failed to delete the large message content log at location {}", directory);
+        }
+    }
+
+    private static boolean containsSegments(final File directory)
+    {
+        String[] names = directory.list();
+        if (names != null)
+        {
+            for (String name : names)
+            {
+                if (isSegmentFileName(name))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSegmentFileName(final String name)
+    {
+        return name.startsWith(SEGMENT_FILE_PREFIX) && name.endsWith(SEGMENT_FILE_SUFFIX);
+    }
+
+    public synchronized void open() throws IOException
+    {
+        if (_open)
+        {
+            return;
+        }
+        if (!_directory.exists() && !_directory.mkdirs())
+        {
+            throw new IOException("Cannot create large message content directory " + _directory);
+        }
+
+        TreeMap<Long, File> segmentFiles = new TreeMap<>();
+        File[] files = _directory.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                String name = file.getName();
+                if (isSegmentFileName(name))
+                {
+                    try
+                    {
+                        long id = Long.parseLong(name.substring(SEGMENT_FILE_PREFIX.length(),
+                                                                name.length() - SEGMENT_FILE_SUFFIX.length()));
+                        segmentFiles.put(id, file);
+                    }
+                    catch (NumberFormatException e)
+                    {
+                        LOGGER.warn("Ignoring unexpected file {} in large message content directory", file);
+                    }
+                }
+            }
+        }
+
+        try
+        {
+            // later segments are scanned last so that the records copied by compaction supersede the originals
+            for (Map.Entry<Long, File> entry : segmentFiles.entrySet())
+            {
+                Segment segment = new Segment(entry.getKey(), entry.getValue(),
+                                              new RandomAccessFile(entry.getValue(), "rw").getChannel());
+                _segments.put(segment._id, segment);
+                _nextSegmentId = segment._id + 1;
+                scanSegment(segment);
+            }
+            for (Segment segment : new ArrayList<>(_segments.values()))
+            {
+                if (segment._liveBytes == 0)
+                {
+                    deleteSegment(segment);
+                }
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            closeSegments();
+            throw e;
+        }
+
+        _compactionExecutor = Executors.newSingleThreadExecutor(new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(final Runnable r)
+            {
+                Thread thread = new Thread(r, "BlobLogCompactor-" + _directory.getName());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        _open = true;
+        LOGGER.debug("Opened large message content log {} holding {} message(s) in {} segment(s)",
+                     _directory, _index.size(), _segments.size());
+    }
+
+    private void scanSegment(final Segment segment) throws IOException
+    {
+        FileChannel channel = segment._channel;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        long position = 0;
+        while (position < size)
+        {
+            header.clear();
+            while (header.hasRemaining())
+            {
+                if (channel.read(header, position + header.position()) < 0)
+                {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < RECORD_HEADER_SIZE || header.getInt() != RECORD_MAGIC)
+            {
+                break;
+            }
+            long messageId = header.getLong();
+            int length = header.getInt();
+            if (length < 0 || position + RECORD_HEADER_SIZE + length > size)
+            {
+                break;
+            }
+            BlobLocation location = new BlobLocation(messageId, segment, position + RECORD_HEADER_SIZE, length);
+            release(_index.put(messageId, location));
+            segment.addRecord(messageId, length);
+            position += RECORD_HEADER_SIZE + length;
+        }
+        if (position < size)
+        {
+            // the tail of the last write before a failure - the content cannot have been committed by the store
+            LOGGER.warn("Truncating large message content segment {} from {} to {} bytes",
+                        segment._file, size, position);
+            channel.truncate(position);
+        }
+        segment._length = position;
+    }
+
+    public int getThreshold()
+    {
+        return _threshold;
+    }
+
+    /**
+     * Returns true if content of the given size should be added to this log rather than the transactional store.
+     */
+    public boolean isLargeContent(final int size)
+    {
+        return _threshold >= 0 && size >= _threshold;
+    }
+
+    /**
+     * Appends the content of a message, returning once it has been forced to disk.  The positions of the given
+     * buffers are unaffected.
+     */
+    public void append(final long messageId, final Collection<QpidByteBuffer> content) throws IOException
+    {
+        int length = 0;
+        for (QpidByteBuffer buf : content)
+        {
+            length += buf.remaining();
+        }
+
+        synchronized (_appendLock)
+        {
+            Segment segment = getSegmentForWrite(RECORD_HEADER_SIZE + length);
+            BlobLocation location = writeRecord(segment, messageId, content, length);
+            force(segment);
+
+            synchronized (this)
+            {
+                checkOpen();
+                release(_index.put(messageId, location));
+                segment.addRecord(messageId, length);
+            }
+        }
+        _bytesWritten.addAndGet(length);
+    }
+
+    /**
+     * Returns the segment to which a record of the given length is to be written, forcing the current segment to disk
+     * and starting a new one if the record would not fit.  Must be called holding the append lock.
+     */
+    private Segment getSegmentForWrite(final long recordLength) throws IOException
+    {
+        Segment segment;
+        long segmentId;
+        synchronized (this)
+        {
+            checkOpen();
+            segment = _currentSegment;
+            if (segment != null && (segment._length == 0 || segment._length + recordLength <= _segmentSize))
+            {
+                return segment;
+            }
+            segmentId = _nextSegmentId++;
+        }
+
+        if (segment != null)
+        {
+            force(segment);
+        }
+        File file = new File(_directory, SEGMENT_FILE_PREFIX + segmentId + SEGMENT_FILE_SUFFIX);
+        Segment newSegment = new Segment(segmentId, file, new RandomAccessFile(file, "rw").getChannel());
+
+        synchronized (this)
+        {
+            if (!_open)
+            {
+                deleteSegment(newSegment);
+                checkOpen();
+            }
+            _segments.put(newSegment._id, newSegment);
+            _currentSegment = newSegment;
+            if (segment != null)
+            {
+                considerForCompaction(segment);
+            }
+        }
+        LOGGER.debug("Started large message content segment {}", file);
+        return newSegment;
+    }
+
+    /**
+     * Writes a record at the end of the given segment.  Must be called holding the append lock.
+     */
+    private BlobLocation writeRecord(final Segment segment,
+                                     final long messageId,
+                                     final Collection<QpidByteBuffer> content,
+                                     final int length) throws IOException
+    {
+        QpidByteBuffer header = QpidByteBuffer.allocate(RECORD_HEADER_SIZE);
+        header.putInt(RECORD_MAGIC);
+        header.putLong(messageId);
+        header.putInt(length);
+        header.flip();
+
+        List<QpidByteBuffer> buffers = new ArrayList<>(content.size() + 1);
+        buffers.add(header);
+        for (QpidByteBuffer buf : content)
+        {
+            buffers.add(buf.duplicate());
+        }
+        long offset = segment._length;
+        try
+        {
+            synchronized (segment)
+            {
+                FileChannel channel = getChannel(segment);
+                try
+                {
+                    channel.position(offset);
+                    long written = 0;
+                    while (written < RECORD_HEADER_SIZE + length)
+                    {
+                        written += QpidByteBuffer.write(channel, buffers);
+                    }
+                }
+                catch (IOException e)
+                {
+                    // discard anything partially written so that the segment can still be appended to
+                    channel.truncate(offset);
+                    throw e;
+                }
+            }
+        }
+        finally
+        {
+            for (QpidByteBuffer buf : buffers)
+            {
+                buf.dispose();
+            }
+        }
+        segment._length = offset + RECORD_HEADER_SIZE + length;
+        return new BlobLocation(messageId, segment, offset + RECORD_HEADER_SIZE, length);
+    }
+
+    private void force(final Segment segment) throws IOException
+    {
+        synchronized (segment)
+        {
+            getChannel(segment).force(false);
+        }
+    }
+
+    private FileChannel getChannel(final Segment segment) throws IOException
+    {
+        FileChannel channel = segment._channel;
+        if (channel == null)
+        {
+            throw new IOException("Large message content segment " + segment._file + " is closed");
+        }
+        return channel;
+    }
+
+    public synchronized boolean contains(final long messageId)
+    {
+        return _index.containsKey(messageId);
+    }
+
+    /**
+     * Returns the length of the content of the given message, or -1 if the log does not hold it.
+     */
+    public synchronized int getContentLength(final long messageId)
+    {
+        BlobLocation location = _index.get(messageId);
+        return location == null ? -1 : location._length;
+    }
+
+    public synchronized Set<Long> getMessageIds()
+    {
+        return new HashSet<>(_index.keySet());
+    }
+
+    /**
+     * Fills the given buffer with as much of the content of the message as possible from the given offset, returning
+     * the number of bytes read or -1 if the log does not hold the message.
+     */
+    public int read(final long messageId, final int offset, final ByteBuffer dst) throws IOException
+    {
+        while (true)
+        {
+            BlobLocation location = getLocation(messageId);
+            if (location == null)
+            {
+                return -1;
+            }
+            if (offset > location._length)
+            {
+                throw new IllegalArgumentException("Offset " + offset + " is greater than message size "
+                                                   + location._length + " for message id " + messageId + "!");
+            }
+            Segment segment = location._segment;
+            synchronized (segment)
+            {
+                if (segment._channel != null)
+                {
+                    int length = Math.min(dst.remaining(), location._length - offset);
+                    ByteBuffer target = dst.duplicate();
+                    target.limit(target.position() + length);
+                    while (target.hasRemaining())
+                    {
+                        if (segment._channel.read(target, location._offset + offset + target.position()
+                                                          - dst.position()) < 0)
+                        {
+                            throw new IOException("Unexpected end of large message content segment " + segment._file);
+                        }
+                    }
+                    dst.position(dst.position() + length);
+                    _bytesRead.addAndGet(length);
+                    return length;
+                }
+            }
+            // the segment was compacted while the content was being located - look again
+        }
+    }
+
+    /**
+     * Reads the whole of the content of the given message into direct buffers which must be disposed by the caller,
+     * or returns null if the log does not hold the message.
+     */
+    public Collection<QpidByteBuffer> readAll(final long messageId) throws IOException
+    {
+        while (true)
+        {
+            BlobLocation location = getLocation(messageId);
+            if (location == null)
+            {
+                return null;
+            }
+            Collection<QpidByteBuffer> buffers = readRecord(location);
+            if (buffers != null)
+            {
+                _bytesRead.addAndGet(location._length);
+                return buffers;
+            }
+        }
+    }
+
+    private Collection<QpidByteBuffer> readRecord(final BlobLocation location) throws IOException
+    {
+        Collection<QpidByteBuffer> buffers = QpidByteBuffer.allocateDirectCollection(location._length);
+        Segment segment = location._segment;
+        boolean success = false;
+        try
+        {
+            synchronized (segment)
+            {
+                if (segment._channel == null)
+                {
+                    return null;
+                }
+                long position = location._offset;
+                for (QpidByteBuffer buf : buffers)
+                {
+                    while (buf.hasRemaining())
+                    {
+                        int read = buf.read(segment._channel, position);
+                        if (read < 0)
+                        {
+                            throw new IOException("Unexpected end of large message content segment "
+                                                  + segment._file);
+                        }
+                        position += read;
+                    }
+                    buf.flip();
+                }
+            }
+            success = true;
+            return buffers;
+        }
+        finally
+        {
+            if (!success)
+            {
+                for (QpidByteBuffer buf : buffers)
+                {
+                    buf.dispose();
+                }
+            }
+        }
+    }
+
+    private synchronized BlobLocation getLocation(final long messageId) throws IOException
+    {
+        checkOpen();
+        return _index.get(messageId);
+    }
+
+    /**
+     * Removes the content of the given message.  Should be called only once the transactional store has committed
+     * the removal of its reference to the content.
+     */
+    public synchronized void remove(final long messageId)
+    {
+        if (_open)
+        {
+            release(_index.remove(messageId));
+        }
+    }
+
+    private void release(final BlobLocation location)
+    {
+        if (location != null)
+        {
+            Segment segment = location._segment;
+            segment._liveBytes -= location._length;
+            segment._liveMessageIds.remove(location._messageId);
+            if (segment._liveBytes == 0 && segment != _currentSegment)
+            {
+                // segments emptied while the log is being opened are deleted once all have been scanned
+                if (_open)
+                {
+                    deleteSegment(segment);
+                }
+            }
+            else
+            {
+                considerForCompaction(segment);
+            }
+        }
+    }
+
+    private void considerForCompaction(final Segment segment)
+    {
+        if (_compactionExecutor != null
+            && segment != _currentSegment
+            && segment._liveBytes * 100 < segment._length * _compactionOccupancy
+            && _pendingCompaction.add(segment))
+        {
+            _compactionExecutor.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        compact(segment);
+                    }
+                    catch (IOException | RuntimeException e)
+                    {
+                        LOGGER.warn("Failed to compact large message content segment {}", segment._file, e);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Copies the records still in use in the given segment to the current segment, then deletes it.  Each record is
+     * read and copied without holding the log monitor, which is taken only to move the record's index entry to the
+     * copy, and only if the record has not been removed in the meantime.
+     */
+    private void compact(final Segment segment) throws IOException
+    {
+        List<Long> messageIds;
+        synchronized (this)
+        {
+            _pendingCompaction.remove(segment);
+            if (!_open || segment._channel == null || segment == _currentSegment)
+            {
+                return;
+            }
+            messageIds = new ArrayList<>(segment._liveMessageIds);
+        }
+
+        long copied = 0;
+        Set<Segment> targets = new HashSet<>();
+        for (Long messageId : messageIds)
+        {
+            BlobLocation location;
+            synchronized (this)
+            {
+                location = _index.get(messageId);
+            }
+            if (location == null || location._segment != segment)
+            {
+                continue;
+            }
+            Collection<QpidByteBuffer> content = readRecord(location);
+            if (content == null)
+            {
+                // every record in the segment has been removed and it has been deleted
+                return;
+            }
+            try
+            {
+                synchronized (_appendLock)
+                {
+                    Segment target = getSegmentForWrite(RECORD_HEADER_SIZE + location._length);
+                    BlobLocation copy = writeRecord(target, messageId, content, location._length);
+                    synchronized (this)
+                    {
+                        if (_index.get(messageId) == location)
+                        {
+                            _index.put(messageId, copy);
+                            segment._liveBytes -= location._length;
+                            segment._liveMessageIds.remove(messageId);
+                            target.addRecord(messageId, location._length);
+                            copied += location._length;
+                        }
+                    }
+                    targets.add(target);
+                }
+            }
+            finally
+            {
+                for (QpidByteBuffer buf : content)
+                {
+                    buf.dispose();
+                }
+            }
+        }
+
+        // the copies must be on disk before the segment holding the originals is deleted
+        for (Segment target : targets)
+        {
+            synchronized (target)
+            {
+                if (target._channel != null)
+                {
+                    target._channel.force(false);
+                }
+            }
+        }
+        _bytesCompacted.addAndGet(copied);
+        LOGGER.debug("Compacted large message content segment {}, copying {} bytes", segment._file, copied);
+        synchronized (this)
+        {
+            if (_segments.get(segment._id) == segment)
+            {
+                deleteSegment(segment);
+            }
+        }
+    }
+
+    public synchronized void close()
+    {
+        if (_open)
+        {
+            _open = false;
+            _compactionExecutor.shutdownNow();
+            _compactionExecutor = null;
+        }
+        closeSegments();
+    }
+
+    private void closeSegments()
+    {
+        for (Segment segment : _segments.values())
+        {
+            closeChannel(segment);
+        }
+        _segments.clear();
+        _index.clear();
+        _pendingCompaction.clear();
+        _currentSegment = null;
+    }
+
+    private void checkOpen() throws IOException
+    {
+        if (!_open)
+        {
+            throw new IOException("Large message content log " + _directory + " is not open");
+        }
+    }
+
+    public File getDirectory()
+    {
+        return _directory;
+    }
+
+    /** Returns the total number of bytes of content appended to the log. */
+    public long getBytesWritten()
+    {
+        return _bytesWritten.get();
+    }
+
+    /** Returns the total number of bytes of content read from the log. */
+    public long getBytesRead()
+    {
+        return _bytesRead.get();
+    }
+
+    /** Returns the total number of bytes of content copied by compaction. */
+    public long getBytesCompacted()
+    {
+        return _bytesCompacted.get();
+    }
+
+    /** Returns the number of bytes of content held in the log which have not been removed. */
+    public synchronized long getLiveBytes()
+    {
+        long liveBytes = 0;
+        for (Segment segment : _segments.values())
+        {
+            liveBytes += segment._liveBytes;
+        }
+        return liveBytes;
+    }
+
+    /** Returns the total size of the segment files, including space held by removed content. */
+    public synchronized long getDiskUsage()
+    {
+        long usage = 0;
+        for (Segment segment : _segments.values())
+        {
+            usage += segment._length;
+        }
+        return usage;
+    }
+
+    public synchronized int getSegmentCount()
+    {
+        return _segments.size();
+    }
+
+    private void deleteSegment(final Segment segment)
+    {
+        _segments.remove(segment._id);
+        _pendingCompaction.remove(segment);
+        closeChannel(segment);
+        if (!segment._file.delete() && segment._file.exists())
+        {
+            LOGGER.warn("Failed to delete large message content segment {}", segment._file);
+        }
+        LOGGER.debug("Deleted large message content segment {}", segment._file);
+    }
+
+    private void closeChannel(final Segment segment)
+    {
+        synchronized (segment)
+        {
+            try
+            {
+                if (segment._channel != null)
+                {
+                    segment._channel.close();
+                }
+            }
+            catch (IOException e)
+            {
+                LOGGER.warn("Failed to close large message content segment {}", segment._file, e);
+            }
+            finally
+            {
+                segment._channel = null;
+            }
+        }
+    }
+
+    private static final class Segment
+    {
+        private final long _id;
+        private final File _file;
+        private FileChannel _channel;
+        private volatile long _length;
+        private long _liveBytes;
+        private final Set<Long> _liveMessageIds = new HashSet<>();
+
+        private Segment(final long id, final File file, final FileChannel channel)
+        {
+            _id = id;
+            _file = file;
+            _channel = channel;
+        }
+
+        private void addRecord(final long messageId, final int length)
+        {
+            _liveBytes += length;
+            _liveMessageIds.add(messageId);
+        }
+    }
+
+    private static final class BlobLocation
+    {
+        private final long _messageId;
+        private final Segment _segment;
+        private final long _offset;
+        private final int _length;
+
+        private BlobLocation(final long messageId, final Segment segment, final long offset, final int length)
+        {
+            _messageId = messageId;
+            _segment = segment;
+            _offset = offset;
+            _length = length;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.qpid.server.plugin.MessageContentCodec;
+import org.apache.qpid.server.plugin.QpidServiceLoader;
+
+public class MessageContentCodecRegistry
+{
+    private static final Map<Integer, MessageContentCodec> CODECS_BY_ORDINAL = new HashMap<>();
+    private static final Map<String, MessageContentCodec> CODECS_BY_TYPE = new HashMap<>();
+
+    static
+    {
+        for (MessageContentCodec codec : new QpidServiceLoader().instancesOf(MessageContentCodec.class))
+        {
+            MessageContentCodec existing = CODECS_BY_ORDINAL.put(codec.ordinal(), codec);
+            if (existing != null)
+            {
+                throw new IllegalStateException("Multiple MessageContentCodec ("
+                                                + existing.getClass().getName()
+                                                + ", "
+                                                + codec.getClass().getName()
+                                                + ") defined for the same ordinal value: " + codec.ordinal());
+            }
+            CODECS_BY_TYPE.put(codec.getType(), codec);
+        }
+    }
+
+    public static MessageContentCodec fromOrdinal(int ordinal)
+    {
+        return CODECS_BY_ORDINAL.get(ordinal);
+    }
+
+    public static MessageContentCodec fromType(String type)
+    {
+        return CODECS_BY_TYPE.get(type);
+    }
+}
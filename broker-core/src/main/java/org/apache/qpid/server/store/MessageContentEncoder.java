@@ -0,0 +1,193 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.configuration.IllegalConfigurationException;
+import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.server.model.VirtualHost;
+import org.apache.qpid.server.plugin.MessageContentCodec;
+
+/**
+ * Applies the configured {@link MessageContentCodec} to message content above a size threshold before it is written
+ * by a persistent message store, and decodes stored content with whichever codec encoded it, so that content encoded
+ * under an earlier configuration can still be read.
+ */
+public class MessageContentEncoder
+{
+    private final MessageContentCodec _codec;
+    private final int _threshold;
+
+    private final AtomicLong _bytesBeforeEncoding = new AtomicLong();
+    private final AtomicLong _bytesAfterEncoding = new AtomicLong();
+    private final AtomicLong _encodingTime = new AtomicLong();
+    private final AtomicLong _decodingTime = new AtomicLong();
+
+    /**
+     * @param codec the codec with which to encode content, or null if content is not to be encoded
+     * @param threshold the content size at and above which content is encoded
+     */
+    public MessageContentEncoder(final MessageContentCodec codec, final int threshold)
+    {
+        _codec = codec;
+        _threshold = threshold;
+    }
+
+    /**
+     * Creates the encoder configured by the context of the given message store parent.
+     */
+    public static MessageContentEncoder create(final ConfiguredObject<?> parent)
+    {
+        Integer threshold = parent.getContextValue(Integer.class, VirtualHost.MESSAGE_CONTENT_COMPRESSION_THRESHOLD);
+        if (threshold == null || threshold < 0)
+        {
+            return new MessageContentEncoder(null, -1);
+        }
+        String type = parent.getContextValue(String.class, VirtualHost.MESSAGE_CONTENT_COMPRESSION_CODEC);
+        MessageContentCodec codec = MessageContentCodecRegistry.fromType(type);
+        if (codec == null)
+        {
+            throw new IllegalConfigurationException("Unknown message content codec '" + type + "'");
+        }
+        return new MessageContentEncoder(codec, threshold);
+    }
+
+    public boolean isEncoding()
+    {
+        return _codec != null;
+    }
+
+    /**
+     * Returns the ordinal of the codec with which content is encoded, to be recorded beside the encoded content.
+     */
+    public int getCodecOrdinal()
+    {
+        return _codec == null ? -1 : _codec.ordinal();
+    }
+
+    /**
+     * Returns true if content of the given size is to be encoded.
+     */
+    public boolean isEncoded(final int length)
+    {
+        return _codec != null && length >= _threshold;
+    }
+
+    /**
+     * Encodes the given content, returning null if it is to be stored as it is, either because it is smaller than
+     * the threshold or because encoding does not reduce its size.  The positions of the given buffers are unaffected.
+     */
+    public byte[] encode(final Collection<QpidByteBuffer> content, final int length)
+    {
+        if (!isEncoded(length))
+        {
+            return null;
+        }
+        return encodeInternal(content, length);
+    }
+
+    /**
+     * Encodes a part of content which {@link #isEncoded(int) is to be encoded}, returning null if encoding does not
+     * reduce the size of the part.  A store which reads content in parts encodes each separately, so that any part
+     * can be decoded without decoding those before it.
+     */
+    public byte[] encodePart(final byte[] data, final int offset, final int length)
+    {
+        QpidByteBuffer part = QpidByteBuffer.wrap(data, offset, length);
+        try
+        {
+            return encodeInternal(Collections.singleton(part), length);
+        }
+        finally
+        {
+            part.dispose();
+        }
+    }
+
+    private byte[] encodeInternal(final Collection<QpidByteBuffer> content, final int length)
+    {
+        long start = System.nanoTime();
+        byte[] encoded = _codec.encode(content, length);
+        _encodingTime.addAndGet(System.nanoTime() - start);
+        if (encoded != null)
+        {
+            _bytesBeforeEncoding.addAndGet(length);
+            _bytesAfterEncoding.addAndGet(encoded.length);
+        }
+        return encoded;
+    }
+
+    /**
+     * Decodes content encoded by the codec with the given ordinal into direct buffers, which must be disposed by the
+     * caller.
+     */
+    public Collection<QpidByteBuffer> decode(final int codecOrdinal,
+                                             final byte[] data,
+                                             final int offset,
+                                             final int length,
+                                             final int decodedLength) throws IOException
+    {
+        MessageContentCodec codec = MessageContentCodecRegistry.fromOrdinal(codecOrdinal);
+        if (codec == null)
+        {
+            throw new IOException("Content was encoded by an unknown codec with ordinal " + codecOrdinal);
+        }
+        long start = System.nanoTime();
+        try
+        {
+            return codec.decode(data, offset, length, decodedLength);
+        }
+        finally
+        {
+            _decodingTime.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /** Returns the total size of the content which has been encoded, before encoding. */
+    public long getBytesBeforeEncoding()
+    {
+        return _bytesBeforeEncoding.get();
+    }
+
+    /** Returns the total size of the content which has been encoded, after encoding. */
+    public long getBytesAfterEncoding()
+    {
+        return _bytesAfterEncoding.get();
+    }
+
+    /** Returns the total time spent encoding content in milliseconds, including content left unencoded. */
+    public long getEncodingTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(_encodingTime.get());
+    }
+
+    /** Returns the total time spent decoding content in milliseconds. */
+    public long getDecodingTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(_decodingTime.get());
+    }
+}
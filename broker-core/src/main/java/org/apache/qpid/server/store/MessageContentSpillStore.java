@@ -0,0 +1,372 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.util.FileUtils;
+
+/**
+ * An append-only store of message content which has been evicted from memory.
+ *
+ * Content is appended to the current segment file until that reaches the segment size, when a new segment is started.
+ * A segment's file is deleted once all of the content written to it has been released, so disk space is reclaimed
+ * as the messages are dequeued.  Nothing written to the spill store survives a restart: the segment files are deleted
+ * when the store is closed and any left behind are deleted when it is next used.
+ */
+public class MessageContentSpillStore
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageContentSpillStore.class);
+
+    private static final String SEGMENT_FILE_PREFIX = "spill-";
+    private static final String SEGMENT_FILE_SUFFIX = ".seg";
+
+    private final File _directory;
+    private final long _segmentSize;
+
+    private final Map<Long, Segment> _segments = new HashMap<>();
+    private Segment _currentSegment;
+    private long _nextSegmentId;
+    private boolean _directoryInitialised;
+    private boolean _closed;
+
+    private final AtomicLong _bytesSpilled = new AtomicLong();
+    private final AtomicLong _bytesRead = new AtomicLong();
+    private final AtomicLong _bytesInUse = new AtomicLong();
+
+    public MessageContentSpillStore(final File directory, final long segmentSize)
+    {
+        if (segmentSize <= 0)
+        {
+            throw new IllegalArgumentException("Segment size must be positive: " + segmentSize);
+        }
+        _directory = directory;
+        _segmentSize = segmentSize;
+    }
+
+    /**
+     * Appends the given content to the store, returning the location from which it may be read back.  The positions
+     * of the given buffers are unaffected.
+     *
+     * Only the reservation of space in the current segment is made under the store's lock; the content itself is
+     * written under the lock of the segment alone, so that writes do not hold up the release of other content.
+     */
+    public SpillLocation write(final Collection<QpidByteBuffer> content) throws IOException
+    {
+        int length = 0;
+        for (QpidByteBuffer buf : content)
+        {
+            length += buf.remaining();
+        }
+
+        final SpillLocation location = reserve(length);
+        final Segment segment = location._segment;
+
+        List<QpidByteBuffer> duplicates = new ArrayList<>(content.size());
+        for (QpidByteBuffer buf : content)
+        {
+            duplicates.add(buf.duplicate());
+        }
+        boolean written = false;
+        try
+        {
+            synchronized (segment)
+            {
+                FileChannel channel = segment._channel;
+                if (channel == null)
+                {
+                    throw new IOException("Spill segment " + segment._file + " has been deleted");
+                }
+                channel.position(location._offset);
+                long count = 0;
+                while (count < length)
+                {
+                    count += QpidByteBuffer.write(channel, duplicates);
+                }
+            }
+            written = true;
+            _bytesSpilled.addAndGet(length);
+            return location;
+        }
+        finally
+        {
+            for (QpidByteBuffer duplicate : duplicates)
+            {
+                duplicate.dispose();
+            }
+            if (!written)
+            {
+                release(location);
+            }
+        }
+    }
+
+    private synchronized SpillLocation reserve(final int length) throws IOException
+    {
+        if (_closed)
+        {
+            throw new IOException("Spill store " + _directory + " is closed");
+        }
+
+        Segment segment = _currentSegment;
+        if (segment == null || (segment._length != 0 && segment._length + length > _segmentSize))
+        {
+            segment = startNewSegment();
+        }
+
+        long offset = segment._length;
+        segment._length += length;
+        segment._liveCount++;
+        _bytesInUse.addAndGet(length);
+        return new SpillLocation(segment, offset, length);
+    }
+
+    /**
+     * Reads back content previously written to the store.  The returned buffer must be disposed by the caller.
+     */
+    public QpidByteBuffer read(final SpillLocation location)
+    {
+        QpidByteBuffer content = QpidByteBuffer.allocateDirect(location._length);
+        Segment segment = location._segment;
+        try
+        {
+            synchronized (segment)
+            {
+                if (segment._channel == null)
+                {
+                    throw new StoreException("Spill segment " + segment._file + " has been deleted");
+                }
+                FileChannel channel = segment._channel;
+                channel.position(location._offset);
+                while (content.hasRemaining())
+                {
+                    if (content.read(channel) < 0)
+                    {
+                        throw new StoreException("Unexpected end of spill segment " + segment._file);
+                    }
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            content.dispose();
+            throw new StoreException("Failed to read spilled message content from " + segment._file, e);
+        }
+        catch (RuntimeException e)
+        {
+            content.dispose();
+            throw e;
+        }
+        content.flip();
+        _bytesRead.addAndGet(location._length);
+        return content;
+    }
+
+    /**
+     * Releases content which will not be read again, deleting its segment if nothing else in it is still in use.
+     */
+    public synchronized void release(final SpillLocation location)
+    {
+        if (_closed)
+        {
+            return;
+        }
+        Segment segment = location._segment;
+        segment._liveCount--;
+        _bytesInUse.addAndGet(-location._length);
+        if (segment._liveCount == 0 && segment != _currentSegment)
+        {
+            deleteSegment(segment);
+        }
+    }
+
+    public synchronized void close()
+    {
+        _closed = true;
+        for (Segment segment : new ArrayList<>(_segments.values()))
+        {
+            deleteSegment(segment);
+        }
+        _currentSegment = null;
+        _bytesInUse.set(0);
+    }
+
+    public File getDirectory()
+    {
+        return _directory;
+    }
+
+    public long getSegmentSize()
+    {
+        return _segmentSize;
+    }
+
+    /** Returns the total number of bytes of content written to the store. */
+    public long getBytesSpilled()
+    {
+        return _bytesSpilled.get();
+    }
+
+    /** Returns the total number of bytes of content read back from the store. */
+    public long getBytesRead()
+    {
+        return _bytesRead.get();
+    }
+
+    /** Returns the number of bytes of content held in the store which have not yet been released. */
+    public long getBytesInUse()
+    {
+        return _bytesInUse.get();
+    }
+
+    public synchronized int getSegmentCount()
+    {
+        return _segments.size();
+    }
+
+    /** Returns the total size of the segment files, including space held by released content. */
+    public synchronized long getDiskUsage()
+    {
+        long usage = 0;
+        for (Segment segment : _segments.values())
+        {
+            usage += segment._length;
+        }
+        return usage;
+    }
+
+    private Segment startNewSegment() throws IOException
+    {
+        if (!_directoryInitialised)
+        {
+            initialiseDirectory();
+        }
+
+        Segment previous = _currentSegment;
+        File file = new File(_directory, SEGMENT_FILE_PREFIX + _nextSegmentId + SEGMENT_FILE_SUFFIX);
+        Segment segment = new Segment(_nextSegmentId++, file, new RandomAccessFile(file, "rw").getChannel());
+        _segments.put(segment._id, segment);
+        _currentSegment = segment;
+
+        if (previous != null && previous._liveCount == 0)
+        {
+            deleteSegment(previous);
+        }
+        LOGGER.debug("Started spill segment {}", file);
+        return segment;
+    }
+
+    private void initialiseDirectory() throws IOException
+    {
+        if (!_directory.exists() && !_directory.mkdirs())
+        {
+            throw new IOException("Cannot create spill directory " + _directory);
+        }
+        File[] staleSegments = _directory.listFiles();
+        if (staleSegments != null)
+        {
+            for (File file : staleSegments)
+            {
+                if (file.getName().startsWith(SEGMENT_FILE_PREFIX) && file.getName().endsWith(SEGMENT_FILE_SUFFIX))
+                {
+                    FileUtils.delete(file, false);
+                }
+            }
+        }
+        _directoryInitialised = true;
+    }
+
+    private void deleteSegment(final Segment segment)
+    {
+        _segments.remove(segment._id);
+        synchronized (segment)
+        {
+            try
+            {
+                if (segment._channel != null)
+                {
+                    segment._channel.close();
+                }
+            }
+            catch (IOException e)
+            {
+                LOGGER.warn("Failed to close spill segment {}", segment._file, e);
+            }
+            finally
+            {
+                segment._channel = null;
+            }
+        }
+        if (!segment._file.delete() && segment._file.exists())
+        {
+            LOGGER.warn("Failed to delete spill segment {}", segment._file);
+        }
+        LOGGER.debug("Deleted spill segment {}", segment._file);
+    }
+
+    private static final class Segment
+    {
+        private final long _id;
+        private final File _file;
+        private FileChannel _channel;
+        private long _length;
+        private int _liveCount;
+
+        private Segment(final long id, final File file, final FileChannel channel)
+        {
+            _id = id;
+            _file = file;
+            _channel = channel;
+        }
+    }
+
+    public static final class SpillLocation
+    {
+        private final Segment _segment;
+        private final long _offset;
+        private final int _length;
+
+        private SpillLocation(final Segment segment, final long offset, final int length)
+        {
+            _segment = segment;
+            _offset = offset;
+            _length = length;
+        }
+
+        public int getLength()
+        {
+            return _length;
+        }
+    }
+}
@@ -44,5 +44,7 @@ public interface StorableMessageMetaData
 
     void clearEncodedForm();
 
+    void reallocate();
+
 }
 
@@ -21,22 +21,41 @@
 
 package org.apache.qpid.server.store;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Collections;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
 
 public class StoredMemoryMessage<T extends StorableMessageMetaData> implements StoredMessage<T>, MessageHandle<T>
 {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StoredMemoryMessage.class);
+
     private final long _messageNumber;
+    private final MessageContentSpillStore _spillStore;
     private QpidByteBuffer _content;
     private T _metaData;
+    private boolean _allContentAdded;
+    private MessageContentSpillStore.SpillLocation _spillLocation;
 
     public StoredMemoryMessage(long messageNumber, T metaData)
+    {
+        this(messageNumber, metaData, null);
+    }
+
+    /**
+     * Creates a message whose content may be evicted to the given spill store when flowed to disk, or which is always
+     * held in memory if the spill store is null.
+     */
+    public StoredMemoryMessage(long messageNumber, T metaData, MessageContentSpillStore spillStore)
     {
         _messageNumber = messageNumber;
         _metaData = metaData;
+        _spillStore = spillStore;
     }
 
     public long getMessageNumber()
@@ -44,7 +63,7 @@ public class StoredMemoryMessage<T extends StorableMessageMetaData> implements S
         return _messageNumber;
     }
 
-    public void addContent(QpidByteBuffer src)
+    public synchronized void addContent(QpidByteBuffer src)
     {
         if(_content == null)
         {
@@ -75,22 +94,23 @@ public class StoredMemoryMessage<T extends StorableMessageMetaData> implements S
     }
 
     @Override
-    public StoredMessage<T> allContentAdded()
+    public synchronized StoredMessage<T> allContentAdded()
     {
         if(_content != null)
         {
             _content.flip();
         }
+        _allContentAdded = true;
         return this;
     }
 
-    public int getContent(ByteBuffer dst)
+    public synchronized int getContent(ByteBuffer dst)
     {
-        if(_content == null)
+        if(_content == null && _spillLocation == null)
         {
             return 0;
         }
-        QpidByteBuffer src = _content.duplicate();
+        QpidByteBuffer src = getInMemoryContent().duplicate();
 
         src.position(0);
 
@@ -104,13 +124,24 @@ public class StoredMemoryMessage<T extends StorableMessageMetaData> implements S
     }
 
     @Override
-    public Collection<QpidByteBuffer> getContent()
+    public synchronized Collection<QpidByteBuffer> getContent()
     {
-        if(_content == null)
+        if(_content == null && _spillLocation == null)
         {
             return null;
         }
-        return Collections.singleton(_content.duplicate());
+        return Collections.singleton(getInMemoryContent().duplicate());
+    }
+
+    private QpidByteBuffer getInMemoryContent()
+    {
+        if (_content == null)
+        {
+            // fault the content back from the spill store, keeping its spilled copy so that it may be evicted
+            // again without being rewritten
+            _content = _spillStore.read(_spillLocation);
+        }
+        return _content;
     }
 
     public T getMetaData()
@@ -118,7 +149,7 @@ public class StoredMemoryMessage<T extends StorableMessageMetaData> implements S
         return _metaData;
     }
 
-    public void remove()
+    public synchronized void remove()
     {
         _metaData.dispose();
         _metaData = null;
@@ -127,18 +158,56 @@ public class StoredMemoryMessage<T extends StorableMessageMetaData> implements S
             _content.dispose();
             _content = null;
         }
+        if (_spillLocation != null)
+        {
+            _spillStore.release(_spillLocation);
+            _spillLocation = null;
+        }
     }
 
     @Override
-    public boolean isInMemory()
+    public synchronized boolean isInMemory()
     {
-        return true;
+        return _content != null || _spillLocation == null;
     }
 
     @Override
-    public boolean flowToDisk()
+    public synchronized void reallocate()
     {
-        return false;
+        if (_metaData != null)
+        {
+            _metaData.reallocate();
+        }
+        if (_allContentAdded && _content != null)
+        {
+            _content = QpidByteBuffer.reallocateIfNecessary(_content);
+        }
+    }
+
+    @Override
+    public synchronized boolean flowToDisk()
+    {
+        if (_spillStore == null || !_allContentAdded || _content == null || _metaData == null)
+        {
+            return false;
+        }
+
+        if (_spillLocation == null)
+        {
+            try
+            {
+                _spillLocation = _spillStore.write(Collections.singleton(_content));
+            }
+            catch (IOException e)
+            {
+                LOGGER.warn("Failed to spill content of message {} to {}, content will be retained in memory",
+                            _messageNumber, _spillStore.getDirectory(), e);
+                return false;
+            }
+        }
+        _content.dispose();
+        _content = null;
+        return true;
     }
 
 }
@@ -40,4 +40,10 @@ public interface StoredMessage<M extends StorableMessageMetaData>
     boolean isInMemory();
 
     boolean flowToDisk();
+
+    /**
+     * Copies any content or meta-data held in sparsely used pooled buffers into compact buffers, so that the message
+     * does not pin the whole of those buffers in memory while it remains queued.
+     */
+    void reallocate();
 }
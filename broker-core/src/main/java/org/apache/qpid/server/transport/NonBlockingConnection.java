@@ -262,6 +262,8 @@ public class NonBlockingConnection implements ServerNetworkConnection, ByteBuffe
                     {
                         _protocolEngine.setMessageAssignmentSuspended(false, true);
                     }
+
+                    _delegate.releaseIdleBuffers(currentTime);
                 }
                 else
                 {
@@ -554,7 +556,9 @@ public class NonBlockingConnection implements ServerNetworkConnection, ByteBuffe
         {
             case TLS:
                 _onTransportEncryptionAction.run();
-                _delegate = new NonBlockingConnectionTLSDelegate(this, _port);
+                NonBlockingConnectionTLSDelegate tlsDelegate = new NonBlockingConnectionTLSDelegate(this, _port);
+                _protocolEngine.getAggregateTicker().addTicker(tlsDelegate.getIdleBufferReleaseTicker());
+                _delegate = tlsDelegate;
                 break;
             case NONE:
                 _delegate = new NonBlockingConnectionPlainDelegate(this, _port);
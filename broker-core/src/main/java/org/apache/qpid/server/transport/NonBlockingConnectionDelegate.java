@@ -46,4 +46,10 @@ interface NonBlockingConnectionDelegate
     void shutdownInput();
 
     void shutdownOutput();
+
+    /**
+     * Called after each round of I/O.  Releases any buffers which hold no data still to be processed or written and
+     * have not been used for the idle buffer release period, so that an idle connection does not hold on to memory.
+     */
+    void releaseIdleBuffers(long currentTime);
 }
@@ -152,4 +152,9 @@ public class NonBlockingConnectionPlainDelegate implements NonBlockingConnection
     {
 
     }
+
+    @Override
+    public void releaseIdleBuffers(final long currentTime)
+    {
+    }
 }
@@ -22,6 +22,7 @@ package org.apache.qpid.server.transport;
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
 import org.apache.qpid.server.model.port.AmqpPort;
 import org.apache.qpid.server.util.ServerScopedRuntimeException;
+import org.apache.qpid.transport.network.Ticker;
 import org.apache.qpid.transport.network.security.ssl.SSLUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,10 +43,13 @@ import java.util.ListIterator;
 public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDelegate
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(NonBlockingConnectionTLSDelegate.class);
+    private static final long NO_RELEASE_DUE = Long.MAX_VALUE;
 
     private final SSLEngine _sslEngine;
     private final NonBlockingConnection _parent;
     private final int _networkBufferSize;
+    private final int _packetBufferSize;
+    private final int _applicationBufferSize;
     private SSLEngineResult _status;
     private final List<QpidByteBuffer> _encryptedOutput = new ArrayList<>();
     private Principal _principal;
@@ -54,6 +58,28 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
     private QpidByteBuffer _netInputBuffer;
     private QpidByteBuffer _netOutputBuffer;
     private QpidByteBuffer _applicationBuffer;
+    private final long _idleBufferReleasePeriod;
+    private boolean _buffersUsed;
+    private long _lastBufferUseTime;
+    private volatile long _bufferReleaseTime = NO_RELEASE_DUE;
+    private final Ticker _idleBufferReleaseTicker = new Ticker()
+    {
+        @Override
+        public int getTimeToNextTick(final long currentTime)
+        {
+            long releaseTime = _bufferReleaseTime;
+            return releaseTime == NO_RELEASE_DUE
+                    ? Integer.MAX_VALUE
+                    : (int) Math.min(Integer.MAX_VALUE, releaseTime - currentTime);
+        }
+
+        @Override
+        public int tick(final long currentTime)
+        {
+            releaseIdleBuffers(currentTime);
+            return getTimeToNextTick(currentTime);
+        }
+    };
 
 
     public NonBlockingConnectionTLSDelegate(NonBlockingConnection parent, AmqpPort port)
@@ -62,16 +88,29 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
         _sslEngine = createSSLEngine(port);
         _networkBufferSize = port.getNetworkBufferSize();
 
-        final int tlsPacketBufferSize = _sslEngine.getSession().getPacketBufferSize();
-        if (tlsPacketBufferSize > _networkBufferSize)
+        _packetBufferSize = _sslEngine.getSession().getPacketBufferSize();
+        if (_packetBufferSize > _networkBufferSize)
         {
-            throw new ServerScopedRuntimeException("TLS implementation packet buffer size (" + tlsPacketBufferSize
+            throw new ServerScopedRuntimeException("TLS implementation packet buffer size (" + _packetBufferSize
                     + ") is greater then broker network buffer size (" + _networkBufferSize + ")");
         }
+        _applicationBufferSize = _sslEngine.getSession().getApplicationBufferSize();
+
+        // The buffers are allocated only when there is data to process, and released once the connection has not
+        // used them for the idle buffer release period.
+        Long idleBufferReleasePeriod = (Long) port.getContextValue(Long.class, AmqpPort.PORT_AMQP_IDLE_BUFFER_RELEASE_PERIOD);
+        _idleBufferReleasePeriod = idleBufferReleasePeriod == null
+                ? AmqpPort.DEFAULT_PORT_AMQP_IDLE_BUFFER_RELEASE_PERIOD
+                : idleBufferReleasePeriod;
+    }
 
-        _netInputBuffer = QpidByteBuffer.allocateDirect(_networkBufferSize);
-        _applicationBuffer = QpidByteBuffer.allocateDirect(_networkBufferSize);
-        _netOutputBuffer = QpidByteBuffer.allocateDirect(_networkBufferSize);
+    /**
+     * Returns the ticker by which the connection releases this delegate's buffers when it has been idle for long
+     * enough, even if there is no other I/O on the connection.
+     */
+    Ticker getIdleBufferReleaseTicker()
+    {
+        return _idleBufferReleaseTicker;
     }
 
     @Override
@@ -83,6 +122,11 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
     @Override
     public boolean processData() throws IOException
     {
+        if (_applicationBuffer == null)
+        {
+            _applicationBuffer = QpidByteBuffer.allocateDirect(_networkBufferSize);
+        }
+        _buffersUsed = true;
         _netInputBuffer.flip();
         boolean readData = false;
         boolean tasksRun;
@@ -170,7 +214,7 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
         _applicationBuffer = _applicationBuffer.slice();
         _applicationBuffer.limit(unprocessedDataLength);
         oldApplicationBuffer.dispose();
-        if (_applicationBuffer.limit() <= _applicationBuffer.capacity() - _sslEngine.getSession().getApplicationBufferSize())
+        if (_applicationBuffer.limit() <= _applicationBuffer.capacity() - _applicationBufferSize)
         {
             _applicationBuffer.position(_applicationBuffer.limit());
             _applicationBuffer.limit(_applicationBuffer.capacity());
@@ -198,12 +242,24 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
 
     private void wrapBufferArray(Collection<QpidByteBuffer> bufferArray) throws SSLException
     {
+        if (_netOutputBuffer == null)
+        {
+            // nothing is produced unless there is data to encrypt or the engine has handshake data to send
+            if (!hasRemaining(bufferArray)
+                && _sslEngine.getHandshakeStatus() != SSLEngineResult.HandshakeStatus.NEED_WRAP)
+            {
+                return;
+            }
+            _netOutputBuffer = QpidByteBuffer.allocateDirect(_networkBufferSize);
+        }
+        _buffersUsed = true;
+
         boolean encrypted;
         do
         {
             if(_sslEngine.getHandshakeStatus() != SSLEngineResult.HandshakeStatus.NEED_UNWRAP)
             {
-                if(_netOutputBuffer.remaining() < _sslEngine.getSession().getPacketBufferSize())
+                if(_netOutputBuffer.remaining() < _packetBufferSize)
                 {
                     if(_netOutputBuffer.position() != 0)
                     {
@@ -220,7 +276,7 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
                 _status = QpidByteBuffer.encryptSSL(_sslEngine, bufferArray, _netOutputBuffer);
                 encrypted = _status.bytesProduced() > 0;
                 runSSLEngineTasks(_status);
-                if(encrypted && _netOutputBuffer.remaining() < _sslEngine.getSession().getPacketBufferSize())
+                if(encrypted && _netOutputBuffer.remaining() < _packetBufferSize)
                 {
                     _netOutputBuffer.flip();
                     _encryptedOutput.add(_netOutputBuffer);
@@ -249,6 +305,18 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
 
     }
 
+    private static boolean hasRemaining(final Collection<QpidByteBuffer> buffers)
+    {
+        for (QpidByteBuffer buf : buffers)
+        {
+            if (buf.hasRemaining())
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private boolean runSSLEngineTasks(final SSLEngineResult status)
     {
         if(status.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_TASK)
@@ -330,6 +398,10 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
     @Override
     public QpidByteBuffer getNetInputBuffer()
     {
+        if (_netInputBuffer == null)
+        {
+            _netInputBuffer = QpidByteBuffer.allocateDirect(_networkBufferSize);
+        }
         return _netInputBuffer;
     }
 
@@ -370,4 +442,42 @@ public class NonBlockingConnectionTLSDelegate implements NonBlockingConnectionDe
 
     }
 
+    @Override
+    public void releaseIdleBuffers(final long currentTime)
+    {
+        boolean holdsBuffers = _netInputBuffer != null || _applicationBuffer != null || _netOutputBuffer != null;
+        // a buffer holding a partial TLS record or frame, or output yet to be written, cannot be released
+        boolean releasable = (_netInputBuffer == null || _netInputBuffer.position() == 0)
+                             && (_applicationBuffer == null || _applicationBuffer.position() == 0)
+                             && (_netOutputBuffer == null || _netOutputBuffer.position() == 0)
+                             && _encryptedOutput.isEmpty();
+
+        if (_buffersUsed || !releasable)
+        {
+            _buffersUsed = false;
+            _lastBufferUseTime = currentTime;
+        }
+
+        if (holdsBuffers && releasable && currentTime - _lastBufferUseTime >= _idleBufferReleasePeriod)
+        {
+            if (_netInputBuffer != null)
+            {
+                _netInputBuffer.dispose();
+                _netInputBuffer = null;
+            }
+            if (_applicationBuffer != null)
+            {
+                _applicationBuffer.dispose();
+                _applicationBuffer = null;
+            }
+            if (_netOutputBuffer != null)
+            {
+                _netOutputBuffer.dispose();
+                _netOutputBuffer = null;
+            }
+            holdsBuffers = false;
+        }
+
+        _bufferReleaseTime = holdsBuffers && releasable ? _lastBufferUseTime + _idleBufferReleasePeriod : NO_RELEASE_DUE;
+    }
 }
@@ -137,4 +137,9 @@ public class NonBlockingConnectionUndecidedDelegate implements NonBlockingConnec
     public void shutdownOutput()
     {
     }
+
+    @Override
+    public void releaseIdleBuffers(final long currentTime)
+    {
+    }
 }
@@ -20,6 +20,7 @@
  */
 package org.apache.qpid.server.txn;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -42,6 +43,14 @@ import org.apache.qpid.server.store.TransactionLogResource;
  *
  * Since there is no long-lived transaction, the commit and rollback methods of
  * this implementation are empty.
+ *
+ * If constructed with a maximum enqueue batch size greater than one, the enqueue records
+ * of successive persistent messages are written into a single store transaction which is
+ * committed when {@link #flushBatch()} is called (typically once the messages decoded from
+ * a single network read have been processed) or when the batch becomes full.  The post-commit
+ * actions of the batched messages are run, in order, once that single commit completes.
+ * Only the store writes are batched: each message is still routed on its own, and the
+ * post-commit actions still add the messages to their queues one at a time.
  */
 public class AsyncAutoCommitTransaction implements ServerTransaction
 {
@@ -55,6 +64,11 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
     //Set true to ensure strict ordering when enqueuing messages with mixed delivery mode, i.e. disable async persistence
     private boolean _strictOrderWithMixedDeliveryMode = Boolean.getBoolean(QPID_STRICT_ORDER_WITH_MIXED_DELIVERY_MODE);
 
+    private final int _maxEnqueueBatchSize;
+    private Transaction _batchTransaction;
+    private List<Action> _batchActions = new ArrayList<>();
+    private int _batchedMessages;
+
     public interface FutureRecorder
     {
         void recordFuture(ListenableFuture<Void> future, Action action);
@@ -62,9 +76,108 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
     }
 
     public AsyncAutoCommitTransaction(MessageStore transactionLog, FutureRecorder recorder)
+    {
+        this(transactionLog, recorder, 0);
+    }
+
+    public AsyncAutoCommitTransaction(MessageStore transactionLog, FutureRecorder recorder, int maxEnqueueBatchSize)
     {
         _messageStore = transactionLog;
         _futureRecorder = recorder;
+        _maxEnqueueBatchSize = maxEnqueueBatchSize;
+    }
+
+    public boolean isBatchingEnqueues()
+    {
+        return _maxEnqueueBatchSize > 1;
+    }
+
+    /**
+     * Commits the store transaction holding the enqueues batched since the last flush (if any) and
+     * registers the post-commit actions of the batched messages against the resulting future.
+     */
+    public void flushBatch()
+    {
+        if(_batchActions.isEmpty() && _batchTransaction == null)
+        {
+            return;
+        }
+
+        final Transaction txn = _batchTransaction;
+        final List<Action> actions = _batchActions;
+        _batchTransaction = null;
+        _batchActions = new ArrayList<>();
+        _batchedMessages = 0;
+
+        ListenableFuture<Void> future;
+        if(txn != null)
+        {
+            _logger.debug("Committing batch of {} enqueue(s) to transaction log", actions.size());
+            try
+            {
+                future = txn.commitTranAsync((Void) null);
+            }
+            catch(RuntimeException e)
+            {
+                for(Action action : actions)
+                {
+                    action.onRollback();
+                }
+                throw e;
+            }
+        }
+        else
+        {
+            future = Futures.immediateFuture(null);
+        }
+        _futureRecorder.recordFuture(future, new BatchedActions(actions));
+    }
+
+    private void abortBatch()
+    {
+        final Transaction txn = _batchTransaction;
+        final List<Action> actions = _batchActions;
+        _batchTransaction = null;
+        _batchActions = new ArrayList<>();
+        _batchedMessages = 0;
+
+        if(txn != null)
+        {
+            txn.abortTran();
+        }
+        for(Action action : actions)
+        {
+            action.onRollback();
+        }
+    }
+
+    private Transaction getBatchTransaction()
+    {
+        if(_batchTransaction == null)
+        {
+            _batchTransaction = _messageStore.newTransaction();
+        }
+        return _batchTransaction;
+    }
+
+    /**
+     * Adds the given action to the current batch if it must be ordered after an action already in the batch
+     * (or if its own enqueue records were written into the batch transaction), flushing the batch if it is full.
+     *
+     * @return true if the action was added to the batch
+     */
+    private boolean addToBatchIfNecessary(final Action action, boolean persistent, boolean recordsInBatch)
+    {
+        if(recordsInBatch || (!_batchActions.isEmpty() && (persistent || _strictOrderWithMixedDeliveryMode)))
+        {
+            _batchActions.add(action);
+            if(++_batchedMessages >= _maxEnqueueBatchSize)
+            {
+                flushBatch();
+            }
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -202,22 +315,34 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
         {
             ListenableFuture<Void> future;
             final MessageEnqueueRecord enqueueRecord;
+            final boolean recordsInBatch;
             if(queue.getMessageDurability().persist(message.isPersistent()))
             {
                 _logger.debug("Enqueue of message number {} to transaction log. Queue : {}", message.getMessageNumber(), queue.getName());
 
-                txn = _messageStore.newTransaction();
-                enqueueRecord = txn.enqueueMessage(queue, message);
-                future = txn.commitTranAsync((Void) null);
-                txn = null;
+                if(isBatchingEnqueues())
+                {
+                    enqueueRecord = enqueueInBatch(queue, message);
+                    future = null;
+                    recordsInBatch = true;
+                }
+                else
+                {
+                    txn = _messageStore.newTransaction();
+                    enqueueRecord = txn.enqueueMessage(queue, message);
+                    future = txn.commitTranAsync((Void) null);
+                    txn = null;
+                    recordsInBatch = false;
+                }
             }
             else
             {
                 future = Futures.immediateFuture(null);
                 enqueueRecord = null;
+                recordsInBatch = false;
             }
             final EnqueueAction underlying = postTransactionAction;
-            addEnqueueFuture(future, new Action()
+            final Action action = new Action()
             {
                 @Override
                 public void postCommit()
@@ -230,8 +355,12 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
                 {
                     underlying.postCommit(enqueueRecord);
                 }
-            }, message.isPersistent());
+            };
             postTransactionAction = null;
+            if(!addToBatchIfNecessary(action, message.isPersistent(), recordsInBatch))
+            {
+                addEnqueueFuture(future, action, message.isPersistent());
+            }
         }
         finally
         {
@@ -265,6 +394,7 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
         try
         {
             final MessageEnqueueRecord[] records = new MessageEnqueueRecord[queues.size()];
+            boolean recordsInBatch = false;
             int i = 0;
             for(BaseQueue queue : queues)
             {
@@ -272,12 +402,19 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
                 {
                     _logger.debug("Enqueue of message number {} to transaction log. Queue : {}", message.getMessageNumber(), queue.getName());
 
-                    if (txn == null)
+                    if(isBatchingEnqueues())
                     {
-                        txn = _messageStore.newTransaction();
+                        records[i] = enqueueInBatch(queue, message);
+                        recordsInBatch = true;
+                    }
+                    else
+                    {
+                        if (txn == null)
+                        {
+                            txn = _messageStore.newTransaction();
+                        }
+                        records[i] = txn.enqueueMessage(queue, message);
                     }
-                    records[i] = txn.enqueueMessage(queue, message);
-
 
                 }
                 i++;
@@ -294,7 +431,7 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
                 future = Futures.immediateFuture(null);
             }
             final EnqueueAction underlying = postTransactionAction;
-            addEnqueueFuture(future, new Action()
+            final Action action = new Action()
             {
                 @Override
                 public void postCommit()
@@ -310,8 +447,12 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
                 {
                      underlying.onRollback();
                 }
-            }, message.isPersistent());
+            };
             postTransactionAction = null;
+            if(!addToBatchIfNecessary(action, message.isPersistent(), recordsInBatch))
+            {
+                addEnqueueFuture(future, action, message.isPersistent());
+            }
 
 
         }
@@ -372,6 +513,19 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
         return false;
     }
 
+    private MessageEnqueueRecord enqueueInBatch(final TransactionLogResource queue, final EnqueueableMessage message)
+    {
+        try
+        {
+            return getBatchTransaction().enqueueMessage(queue, message);
+        }
+        catch(RuntimeException e)
+        {
+            abortBatch();
+            throw e;
+        }
+    }
+
     private void rollbackIfNecessary(Action postTransactionAction, Transaction txn)
     {
         if (txn != null)
@@ -384,4 +538,31 @@ public class AsyncAutoCommitTransaction implements ServerTransaction
         }
     }
 
+    private static class BatchedActions implements Action
+    {
+        private final List<Action> _actions;
+
+        private BatchedActions(final List<Action> actions)
+        {
+            _actions = actions;
+        }
+
+        @Override
+        public void postCommit()
+        {
+            for(Action action : _actions)
+            {
+                action.postCommit();
+            }
+        }
+
+        @Override
+        public void onRollback()
+        {
+            for(Action action : _actions)
+            {
+                action.onRollback();
+            }
+        }
+    }
 }
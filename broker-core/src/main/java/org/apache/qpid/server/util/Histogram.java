@@ -0,0 +1,146 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative long values with a fixed, bounded memory footprint.
+ *
+ * Values below {@link #SUB_BUCKET_COUNT} are counted exactly.  Above that, each power of two is divided into
+ * {@link #SUB_BUCKET_COUNT} equal buckets, so the reported percentiles are never more than 1/8 (12.5%) above the true
+ * value.  Recording is lock free and safe from any thread.
+ */
+public class Histogram
+{
+    private static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray _counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong _count = new AtomicLong();
+    private final AtomicLong _total = new AtomicLong();
+    private final AtomicLong _max = new AtomicLong();
+
+    public void record(long value)
+    {
+        if (value < 0)
+        {
+            value = 0;
+        }
+        _counts.incrementAndGet(bucketIndex(value));
+        _count.incrementAndGet();
+        _total.addAndGet(value);
+
+        long max;
+        while (value > (max = _max.get()) && !_max.compareAndSet(max, value))
+        {
+        }
+    }
+
+    public long getCount()
+    {
+        return _count.get();
+    }
+
+    public long getTotal()
+    {
+        return _total.get();
+    }
+
+    public long getMax()
+    {
+        return _max.get();
+    }
+
+    public long getMean()
+    {
+        long count = _count.get();
+        return count == 0 ? 0 : _total.get() / count;
+    }
+
+    /**
+     * Returns an upper bound for the given percentile of the recorded values, or zero if nothing has been recorded.
+     *
+     * @param percentile a percentile between 0 and 100
+     */
+    public long getPercentile(final double percentile)
+    {
+        long count = _count.get();
+        if (count == 0)
+        {
+            return 0;
+        }
+        long rank = Math.max(1l, (long) Math.ceil(count * Math.min(percentile, 100d) / 100d));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            seen += _counts.get(i);
+            if (seen >= rank)
+            {
+                return Math.min(bucketUpperBound(i), _max.get());
+            }
+        }
+        return _max.get();
+    }
+
+    /**
+     * Returns the count of each non-empty bucket, in ascending order, keyed by the largest value the bucket holds.
+     */
+    public Map<String, Long> getBuckets()
+    {
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            long count = _counts.get(i);
+            if (count != 0)
+            {
+                buckets.put(String.valueOf(bucketUpperBound(i)), count);
+            }
+        }
+        return buckets;
+    }
+
+    static int bucketIndex(final long value)
+    {
+        if (value < SUB_BUCKET_COUNT)
+        {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long bucketUpperBound(final int index)
+    {
+        if (index < SUB_BUCKET_COUNT)
+        {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowerBound + (1l << shift) - 1;
+    }
+}
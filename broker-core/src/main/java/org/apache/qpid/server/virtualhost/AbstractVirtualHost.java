@@ -55,6 +55,7 @@ import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
 import org.apache.qpid.exchange.ExchangeDefaults;
 import org.apache.qpid.pool.SuppressingInheritedAccessControlContextThreadFactory;
 import org.apache.qpid.server.configuration.updater.Task;
@@ -82,10 +83,14 @@ import org.apache.qpid.server.queue.QueueEntry;
 import org.apache.qpid.server.security.SecurityManager;
 import org.apache.qpid.server.stats.StatisticsCounter;
 import org.apache.qpid.server.store.ConfiguredObjectRecord;
+import org.apache.qpid.server.store.ContentEncodingMessageStore;
 import org.apache.qpid.server.store.DurableConfigurationStore;
 import org.apache.qpid.server.store.Event;
 import org.apache.qpid.server.store.EventListener;
 import org.apache.qpid.server.store.GenericRecoverer;
+import org.apache.qpid.server.store.MemoryMessageStore;
+import org.apache.qpid.server.store.MessageContentEncoder;
+import org.apache.qpid.server.store.MessageContentSpillStore;
 import org.apache.qpid.server.store.MessageEnqueueRecord;
 import org.apache.qpid.server.store.MessageStore;
 import org.apache.qpid.server.store.MessageStoreProvider;
@@ -102,7 +107,8 @@ import org.apache.qpid.server.util.ConnectionScopedRuntimeException;
 import org.apache.qpid.server.util.MapValueConverter;
 
 public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> extends AbstractConfiguredObject<X>
-        implements VirtualHostImpl<X, AMQQueue<?>, ExchangeImpl<?>>, EventListener
+        implements VirtualHostImpl<X, AMQQueue<?>, ExchangeImpl<?>>, MessageSpillingVirtualHost<X>,
+                   MessageContentCompressingVirtualHost<X>, EventListener
 {
     private final Collection<ConnectionValidator> _connectionValidators = new ArrayList<>();
 
@@ -112,7 +118,7 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
     private final AccessControlContext _housekeepingJobContext;
     private final AccessControlContext _fileSystemSpaceCheckerJobContext;
 
-    private static enum BlockingType { STORE, FILESYSTEM };
+    protected static enum BlockingType { STORE, FILESYSTEM, REPLICATION, QUEUE_DEPTH, DIRECT_MEMORY };
 
     private static final String USE_ASYNC_RECOVERY = "use_async_message_store_recovery";
 
@@ -156,6 +162,7 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
     private final Set<BlockingType> _blockingReasons = Collections.synchronizedSet(EnumSet.noneOf(BlockingType.class));
 
     private NetworkConnectionScheduler _networkConnectionScheduler;
+    private volatile QueueRunnerScheduler _queueRunnerScheduler;
 
     private final VirtualHostPrincipal _principal;
 
@@ -356,6 +363,7 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         super.onExceptionInOpen(e);
         shutdownHouseKeeping();
         closeNetworkConnectionScheduler();
+        closeQueueRunnerScheduler();
         closeMessageStore();
         stopLogging(new ArrayList<>(getChildren(VirtualHostLogger.class)));
     }
@@ -614,6 +622,15 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         }
     }
 
+    private void closeQueueRunnerScheduler()
+    {
+        if(_queueRunnerScheduler != null)
+        {
+            _queueRunnerScheduler.close(HOUSEKEEPING_SHUTDOWN_TIMEOUT);
+            _queueRunnerScheduler = null;
+        }
+    }
+
     /**
      * Allow other broker components to register a HouseKeepingTask
      *
@@ -643,6 +660,27 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         });
     }
 
+    @Override
+    public void executeQueueRunner(final String name,
+                                   final QueueRunnerScheduler.PriorityClass priorityClass,
+                                   final Runnable runner,
+                                   final AccessControlContext context)
+    {
+        final QueueRunnerScheduler queueRunnerScheduler = _queueRunnerScheduler;
+        if (queueRunnerScheduler == null)
+        {
+            throw new RejectedExecutionException("Queue runner scheduler of virtualhost '" + getName() + "' is not running");
+        }
+        queueRunnerScheduler.schedule(priorityClass, new HouseKeepingTask(name, this, context)
+        {
+            @Override
+            public void execute()
+            {
+                runner.run();
+            }
+        });
+    }
+
     public long getHouseKeepingTaskCount()
     {
         return _houseKeepingTaskExecutor.getTaskCount();
@@ -929,6 +967,7 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         closeMessageStore();
         shutdownHouseKeeping();
         closeNetworkConnectionScheduler();
+        closeQueueRunnerScheduler();
         _eventLogger.message(VirtualHostMessages.CLOSED(getName()));
 
         stopLogging(_virtualHostLoggersToClose);
@@ -1067,7 +1106,7 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         return _dtxRegistry;
     }
 
-    private void block(BlockingType blockingType)
+    protected void block(BlockingType blockingType)
     {
         synchronized (_connections)
         {
@@ -1083,7 +1122,7 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
     }
 
 
-    private void unblock(BlockingType blockingType)
+    protected void unblock(BlockingType blockingType)
     {
 
         synchronized (_connections)
@@ -1472,6 +1511,90 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         return getMessageDeliveryStatistics().getTotal();
     }
 
+    @Override
+    public long getBytesSpilled()
+    {
+        MessageContentSpillStore spillStore = getMessageContentSpillStore();
+        return spillStore == null ? 0l : spillStore.getBytesSpilled();
+    }
+
+    @Override
+    public long getBytesReadFromSpill()
+    {
+        MessageContentSpillStore spillStore = getMessageContentSpillStore();
+        return spillStore == null ? 0l : spillStore.getBytesRead();
+    }
+
+    @Override
+    public long getSpilledContentSize()
+    {
+        MessageContentSpillStore spillStore = getMessageContentSpillStore();
+        return spillStore == null ? 0l : spillStore.getBytesInUse();
+    }
+
+    @Override
+    public long getSpillDiskUsage()
+    {
+        MessageContentSpillStore spillStore = getMessageContentSpillStore();
+        return spillStore == null ? 0l : spillStore.getDiskUsage();
+    }
+
+    @Override
+    public long getContentBytesBeforeCompression()
+    {
+        MessageContentEncoder encoder = getMessageContentEncoder();
+        return encoder == null ? 0l : encoder.getBytesBeforeEncoding();
+    }
+
+    @Override
+    public long getContentBytesAfterCompression()
+    {
+        MessageContentEncoder encoder = getMessageContentEncoder();
+        return encoder == null ? 0l : encoder.getBytesAfterEncoding();
+    }
+
+    @Override
+    public long getContentCompressionTime()
+    {
+        MessageContentEncoder encoder = getMessageContentEncoder();
+        return encoder == null ? 0l : encoder.getEncodingTime();
+    }
+
+    @Override
+    public long getContentDecompressionTime()
+    {
+        MessageContentEncoder encoder = getMessageContentEncoder();
+        return encoder == null ? 0l : encoder.getDecodingTime();
+    }
+
+    private MessageContentEncoder getMessageContentEncoder()
+    {
+        MessageStore messageStore = getMessageStore();
+        return messageStore instanceof ContentEncodingMessageStore
+                ? ((ContentEncodingMessageStore) messageStore).getContentEncoder()
+                : null;
+    }
+
+    private MessageContentSpillStore getMessageContentSpillStore()
+    {
+        MessageStore messageStore = getMessageStore();
+        return messageStore instanceof MemoryMessageStore ? ((MemoryMessageStore) messageStore).getSpillStore() : null;
+    }
+
+    /**
+     * Creates the spill store to which a memory message store may evict message content, or returns null if message
+     * spilling is disabled.
+     */
+    protected MessageContentSpillStore createMessageContentSpillStore()
+    {
+        if (!getContextValue(Boolean.class, MESSAGE_SPILL_ENABLED))
+        {
+            return null;
+        }
+        return new MessageContentSpillStore(new File(getContextValue(String.class, MESSAGE_SPILL_DIRECTORY)),
+                                            getContextValue(Long.class, MESSAGE_SPILL_SEGMENT_SIZE));
+    }
+
     @Override
     public int getHousekeepingThreadCount()
     {
@@ -1508,6 +1631,7 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
             {
                 shutdownHouseKeeping();
                 closeNetworkConnectionScheduler();
+                closeQueueRunnerScheduler();
                 closeMessageStore();
                 setState(State.STOPPED);
 
@@ -1910,6 +2034,15 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
                                                                      threadPoolKeepAliveTimeout,
                                                                      connectionThreadFactory);
         _networkConnectionScheduler.start();
+
+        final SuppressingInheritedAccessControlContextThreadFactory queueRunnerThreadFactory =
+                new SuppressingInheritedAccessControlContextThreadFactory("virtualhost-" + getName() + "-queuerunner",
+                                                                          SecurityManager.getSystemTaskSubject("Queue Runner", getPrincipal()));
+        _queueRunnerScheduler = new QueueRunnerScheduler("virtualhost-" + getName() + "-queuerunner",
+                                                         getContextValue(Integer.class, VIRTUALHOST_QUEUE_RUNNER_THREAD_COUNT),
+                                                         getContextValue(Integer.class, VIRTUALHOST_QUEUE_RUNNER_LATENCY_CRITICAL_THREAD_COUNT),
+                                                         getContextValue(Long.class, VIRTUALHOST_QUEUE_RUNNER_BULK_DEFERRAL),
+                                                         queueRunnerThreadFactory);
         MessageStore messageStore = getMessageStore();
         messageStore.openMessageStore(this);
 
@@ -1971,6 +2104,8 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         try
         {
             initialiseHouseKeeping(getHousekeepingCheckPeriod());
+            scheduleHouseKeepingTask(getContextValue(Long.class, VIRTUALHOST_FLOW_CONTROL_CHECK_PERIOD),
+                                     new MemoryFlowControlChecker());
             finalState = State.ACTIVE;
         }
         finally
@@ -2082,6 +2217,73 @@ public abstract class AbstractVirtualHost<X extends AbstractVirtualHost<X>> exte
         });
     }
 
+    /**
+     * Blocks the producers on the virtualhost while the total depth of its queues, or the pooled direct memory claimed
+     * by the broker's buffers, is over its flow control threshold.  Blocking applies to every connection on the
+     * virtualhost and is the backstop for protocols whose producers cannot be throttled more finely; receiving links
+     * on AMQP 1.0 connections also shrink their credit as claimed memory approaches the threshold.
+     */
+    private class MemoryFlowControlChecker extends HouseKeepingTask
+    {
+        private final FlowControlThreshold _queueDepthThreshold =
+                new BlockingFlowControlThreshold(BlockingType.QUEUE_DEPTH, "Queue depth");
+        private final FlowControlThreshold _directMemoryThreshold =
+                new BlockingFlowControlThreshold(BlockingType.DIRECT_MEMORY, "Claimed direct memory");
+
+        public MemoryFlowControlChecker()
+        {
+            super("MemoryFlowControlChecker["+AbstractVirtualHost.this.getName()+"]",AbstractVirtualHost.this,_housekeepingJobContext);
+        }
+
+        @Override
+        public void execute()
+        {
+            final long flowControlSize = getContextValue(Long.class, VIRTUALHOST_FLOW_CONTROL_SIZE_BYTES);
+            if (flowControlSize > 0 || _queueDepthThreshold.isFlowControlled())
+            {
+                _queueDepthThreshold.check(getTotalQueueDepthBytes(),
+                                           flowControlSize,
+                                           getContextValue(Long.class, VIRTUALHOST_FLOW_RESUME_SIZE_BYTES));
+            }
+
+            final long directMemoryThreshold = getContextValue(Long.class, Broker.BROKER_DIRECT_MEMORY_FLOW_CONTROL_THRESHOLD);
+            if (directMemoryThreshold > 0 || _directMemoryThreshold.isFlowControlled())
+            {
+                _directMemoryThreshold.check(QpidByteBuffer.getPooledBufferClaimedBytes(),
+                                             directMemoryThreshold,
+                                             getContextValue(Long.class, Broker.BROKER_DIRECT_MEMORY_FLOW_RESUME_THRESHOLD));
+            }
+        }
+    }
+
+    private class BlockingFlowControlThreshold extends FlowControlThreshold
+    {
+        private final BlockingType _blockingType;
+        private final String _usageDescription;
+
+        private BlockingFlowControlThreshold(final BlockingType blockingType, final String usageDescription)
+        {
+            _blockingType = blockingType;
+            _usageDescription = usageDescription;
+        }
+
+        @Override
+        void flowControlEnforced(final long usage, final long threshold)
+        {
+            getEventLogger().message(getMessageStoreLogSubject(),
+                                     VirtualHostMessages.FLOW_CONTROL_ENFORCED(_usageDescription, usage, threshold));
+            block(_blockingType);
+        }
+
+        @Override
+        void flowControlRemoved(final long usage, final long resumeThreshold)
+        {
+            getEventLogger().message(getMessageStoreLogSubject(),
+                                     VirtualHostMessages.FLOW_CONTROL_REMOVED(_usageDescription, usage, resumeThreshold));
+            unblock(_blockingType);
+        }
+    }
+
     private class FileSystemSpaceChecker extends HouseKeepingTask
     {
         private boolean _fileSystemFull;
@@ -0,0 +1,56 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.virtualhost;
+
+/**
+ * Tracks whether a usage figure is over its flow control threshold.  Flow control is enforced once usage exceeds the
+ * threshold and is removed only once usage has fallen to the resume threshold, so that it is not repeatedly enforced
+ * and removed while usage hovers around the threshold.  A threshold of zero or less disables flow control, removing it
+ * if it is currently enforced.
+ */
+abstract class FlowControlThreshold
+{
+    private boolean _flowControlled;
+
+    void check(final long usage, final long threshold, final long resumeThreshold)
+    {
+        final long effectiveResumeThreshold = Math.min(resumeThreshold, threshold);
+        if (!_flowControlled && threshold > 0 && usage > threshold)
+        {
+            _flowControlled = true;
+            flowControlEnforced(usage, threshold);
+        }
+        else if (_flowControlled && (threshold <= 0 || usage <= effectiveResumeThreshold))
+        {
+            _flowControlled = false;
+            flowControlRemoved(usage, effectiveResumeThreshold);
+        }
+    }
+
+    boolean isFlowControlled()
+    {
+        return _flowControlled;
+    }
+
+    abstract void flowControlEnforced(long usage, long threshold);
+
+    abstract void flowControlRemoved(long usage, long resumeThreshold);
+}
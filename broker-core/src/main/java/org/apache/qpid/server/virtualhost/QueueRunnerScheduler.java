@@ -0,0 +1,179 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.virtualhost;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the queue runners of a virtualhost's queues on threads dedicated to queue delivery.
+ *
+ * Runners of latency critical queues have threads of their own, so they are never waiting behind the runner of a queue
+ * that is being drained.  The remaining runners share a pool, where they are run in the order in which they were
+ * scheduled, except that a bulk runner is ordered as though it had been scheduled the bulk deferral later.  Normal
+ * runners therefore overtake bulk runners while the pool is busy, but bulk runners are never starved.  Each queue
+ * limits the time taken by a single run of its runner to its time slice.
+ */
+public class QueueRunnerScheduler
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueueRunnerScheduler.class);
+
+    public enum PriorityClass
+    {
+        LATENCY_CRITICAL,
+        NORMAL,
+        BULK
+    }
+
+    private final String _name;
+    private final long _bulkDeferralNanos;
+    private final ThreadPoolExecutor _executor;
+    private final ThreadPoolExecutor _latencyCriticalExecutor;
+    private final AtomicLong _sequence = new AtomicLong();
+
+    public QueueRunnerScheduler(final String name,
+                                final int threadCount,
+                                final int latencyCriticalThreadCount,
+                                final long bulkDeferral,
+                                final ThreadFactory factory)
+    {
+        _name = name;
+        _bulkDeferralNanos = TimeUnit.MILLISECONDS.toNanos(bulkDeferral);
+        final int poolSize = Math.max(threadCount, 1);
+        _executor = new ThreadPoolExecutor(poolSize, poolSize, 0l, TimeUnit.MILLISECONDS,
+                                           new PriorityBlockingQueue<Runnable>(), factory);
+        if (latencyCriticalThreadCount > 0)
+        {
+            _latencyCriticalExecutor = new ThreadPoolExecutor(latencyCriticalThreadCount, latencyCriticalThreadCount,
+                                                              0l, TimeUnit.MILLISECONDS,
+                                                              new LinkedBlockingQueue<Runnable>(), factory);
+        }
+        else
+        {
+            _latencyCriticalExecutor = null;
+        }
+    }
+
+    public void schedule(final PriorityClass priorityClass, final Runnable runner)
+    {
+        if (priorityClass == PriorityClass.LATENCY_CRITICAL && _latencyCriticalExecutor != null)
+        {
+            _latencyCriticalExecutor.execute(runner);
+        }
+        else
+        {
+            final long deadline = System.nanoTime() + (priorityClass == PriorityClass.BULK ? _bulkDeferralNanos : 0l);
+            _executor.execute(new ScheduledRunner(runner, priorityClass, deadline, _sequence.incrementAndGet()));
+        }
+    }
+
+    public int getQueuedRunnerCount()
+    {
+        int count = _executor.getQueue().size();
+        if (_latencyCriticalExecutor != null)
+        {
+            count += _latencyCriticalExecutor.getQueue().size();
+        }
+        return count;
+    }
+
+    public void close(final long timeout)
+    {
+        _executor.shutdown();
+        if (_latencyCriticalExecutor != null)
+        {
+            _latencyCriticalExecutor.shutdown();
+        }
+
+        try
+        {
+            if (!_executor.awaitTermination(timeout, TimeUnit.SECONDS))
+            {
+                _executor.shutdownNow();
+            }
+            if (_latencyCriticalExecutor != null
+                && !_latencyCriticalExecutor.awaitTermination(timeout, TimeUnit.SECONDS))
+            {
+                _latencyCriticalExecutor.shutdownNow();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            LOGGER.warn("Interrupted during shutdown of queue runner scheduler " + _name, e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "QueueRunnerScheduler[" + _name + "]";
+    }
+
+    private static final class ScheduledRunner implements Runnable, Comparable<ScheduledRunner>
+    {
+        private final Runnable _runner;
+        private final PriorityClass _priorityClass;
+        private final long _deadline;
+        private final long _sequence;
+
+        private ScheduledRunner(final Runnable runner,
+                                final PriorityClass priorityClass,
+                                final long deadline,
+                                final long sequence)
+        {
+            _runner = runner;
+            _priorityClass = priorityClass;
+            _deadline = deadline;
+            _sequence = sequence;
+        }
+
+        @Override
+        public void run()
+        {
+            _runner.run();
+        }
+
+        @Override
+        public int compareTo(final ScheduledRunner other)
+        {
+            // latency critical runners only share the pool when they have no threads of their own
+            boolean latencyCritical = _priorityClass == PriorityClass.LATENCY_CRITICAL;
+            if (latencyCritical != (other._priorityClass == PriorityClass.LATENCY_CRITICAL))
+            {
+                return latencyCritical ? -1 : 1;
+            }
+            long difference = _deadline - other._deadline;
+            if (difference != 0l)
+            {
+                return difference < 0l ? -1 : 1;
+            }
+            return _sequence < other._sequence ? -1 : (_sequence == other._sequence ? 0 : 1);
+        }
+    }
+}
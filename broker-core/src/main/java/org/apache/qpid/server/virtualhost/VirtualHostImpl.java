@@ -20,6 +20,7 @@
 */
 package org.apache.qpid.server.virtualhost;
 
+import java.security.AccessControlContext;
 import java.util.Collection;
 import java.util.Map;
 import java.util.UUID;
@@ -103,6 +104,11 @@ public interface VirtualHostImpl< X extends VirtualHostImpl<X,Q,E>, Q extends AM
 
     ScheduledFuture<?> scheduleTask(long delay, Runnable timeoutTask);
 
+    void executeQueueRunner(String name,
+                            QueueRunnerScheduler.PriorityClass priorityClass,
+                            Runnable runner,
+                            AccessControlContext context);
+
     boolean getDefaultDeadLetterQueueEnabled();
 
     EventLogger getEventLogger();
@@ -451,6 +451,15 @@ class RedirectingVirtualHostImpl
         return null;
     }
 
+    @Override
+    public void executeQueueRunner(final String name,
+                                   final QueueRunnerScheduler.PriorityClass priorityClass,
+                                   final Runnable runner,
+                                   final AccessControlContext context)
+    {
+        throwUnsupportedForRedirector();
+    }
+
     @Override
     public boolean getDefaultDeadLetterQueueEnabled()
     {
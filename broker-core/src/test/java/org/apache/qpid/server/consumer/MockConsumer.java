@@ -84,6 +84,7 @@ public class MockConsumer implements ConsumerTarget
     private final Lock _stateChangeLock = new ReentrantLock();
 
     private boolean _isActive = true;
+    private int _priority;
 
     public MockConsumer()
     {
@@ -149,6 +150,16 @@ public class MockConsumer implements ConsumerTarget
         return false;
     }
 
+    public int getPriority()
+    {
+        return _priority;
+    }
+
+    public void setPriority(final int priority)
+    {
+        _priority = priority;
+    }
+
     public void queueDeleted()
     {
     }
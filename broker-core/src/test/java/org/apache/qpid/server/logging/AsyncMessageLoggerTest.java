@@ -0,0 +1,101 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.logging;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class AsyncMessageLoggerTest extends QpidTestCase
+{
+    private static final String HIERARCHY = "qpid.message.test";
+
+    public void testMessagesAppendedInOrder() throws Exception
+    {
+        UnitTestMessageLogger delegate = new UnitTestMessageLogger();
+        AsyncMessageLogger logger = new AsyncMessageLogger(delegate, 16, AsyncMessageLogger.OverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 100; i++)
+        {
+            logger.rawMessage("message" + i, HIERARCHY);
+        }
+        logger.stop();
+
+        List<Object> messages = delegate.getLogMessages();
+        assertEquals(100, messages.size());
+        for (int i = 0; i < 100; i++)
+        {
+            assertEquals("message" + i, messages.get(i));
+        }
+        assertEquals(0, logger.getDroppedMessageCount());
+    }
+
+    public void testDropPolicyCountsDiscardedMessages() throws Exception
+    {
+        final CountDownLatch appendStarted = new CountDownLatch(1);
+        final CountDownLatch releaseAppender = new CountDownLatch(1);
+        final UnitTestMessageLogger delegate = new UnitTestMessageLogger()
+        {
+            @Override
+            public void rawMessage(final String message, final Throwable throwable, final String logHierarchy)
+            {
+                appendStarted.countDown();
+                try
+                {
+                    releaseAppender.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                super.rawMessage(message, throwable, logHierarchy);
+            }
+        };
+        AsyncMessageLogger logger = new AsyncMessageLogger(delegate, 2, AsyncMessageLogger.OverflowPolicy.DROP);
+
+        logger.rawMessage("first", HIERARCHY);
+        assertTrue("Writer did not start appending", appendStarted.await(10, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 10; i++)
+        {
+            logger.rawMessage("message" + i, HIERARCHY);
+        }
+        assertEquals("Unexpected number of dropped messages", 8, logger.getDroppedMessageCount());
+
+        releaseAppender.countDown();
+        logger.stop();
+
+        assertEquals(3, delegate.getLogMessages().size());
+        assertEquals("first", delegate.getLogMessages().get(0));
+    }
+
+    public void testMessagesLoggedAfterStopAppendedSynchronously() throws Exception
+    {
+        UnitTestMessageLogger delegate = new UnitTestMessageLogger();
+        AsyncMessageLogger logger = new AsyncMessageLogger(delegate, 16, AsyncMessageLogger.OverflowPolicy.BLOCK);
+        logger.stop();
+
+        logger.rawMessage("late", HIERARCHY);
+        assertEquals(1, delegate.getLogMessages().size());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class LogEventRingBufferTest extends QpidTestCase
+{
+    public void testCapacityRoundedUpToPowerOfTwo()
+    {
+        assertEquals(8, new LogEventRingBuffer<String>(5).capacity());
+        assertEquals(8, new LogEventRingBuffer<String>(8).capacity());
+        assertEquals(1, new LogEventRingBuffer<String>(1).capacity());
+    }
+
+    public void testOfferAndPollInOrder()
+    {
+        LogEventRingBuffer<Integer> buffer = new LogEventRingBuffer<>(4);
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.poll());
+
+        for (int i = 0; i < 4; i++)
+        {
+            assertTrue("Offer " + i + " failed", buffer.offer(i));
+        }
+        assertFalse("Offer to full buffer unexpectedly succeeded", buffer.offer(4));
+
+        assertEquals(Integer.valueOf(0), buffer.poll());
+        assertTrue(buffer.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(drained, 3));
+        assertEquals(Integer.valueOf(4), buffer.poll());
+        assertTrue(buffer.isEmpty());
+
+        List<Integer> expected = new ArrayList<>();
+        expected.add(1);
+        expected.add(2);
+        expected.add(3);
+        assertEquals(expected, drained);
+    }
+
+    public void testConcurrentProducers() throws Exception
+    {
+        final int producers = 4;
+        final int perProducer = 10000;
+        final LogEventRingBuffer<Integer> buffer = new LogEventRingBuffer<>(64);
+        final CountDownLatch done = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++)
+        {
+            final int producer = p;
+            Thread thread = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    for (int i = 0; i < perProducer; i++)
+                    {
+                        while (!buffer.offer(producer * perProducer + i))
+                        {
+                            Thread.yield();
+                        }
+                    }
+                    done.countDown();
+                }
+            });
+            thread.start();
+        }
+
+        int[] lastSeen = new int[producers];
+        java.util.Arrays.fill(lastSeen, -1);
+        int received = 0;
+        long deadline = System.currentTimeMillis() + 30000L;
+        while (received < producers * perProducer && System.currentTimeMillis() < deadline)
+        {
+            Integer value = buffer.poll();
+            if (value == null)
+            {
+                Thread.yield();
+                continue;
+            }
+            int producer = value / perProducer;
+            int sequence = value % perProducer;
+            assertTrue("Out of order element from producer " + producer, sequence > lastSeen[producer]);
+            lastSeen[producer] = sequence;
+            received++;
+        }
+
+        assertTrue("Producers did not complete", done.await(10, TimeUnit.SECONDS));
+        assertEquals(producers * perProducer, received);
+        assertTrue(buffer.isEmpty());
+    }
+}
@@ -31,6 +31,7 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -472,6 +473,111 @@ abstract class AbstractQueueTestBase extends QpidTestCase
                    consumer2.getQueueContext().getReleasedEntry());
     }
 
+    public void testHigherPriorityConsumerReceivesMessagesFirst() throws Exception
+    {
+        ServerMessage messageA = createMessage(new Long(24));
+        ServerMessage messageB = createMessage(new Long(25));
+
+        MockConsumer lowPriorityTarget = new MockConsumer();
+        MockConsumer highPriorityTarget = new MockConsumer();
+        highPriorityTarget.setPriority(10);
+
+        _queue.addConsumer(lowPriorityTarget, null, messageA.getClass(), "test",
+                           EnumSet.of(ConsumerImpl.Option.ACQUIRES,
+                                      ConsumerImpl.Option.SEES_REQUEUES));
+        _queue.addConsumer(highPriorityTarget, null, messageA.getClass(), "test",
+                           EnumSet.of(ConsumerImpl.Option.ACQUIRES,
+                                      ConsumerImpl.Option.SEES_REQUEUES));
+
+        _queue.enqueue(messageA, null, null);
+        _queue.enqueue(messageB, null, null);
+
+        Thread.sleep(150);  // Work done by QueueRunner Thread
+
+        assertEquals("Unexpected number of messages sent to the higher priority consumer",
+                     2,
+                     highPriorityTarget.getMessages().size());
+        assertEquals("Unexpected number of messages sent to the lower priority consumer",
+                     0,
+                     lowPriorityTarget.getMessages().size());
+    }
+
+    public void testPriorityOrderKeptAsConsumersAreAddedAndRemoved() throws Exception
+    {
+        ServerMessage messageA = createMessage(new Long(24));
+        ServerMessage messageB = createMessage(new Long(25));
+        ServerMessage messageC = createMessage(new Long(26));
+
+        MockConsumer lowPriorityTarget = new MockConsumer();
+        MockConsumer highPriorityTarget = new MockConsumer();
+        highPriorityTarget.setPriority(10);
+        MockConsumer midPriorityTarget = new MockConsumer();
+        midPriorityTarget.setPriority(5);
+
+        _queue.addConsumer(lowPriorityTarget, null, messageA.getClass(), "test",
+                           EnumSet.of(ConsumerImpl.Option.ACQUIRES,
+                                      ConsumerImpl.Option.SEES_REQUEUES));
+        QueueConsumer<?> highPriorityConsumer =
+                (QueueConsumer<?>) _queue.addConsumer(highPriorityTarget, null, messageA.getClass(), "test",
+                                                      EnumSet.of(ConsumerImpl.Option.ACQUIRES,
+                                                                 ConsumerImpl.Option.SEES_REQUEUES));
+        QueueConsumer<?> midPriorityConsumer =
+                (QueueConsumer<?>) _queue.addConsumer(midPriorityTarget, null, messageA.getClass(), "test",
+                                                      EnumSet.of(ConsumerImpl.Option.ACQUIRES,
+                                                                 ConsumerImpl.Option.SEES_REQUEUES));
+
+        _queue.enqueue(messageA, null, null);
+        Thread.sleep(150);  // Work done by QueueRunner Thread
+        assertEquals("Unexpected messages sent to the highest priority consumer",
+                     1, highPriorityTarget.getMessages().size());
+
+        highPriorityConsumer.close();
+        _queue.enqueue(messageB, null, null);
+        Thread.sleep(150);  // Work done by QueueRunner Thread
+        assertEquals("Unexpected messages sent to the consumer left with the highest priority",
+                     1, midPriorityTarget.getMessages().size());
+
+        midPriorityConsumer.close();
+        _queue.enqueue(messageC, null, null);
+        Thread.sleep(150);  // Work done by QueueRunner Thread
+        assertEquals("Unexpected messages sent to the only consumer left",
+                     1, lowPriorityTarget.getMessages().size());
+    }
+
+    public void testEqualPriorityConsumersShareMessages() throws Exception
+    {
+        MockConsumer lowPriorityTarget = new MockConsumer();
+        MockConsumer highPriorityTarget1 = new MockConsumer();
+        highPriorityTarget1.setPriority(10);
+        MockConsumer highPriorityTarget2 = new MockConsumer();
+        highPriorityTarget2.setPriority(10);
+
+        ServerMessage messageA = createMessage(new Long(24));
+        _queue.addConsumer(lowPriorityTarget, null, messageA.getClass(), "test",
+                           EnumSet.of(ConsumerImpl.Option.ACQUIRES,
+                                      ConsumerImpl.Option.SEES_REQUEUES));
+        _queue.addConsumer(highPriorityTarget1, null, messageA.getClass(), "test",
+                           EnumSet.of(ConsumerImpl.Option.ACQUIRES,
+                                      ConsumerImpl.Option.SEES_REQUEUES));
+        _queue.addConsumer(highPriorityTarget2, null, messageA.getClass(), "test",
+                           EnumSet.of(ConsumerImpl.Option.ACQUIRES,
+                                      ConsumerImpl.Option.SEES_REQUEUES));
+        Thread.sleep(150);  // Work done by QueueRunner Thread
+
+        for (long messageNumber = 24; messageNumber < 28; messageNumber++)
+        {
+            _queue.enqueue(createMessage(messageNumber), null, null);
+            Thread.sleep(150);  // Work done by QueueRunner Thread
+        }
+
+        assertEquals("Unexpected messages sent to the first highest priority consumer",
+                     2, highPriorityTarget1.getMessages().size());
+        assertEquals("Unexpected messages sent to the second highest priority consumer",
+                     2, highPriorityTarget2.getMessages().size());
+        assertEquals("Unexpected messages sent to the lower priority consumer",
+                     0, lowPriorityTarget.getMessages().size());
+    }
+
     public void testExclusiveConsumer() throws Exception
     {
         ServerMessage messageA = createMessage(new Long(24));
@@ -765,6 +871,66 @@ abstract class AbstractQueueTestBase extends QpidTestCase
         }
     }
 
+    public void testBrowseWithCursor()
+    {
+        List<? extends QueueEntry> entries = enqueueGivenNumberOfMessages(_queue, 5);
+
+        QueueEntryPage page = _queue.browse(null, 2);
+        assertEquals("Unexpected first position", 1, page.getFirstPosition());
+        assertEquals("Unexpected entries", Arrays.asList(entries.get(0), entries.get(1)), page.getEntries());
+        String cursor = page.getCursor();
+
+        // dequeue both the last entry browsed and the one following it
+        dequeueMessage(_queue, 1);
+        dequeueMessage(_queue, 1);
+
+        page = _queue.browse(cursor, 2);
+        assertEquals("Cursor should be advanced rather than replaced", cursor, page.getCursor());
+        assertEquals("Unexpected first position", 3, page.getFirstPosition());
+        assertEquals("Unexpected entries", Arrays.asList(entries.get(3), entries.get(4)), page.getEntries());
+
+        page = _queue.browse(cursor, 2);
+        assertEquals("Cursor should be advanced rather than replaced", cursor, page.getCursor());
+        assertTrue("Expected no further entries", page.getEntries().isEmpty());
+
+        try
+        {
+            _queue.browse("unknown", 2);
+            fail("Exception not thrown");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // pass
+        }
+    }
+
+    public void testLeastRecentlyUsedBrowseCursorDiscardedAtLimit()
+    {
+        enqueueGivenNumberOfMessages(_queue, 5);
+
+        String first = _queue.browse(null, 1).getCursor();
+        String second = _queue.browse(null, 1).getCursor();
+        for (int i = 2; i < Queue.DEFAULT_MAX_BROWSE_CURSORS; i++)
+        {
+            _queue.browse(null, 1);
+        }
+
+        // using the first cursor leaves the second as the least recently used
+        _queue.browse(first, 1);
+        _queue.browse(null, 1);
+
+        assertEquals("Unexpected entries for the first cursor", 1, _queue.browse(first, 1).getEntries().size());
+        try
+        {
+            _queue.browse(second, 1);
+            fail("Least recently used cursor should have been discarded");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // pass
+        }
+    }
+
     /**
      * Tests that all messages including dequeued one are deleted from the queue
      * on invocation of {@link AbstractQueue#clearQueue()}
@@ -827,6 +993,32 @@ abstract class AbstractQueueTestBase extends QpidTestCase
         verify(listener, atLeastOnce()).notifyClients(eq(NotificationCheck.MESSAGE_COUNT_ALERT), eq(_queue), contains("Maximum count on queue threshold"));
     }
 
+    public void testExpiredMessagesDequeuedByHousekeeping() throws Exception
+    {
+        ServerMessage expiredMessage = createMessage(new Long(24));
+        when(expiredMessage.getExpiration()).thenReturn(System.currentTimeMillis() - 5000l);
+        ServerMessage unexpiredMessage = createMessage(new Long(25));
+        when(unexpiredMessage.getExpiration()).thenReturn(System.currentTimeMillis() + 60000l);
+        ServerMessage nonExpiringMessage = createMessage(new Long(26));
+
+        _queue.enqueue(expiredMessage, null, null);
+        _queue.enqueue(unexpiredMessage, null, null);
+        _queue.enqueue(nonExpiringMessage, null, null);
+        assertEquals("Unexpected queue depth before housekeeping", 3, _queue.getQueueDepthMessages());
+
+        _queue.checkMessageStatus();
+
+        assertEquals("Expired message was not dequeued", 2, _queue.getQueueDepthMessages());
+        List<ServerMessage> remaining = new ArrayList<>();
+        for (QueueEntry entry : _queue.getMessagesOnTheQueue())
+        {
+            remaining.add(entry.getMessage());
+        }
+        assertFalse("Expired message should have been removed", remaining.contains(expiredMessage));
+        assertTrue("Unexpired message should remain", remaining.contains(unexpiredMessage));
+        assertTrue("Non-expiring message should remain", remaining.contains(nonExpiringMessage));
+    }
+
 
     public void testMaximumMessageTtl() throws Exception
     {
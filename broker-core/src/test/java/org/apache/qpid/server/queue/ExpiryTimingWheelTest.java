@@ -0,0 +1,148 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.queue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class ExpiryTimingWheelTest extends QpidTestCase
+{
+    private static final long TICK = 100l;
+    private static final long START = 1000000l;
+
+    private ExpiryTimingWheel<Long> _wheel;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _wheel = new ExpiryTimingWheel<Long>(TICK, START)
+        {
+            @Override
+            protected long getExpiration(final Long element)
+            {
+                return element;
+            }
+        };
+    }
+
+    public void testElementNotReturnedBeforeExpiry()
+    {
+        long expiration = START + 250l;
+        _wheel.add(expiration);
+        assertEquals(1, _wheel.size());
+
+        assertTrue(_wheel.advance(START + 250l).isEmpty());
+        assertTrue(_wheel.advance(START + 299l).isEmpty());
+        assertEquals(Collections.singletonList(expiration), _wheel.advance(START + 300l));
+        assertEquals(0, _wheel.size());
+        assertTrue(_wheel.advance(START + 1000l).isEmpty());
+    }
+
+    public void testAlreadyExpiredElementReturnedOnNextAdvance()
+    {
+        _wheel.advance(START + 1000l);
+        long expiration = START + 500l;
+        _wheel.add(expiration);
+        assertEquals(Collections.singletonList(expiration), _wheel.advance(START + 1000l));
+    }
+
+    public void testRemove()
+    {
+        long first = START + 150l;
+        long second = START + 50000l;
+        long third = START + TICK * ExpiryTimingWheel.SLOTS_PER_LEVEL * ExpiryTimingWheel.SLOTS_PER_LEVEL * 3;
+        _wheel.add(first);
+        _wheel.add(second);
+        _wheel.add(third);
+
+        assertTrue(_wheel.remove(second));
+        assertFalse(_wheel.remove(second));
+        assertTrue(_wheel.remove(third));
+        assertEquals(1, _wheel.size());
+
+        assertEquals(Collections.singletonList(first), _wheel.advance(third + TICK));
+        assertEquals(0, _wheel.size());
+    }
+
+    public void testElementsBeyondTopLevelAreReturned()
+    {
+        long horizon = TICK;
+        for (int level = 0; level < ExpiryTimingWheel.LEVELS; level++)
+        {
+            horizon *= ExpiryTimingWheel.SLOTS_PER_LEVEL;
+        }
+        long expiration = START + 2 * horizon + 5 * TICK;
+        _wheel.add(expiration);
+
+        long now = START;
+        long step = horizon / 50;
+        while (now + step <= expiration)
+        {
+            now += step;
+            assertTrue("Element returned early at " + now, _wheel.advance(now).isEmpty());
+        }
+        assertTrue(_wheel.advance(expiration).isEmpty());
+        assertEquals(Collections.singletonList(expiration), _wheel.advance(expiration + TICK));
+    }
+
+    public void testRandomExpirations()
+    {
+        Random random = new Random(getName().hashCode());
+        Set<Long> outstanding = new HashSet<>();
+        long now = START;
+        for (int i = 0; i < 20000; i++)
+        {
+            long expiration = now + (long) (random.nextDouble() * random.nextDouble() * 10000000l);
+            if (outstanding.add(expiration))
+            {
+                _wheel.add(expiration);
+            }
+        }
+        List<Long> toRemove = new ArrayList<>(outstanding).subList(0, 1000);
+        for (Long expiration : toRemove)
+        {
+            assertTrue(_wheel.remove(expiration));
+        }
+        outstanding.removeAll(toRemove);
+
+        while (!outstanding.isEmpty())
+        {
+            now += random.nextInt(50000);
+            for (Long expiration : _wheel.advance(now))
+            {
+                assertTrue("Unexpected element " + expiration, outstanding.remove(expiration));
+                assertTrue("Element returned early", expiration < now);
+            }
+            for (Long expiration : outstanding)
+            {
+                assertTrue("Element returned late", expiration >= now - TICK);
+            }
+        }
+        assertEquals(0, _wheel.size());
+    }
+}
@@ -207,6 +207,40 @@ public abstract class QueueEntryListTestBase extends QpidTestCase
                         .getMessage().getMessageNumber(), third.getMessage().getMessageNumber());
     }
 
+    /**
+     * Tests that the next entry after a deleted entry skips the entries deleted after it, both when all the entries
+     * before it have also been deleted and when they have not.
+     */
+    public void testNextOfDeletedEntrySkipsDeletedEntries() throws Exception
+    {
+        QueueEntryList list = getTestList(true);
+        QueueEntry[] entries = new QueueEntry[8];
+        for (int i = 0; i < entries.length; i++)
+        {
+            entries[i] = list.add(createServerMessage(i), null);
+        }
+
+        for (int i = 0; i < 3; i++)
+        {
+            entries[i].acquire();
+            entries[i].delete();
+        }
+        assertSame("Unexpected next entry after an entry deleted at the front of the list",
+                   entries[3], list.next(entries[1]));
+
+        for (int i = 4; i < 7; i++)
+        {
+            entries[i].acquire();
+            entries[i].delete();
+        }
+        assertSame("Unexpected next entry after an entry deleted in the middle of the list",
+                   entries[7], list.next(entries[5]));
+
+        entries[7].acquire();
+        entries[7].delete();
+        assertNull("Unexpected next entry after an entry deleted at the end of the list", list.next(entries[5]));
+    }
+
     /**
      * Tests that after the last node of the list is marked deleted but has not yet been removed,
      * the iterator still ignores it and returns that it is 'atTail()' and can't 'advance()'
@@ -0,0 +1,298 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.test.utils.QpidTestCase;
+import org.apache.qpid.test.utils.TestFileUtils;
+
+public class MessageContentBlobLogTest extends QpidTestCase
+{
+    private static final int THRESHOLD = 10;
+    private static final long SEGMENT_SIZE = 200;
+    private static final int COMPACTION_OCCUPANCY = 50;
+
+    private File _directory;
+    private MessageContentBlobLog _log;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _directory = TestFileUtils.createTestDirectory("blobs", true);
+        _log = createLog();
+        _log.open();
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            _log.close();
+            TestFileUtils.delete(_directory, true);
+        }
+        finally
+        {
+            super.tearDown();
+        }
+    }
+
+    public void testIsLargeContent()
+    {
+        assertFalse(_log.isLargeContent(THRESHOLD - 1));
+        assertTrue(_log.isLargeContent(THRESHOLD));
+        assertFalse(new MessageContentBlobLog(_directory, -1, SEGMENT_SIZE, COMPACTION_OCCUPANCY).isLargeContent(1000));
+    }
+
+    public void testAppendAndRead() throws Exception
+    {
+        _log.append(1, content("first message"));
+        _log.append(2, content("second message"));
+
+        assertTrue(_log.contains(1));
+        assertFalse(_log.contains(3));
+        assertEquals(14, _log.getContentLength(2));
+        assertEquals(-1, _log.getContentLength(3));
+
+        assertEquals("second message", readAll(2));
+        assertEquals("first message", readAll(1));
+        assertNull(_log.readAll(3));
+
+        ByteBuffer dst = ByteBuffer.allocate(4);
+        assertEquals(4, _log.read(1, 6, dst));
+        assertEquals("mess", new String(dst.array()));
+
+        dst = ByteBuffer.allocate(10);
+        assertEquals("Read should be limited by the content length", 3, _log.read(1, 10, dst));
+        assertEquals(-1, _log.read(3, 0, dst));
+        try
+        {
+            _log.read(1, 14, ByteBuffer.allocate(1));
+            fail("Exception not thrown");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // pass
+        }
+
+        assertEquals(27, _log.getBytesWritten());
+        assertEquals(27, _log.getLiveBytes());
+        assertEquals(27 + 2 * MessageContentBlobLog.RECORD_HEADER_SIZE, _log.getDiskUsage());
+    }
+
+    public void testIndexRebuiltOnReopen() throws Exception
+    {
+        _log.append(1, content("first message"));
+        _log.append(2, content("second message"));
+        _log.append(1, content("replacement message"));
+        _log.close();
+
+        _log = createLog();
+        _log.open();
+
+        assertEquals(new HashSet<>(Arrays.asList(1l, 2l)), _log.getMessageIds());
+        assertEquals("replacement message", readAll(1));
+        assertEquals("second message", readAll(2));
+        assertEquals(33, _log.getLiveBytes());
+
+        _log.remove(1);
+        assertFalse(_log.contains(1));
+        assertEquals(14, _log.getLiveBytes());
+    }
+
+    public void testTornRecordTruncatedOnReopen() throws Exception
+    {
+        _log.append(1, content("first message"));
+        _log.close();
+
+        File segment = _directory.listFiles()[0];
+        long validLength = segment.length();
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw"))
+        {
+            file.seek(validLength);
+            file.write(new byte[] { 0x51, 0x42, 0x4C });
+        }
+
+        _log = createLog();
+        _log.open();
+        assertEquals(validLength, segment.length());
+        assertEquals("first message", readAll(1));
+
+        _log.append(2, content("second message"));
+        assertEquals("second message", readAll(2));
+    }
+
+    public void testSegmentsDeletedWhenContentRemoved() throws Exception
+    {
+        String hundredBytes = String.format("%100s", "x");
+        _log.append(1, content(hundredBytes));
+        _log.append(2, content(hundredBytes));
+        _log.append(3, content(hundredBytes));
+        assertEquals("Each append should have needed a new segment", 3, _log.getSegmentCount());
+
+        _log.remove(2);
+        assertEquals(2, _log.getSegmentCount());
+        assertEquals(2, countSegmentFiles());
+
+        _log.remove(3);
+        assertEquals("The current segment should be retained", 2, _log.getSegmentCount());
+
+        _log.remove(1);
+        assertEquals(1, _log.getSegmentCount());
+        assertEquals(0, _log.getLiveBytes());
+        _log.close();
+
+        _log = createLog();
+        _log.open();
+        assertEquals("Removals are not recorded, so the store must remove content it holds no reference to",
+                     Collections.singleton(3l), _log.getMessageIds());
+
+        _log.remove(3);
+        assertEquals(0, _log.getSegmentCount());
+        assertEquals(0, countSegmentFiles());
+    }
+
+    public void testLowOccupancySegmentCompacted() throws Exception
+    {
+        String fiftyBytes = String.format("%50s", "x");
+        _log.append(1, content(fiftyBytes));
+        _log.append(2, content(fiftyBytes));
+        _log.append(3, content(fiftyBytes));
+        _log.append(4, content(fiftyBytes));
+        assertEquals(2, _log.getSegmentCount());
+
+        _log.remove(1);
+        _log.remove(2);
+
+        long timeout = System.currentTimeMillis() + 10000l;
+        while (_log.getBytesCompacted() == 0 && System.currentTimeMillis() < timeout)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(50, _log.getBytesCompacted());
+        assertEquals(fiftyBytes, readAll(3));
+        assertEquals(fiftyBytes, readAll(4));
+        assertEquals(100, _log.getLiveBytes());
+
+        _log.close();
+        _log = createLog();
+        _log.open();
+        assertEquals(new HashSet<>(Arrays.asList(3l, 4l)), _log.getMessageIds());
+        assertEquals(fiftyBytes, readAll(3));
+    }
+
+    public void testConcurrentAppendsRemovesAndCompaction() throws Exception
+    {
+        final int threadCount = 4;
+        final int messagesPerThread = 50;
+        final String content = String.format("%40s", "x");
+        final List<Exception> failures = Collections.synchronizedList(new ArrayList<Exception>());
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++)
+        {
+            final int firstId = t * messagesPerThread;
+            threads[t] = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        for (int id = firstId; id < firstId + messagesPerThread; id++)
+                        {
+                            _log.append(id, content(content));
+                            assertEquals(content, readAll(id));
+                            // keep every third message so that partly emptied segments are compacted
+                            if (id > firstId && (id - 1) % 3 != 0)
+                            {
+                                _log.remove(id - 1);
+                            }
+                        }
+                    }
+                    catch (Exception e)
+                    {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+        {
+            thread.join(10000l);
+        }
+        assertEquals("Unexpected failures " + failures, 0, failures.size());
+
+        Set<Long> messageIds = _log.getMessageIds();
+        for (Long messageId : messageIds)
+        {
+            assertEquals(content, readAll(messageId));
+        }
+        assertEquals(messageIds.size() * content.length(), _log.getLiveBytes());
+
+        _log.close();
+        _log = createLog();
+        _log.open();
+        // removed content may be found again on reopening, it is for the owning store to remove it
+        assertTrue("Content lost on reopening", _log.getMessageIds().containsAll(messageIds));
+    }
+
+    private MessageContentBlobLog createLog()
+    {
+        return new MessageContentBlobLog(_directory, THRESHOLD, SEGMENT_SIZE, COMPACTION_OCCUPANCY);
+    }
+
+    private int countSegmentFiles()
+    {
+        String[] files = _directory.list();
+        return files == null ? 0 : files.length;
+    }
+
+    private Collection<QpidByteBuffer> content(String value)
+    {
+        return Collections.singleton(QpidByteBuffer.wrap(value.getBytes()));
+    }
+
+    private String readAll(long messageId) throws Exception
+    {
+        StringBuilder builder = new StringBuilder();
+        for (QpidByteBuffer buf : _log.readAll(messageId))
+        {
+            byte[] data = new byte[buf.remaining()];
+            buf.get(data);
+            builder.append(new String(data));
+            buf.dispose();
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class MessageContentEncoderTest extends QpidTestCase
+{
+    private static final int THRESHOLD = 100;
+
+    private MessageContentEncoder _encoder;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _encoder = new MessageContentEncoder(new DeflateMessageContentCodec(), THRESHOLD);
+    }
+
+    public void testEncodeAndDecode() throws Exception
+    {
+        byte[] content = new byte[200000];
+        for (int i = 0; i < content.length; i++)
+        {
+            content[i] = (byte) ('a' + i % 7);
+        }
+
+        byte[] encoded = _encoder.encode(Arrays.asList(QpidByteBuffer.wrap(content, 0, 100),
+                                                       QpidByteBuffer.wrap(content, 100, content.length - 100)),
+                                         content.length);
+        assertNotNull("Content was not encoded", encoded);
+        assertTrue("Encoded content is not smaller", encoded.length < content.length / 10);
+        assertEquals(DeflateMessageContentCodec.DEFLATE_ORDINAL, _encoder.getCodecOrdinal());
+        assertEquals(content.length, _encoder.getBytesBeforeEncoding());
+        assertEquals(encoded.length, _encoder.getBytesAfterEncoding());
+
+        byte[] padded = new byte[encoded.length + 2];
+        System.arraycopy(encoded, 0, padded, 1, encoded.length);
+        Collection<QpidByteBuffer> decoded =
+                _encoder.decode(_encoder.getCodecOrdinal(), padded, 1, encoded.length, content.length);
+        assertTrue("Unexpected decoded content", Arrays.equals(content, toArray(decoded)));
+    }
+
+    public void testPartsEncodedSeparately() throws Exception
+    {
+        byte[] content = new byte[1000];
+        for (int i = 0; i < content.length; i++)
+        {
+            content[i] = (byte) ('a' + i % 7);
+        }
+        assertTrue(_encoder.isEncoded(content.length));
+        assertFalse(_encoder.isEncoded(THRESHOLD - 1));
+
+        byte[] encodedPart = _encoder.encodePart(content, 500, 400);
+        assertNotNull("Part was not encoded", encodedPart);
+        assertEquals(400, _encoder.getBytesBeforeEncoding());
+
+        Collection<QpidByteBuffer> decoded =
+                _encoder.decode(_encoder.getCodecOrdinal(), encodedPart, 0, encodedPart.length, 400);
+        assertTrue("Unexpected decoded part", Arrays.equals(Arrays.copyOfRange(content, 500, 900), toArray(decoded)));
+    }
+
+    public void testContentBelowThresholdNotEncoded()
+    {
+        byte[] content = new byte[THRESHOLD - 1];
+        assertNull(_encoder.encode(Arrays.asList(QpidByteBuffer.wrap(content)), content.length));
+        assertEquals(0, _encoder.getBytesBeforeEncoding());
+    }
+
+    public void testIncompressibleContentNotEncoded()
+    {
+        byte[] content = new byte[10000];
+        new Random(0).nextBytes(content);
+        assertNull(_encoder.encode(Arrays.asList(QpidByteBuffer.wrap(content)), content.length));
+        assertEquals(0, _encoder.getBytesAfterEncoding());
+    }
+
+    public void testDisabledEncoder()
+    {
+        MessageContentEncoder encoder = new MessageContentEncoder(null, -1);
+        assertFalse(encoder.isEncoding());
+        assertNull(encoder.encode(Arrays.asList(QpidByteBuffer.wrap(new byte[THRESHOLD * 10])), THRESHOLD * 10));
+    }
+
+    public void testTruncatedContentNotDecoded() throws Exception
+    {
+        byte[] content = new byte[1000];
+        byte[] encoded = _encoder.encode(Arrays.asList(QpidByteBuffer.wrap(content)), content.length);
+        try
+        {
+            new DeflateMessageContentCodec().decode(encoded, 0, encoded.length / 2, content.length);
+            fail("Exception not thrown");
+        }
+        catch (IOException e)
+        {
+            // pass
+        }
+    }
+
+    private byte[] toArray(Collection<QpidByteBuffer> content)
+    {
+        int length = 0;
+        for (QpidByteBuffer buf : content)
+        {
+            length += buf.remaining();
+        }
+        byte[] data = new byte[length];
+        int offset = 0;
+        for (QpidByteBuffer buf : content)
+        {
+            int remaining = buf.remaining();
+            buf.get(data, offset, remaining);
+            offset += remaining;
+            buf.dispose();
+        }
+        return data;
+    }
+}
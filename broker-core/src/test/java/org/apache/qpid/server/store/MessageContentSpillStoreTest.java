@@ -0,0 +1,251 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.store;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.test.utils.QpidTestCase;
+import org.apache.qpid.test.utils.TestFileUtils;
+
+public class MessageContentSpillStoreTest extends QpidTestCase
+{
+    private static final int SEGMENT_SIZE = 100;
+
+    private File _directory;
+    private MessageContentSpillStore _spillStore;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _directory = TestFileUtils.createTestDirectory("spill", true);
+        _spillStore = new MessageContentSpillStore(_directory, SEGMENT_SIZE);
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            _spillStore.close();
+            TestFileUtils.delete(_directory, true);
+        }
+        finally
+        {
+            super.tearDown();
+        }
+    }
+
+    public void testWriteAndRead() throws Exception
+    {
+        MessageContentSpillStore.SpillLocation first = _spillStore.write(content("first"));
+        MessageContentSpillStore.SpillLocation second = _spillStore.write(content("second"));
+
+        assertEquals("second", read(second));
+        assertEquals("first", read(first));
+
+        assertEquals(11, _spillStore.getBytesSpilled());
+        assertEquals(11, _spillStore.getBytesRead());
+        assertEquals(11, _spillStore.getBytesInUse());
+        assertEquals(1, _spillStore.getSegmentCount());
+    }
+
+    public void testSegmentsReclaimedWhenReleased() throws Exception
+    {
+        String sixtyBytes = String.format("%60s", "x");
+        MessageContentSpillStore.SpillLocation first = _spillStore.write(content(sixtyBytes));
+        MessageContentSpillStore.SpillLocation second = _spillStore.write(content(sixtyBytes));
+        MessageContentSpillStore.SpillLocation third = _spillStore.write(content(sixtyBytes));
+
+        assertEquals("Each write should have needed a new segment", 3, _spillStore.getSegmentCount());
+        assertEquals(3, countSegmentFiles());
+
+        _spillStore.release(second);
+        assertEquals(2, _spillStore.getSegmentCount());
+        assertEquals(2, countSegmentFiles());
+        assertEquals(120, _spillStore.getBytesInUse());
+        assertEquals(120, _spillStore.getDiskUsage());
+
+        _spillStore.release(third);
+        assertEquals("The current segment should be retained", 2, _spillStore.getSegmentCount());
+
+        _spillStore.release(first);
+        assertEquals(1, _spillStore.getSegmentCount());
+        assertEquals(0, _spillStore.getBytesInUse());
+        assertEquals(180, _spillStore.getBytesSpilled());
+
+        _spillStore.write(content(sixtyBytes));
+        assertEquals("Empty current segment should be deleted when a new one is started",
+                     1, _spillStore.getSegmentCount());
+        assertEquals(1, countSegmentFiles());
+    }
+
+    public void testConcurrentWrites() throws Exception
+    {
+        final int threadCount = 4;
+        final int writesPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try
+        {
+            List<Future<List<MessageContentSpillStore.SpillLocation>>> futures = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++)
+            {
+                final int thread = t;
+                futures.add(executor.submit(new Callable<List<MessageContentSpillStore.SpillLocation>>()
+                {
+                    @Override
+                    public List<MessageContentSpillStore.SpillLocation> call() throws Exception
+                    {
+                        List<MessageContentSpillStore.SpillLocation> locations = new ArrayList<>(writesPerThread);
+                        for (int i = 0; i < writesPerThread; i++)
+                        {
+                            locations.add(_spillStore.write(content(contentFor(thread, i))));
+                        }
+                        return locations;
+                    }
+                }));
+            }
+
+            long expectedBytes = 0;
+            for (int t = 0; t < threadCount; t++)
+            {
+                List<MessageContentSpillStore.SpillLocation> locations = futures.get(t).get();
+                for (int i = 0; i < writesPerThread; i++)
+                {
+                    assertEquals("Unexpected content read back", contentFor(t, i), read(locations.get(i)));
+                    expectedBytes += contentFor(t, i).length();
+                }
+            }
+            assertEquals(expectedBytes, _spillStore.getBytesSpilled());
+            assertEquals(expectedBytes, _spillStore.getBytesInUse());
+            assertEquals(expectedBytes, _spillStore.getDiskUsage());
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    public void testCloseDeletesSegments() throws Exception
+    {
+        _spillStore.write(content("content"));
+        assertEquals(1, countSegmentFiles());
+
+        _spillStore.close();
+        assertEquals(0, countSegmentFiles());
+        assertEquals(0, _spillStore.getBytesInUse());
+    }
+
+    public void testStoredMemoryMessageFlowsToSpillStore() throws Exception
+    {
+        TestMessageMetaData metaData = new TestMessageMetaData(1, 7);
+        StoredMemoryMessage<TestMessageMetaData> message =
+                new StoredMemoryMessage<>(1, metaData, _spillStore);
+
+        QpidByteBuffer src = QpidByteBuffer.wrap("content".getBytes());
+        message.addContent(src);
+        src.dispose();
+        message.allContentAdded();
+
+        assertTrue(message.isInMemory());
+        assertTrue("Message should have flowed to disk", message.flowToDisk());
+        assertFalse(message.isInMemory());
+        assertEquals(7, _spillStore.getBytesInUse());
+
+        assertEquals("content", toString(message.getContent()));
+        assertTrue("Content should be faulted back into memory", message.isInMemory());
+        assertEquals(7, _spillStore.getBytesRead());
+
+        assertTrue(message.flowToDisk());
+        assertEquals("Spilled content should not be rewritten", 7, _spillStore.getBytesSpilled());
+
+        message.remove();
+        assertEquals(0, _spillStore.getBytesInUse());
+    }
+
+    public void testStoredMemoryMessageWithoutSpillStoreStaysInMemory() throws Exception
+    {
+        StoredMemoryMessage<TestMessageMetaData> message =
+                new StoredMemoryMessage<>(1, new TestMessageMetaData(1, 7));
+
+        QpidByteBuffer src = QpidByteBuffer.wrap("content".getBytes());
+        message.addContent(src);
+        src.dispose();
+        message.allContentAdded();
+
+        assertFalse(message.flowToDisk());
+        assertTrue(message.isInMemory());
+        assertEquals("content", toString(message.getContent()));
+    }
+
+    private static String contentFor(final int thread, final int index)
+    {
+        return "thread-" + thread + "-content-" + index;
+    }
+
+    private int countSegmentFiles()
+    {
+        String[] files = _directory.list();
+        return files == null ? 0 : files.length;
+    }
+
+    private Collection<QpidByteBuffer> content(String value)
+    {
+        return Collections.singleton(QpidByteBuffer.wrap(value.getBytes()));
+    }
+
+    private String read(MessageContentSpillStore.SpillLocation location)
+    {
+        QpidByteBuffer buf = _spillStore.read(location);
+        try
+        {
+            byte[] data = new byte[buf.remaining()];
+            buf.get(data);
+            return new String(data);
+        }
+        finally
+        {
+            buf.dispose();
+        }
+    }
+
+    private String toString(Collection<QpidByteBuffer> content)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (QpidByteBuffer buf : content)
+        {
+            byte[] data = new byte[buf.remaining()];
+            buf.get(data);
+            builder.append(new String(data));
+            buf.dispose();
+        }
+        return builder.toString();
+    }
+}
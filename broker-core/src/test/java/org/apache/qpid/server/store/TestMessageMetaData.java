@@ -92,6 +92,12 @@ public class TestMessageMetaData implements StorableMessageMetaData
 
     }
 
+    @Override
+    public void reallocate()
+    {
+
+    }
+
     @Override
     public int writeToBuffer(QpidByteBuffer dest)
     {
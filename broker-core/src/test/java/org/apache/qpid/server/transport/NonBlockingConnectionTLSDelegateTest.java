@@ -0,0 +1,336 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.transport;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.TrustManagerFactory;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.model.port.AmqpPort;
+import org.apache.qpid.test.utils.QpidTestCase;
+import org.apache.qpid.test.utils.TestSSLConstants;
+import org.apache.qpid.transport.network.Ticker;
+import org.apache.qpid.transport.network.security.ssl.SSLUtil;
+
+public class NonBlockingConnectionTLSDelegateTest extends QpidTestCase
+{
+    private static final int NETWORK_BUFFER_SIZE = 64 * 1024;
+    private static final long IDLE_BUFFER_RELEASE_PERIOD = 1000l;
+
+    private final ByteArrayOutputStream _received = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream _serverOutput = new ByteArrayOutputStream();
+    private NonBlockingConnectionTLSDelegate _delegate;
+    private SSLEngine _clientEngine;
+    private ByteBuffer _clientNetInput;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+
+        KeyStore keyStore = SSLUtil.getInitializedKeyStore(TestSSLConstants.BROKER_KEYSTORE,
+                                                           TestSSLConstants.BROKER_KEYSTORE_PASSWORD,
+                                                           "JKS");
+        KeyStore trustStore = SSLUtil.getInitializedKeyStore(TestSSLConstants.TRUSTSTORE,
+                                                             TestSSLConstants.TRUSTSTORE_PASSWORD,
+                                                             "JKS");
+
+        SSLContext serverContext = SSLContext.getInstance("TLS");
+        KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        kmf.init(keyStore, TestSSLConstants.BROKER_KEYSTORE_PASSWORD.toCharArray());
+        serverContext.init(kmf.getKeyManagers(), null, null);
+
+        SSLContext clientContext = SSLContext.getInstance("TLS");
+        TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        tmf.init(trustStore);
+        clientContext.init(null, tmf.getTrustManagers(), null);
+
+        AmqpPort port = mock(AmqpPort.class);
+        when(port.getNetworkBufferSize()).thenReturn(NETWORK_BUFFER_SIZE);
+        when(port.getSSLContext()).thenReturn(serverContext);
+        when(port.getContextValue(Long.class, AmqpPort.PORT_AMQP_IDLE_BUFFER_RELEASE_PERIOD)).thenReturn(IDLE_BUFFER_RELEASE_PERIOD);
+
+        NonBlockingConnection parent = mock(NonBlockingConnection.class);
+        doAnswer(new Answer<Void>()
+        {
+            @Override
+            public Void answer(final InvocationOnMock invocation)
+            {
+                QpidByteBuffer applicationData = (QpidByteBuffer) invocation.getArguments()[0];
+                byte[] data = new byte[applicationData.remaining()];
+                applicationData.get(data);
+                _received.write(data, 0, data.length);
+                return null;
+            }
+        }).when(parent).processAmqpData(any(QpidByteBuffer.class));
+        doAnswer(new Answer<Long>()
+        {
+            @Override
+            public Long answer(final InvocationOnMock invocation)
+            {
+                long written = 0;
+                for (QpidByteBuffer buffer : (Collection<QpidByteBuffer>) invocation.getArguments()[0])
+                {
+                    byte[] data = new byte[buffer.remaining()];
+                    buffer.get(data);
+                    _serverOutput.write(data, 0, data.length);
+                    written += data.length;
+                }
+                return written;
+            }
+        }).when(parent).writeToTransport(any(Collection.class));
+
+        _delegate = new NonBlockingConnectionTLSDelegate(parent, port);
+
+        _clientEngine = clientContext.createSSLEngine();
+        _clientEngine.setUseClientMode(true);
+        _clientNetInput = ByteBuffer.allocate(NETWORK_BUFFER_SIZE);
+
+        handshake();
+    }
+
+    public void testMultipleRecordsInSingleRead() throws Exception
+    {
+        byte[] first = createMessage(100, 1);
+        byte[] second = createMessage(200, 2);
+        byte[] third = createMessage(300, 3);
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        records.write(clientWrap(first));
+        records.write(clientWrap(second));
+        records.write(clientWrap(third));
+
+        deliverToServer(records.toByteArray());
+
+        assertReceived(first, second, third);
+    }
+
+    public void testPartialRecordsAcrossReads() throws Exception
+    {
+        byte[] first = createMessage(500, 1);
+        byte[] second = createMessage(700, 2);
+        byte[] firstRecord = clientWrap(first);
+        byte[] secondRecord = clientWrap(second);
+        byte[] records = new byte[firstRecord.length + secondRecord.length];
+        System.arraycopy(firstRecord, 0, records, 0, firstRecord.length);
+        System.arraycopy(secondRecord, 0, records, firstRecord.length, secondRecord.length);
+
+        // split within the first record's header, within its body, and then across the record boundary
+        int[] splits = { 3, firstRecord.length / 2, firstRecord.length + secondRecord.length / 2, records.length };
+        int offset = 0;
+        for (int split : splits)
+        {
+            deliverToServer(Arrays.copyOfRange(records, offset, split));
+            if (split < firstRecord.length)
+            {
+                assertEquals("Data should not be received before its record is complete", 0, _received.size());
+            }
+            offset = split;
+        }
+
+        assertReceived(first, second);
+    }
+
+    public void testReadLargerThanPacketBufferSize() throws Exception
+    {
+        int packetBufferSize = _clientEngine.getSession().getPacketBufferSize();
+        assertTrue("Net input buffer should be sized to the network buffer",
+                   _delegate.getNetInputBuffer().remaining() >= NETWORK_BUFFER_SIZE);
+
+        byte[] message = createMessage(packetBufferSize * 2, 4);
+        byte[] records = clientWrap(message);
+        assertTrue("Test requires a read larger than the packet buffer", records.length > packetBufferSize);
+
+        deliverToServer(records);
+
+        assertReceived(message);
+    }
+
+    public void testBuffersReleasedOnlyAfterIdlePeriod() throws Exception
+    {
+        Ticker ticker = _delegate.getIdleBufferReleaseTicker();
+        long useTime = System.currentTimeMillis();
+
+        deliverToServer(clientWrap(createMessage(100, 5)));
+        QpidByteBuffer netInputBuffer = _delegate.getNetInputBuffer();
+
+        ticker.tick(useTime);
+        assertEquals("Unexpected time to buffer release", IDLE_BUFFER_RELEASE_PERIOD, ticker.getTimeToNextTick(useTime));
+
+        ticker.tick(useTime + IDLE_BUFFER_RELEASE_PERIOD - 1);
+        assertSame("Buffers should not be released before the idle period has elapsed",
+                   netInputBuffer, _delegate.getNetInputBuffer());
+
+        ticker.tick(useTime + IDLE_BUFFER_RELEASE_PERIOD);
+        assertEquals("No release should be due once the buffers are released",
+                     Integer.MAX_VALUE, ticker.getTimeToNextTick(useTime + IDLE_BUFFER_RELEASE_PERIOD));
+        assertNotSame("Buffers should be released after the idle period has elapsed",
+                      netInputBuffer, _delegate.getNetInputBuffer());
+
+        byte[] message = createMessage(100, 6);
+        _received.reset();
+        deliverToServer(clientWrap(message));
+        assertReceived(message);
+    }
+
+    public void testBufferHoldingPartialRecordIsNotReleased() throws Exception
+    {
+        Ticker ticker = _delegate.getIdleBufferReleaseTicker();
+        long useTime = System.currentTimeMillis();
+
+        byte[] message = createMessage(300, 7);
+        byte[] record = clientWrap(message);
+        deliverToServer(Arrays.copyOfRange(record, 0, record.length / 2));
+        QpidByteBuffer netInputBuffer = _delegate.getNetInputBuffer();
+
+        ticker.tick(useTime);
+        ticker.tick(useTime + 2 * IDLE_BUFFER_RELEASE_PERIOD);
+        assertSame("Buffer holding a partial record should not be released",
+                   netInputBuffer, _delegate.getNetInputBuffer());
+
+        deliverToServer(Arrays.copyOfRange(record, record.length / 2, record.length));
+        assertReceived(message);
+    }
+
+    private void handshake() throws Exception
+    {
+        _clientEngine.beginHandshake();
+        for (int i = 0; i < 100 && !isHandshakeComplete(); i++)
+        {
+            byte[] clientData = clientWrap(new byte[0]);
+            if (clientData.length > 0)
+            {
+                deliverToServer(clientData);
+            }
+            _delegate.doWrite(Collections.<QpidByteBuffer>emptyList());
+            clientUnwrap();
+        }
+        assertTrue("TLS handshake did not complete", isHandshakeComplete());
+        assertEquals("Unexpected data received during handshake", 0, _received.size());
+    }
+
+    private boolean isHandshakeComplete()
+    {
+        SSLEngineResult.HandshakeStatus status = _clientEngine.getHandshakeStatus();
+        return (status == SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING
+                || status == SSLEngineResult.HandshakeStatus.FINISHED)
+               && _delegate.readyForRead()
+               && _serverOutput.size() == 0;
+    }
+
+    private byte[] clientWrap(final byte[] data) throws Exception
+    {
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        ByteBuffer source = ByteBuffer.wrap(data);
+        ByteBuffer packet = ByteBuffer.allocate(_clientEngine.getSession().getPacketBufferSize());
+        SSLEngineResult result;
+        do
+        {
+            packet.clear();
+            result = _clientEngine.wrap(source, packet);
+            runClientTasks(result);
+            records.write(packet.array(), 0, packet.position());
+        }
+        while (source.hasRemaining()
+               || (result.bytesProduced() > 0
+                   && _clientEngine.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_WRAP));
+        return records.toByteArray();
+    }
+
+    private void clientUnwrap() throws Exception
+    {
+        byte[] serverData = _serverOutput.toByteArray();
+        _serverOutput.reset();
+        _clientNetInput.put(serverData);
+        _clientNetInput.flip();
+
+        ByteBuffer applicationData = ByteBuffer.allocate(NETWORK_BUFFER_SIZE);
+        SSLEngineResult result;
+        do
+        {
+            result = _clientEngine.unwrap(_clientNetInput, applicationData);
+            runClientTasks(result);
+        }
+        while (result.getStatus() == SSLEngineResult.Status.OK
+               && (result.bytesConsumed() > 0
+                   || result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_TASK)
+               && _clientNetInput.hasRemaining());
+        _clientNetInput.compact();
+    }
+
+    private void runClientTasks(final SSLEngineResult result)
+    {
+        if (result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_TASK)
+        {
+            Runnable task;
+            while ((task = _clientEngine.getDelegatedTask()) != null)
+            {
+                task.run();
+            }
+        }
+    }
+
+    private void deliverToServer(final byte[] data) throws Exception
+    {
+        QpidByteBuffer netInputBuffer = _delegate.getNetInputBuffer();
+        netInputBuffer.put(data);
+        _delegate.processData();
+    }
+
+    private void assertReceived(final byte[]... messages)
+    {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (byte[] message : messages)
+        {
+            expected.write(message, 0, message.length);
+        }
+        assertTrue("Received data differs from the data sent",
+                   Arrays.equals(expected.toByteArray(), _received.toByteArray()));
+    }
+
+    private static byte[] createMessage(final int size, final int seed)
+    {
+        byte[] message = new byte[size];
+        for (int i = 0; i < size; i++)
+        {
+            message[i] = (byte) ((i + seed) % 251);
+        }
+        return message;
+    }
+}
@@ -23,6 +23,8 @@ import static org.mockito.Mockito.*;
 import java.util.Collections;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 
 import org.apache.qpid.server.message.EnqueueableMessage;
 import org.apache.qpid.server.queue.BaseQueue;
@@ -140,4 +142,121 @@ public class AsyncAutoCommitTransactionTest extends QpidTestCase
         verify(_futureRecorder).recordFuture(any(ListenableFuture.class), any(Action.class));
         verifyZeroInteractions(_postTransactionAction);
     }
+
+    public void testBatchedPersistentEnqueuesShareOneStoreTransaction() throws Exception
+    {
+        setTestSystemProperty(STRICT_ORDER_SYSTEM_PROPERTY, "false");
+
+        when(_message.isPersistent()).thenReturn(true);
+        when(_future.isDone()).thenReturn(true);
+
+        AsyncAutoCommitTransaction asyncAutoCommitTransaction =
+                new AsyncAutoCommitTransaction(_messageStore, _futureRecorder, 10);
+
+        asyncAutoCommitTransaction.enqueue(_queue, _message, _postTransactionAction);
+        asyncAutoCommitTransaction.enqueue(Collections.singletonList(_queue), _message, _postTransactionAction);
+
+        verify(_messageStore, times(1)).newTransaction();
+        verify(_storeTransaction, times(2)).enqueueMessage(_queue, _message);
+        verify(_storeTransaction, never()).commitTranAsync((Void) null);
+        verifyZeroInteractions(_futureRecorder);
+
+        asyncAutoCommitTransaction.flushBatch();
+
+        verify(_storeTransaction, times(1)).commitTranAsync((Void) null);
+        verify(_futureRecorder, times(1)).recordFuture(eq(_future), any(Action.class));
+        verifyZeroInteractions(_postTransactionAction);
+    }
+
+    public void testBatchCommittedWhenFull() throws Exception
+    {
+        setTestSystemProperty(STRICT_ORDER_SYSTEM_PROPERTY, "false");
+
+        when(_message.isPersistent()).thenReturn(true);
+
+        AsyncAutoCommitTransaction asyncAutoCommitTransaction =
+                new AsyncAutoCommitTransaction(_messageStore, _futureRecorder, 2);
+
+        asyncAutoCommitTransaction.enqueue(_queue, _message, _postTransactionAction);
+        verify(_storeTransaction, never()).commitTranAsync((Void) null);
+
+        asyncAutoCommitTransaction.enqueue(_queue, _message, _postTransactionAction);
+        verify(_storeTransaction, times(1)).commitTranAsync((Void) null);
+        verify(_futureRecorder, times(1)).recordFuture(eq(_future), any(Action.class));
+
+        asyncAutoCommitTransaction.flushBatch();
+        verify(_futureRecorder, times(1)).recordFuture(any(ListenableFuture.class), any(Action.class));
+    }
+
+    public void testBatchedPostCommitActionsRunInOrder() throws Exception
+    {
+        setTestSystemProperty(STRICT_ORDER_SYSTEM_PROPERTY, "false");
+
+        when(_message.isPersistent()).thenReturn(true);
+
+        AsyncAutoCommitTransaction asyncAutoCommitTransaction =
+                new AsyncAutoCommitTransaction(_messageStore, _futureRecorder, 10);
+
+        ServerTransaction.EnqueueAction first = mock(ServerTransaction.EnqueueAction.class);
+        ServerTransaction.EnqueueAction second = mock(ServerTransaction.EnqueueAction.class);
+        asyncAutoCommitTransaction.enqueue(_queue, _message, first);
+        asyncAutoCommitTransaction.enqueue(_queue, _message, second);
+        asyncAutoCommitTransaction.flushBatch();
+
+        ArgumentCaptor<Action> actionCaptor = ArgumentCaptor.forClass(Action.class);
+        verify(_futureRecorder).recordFuture(eq(_future), actionCaptor.capture());
+
+        actionCaptor.getValue().postCommit();
+
+        InOrder inOrder = inOrder(first, second);
+        inOrder.verify(first).postCommit(any(MessageEnqueueRecord.class));
+        inOrder.verify(second).postCommit(any(MessageEnqueueRecord.class));
+    }
+
+    public void testTransientEnqueueNotDelayedByBatchWhenNotBehavingStrictly() throws Exception
+    {
+        setTestSystemProperty(STRICT_ORDER_SYSTEM_PROPERTY, "false");
+
+        EnqueueableMessage transientMessage = mock(EnqueueableMessage.class);
+        when(transientMessage.isPersistent()).thenReturn(false);
+        when(_message.isPersistent()).thenReturn(true);
+
+        AsyncAutoCommitTransaction asyncAutoCommitTransaction =
+                new AsyncAutoCommitTransaction(_messageStore, _futureRecorder, 10);
+
+        asyncAutoCommitTransaction.enqueue(_queue, _message, mock(ServerTransaction.EnqueueAction.class));
+        asyncAutoCommitTransaction.enqueue(_queue, transientMessage, _postTransactionAction);
+
+        verify(_postTransactionAction).postCommit((MessageEnqueueRecord)null);
+    }
+
+    public void testBatchAbortedWhenEnqueueFails() throws Exception
+    {
+        setTestSystemProperty(STRICT_ORDER_SYSTEM_PROPERTY, "false");
+
+        when(_message.isPersistent()).thenReturn(true);
+
+        AsyncAutoCommitTransaction asyncAutoCommitTransaction =
+                new AsyncAutoCommitTransaction(_messageStore, _futureRecorder, 10);
+
+        asyncAutoCommitTransaction.enqueue(_queue, _message, mock(ServerTransaction.EnqueueAction.class));
+
+        when(_storeTransaction.enqueueMessage(_queue, _message)).thenThrow(new RuntimeException("Test"));
+        try
+        {
+            asyncAutoCommitTransaction.enqueue(_queue, _message, _postTransactionAction);
+            fail("Exception not thrown");
+        }
+        catch (RuntimeException e)
+        {
+            // PASS
+        }
+
+        verify(_storeTransaction).abortTran();
+        verify(_postTransactionAction).onRollback();
+
+        asyncAutoCommitTransaction.flushBatch();
+        verify(_storeTransaction, never()).commitTranAsync((Void) null);
+        verifyZeroInteractions(_futureRecorder);
+    }
 }
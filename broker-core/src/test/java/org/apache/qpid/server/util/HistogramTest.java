@@ -0,0 +1,110 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class HistogramTest extends QpidTestCase
+{
+    private final Histogram _histogram = new Histogram();
+
+    public void testEmptyHistogram()
+    {
+        assertEquals(0, _histogram.getCount());
+        assertEquals(0, _histogram.getMean());
+        assertEquals(0, _histogram.getPercentile(99));
+        assertTrue(_histogram.getBuckets().isEmpty());
+    }
+
+    public void testSmallValuesCountedExactly()
+    {
+        for (int i = 0; i < Histogram.SUB_BUCKET_COUNT; i++)
+        {
+            _histogram.record(i);
+        }
+        assertEquals(Histogram.SUB_BUCKET_COUNT, _histogram.getCount());
+        assertEquals(0, _histogram.getPercentile(0));
+        assertEquals(3, _histogram.getPercentile(50));
+        assertEquals(Histogram.SUB_BUCKET_COUNT - 1, _histogram.getPercentile(100));
+        assertEquals(Histogram.SUB_BUCKET_COUNT, _histogram.getBuckets().size());
+    }
+
+    public void testBucketBounds()
+    {
+        long previousUpperBound = -1;
+        int index = 0;
+        while (true)
+        {
+            long upperBound = Histogram.bucketUpperBound(index);
+            assertTrue("Bucket bounds are not ascending at " + index, upperBound > previousUpperBound);
+            assertEquals("Lower bound of bucket " + index, index, Histogram.bucketIndex(previousUpperBound + 1));
+            assertEquals("Upper bound of bucket " + index, index, Histogram.bucketIndex(upperBound));
+            if (upperBound == Long.MAX_VALUE)
+            {
+                break;
+            }
+            previousUpperBound = upperBound;
+            index++;
+        }
+    }
+
+    public void testPercentilesWithinRelativeError()
+    {
+        Random random = new Random(getName().hashCode());
+        long[] values = new long[10000];
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = (long) (random.nextDouble() * random.nextDouble() * 1000000);
+            _histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[] {50, 90, 99, 99.9})
+        {
+            long exact = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+            long reported = _histogram.getPercentile(percentile);
+            assertTrue("Percentile " + percentile + " reported as " + reported + " below " + exact, reported >= exact);
+            assertTrue("Percentile " + percentile + " reported as " + reported + " too far above " + exact,
+                       reported <= exact + exact / Histogram.SUB_BUCKET_COUNT);
+        }
+        assertEquals(values[values.length - 1], _histogram.getMax());
+        assertEquals(values[values.length - 1], _histogram.getPercentile(100));
+    }
+
+    public void testBuckets()
+    {
+        _histogram.record(5);
+        _histogram.record(100);
+        _histogram.record(101);
+        _histogram.record(-1);
+
+        Map<String, Long> buckets = _histogram.getBuckets();
+        assertEquals(3, buckets.size());
+        assertEquals(Long.valueOf(1), buckets.get("0"));
+        assertEquals(Long.valueOf(1), buckets.get("5"));
+        assertEquals(Long.valueOf(2), buckets.get("103"));
+        assertEquals(51, _histogram.getMean());
+    }
+}
@@ -31,8 +31,11 @@ import static org.mockito.Mockito.when;
 import java.io.File;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
@@ -304,6 +307,81 @@ public class AbstractVirtualHostTest extends QpidTestCase
         host.close();
     }
 
+    public void testQueueDepthFlowControlBlocksAndUnblocksProducers() throws Exception
+    {
+        Map<String,Object> attributes = Collections.<String, Object>singletonMap(AbstractVirtualHost.NAME,
+                                                                                 getTestName());
+        final MessageStore store = mock(MessageStore.class);
+        when(store.newMessageStoreReader()).thenReturn(mock(MessageStore.MessageStoreReader.class));
+        setTestSystemProperty(VirtualHost.VIRTUALHOST_FLOW_CONTROL_SIZE_BYTES, "1000");
+        setTestSystemProperty(VirtualHost.VIRTUALHOST_FLOW_RESUME_SIZE_BYTES, "800");
+        setTestSystemProperty(VirtualHost.VIRTUALHOST_FLOW_CONTROL_CHECK_PERIOD, "10");
+
+        final AtomicLong queueDepth = new AtomicLong();
+        final BlockingQueue<String> blockingChanges = new LinkedBlockingQueue<>();
+        final AbstractVirtualHost host = new AbstractVirtualHost(attributes, _node)
+        {
+            @Override
+            protected MessageStore createMessageStore()
+            {
+                return  store;
+            }
+
+            @Override
+            public long getTotalQueueDepthBytes()
+            {
+                return queueDepth.get();
+            }
+
+            @Override
+            protected void block(final BlockingType blockingType)
+            {
+                if (blockingType == BlockingType.QUEUE_DEPTH)
+                {
+                    blockingChanges.add("block");
+                }
+                super.block(blockingType);
+            }
+
+            @Override
+            protected void unblock(final BlockingType blockingType)
+            {
+                if (blockingType == BlockingType.QUEUE_DEPTH)
+                {
+                    blockingChanges.add("unblock");
+                }
+                super.unblock(blockingType);
+            }
+        };
+
+        host.open();
+        try
+        {
+            assertNull("Producers should not be blocked below the threshold",
+                       blockingChanges.poll(100, TimeUnit.MILLISECONDS));
+
+            queueDepth.set(1001);
+            assertEquals("Producers should be blocked over the threshold",
+                         "block", blockingChanges.poll(5, TimeUnit.SECONDS));
+
+            queueDepth.set(900);
+            assertNull("Producers should remain blocked above the resume threshold",
+                       blockingChanges.poll(100, TimeUnit.MILLISECONDS));
+
+            queueDepth.set(800);
+            assertEquals("Producers should be unblocked at the resume threshold",
+                         "unblock", blockingChanges.poll(5, TimeUnit.SECONDS));
+
+            queueDepth.set(900);
+            assertNull("Producers should not be blocked again below the threshold",
+                       blockingChanges.poll(100, TimeUnit.MILLISECONDS));
+        }
+        finally
+        {
+            host.close();
+        }
+    }
+
     private void assertActionProducesLogMessage(final Runnable action, final String loggerName,
                                                 final Level logLevel, final String message) throws Exception
     {
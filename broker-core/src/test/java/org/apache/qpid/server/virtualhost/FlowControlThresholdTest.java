@@ -0,0 +1,98 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.virtualhost;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class FlowControlThresholdTest extends QpidTestCase
+{
+    private final List<String> _transitions = new ArrayList<>();
+    private FlowControlThreshold _threshold;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _threshold = new FlowControlThreshold()
+        {
+            @Override
+            void flowControlEnforced(final long usage, final long threshold)
+            {
+                _transitions.add("enforced " + usage + "/" + threshold);
+            }
+
+            @Override
+            void flowControlRemoved(final long usage, final long resumeThreshold)
+            {
+                _transitions.add("removed " + usage + "/" + resumeThreshold);
+            }
+        };
+    }
+
+    public void testFlowControlRemovedOnlyAtResumeThreshold()
+    {
+        _threshold.check(1000, 1000, 800);
+        assertFalse("Usage at the threshold should not enforce flow control", _threshold.isFlowControlled());
+
+        _threshold.check(1001, 1000, 800);
+        assertTrue("Usage over the threshold should enforce flow control", _threshold.isFlowControlled());
+
+        _threshold.check(1500, 1000, 800);
+        _threshold.check(900, 1000, 800);
+        _threshold.check(801, 1000, 800);
+        assertTrue("Usage above the resume threshold should not remove flow control", _threshold.isFlowControlled());
+
+        _threshold.check(800, 1000, 800);
+        assertFalse("Usage at the resume threshold should remove flow control", _threshold.isFlowControlled());
+
+        _threshold.check(900, 1000, 800);
+        assertFalse("Usage below the threshold should not enforce flow control again", _threshold.isFlowControlled());
+
+        assertEquals("Unexpected transitions", Arrays.asList("enforced 1001/1000", "removed 800/800"), _transitions);
+    }
+
+    public void testResumeThresholdCappedAtThreshold()
+    {
+        _threshold.check(1001, 1000, 2000);
+        _threshold.check(1001, 1000, 2000);
+        assertTrue("Usage over the threshold should keep flow control enforced", _threshold.isFlowControlled());
+
+        _threshold.check(1000, 1000, 2000);
+        assertFalse("Usage at the threshold should remove flow control", _threshold.isFlowControlled());
+        assertEquals("Unexpected transitions", Arrays.asList("enforced 1001/1000", "removed 1000/1000"), _transitions);
+    }
+
+    public void testDisablingThresholdRemovesFlowControl()
+    {
+        _threshold.check(0, 0, 0);
+        _threshold.check(Long.MAX_VALUE, 0, 0);
+        assertFalse("A threshold of zero should not enforce flow control", _threshold.isFlowControlled());
+
+        _threshold.check(1001, 1000, 800);
+        _threshold.check(1001, 0, 0);
+        assertFalse("Disabling the threshold should remove flow control", _threshold.isFlowControlled());
+        assertEquals("Unexpected transitions", Arrays.asList("enforced 1001/1000", "removed 1001/0"), _transitions);
+    }
+}
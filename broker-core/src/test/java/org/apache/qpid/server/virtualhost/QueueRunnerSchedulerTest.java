@@ -0,0 +1,130 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.virtualhost;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class QueueRunnerSchedulerTest extends QpidTestCase
+{
+    private QueueRunnerScheduler _scheduler;
+    private final CountDownLatch _releaseBlocker = new CountDownLatch(1);
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _scheduler = new QueueRunnerScheduler(getTestName(), 1, 1, 60000l, Executors.defaultThreadFactory());
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            _releaseBlocker.countDown();
+            _scheduler.close(5);
+        }
+        finally
+        {
+            super.tearDown();
+        }
+    }
+
+    public void testNormalRunnersOvertakeBulkRunners() throws Exception
+    {
+        final List<String> runOrder = new CopyOnWriteArrayList<>();
+        final CountDownLatch allRun = new CountDownLatch(3);
+
+        blockSharedPool();
+        _scheduler.schedule(QueueRunnerScheduler.PriorityClass.BULK, new RecordingRunner("bulk", runOrder, allRun));
+        _scheduler.schedule(QueueRunnerScheduler.PriorityClass.NORMAL, new RecordingRunner("normal1", runOrder, allRun));
+        _scheduler.schedule(QueueRunnerScheduler.PriorityClass.NORMAL, new RecordingRunner("normal2", runOrder, allRun));
+        assertEquals("Unexpected number of queued runners", 3, _scheduler.getQueuedRunnerCount());
+
+        _releaseBlocker.countDown();
+
+        assertTrue("Runners did not run", allRun.await(5, TimeUnit.SECONDS));
+        assertEquals("Unexpected run order", Arrays.asList("normal1", "normal2", "bulk"), runOrder);
+    }
+
+    public void testLatencyCriticalRunnerIsNotQueuedBehindSharedPool() throws Exception
+    {
+        final List<String> runOrder = new CopyOnWriteArrayList<>();
+        final CountDownLatch run = new CountDownLatch(1);
+
+        blockSharedPool();
+        _scheduler.schedule(QueueRunnerScheduler.PriorityClass.LATENCY_CRITICAL,
+                            new RecordingRunner("critical", runOrder, run));
+
+        assertTrue("Latency critical runner did not run while the shared pool was busy",
+                   run.await(5, TimeUnit.SECONDS));
+    }
+
+    private void blockSharedPool() throws InterruptedException
+    {
+        final CountDownLatch blocking = new CountDownLatch(1);
+        _scheduler.schedule(QueueRunnerScheduler.PriorityClass.NORMAL, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                blocking.countDown();
+                try
+                {
+                    _releaseBlocker.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue("Blocking runner did not start", blocking.await(5, TimeUnit.SECONDS));
+    }
+
+    private static class RecordingRunner implements Runnable
+    {
+        private final String _name;
+        private final List<String> _runOrder;
+        private final CountDownLatch _latch;
+
+        private RecordingRunner(final String name, final List<String> runOrder, final CountDownLatch latch)
+        {
+            _name = name;
+            _runOrder = runOrder;
+            _latch = latch;
+        }
+
+        @Override
+        public void run()
+        {
+            _runOrder.add(_name);
+            _latch.countDown();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.qpid.server.security.access.config;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.security.auth.Subject;
+
+import org.apache.qpid.server.security.Result;
+import org.apache.qpid.server.security.access.ObjectProperties;
+import org.apache.qpid.server.security.access.ObjectProperties.Property;
+import org.apache.qpid.server.security.access.ObjectType;
+import org.apache.qpid.server.security.access.Operation;
+
+/**
+ * A bounded cache of the results of {@link RuleSet#check(Subject, Operation, ObjectType, ObjectProperties, InetAddress)}
+ * keyed by subject, operation, object type, the values of the given key properties and client address.
+ *
+ * Callers pass as key properties only those properties which the rules that could apply reference, so that checks
+ * differing only in properties no rule looks at (for instance the routing key of a publish, when no rule constrains
+ * it) share a single entry.
+ *
+ * The cache is split into segments, each a small access-ordered map evicting its least recently used entry once
+ * full, so that lookups from different threads rarely contend.
+ */
+public class AclDecisionCache
+{
+    public static final String DECISION_CACHE_SIZE = "qpid.acl.decision_cache_size";
+    public static final int DEFAULT_DECISION_CACHE_SIZE = 10000;
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] _segments;
+    private final AtomicLong _hits = new AtomicLong();
+    private final AtomicLong _misses = new AtomicLong();
+    private final AtomicLong _evictions = new AtomicLong();
+
+    public AclDecisionCache()
+    {
+        this(Integer.getInteger(DECISION_CACHE_SIZE, DEFAULT_DECISION_CACHE_SIZE));
+    }
+
+    public AclDecisionCache(final int maximumSize)
+    {
+        if (maximumSize > 0)
+        {
+            int segmentCount = Math.min(SEGMENT_COUNT, maximumSize);
+            int segmentSize = (maximumSize + segmentCount - 1) / segmentCount;
+            _segments = new Segment[segmentCount];
+            for (int i = 0; i < segmentCount; i++)
+            {
+                _segments[i] = new Segment(segmentSize);
+            }
+        }
+        else
+        {
+            _segments = null;
+        }
+    }
+
+    public Result get(final Subject subject,
+                      final Operation operation,
+                      final ObjectType objectType,
+                      final ObjectProperties properties,
+                      final Property[] keyProperties,
+                      final InetAddress addressOfClient)
+    {
+        if (_segments == null)
+        {
+            return null;
+        }
+        DecisionKey key = new DecisionKey(subject, operation, objectType, properties, keyProperties, addressOfClient);
+        Result result = segmentFor(key).get(key);
+        if (result == null)
+        {
+            _misses.incrementAndGet();
+        }
+        else
+        {
+            _hits.incrementAndGet();
+        }
+        return result;
+    }
+
+    public void put(final Subject subject,
+                    final Operation operation,
+                    final ObjectType objectType,
+                    final ObjectProperties properties,
+                    final Property[] keyProperties,
+                    final InetAddress addressOfClient,
+                    final Result result)
+    {
+        if (_segments != null)
+        {
+            DecisionKey key = new DecisionKey(subject, operation, objectType, properties, keyProperties, addressOfClient);
+            segmentFor(key).put(key, result);
+        }
+    }
+
+    public void clear()
+    {
+        if (_segments != null)
+        {
+            for (Segment segment : _segments)
+            {
+                segment.clear();
+            }
+        }
+    }
+
+    public long getHits()
+    {
+        return _hits.get();
+    }
+
+    public long getMisses()
+    {
+        return _misses.get();
+    }
+
+    public long getEvictions()
+    {
+        return _evictions.get();
+    }
+
+    /**
+     * @return the percentage of lookups satisfied from the cache
+     */
+    public double getHitRate()
+    {
+        long hits = _hits.get();
+        long total = hits + _misses.get();
+        return total == 0L ? 0d : (100d * hits) / total;
+    }
+
+    public int size()
+    {
+        int size = 0;
+        if (_segments != null)
+        {
+            for (Segment segment : _segments)
+            {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(final DecisionKey key)
+    {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return _segments[(hash & 0x7fffffff) % _segments.length];
+    }
+
+    private final class Segment
+    {
+        private final Map<DecisionKey, Result> _entries;
+
+        private Segment(final int maximumSize)
+        {
+            _entries = new LinkedHashMap<DecisionKey, Result>(16, 0.75f, true)
+            {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<DecisionKey, Result> eldest)
+                {
+                    if (size() > maximumSize)
+                    {
+                        _evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized Result get(final DecisionKey key)
+        {
+            return _entries.get(key);
+        }
+
+        synchronized void put(final DecisionKey key, final Result result)
+        {
+            _entries.put(key, result);
+        }
+
+        synchronized void clear()
+        {
+            _entries.clear();
+        }
+
+        synchronized int size()
+        {
+            return _entries.size();
+        }
+    }
+
+    private static final class DecisionKey
+    {
+        private final Subject _subject;
+        private final Operation _operation;
+        private final ObjectType _objectType;
+        private final String[] _propertyValues;
+        private final InetAddress _addressOfClient;
+        private final int _hashCode;
+
+        private DecisionKey(final Subject subject,
+                            final Operation operation,
+                            final ObjectType objectType,
+                            final ObjectProperties properties,
+                            final Property[] keyProperties,
+                            final InetAddress addressOfClient)
+        {
+            _subject = subject;
+            _operation = operation;
+            _objectType = objectType;
+            _addressOfClient = addressOfClient;
+
+            // an absent property (null) is distinguished from one set to the empty string, as rules match them
+            // differently
+            if (properties == null)
+            {
+                _propertyValues = null;
+            }
+            else
+            {
+                _propertyValues = new String[keyProperties.length];
+                for (int i = 0; i < keyProperties.length; i++)
+                {
+                    _propertyValues[i] = properties.get(keyProperties[i]);
+                }
+            }
+
+            int result = subject.hashCode();
+            result = 31 * result + operation.hashCode();
+            result = 31 * result + objectType.hashCode();
+            result = 31 * result + Arrays.hashCode(_propertyValues);
+            result = 31 * result + (addressOfClient != null ? addressOfClient.hashCode() : 0);
+            _hashCode = result;
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass())
+            {
+                return false;
+            }
+
+            final DecisionKey that = (DecisionKey) o;
+
+            return _hashCode == that._hashCode
+                   && _operation == that._operation
+                   && _objectType == that._objectType
+                   && Arrays.equals(_propertyValues, that._propertyValues)
+                   && (_addressOfClient != null ? _addressOfClient.equals(that._addressOfClient) : that._addressOfClient == null)
+                   && _subject.equals(that._subject);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return _hashCode;
+        }
+    }
+}
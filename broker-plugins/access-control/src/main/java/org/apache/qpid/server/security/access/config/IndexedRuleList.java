@@ -0,0 +1,273 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.qpid.server.security.access.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.apache.qpid.server.security.access.ObjectProperties;
+import org.apache.qpid.server.security.access.ObjectProperties.Property;
+
+/**
+ * An ordered list of rules, indexed by the object name each rule applies to.
+ *
+ * Rules are bucketed as applying to any name (no name, an empty name or the wildcard), to an exact name, or to
+ * a name prefix (a name ending with the wildcard).  {@link #getCandidates(String)} returns, in rule order, only
+ * the rules whose name could match the given object name; these must still be matched in full by the caller.
+ *
+ * The list also records which object properties, and whether the address of the client, are referenced by any of
+ * its rules, since only those can affect the outcome of matching an action against the list.
+ */
+public final class IndexedRuleList
+{
+    private static final int[] NONE = new int[0];
+
+    private final Rule[] _rules;
+    private final int[] _anyName;
+    private final Map<String, int[]> _exactNames;
+    private final Map<String, int[]> _namePrefixes;
+    private final int[] _prefixLengths;
+    private final Property[] _referencedProperties;
+    private final boolean _clientAddressReferenced;
+
+    public IndexedRuleList(final List<Rule> rules)
+    {
+        _rules = rules.toArray(new Rule[rules.size()]);
+
+        EnumSet<Property> referencedProperties = EnumSet.noneOf(Property.class);
+        boolean clientAddressReferenced = false;
+        for (Rule rule : _rules)
+        {
+            ObjectProperties properties = rule.getAclAction().getAction().getProperties();
+            if (properties != null)
+            {
+                for (Property property : Property.values())
+                {
+                    if (properties.get(property) != null)
+                    {
+                        referencedProperties.add(property);
+                    }
+                }
+            }
+            clientAddressReferenced |= rule.getAclAction().getFirewallRule() != null;
+        }
+        _referencedProperties = referencedProperties.toArray(new Property[referencedProperties.size()]);
+        _clientAddressReferenced = clientAddressReferenced;
+
+        List<Integer> anyName = new ArrayList<>();
+        Map<String, List<Integer>> exactNames = new HashMap<>();
+        Map<String, List<Integer>> namePrefixes = new HashMap<>();
+        TreeSet<Integer> prefixLengths = new TreeSet<>();
+
+        for (int i = 0; i < _rules.length; i++)
+        {
+            String name = getRuleObjectName(_rules[i]);
+            if (name == null || name.isEmpty() || name.equals(ObjectProperties.WILD_CARD))
+            {
+                anyName.add(i);
+            }
+            else if (name.endsWith(ObjectProperties.WILD_CARD))
+            {
+                String prefix = name.substring(0, name.length() - 1);
+                addToBucket(namePrefixes, prefix, i);
+                prefixLengths.add(prefix.length());
+            }
+            else
+            {
+                addToBucket(exactNames, name, i);
+            }
+        }
+
+        _anyName = toArray(anyName);
+        _exactNames = toArrays(exactNames);
+        _namePrefixes = toArrays(namePrefixes);
+        _prefixLengths = new int[prefixLengths.size()];
+        int i = 0;
+        for (Integer length : prefixLengths)
+        {
+            _prefixLengths[i++] = length;
+        }
+    }
+
+    public List<Rule> getRules()
+    {
+        return Collections.unmodifiableList(Arrays.asList(_rules));
+    }
+
+    public int size()
+    {
+        return _rules.length;
+    }
+
+    /**
+     * Returns the object properties which at least one of the rules matches against.
+     */
+    public Property[] getReferencedProperties()
+    {
+        return _referencedProperties;
+    }
+
+    /**
+     * Returns true if at least one of the rules is restricted to clients from particular addresses.
+     */
+    public boolean isClientAddressReferenced()
+    {
+        return _clientAddressReferenced;
+    }
+
+    /**
+     * Returns, in rule order, the rules which might match an object with the given name.
+     */
+    public List<Rule> getCandidates(final String objectName)
+    {
+        if (objectName == null || (_exactNames.isEmpty() && _namePrefixes.isEmpty()))
+        {
+            return toRules(_anyName);
+        }
+
+        List<int[]> buckets = new ArrayList<>(2 + _prefixLengths.length);
+        if (_anyName.length != 0)
+        {
+            buckets.add(_anyName);
+        }
+        int[] exact = _exactNames.get(objectName);
+        if (exact != null)
+        {
+            buckets.add(exact);
+        }
+        for (int length : _prefixLengths)
+        {
+            if (length > objectName.length())
+            {
+                break;
+            }
+            int[] prefixed = _namePrefixes.get(objectName.substring(0, length));
+            if (prefixed != null)
+            {
+                buckets.add(prefixed);
+            }
+        }
+
+        switch (buckets.size())
+        {
+            case 0:
+                return Collections.emptyList();
+            case 1:
+                return toRules(buckets.get(0));
+            default:
+                return toRules(merge(buckets));
+        }
+    }
+
+    private static String getRuleObjectName(final Rule rule)
+    {
+        ObjectProperties properties = rule.getAclAction().getAction().getProperties();
+        return properties == null ? null : properties.getName();
+    }
+
+    private List<Rule> toRules(final int[] indexes)
+    {
+        if (indexes.length == 0)
+        {
+            return Collections.emptyList();
+        }
+        Rule[] rules = new Rule[indexes.length];
+        for (int i = 0; i < indexes.length; i++)
+        {
+            rules[i] = _rules[indexes[i]];
+        }
+        return Arrays.asList(rules);
+    }
+
+    /**
+     * Merges sorted, disjoint arrays of rule indexes into a single sorted array, preserving rule order.
+     */
+    private static int[] merge(final List<int[]> buckets)
+    {
+        int total = 0;
+        for (int[] bucket : buckets)
+        {
+            total += bucket.length;
+        }
+        int[] merged = new int[total];
+        int[] positions = new int[buckets.size()];
+        for (int i = 0; i < total; i++)
+        {
+            int selected = -1;
+            for (int b = 0; b < positions.length; b++)
+            {
+                int[] bucket = buckets.get(b);
+                if (positions[b] < bucket.length
+                    && (selected == -1 || bucket[positions[b]] < buckets.get(selected)[positions[selected]]))
+                {
+                    selected = b;
+                }
+            }
+            merged[i] = buckets.get(selected)[positions[selected]++];
+        }
+        return merged;
+    }
+
+    private static void addToBucket(final Map<String, List<Integer>> buckets, final String key, final int index)
+    {
+        List<Integer> bucket = buckets.get(key);
+        if (bucket == null)
+        {
+            bucket = new ArrayList<>();
+            buckets.put(key, bucket);
+        }
+        bucket.add(index);
+    }
+
+    private static Map<String, int[]> toArrays(final Map<String, List<Integer>> buckets)
+    {
+        Map<String, int[]> arrays = new HashMap<>(buckets.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : buckets.entrySet())
+        {
+            arrays.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        return arrays;
+    }
+
+    private static int[] toArray(final List<Integer> values)
+    {
+        if (values.isEmpty())
+        {
+            return NONE;
+        }
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++)
+        {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.toString(_rules);
+    }
+}
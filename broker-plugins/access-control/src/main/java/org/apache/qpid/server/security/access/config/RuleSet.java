@@ -20,12 +20,13 @@ package org.apache.qpid.server.security.access.config;
 
 import java.net.InetAddress;
 import java.security.Principal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +44,7 @@ import org.apache.qpid.server.logging.EventLoggerProvider;
 import org.apache.qpid.server.logging.messages.AccessControlMessages;
 import org.apache.qpid.server.security.Result;
 import org.apache.qpid.server.security.access.ObjectProperties;
+import org.apache.qpid.server.security.access.ObjectProperties.Property;
 import org.apache.qpid.server.security.access.ObjectType;
 import org.apache.qpid.server.security.access.Operation;
 import org.apache.qpid.server.security.access.Permission;
@@ -56,6 +58,7 @@ public class RuleSet implements EventLoggerProvider
 
     private static final String AT = "@";
     private static final String SLASH = "/";
+    private static final Property[] NO_PROPERTIES = new Property[0];
 
     public static final String DEFAULT_ALLOW = "defaultallow";
     public static final String DEFAULT_DENY = "defaultdeny";
@@ -65,9 +68,11 @@ public class RuleSet implements EventLoggerProvider
     private static final Integer _increment = 10;
 
     private final SortedMap<Integer, Rule> _rules = new TreeMap<Integer, Rule>();
-    private final Map<Subject, Map<Operation, Map<ObjectType, List<Rule>>>> _cache =
-                        Collections.synchronizedMap(new WeakHashMap<Subject, Map<Operation, Map<ObjectType, List<Rule>>>>());
+    private final Map<Subject, Map<Operation, Map<ObjectType, IndexedRuleList>>> _cache =
+                        Collections.synchronizedMap(new WeakHashMap<Subject, Map<Operation, Map<ObjectType, IndexedRuleList>>>());
+    private volatile Map<Operation, Map<ObjectType, List<Rule>>> _operationIndex;
     private final Map<String, Boolean> _config = new HashMap<String, Boolean>();
+    private final AclDecisionCache _decisionCache = new AclDecisionCache();
     private final EventLoggerProvider _eventLogger;
 
     public RuleSet(EventLoggerProvider eventLogger)
@@ -84,6 +89,8 @@ public class RuleSet implements EventLoggerProvider
     {
         _rules.clear();
         _cache.clear();
+        _operationIndex = null;
+        _decisionCache.clear();
         _config.clear();
     }
 
@@ -100,50 +107,96 @@ public class RuleSet implements EventLoggerProvider
      */
     public List<Rule> getRules(final Subject subject, final Operation operation, final ObjectType objectType)
     {
-        final Map<ObjectType, List<Rule>> objects = getObjectToRuleCache(subject, operation);
+        IndexedRuleList rules = getIndexedRules(subject, operation, objectType);
+        return rules == null ? null : rules.getRules();
+    }
+
+    private IndexedRuleList getIndexedRules(final Subject subject, final Operation operation, final ObjectType objectType)
+    {
+        final Map<ObjectType, IndexedRuleList> objects = getObjectToRuleCache(subject, operation);
 
         // Lookup object type rules for the operation
         if (!objects.containsKey(objectType))
         {
             final Set<Principal> principals = subject.getPrincipals();
-            boolean controlled = false;
-            List<Rule> filtered = new LinkedList<Rule>();
-            for (Rule rule : _rules.values())
+            IndexedRuleList indexed = null;
+            List<Rule> candidates = getOperationIndex(operation, objectType);
+
+            // Leave as null if there are no rules at all for this operation and object type
+            if (candidates != null)
             {
-                final Action ruleAction = rule.getAction();
-                if (rule.isEnabled()
-                    && (ruleAction.getOperation() == Operation.ALL || ruleAction.getOperation() == operation)
-                    && (ruleAction.getObjectType() == ObjectType.ALL || ruleAction.getObjectType() == objectType))
+                List<Rule> filtered = new ArrayList<Rule>();
+                for (Rule rule : candidates)
                 {
-                    controlled = true;
-
-                    if (isRelevant(principals,rule))
+                    if (isRelevant(principals, rule))
                     {
                         filtered.add(rule);
                     }
                 }
-            }
-
-            // Return null if there are no rules at all for this operation and object type
-            if (filtered.isEmpty() && controlled == false)
-            {
-                filtered = null;
+                indexed = new IndexedRuleList(filtered);
             }
 
             // Save the rules we selected
-            objects.put(objectType, filtered);
+            objects.put(objectType, indexed);
 
-            _logger.debug("Cached {} RulesList: {}", objectType, filtered);
+            _logger.debug("Cached {} RulesList: {}", objectType, indexed);
         }
 
         // Return the cached rules
-        List<Rule> rules = objects.get(objectType);
+        IndexedRuleList rules = objects.get(objectType);
 
         _logger.debug("Returning RuleList: {}", rules);
 
         return rules;
     }
 
+    /**
+     * Returns, in rule order, the enabled rules applying to the given operation and object type for any identity,
+     * or null if there are none.
+     */
+    private List<Rule> getOperationIndex(final Operation operation, final ObjectType objectType)
+    {
+        Map<Operation, Map<ObjectType, List<Rule>>> operationIndex = _operationIndex;
+        if (operationIndex == null)
+        {
+            operationIndex = new EnumMap<Operation, Map<ObjectType, List<Rule>>>(Operation.class);
+            for (Rule rule : _rules.values())
+            {
+                if (!rule.isEnabled())
+                {
+                    continue;
+                }
+                final Action ruleAction = rule.getAction();
+                for (Operation ruleOperation : ruleAction.getOperation() == Operation.ALL
+                                                ? EnumSet.allOf(Operation.class)
+                                                : EnumSet.of(ruleAction.getOperation()))
+                {
+                    Map<ObjectType, List<Rule>> objectTypes = operationIndex.get(ruleOperation);
+                    if (objectTypes == null)
+                    {
+                        objectTypes = new EnumMap<ObjectType, List<Rule>>(ObjectType.class);
+                        operationIndex.put(ruleOperation, objectTypes);
+                    }
+                    for (ObjectType ruleObjectType : ruleAction.getObjectType() == ObjectType.ALL
+                                                     ? EnumSet.allOf(ObjectType.class)
+                                                     : EnumSet.of(ruleAction.getObjectType()))
+                    {
+                        List<Rule> rules = objectTypes.get(ruleObjectType);
+                        if (rules == null)
+                        {
+                            rules = new ArrayList<Rule>();
+                            objectTypes.put(ruleObjectType, rules);
+                        }
+                        rules.add(rule);
+                    }
+                }
+            }
+            _operationIndex = operationIndex;
+        }
+        Map<ObjectType, List<Rule>> objectTypes = operationIndex.get(operation);
+        return objectTypes == null ? null : objectTypes.get(objectType);
+    }
+
     public boolean isValidNumber(Integer number)
     {
         return !_rules.containsKey(number);
@@ -207,17 +260,25 @@ public class RuleSet implements EventLoggerProvider
 
         // save rule
         _cache.clear();
+        _operationIndex = null;
+        _decisionCache.clear();
         _rules.put(rule.getNumber(), rule);
     }
 
     public void enableRule(int ruleNumber)
     {
         _rules.get(Integer.valueOf(ruleNumber)).enable();
+        _cache.clear();
+        _operationIndex = null;
+        _decisionCache.clear();
     }
 
     public void disableRule(int ruleNumber)
     {
         _rules.get(Integer.valueOf(ruleNumber)).disable();
+        _cache.clear();
+        _operationIndex = null;
+        _decisionCache.clear();
     }
 
     /** Return true if the name is well-formed (contains legal characters). */
@@ -284,22 +345,36 @@ public class RuleSet implements EventLoggerProvider
      */
     public Result check(Subject subject, Operation operation, ObjectType objectType, ObjectProperties properties, InetAddress addressOfClient)
     {
+        // get the list of rules relevant for this request
+        IndexedRuleList rules = getIndexedRules(subject, operation, objectType);
+
+        // only the properties (and client address) referenced by these rules can change the decision, so the
+        // decision is cached against those alone
+        Property[] keyProperties = rules == null ? NO_PROPERTIES : rules.getReferencedProperties();
+        InetAddress keyAddress = rules != null && rules.isClientAddressReferenced() ? addressOfClient : null;
+        Result cachedResult = _decisionCache.get(subject, operation, objectType, properties, keyProperties, keyAddress);
+        if (cachedResult != null)
+        {
+            return cachedResult;
+        }
+
         ClientAction action = new ClientAction(operation, objectType, properties);
 
         _logger.debug("Checking action: {}", action);
 
-        // get the list of rules relevant for this request
-        List<Rule> rules = getRules(subject, operation, objectType);
         if (rules == null)
         {
 
             _logger.debug("No rules found, returning default result");
 
-            return getDefault();
+            Result result = getDefault();
+            _decisionCache.put(subject, operation, objectType, properties, keyProperties, keyAddress, result);
+            return result;
         }
 
-        // Iterate through a filtered set of rules dealing with this identity and operation
-        for (Rule rule : rules)
+        // Iterate through a filtered set of rules dealing with this identity and operation, and which might
+        // apply to the named object
+        for (Rule rule : rules.getCandidates(properties == null ? null : properties.getName()))
         {
 
             _logger.debug("Checking against rule: {}", rule);
@@ -308,6 +383,7 @@ public class RuleSet implements EventLoggerProvider
             {
                 Permission permission = rule.getPermission();
 
+                // decisions made by logging rules are not cached, as each check must be logged
                 switch (permission)
                 {
                     case ALLOW_LOG:
@@ -315,14 +391,20 @@ public class RuleSet implements EventLoggerProvider
                                 action.getOperation().toString(),
                                 action.getObjectType().toString(),
                                 action.getProperties().toString()));
+                        return Result.ALLOWED;
                     case ALLOW:
+                        _decisionCache.put(subject, operation, objectType, properties, keyProperties, keyAddress,
+                                           Result.ALLOWED);
                         return Result.ALLOWED;
                     case DENY_LOG:
                         getEventLogger().message(AccessControlMessages.DENIED(
                                 action.getOperation().toString(),
                                 action.getObjectType().toString(),
                                 action.getProperties().toString()));
+                        return Result.DENIED;
                     case DENY:
+                        _decisionCache.put(subject, operation, objectType, properties, keyProperties, keyAddress,
+                                           Result.DENIED);
                         return Result.DENIED;
                 }
 
@@ -331,6 +413,7 @@ public class RuleSet implements EventLoggerProvider
         }
 
         // Defer to the next plugin of this type, if it exists
+        _decisionCache.put(subject, operation, objectType, properties, keyProperties, keyAddress, Result.DEFER);
         return Result.DEFER;
     }
 
@@ -364,6 +447,7 @@ public class RuleSet implements EventLoggerProvider
     public void configure(Map<String, Boolean> properties)
     {
         _config.putAll(properties);
+        _decisionCache.clear();
     }
 
     /**
@@ -375,6 +459,7 @@ public class RuleSet implements EventLoggerProvider
     public void configure(String key, Boolean value)
     {
         _config.put(key, value);
+        _decisionCache.clear();
     }
 
      /**
@@ -408,26 +493,31 @@ public class RuleSet implements EventLoggerProvider
         return false;
     }
 
-    private Map<ObjectType, List<Rule>> getObjectToRuleCache(final Subject subject, final Operation operation)
+    private Map<ObjectType, IndexedRuleList> getObjectToRuleCache(final Subject subject, final Operation operation)
     {
         // Lookup identity in cache and create empty operation map if required
-        Map<Operation, Map<ObjectType, List<Rule>>> operations = _cache.get(subject);
+        Map<Operation, Map<ObjectType, IndexedRuleList>> operations = _cache.get(subject);
         if (operations == null)
         {
-            operations = Collections.synchronizedMap(new EnumMap<Operation, Map<ObjectType, List<Rule>>>(Operation.class));
+            operations = Collections.synchronizedMap(new EnumMap<Operation, Map<ObjectType, IndexedRuleList>>(Operation.class));
             _cache.put(subject, operations);
         }
 
         // Lookup operation and create empty object type map if required
-        Map<ObjectType, List<Rule>> objects = operations.get(operation);
+        Map<ObjectType, IndexedRuleList> objects = operations.get(operation);
         if (objects == null)
         {
-            objects = Collections.synchronizedMap(new EnumMap<ObjectType, List<Rule>>(ObjectType.class));
+            objects = Collections.synchronizedMap(new EnumMap<ObjectType, IndexedRuleList>(ObjectType.class));
             operations.put(operation, objects);
         }
         return objects;
     }
 
+    public AclDecisionCache getDecisionCache()
+    {
+        return _decisionCache;
+    }
+
     public EventLogger getEventLogger()
     {
         return _eventLogger.getEventLogger();
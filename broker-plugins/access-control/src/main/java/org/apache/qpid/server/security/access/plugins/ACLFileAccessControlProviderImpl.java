@@ -42,6 +42,7 @@ import org.apache.qpid.server.model.ManagedObjectFactoryConstructor;
 import org.apache.qpid.server.model.State;
 import org.apache.qpid.server.model.StateTransition;
 import org.apache.qpid.server.security.AccessControl;
+import org.apache.qpid.server.security.access.config.AclDecisionCache;
 import org.apache.qpid.server.util.urlstreamhandler.data.Handler;
 
 public class ACLFileAccessControlProviderImpl
@@ -215,4 +216,38 @@ public class ACLFileAccessControlProviderImpl
     {
         return _accessControl;
     }
+
+    @Override
+    public long getDecisionCacheHits()
+    {
+        AclDecisionCache decisionCache = getDecisionCache();
+        return decisionCache == null ? 0L : decisionCache.getHits();
+    }
+
+    @Override
+    public long getDecisionCacheMisses()
+    {
+        AclDecisionCache decisionCache = getDecisionCache();
+        return decisionCache == null ? 0L : decisionCache.getMisses();
+    }
+
+    @Override
+    public long getDecisionCacheEvictions()
+    {
+        AclDecisionCache decisionCache = getDecisionCache();
+        return decisionCache == null ? 0L : decisionCache.getEvictions();
+    }
+
+    @Override
+    public int getDecisionCacheSize()
+    {
+        AclDecisionCache decisionCache = getDecisionCache();
+        return decisionCache == null ? 0 : decisionCache.size();
+    }
+
+    private AclDecisionCache getDecisionCache()
+    {
+        DefaultAccessControl accessControl = _accessControl;
+        return accessControl == null ? null : accessControl.getDecisionCache();
+    }
 }
@@ -47,6 +47,7 @@ import org.apache.qpid.server.security.access.ObjectType;
 import org.apache.qpid.server.security.access.Operation;
 import org.apache.qpid.server.security.access.config.ConfigurationFile;
 import org.apache.qpid.server.security.access.config.PlainConfiguration;
+import org.apache.qpid.server.security.access.config.AclDecisionCache;
 import org.apache.qpid.server.security.access.config.RuleSet;
 
 public class DefaultAccessControl implements AccessControl
@@ -154,6 +155,12 @@ public class DefaultAccessControl implements AccessControl
         return _ruleSet.getDefault();
     }
 
+    AclDecisionCache getDecisionCache()
+    {
+        RuleSet ruleSet = _ruleSet;
+        return ruleSet == null ? null : ruleSet.getDecisionCache();
+    }
+
     /**
      * Check if an operation is authorised by asking the  configuration object about the access
      * control rules granted to the current thread's {@link Subject}. If there is no current
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.qpid.server.security.access.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.qpid.server.security.access.ObjectProperties;
+import org.apache.qpid.server.security.access.ObjectType;
+import org.apache.qpid.server.security.access.Operation;
+import org.apache.qpid.server.security.access.Permission;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class IndexedRuleListTest extends QpidTestCase
+{
+    private final Rule _anyNameRule = createRule(null);
+    private final Rule _exactRule = createRule("queue1");
+    private final Rule _wildcardRule = createRule(ObjectProperties.WILD_CARD);
+    private final Rule _prefixRule = createRule("queue*");
+    private final Rule _otherExactRule = createRule("other");
+    private final Rule _longPrefixRule = createRule("queue1.*");
+
+    private final List<Rule> _rules = Arrays.asList(_anyNameRule,
+                                                    _exactRule,
+                                                    _wildcardRule,
+                                                    _prefixRule,
+                                                    _otherExactRule,
+                                                    _longPrefixRule);
+
+    public void testGetRules()
+    {
+        IndexedRuleList list = new IndexedRuleList(_rules);
+        assertEquals(_rules.size(), list.size());
+        assertEquals(_rules, list.getRules());
+    }
+
+    public void testCandidatesForUnnamedObject()
+    {
+        IndexedRuleList list = new IndexedRuleList(_rules);
+        assertEquals(Arrays.asList(_anyNameRule, _wildcardRule), list.getCandidates(null));
+    }
+
+    public void testCandidatesForExactName()
+    {
+        IndexedRuleList list = new IndexedRuleList(_rules);
+        assertEquals(Arrays.asList(_anyNameRule, _wildcardRule, _otherExactRule), list.getCandidates("other"));
+    }
+
+    public void testCandidatesPreserveRuleOrder()
+    {
+        IndexedRuleList list = new IndexedRuleList(_rules);
+        assertEquals(Arrays.asList(_anyNameRule, _exactRule, _wildcardRule, _prefixRule),
+                     list.getCandidates("queue1"));
+        assertEquals(Arrays.asList(_anyNameRule, _exactRule, _wildcardRule, _prefixRule, _longPrefixRule),
+                     list.getCandidates("queue1.sub"));
+    }
+
+    public void testCandidatesForPrefixOnly()
+    {
+        IndexedRuleList list = new IndexedRuleList(_rules);
+        assertEquals(Arrays.asList(_anyNameRule, _wildcardRule, _prefixRule), list.getCandidates("queue"));
+        assertEquals(Arrays.asList(_anyNameRule, _wildcardRule, _prefixRule), list.getCandidates("queue2"));
+        assertEquals(Arrays.asList(_anyNameRule, _wildcardRule), list.getCandidates("que"));
+    }
+
+    public void testCandidatesWithNoMatchingRules()
+    {
+        IndexedRuleList list = new IndexedRuleList(Arrays.asList(_exactRule, _prefixRule));
+        assertEquals(Collections.<Rule>emptyList(), list.getCandidates("unknown"));
+        assertEquals(Collections.<Rule>emptyList(), list.getCandidates(null));
+    }
+
+    public void testEmptyList()
+    {
+        IndexedRuleList list = new IndexedRuleList(Collections.<Rule>emptyList());
+        assertEquals(0, list.size());
+        assertTrue(list.getCandidates("queue1").isEmpty());
+    }
+
+    private static Rule createRule(String name)
+    {
+        ObjectProperties properties = name == null ? ObjectProperties.EMPTY : new ObjectProperties(name);
+        AclAction action = new AclAction(Operation.CONSUME, ObjectType.QUEUE, properties);
+        return new Rule("user", action, Permission.ALLOW);
+    }
+}
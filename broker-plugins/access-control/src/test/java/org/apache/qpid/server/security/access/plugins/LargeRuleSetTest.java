@@ -0,0 +1,186 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.security.access.plugins;
+
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+
+import javax.security.auth.Subject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.qpid.server.logging.EventLoggerProvider;
+import org.apache.qpid.server.security.Result;
+import org.apache.qpid.server.security.access.ObjectProperties;
+import org.apache.qpid.server.security.access.ObjectType;
+import org.apache.qpid.server.security.access.Operation;
+import org.apache.qpid.server.security.access.config.AclDecisionCache;
+import org.apache.qpid.server.security.access.config.PlainConfiguration;
+import org.apache.qpid.server.security.access.config.RuleSet;
+import org.apache.qpid.server.security.auth.TestPrincipalUtils;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+/**
+ * Checks the decisions made by a {@link RuleSet} loaded from a large, synthetic ACL file, and logs how long
+ * those decisions take.  The decision cache is disabled so that every check evaluates the rules.
+ */
+public class LargeRuleSetTest extends QpidTestCase
+{
+    private static final Logger _logger = LoggerFactory.getLogger(LargeRuleSetTest.class);
+
+    private static final int NUMBER_OF_USERS = 50;
+    private static final int NUMBER_OF_QUEUES = 5000;
+    private static final int ITERATIONS = 20;
+
+    private RuleSet _ruleSet;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        setTestSystemProperty(AclDecisionCache.DECISION_CACHE_SIZE, "0");
+
+        File acl = File.createTempFile(getClass().getName() + getName(), "acl");
+        acl.deleteOnExit();
+
+        PrintWriter aclWriter = new PrintWriter(new FileWriter(acl));
+        try
+        {
+            aclWriter.println("ACL DENY user0 CONSUME QUEUE name=private.*");
+            aclWriter.println("ACL ALLOW ALL ACCESS VIRTUALHOST");
+            for (int i = 0; i < NUMBER_OF_QUEUES; i++)
+            {
+                String user = "user" + (i % NUMBER_OF_USERS);
+                aclWriter.println("ACL ALLOW " + user + " CREATE QUEUE name=queue." + i);
+                aclWriter.println("ACL ALLOW " + user + " CONSUME QUEUE name=queue." + i);
+                aclWriter.println("ACL ALLOW " + user + " PUBLISH EXCHANGE name=amq.direct routingkey=queue." + i);
+            }
+            aclWriter.println("ACL ALLOW ALL CONSUME QUEUE name=private.*");
+            aclWriter.println("ACL ALLOW ALL CREATE QUEUE name=temp.*");
+            aclWriter.println("ACL DENY ALL ALL");
+        }
+        finally
+        {
+            aclWriter.close();
+        }
+
+        PlainConfiguration configFile = new PlainConfiguration(acl.getName(), mock(EventLoggerProvider.class));
+        _ruleSet = configFile.load(new FileReader(acl));
+    }
+
+    @Override
+    public void tearDown() throws Exception
+    {
+        try
+        {
+            _ruleSet.clear();
+        }
+        finally
+        {
+            super.tearDown();
+        }
+    }
+
+    public void testRuleCount()
+    {
+        assertEquals(3 * NUMBER_OF_QUEUES + 5, _ruleSet.getRuleCount());
+    }
+
+    public void testExactNameDecisions()
+    {
+        Subject user1 = TestPrincipalUtils.createTestSubject("user1");
+        assertEquals(Result.ALLOWED, checkConsume(user1, "queue.1"));
+        assertEquals(Result.ALLOWED, checkConsume(user1, "queue." + (NUMBER_OF_USERS + 1)));
+        assertEquals(Result.DENIED, checkConsume(user1, "queue.2"));
+        assertEquals(Result.DENIED, checkConsume(user1, "queue.1.suffix"));
+        assertEquals(Result.DENIED, checkConsume(user1, "unknown"));
+    }
+
+    public void testPrefixDecisionsHonourRuleOrder()
+    {
+        Subject user0 = TestPrincipalUtils.createTestSubject("user0");
+        Subject user1 = TestPrincipalUtils.createTestSubject("user1");
+
+        assertEquals("Earlier deny should take precedence", Result.DENIED, checkConsume(user0, "private.queue"));
+        assertEquals(Result.ALLOWED, checkConsume(user1, "private.queue"));
+        assertEquals(Result.DENIED, checkConsume(user1, "privatequeue"));
+
+        assertEquals(Result.ALLOWED, _ruleSet.check(user1, Operation.CREATE, ObjectType.QUEUE,
+                                                    new ObjectProperties("temp.1")));
+        assertEquals(Result.DENIED, _ruleSet.check(user1, Operation.CREATE, ObjectType.QUEUE,
+                                                   new ObjectProperties("tmp.1")));
+    }
+
+    public void testUnnamedDecisions()
+    {
+        Subject user1 = TestPrincipalUtils.createTestSubject("user1");
+        assertEquals(Result.ALLOWED, _ruleSet.check(user1, Operation.ACCESS, ObjectType.VIRTUALHOST,
+                                                    ObjectProperties.EMPTY));
+        assertEquals(Result.DENIED, _ruleSet.check(user1, Operation.PURGE, ObjectType.QUEUE,
+                                                   ObjectProperties.EMPTY));
+    }
+
+    public void testPublishDecisions()
+    {
+        Subject user1 = TestPrincipalUtils.createTestSubject("user1");
+        assertEquals(Result.ALLOWED, _ruleSet.check(user1, Operation.PUBLISH, ObjectType.EXCHANGE,
+                                                    new ObjectProperties("test", "amq.direct", "queue.1", false)));
+        assertEquals(Result.DENIED, _ruleSet.check(user1, Operation.PUBLISH, ObjectType.EXCHANGE,
+                                                   new ObjectProperties("test", "amq.direct", "queue.2", false)));
+    }
+
+    public void testCheckThroughput()
+    {
+        Subject[] subjects = new Subject[NUMBER_OF_USERS];
+        for (int i = 0; i < NUMBER_OF_USERS; i++)
+        {
+            subjects[i] = TestPrincipalUtils.createTestSubject("user" + i);
+        }
+
+        long start = System.nanoTime();
+        int checks = 0;
+        for (int iteration = 0; iteration < ITERATIONS; iteration++)
+        {
+            for (int i = 0; i < NUMBER_OF_QUEUES; i++)
+            {
+                Subject owner = subjects[i % NUMBER_OF_USERS];
+                Subject other = subjects[(i + 1) % NUMBER_OF_USERS];
+                assertEquals(Result.ALLOWED, checkConsume(owner, "queue." + i));
+                assertEquals(Result.DENIED, checkConsume(other, "queue." + i));
+                checks += 2;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        _logger.info("Evaluated {} checks against {} rules in {} ms ({} ns per check)",
+                     checks, _ruleSet.getRuleCount(), elapsed / 1000000L, elapsed / checks);
+    }
+
+    private Result checkConsume(Subject subject, String queueName)
+    {
+        return _ruleSet.check(subject, Operation.CONSUME, ObjectType.QUEUE, new ObjectProperties(queueName));
+    }
+}
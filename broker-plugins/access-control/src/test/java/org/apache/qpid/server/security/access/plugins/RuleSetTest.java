@@ -21,17 +21,24 @@
 
 package org.apache.qpid.server.security.access.plugins;
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import javax.security.auth.Subject;
 
+import org.apache.qpid.server.logging.EventLogger;
 import org.apache.qpid.server.logging.EventLoggerProvider;
+import org.apache.qpid.server.logging.LogMessage;
 import org.apache.qpid.server.security.Result;
 import org.apache.qpid.server.security.access.ObjectProperties;
 import org.apache.qpid.server.security.access.ObjectType;
 import org.apache.qpid.server.security.access.Operation;
 import org.apache.qpid.server.security.access.Permission;
 import org.apache.qpid.server.security.access.ObjectProperties.Property;
+import org.apache.qpid.server.security.access.config.AclDecisionCache;
 import org.apache.qpid.server.security.access.config.Rule;
 import org.apache.qpid.server.security.access.config.RuleSet;
 import org.apache.qpid.server.security.auth.TestPrincipalUtils;
@@ -465,4 +472,102 @@ public class RuleSetTest extends QpidTestCase
 
         assertEquals(Result.ALLOWED, _ruleSet.check(subjectInAllowedGroupAndOneOther,Operation.ACCESS, ObjectType.VIRTUALHOST, ObjectProperties.EMPTY));
     }
+
+    public void testDecisionIsCached()
+    {
+        _ruleSet.grant(0, TEST_USER, Permission.ALLOW, Operation.ACCESS, ObjectType.VIRTUALHOST, ObjectProperties.EMPTY);
+
+        AclDecisionCache decisionCache = _ruleSet.getDecisionCache();
+        assertEquals(Result.ALLOWED, _ruleSet.check(_testSubject, Operation.ACCESS, ObjectType.VIRTUALHOST, new ObjectProperties(ALLOWED_VH)));
+        assertEquals(0, decisionCache.getHits());
+        assertEquals(1, decisionCache.getMisses());
+
+        assertEquals(Result.ALLOWED, _ruleSet.check(_testSubject, Operation.ACCESS, ObjectType.VIRTUALHOST, new ObjectProperties(ALLOWED_VH)));
+        assertEquals(1, decisionCache.getHits());
+        assertEquals(1, decisionCache.getMisses());
+        assertEquals(50d, decisionCache.getHitRate(), 0.01d);
+    }
+
+    public void testDecisionCacheInvalidatedWhenRulesChange()
+    {
+        ObjectProperties properties = new ObjectProperties(_queueName);
+        assertEquals(Result.DENIED, _ruleSet.check(_testSubject, Operation.CONSUME, ObjectType.QUEUE, properties));
+        assertEquals(1, _ruleSet.getDecisionCache().size());
+
+        _ruleSet.grant(0, TEST_USER, Permission.ALLOW, Operation.CONSUME, ObjectType.QUEUE, properties);
+        assertEquals(0, _ruleSet.getDecisionCache().size());
+        assertEquals(Result.ALLOWED, _ruleSet.check(_testSubject, Operation.CONSUME, ObjectType.QUEUE, properties));
+
+        _ruleSet.disableRule(0);
+        assertEquals(Result.DENIED, _ruleSet.check(_testSubject, Operation.CONSUME, ObjectType.QUEUE, properties));
+    }
+
+    public void testDecisionOfLoggingRuleIsNotCached()
+    {
+        EventLogger eventLogger = mock(EventLogger.class);
+        EventLoggerProvider eventLoggerProvider = mock(EventLoggerProvider.class);
+        when(eventLoggerProvider.getEventLogger()).thenReturn(eventLogger);
+        RuleSet ruleSet = new RuleSet(eventLoggerProvider);
+        ruleSet.grant(0, TEST_USER, Permission.ALLOW_LOG, Operation.ACCESS, ObjectType.VIRTUALHOST, ObjectProperties.EMPTY);
+
+        assertEquals(Result.ALLOWED, ruleSet.check(_testSubject, Operation.ACCESS, ObjectType.VIRTUALHOST, ObjectProperties.EMPTY));
+        assertEquals(Result.ALLOWED, ruleSet.check(_testSubject, Operation.ACCESS, ObjectType.VIRTUALHOST, ObjectProperties.EMPTY));
+        assertEquals(0, ruleSet.getDecisionCache().size());
+        verify(eventLogger, times(2)).message(any(LogMessage.class));
+    }
+
+    public void testDecisionCacheIsBounded()
+    {
+        AclDecisionCache decisionCache = new AclDecisionCache(32);
+        Property[] keyProperties = new Property[] { Property.ROUTING_KEY };
+        for (int i = 0; i < 100; i++)
+        {
+            decisionCache.put(_testSubject, Operation.PUBLISH, ObjectType.EXCHANGE,
+                              new ObjectProperties("vhost", _exchangeName, "key" + i, false), keyProperties, null,
+                              Result.ALLOWED);
+        }
+        assertTrue("Unexpected cache size " + decisionCache.size(), decisionCache.size() <= 32);
+        assertTrue(decisionCache.getEvictions() >= 68);
+        assertEquals(Result.ALLOWED, decisionCache.get(_testSubject, Operation.PUBLISH, ObjectType.EXCHANGE,
+                                                       new ObjectProperties("vhost", _exchangeName, "key99", false),
+                                                       keyProperties, null));
+    }
+
+    public void testPublishDecisionsShareEntryWhenRoutingKeyUnconstrained()
+    {
+        ObjectProperties rule = new ObjectProperties(_exchangeName);
+        rule.put(Property.VIRTUALHOST_NAME, ALLOWED_VH);
+        _ruleSet.grant(0, TEST_USER, Permission.ALLOW, Operation.PUBLISH, ObjectType.EXCHANGE, rule);
+
+        for (int i = 0; i < 100; i++)
+        {
+            assertEquals(Result.ALLOWED, _ruleSet.check(_testSubject, Operation.PUBLISH, ObjectType.EXCHANGE,
+                                                        new ObjectProperties(ALLOWED_VH, _exchangeName, "key" + i, false)));
+        }
+        AclDecisionCache decisionCache = _ruleSet.getDecisionCache();
+        assertEquals("Routing keys not referenced by any rule should share a decision", 1, decisionCache.size());
+        assertEquals(99, decisionCache.getHits());
+
+        assertEquals(Result.DEFER, _ruleSet.check(_testSubject, Operation.PUBLISH, ObjectType.EXCHANGE,
+                                                  new ObjectProperties(DENIED_VH, _exchangeName, "key0", false)));
+        assertEquals(2, decisionCache.size());
+    }
+
+    public void testPublishDecisionsDistinguishRoutingKeyWhenConstrained()
+    {
+        ObjectProperties rule = new ObjectProperties(_exchangeName);
+        rule.put(Property.ROUTING_KEY, "allowed.*");
+        _ruleSet.grant(0, TEST_USER, Permission.ALLOW, Operation.PUBLISH, ObjectType.EXCHANGE, rule);
+
+        assertEquals(Result.ALLOWED, _ruleSet.check(_testSubject, Operation.PUBLISH, ObjectType.EXCHANGE,
+                                                    new ObjectProperties(ALLOWED_VH, _exchangeName, "allowed.1", false)));
+        assertEquals(Result.DEFER, _ruleSet.check(_testSubject, Operation.PUBLISH, ObjectType.EXCHANGE,
+                                                  new ObjectProperties(ALLOWED_VH, _exchangeName, "denied.1", false)));
+        assertEquals(Result.ALLOWED, _ruleSet.check(_testSubject, Operation.PUBLISH, ObjectType.EXCHANGE,
+                                                    new ObjectProperties(ALLOWED_VH, _exchangeName, "allowed.1", false)));
+        assertEquals(Result.DEFER, _ruleSet.check(_testSubject, Operation.PUBLISH, ObjectType.EXCHANGE,
+                                                  new ObjectProperties(ALLOWED_VH, _exchangeName, "denied.1", false)));
+        assertEquals(2, _ruleSet.getDecisionCache().size());
+        assertEquals(2, _ruleSet.getDecisionCache().getHits());
+    }
 }
@@ -108,6 +108,7 @@ public class ConsumerTarget_0_10 extends AbstractConsumerTarget implements FlowC
         _creditManager.addStateListener(this);
         _arguments = arguments == null ? Collections.<String, Object> emptyMap() :
                                          Collections.<String, Object> unmodifiableMap(arguments);
+        setPriority(_arguments);
         _name = name;
     }
 
@@ -113,6 +113,12 @@ public class MessageConverter_v0_10 implements MessageConverter<ServerMessage, M
                     {
                         return false;
                     }
+
+                    @Override
+                    public void reallocate()
+                    {
+
+                    }
         };
     }
 
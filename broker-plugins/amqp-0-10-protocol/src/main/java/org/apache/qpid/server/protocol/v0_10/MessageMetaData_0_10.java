@@ -86,7 +86,7 @@ public class MessageMetaData_0_10 implements StorableMessageMetaData
         return TYPE;
     }
 
-    public int getStorableSize()
+    public synchronized int getStorableSize()
     {
         QpidByteBuffer buf = _encoded;
 
@@ -144,7 +144,7 @@ public class MessageMetaData_0_10 implements StorableMessageMetaData
         return buf;
     }
 
-    public int writeToBuffer(QpidByteBuffer dest)
+    public synchronized int writeToBuffer(QpidByteBuffer dest)
     {
         QpidByteBuffer buf = _encoded;
 
@@ -169,7 +169,7 @@ public class MessageMetaData_0_10 implements StorableMessageMetaData
     }
 
     @Override
-    public Collection<QpidByteBuffer> asByteBuffers()
+    public synchronized Collection<QpidByteBuffer> asByteBuffers()
     {
         QpidByteBuffer buf = _encoded;
 
@@ -208,6 +208,12 @@ public class MessageMetaData_0_10 implements StorableMessageMetaData
 
     }
 
+    @Override
+    public synchronized void reallocate()
+    {
+        _encoded = QpidByteBuffer.reallocateIfNecessary(_encoded);
+    }
+
     public String getRoutingKey()
     {
         return _deliveryProps == null ? null : _deliveryProps.getRoutingKey();
@@ -21,7 +21,6 @@
 package org.apache.qpid.server.protocol.v0_10;
 
 import static org.apache.qpid.server.logging.subjects.LogSubjectFormat.CHANNEL_FORMAT;
-import static org.apache.qpid.util.Serial.gt;
 
 import java.security.AccessControlContext;
 import java.security.AccessController;
@@ -37,9 +36,9 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
@@ -159,7 +158,7 @@ public class ServerSession extends Session
 
     }
 
-    private final SortedMap<Integer, MessageDispositionChangeListener> _messageDispositionListenerMap =
+    private final ConcurrentNavigableMap<Integer, MessageDispositionChangeListener> _messageDispositionListenerMap =
             new ConcurrentSkipListMap<Integer, MessageDispositionChangeListener>();
 
     private ServerTransaction _transaction;
@@ -387,43 +386,17 @@ public class ServerSession extends Session
 
         if(!_messageDispositionListenerMap.isEmpty())
         {
-            Iterator<Integer> unacceptedMessages = _messageDispositionListenerMap.keySet().iterator();
-            Iterator<Range> rangeIter = transfers.iterator();
-
-            if(rangeIter.hasNext())
+            for(Range range : transfers)
             {
-                Range range = rangeIter.next();
-
-                while(range != null && unacceptedMessages.hasNext())
+                for(Integer id : getDispositionListenerIds(range))
                 {
-                    int next = unacceptedMessages.next();
-                    while(gt(next, range.getUpper()))
-                    {
-                        if(rangeIter.hasNext())
-                        {
-                            range = rangeIter.next();
-                        }
-                        else
-                        {
-                            range = null;
-                            break;
-                        }
-                    }
-                    if(range != null && range.includes(next))
+                    MessageDispositionChangeListener changeListener = _messageDispositionListenerMap.get(id);
+                    if(changeListener != null && changeListener.acquire())
                     {
-                        MessageDispositionChangeListener changeListener = _messageDispositionListenerMap.get(next);
-                        if(changeListener != null && changeListener.acquire())
-                        {
-                            acquired.add(next);
-                        }
+                        acquired.add(id);
                     }
-
-
                 }
-
             }
-
-
         }
 
         return acquired;
@@ -431,56 +404,38 @@ public class ServerSession extends Session
 
     public void dispositionChange(RangeSet ranges, MessageDispositionAction action)
     {
-        if(ranges != null)
+        if(ranges != null && !_messageDispositionListenerMap.isEmpty())
         {
-
-            if(ranges.size() == 1)
+            for(Range range : ranges)
             {
-                Range r = ranges.getFirst();
-                for(int i = r.getLower(); i <= r.getUpper(); i++)
+                for(Integer id : getDispositionListenerIds(range))
                 {
-                    MessageDispositionChangeListener changeListener = _messageDispositionListenerMap.remove(i);
+                    MessageDispositionChangeListener changeListener = _messageDispositionListenerMap.remove(id);
                     if(changeListener != null)
                     {
                         action.performAction(changeListener);
                     }
                 }
             }
-            else if(!_messageDispositionListenerMap.isEmpty())
-            {
-                Iterator<Integer> unacceptedMessages = _messageDispositionListenerMap.keySet().iterator();
-                Iterator<Range> rangeIter = ranges.iterator();
-
-                if(rangeIter.hasNext())
-                {
-                    Range range = rangeIter.next();
-
-                    while(range != null && unacceptedMessages.hasNext())
-                    {
-                        int next = unacceptedMessages.next();
-                        while(gt(next, range.getUpper()))
-                        {
-                            if(rangeIter.hasNext())
-                            {
-                                range = rangeIter.next();
-                            }
-                            else
-                            {
-                                range = null;
-                                break;
-                            }
-                        }
-                        if(range != null && range.includes(next))
-                        {
-                            MessageDispositionChangeListener changeListener = _messageDispositionListenerMap.remove(next);
-                            action.performAction(changeListener);
-                        }
-
-
-                    }
+        }
+    }
 
-                }
-            }
+    /**
+     * Returns the ids of the unsettled transfers within the given range, looked up from the sorted listener map
+     * rather than by scanning every unsettled transfer or every id in the range.
+     */
+    private Collection<Integer> getDispositionListenerIds(final Range range)
+    {
+        if(range.getLower() <= range.getUpper())
+        {
+            return _messageDispositionListenerMap.subMap(range.getLower(), true, range.getUpper(), true).keySet();
+        }
+        else
+        {
+            // the range wraps around the end of the command id space
+            List<Integer> ids = new ArrayList<>(_messageDispositionListenerMap.tailMap(range.getLower(), true).keySet());
+            ids.addAll(_messageDispositionListenerMap.headMap(range.getUpper(), true).keySet());
+            return ids;
         }
     }
 
@@ -252,7 +252,8 @@ public class AMQChannel
         _blockingTimeout = connection.getBroker().getContextValue(Long.class,
                                                                   Broker.CHANNEL_FLOW_CONTROL_ENFORCEMENT_TIMEOUT);
         // by default the session is non-transactional
-        _transaction = new AsyncAutoCommitTransaction(_messageStore, this);
+        _transaction = new AsyncAutoCommitTransaction(_messageStore, this,
+                                                      connection.getVirtualHost().getContextValue(Integer.class, Connection.PUBLISH_ENQUEUE_BATCH_SIZE));
 
         _clientDeliveryMethod = connection.createDeliveryMethod(_channelId);
 
@@ -332,6 +333,7 @@ public class AMQChannel
     /** Sets this channel to be part of a local transaction */
     public void setLocalTransactional()
     {
+        flushEnqueueBatch();
         _transaction = new LocalTransaction(_messageStore, new ActivityTimeAccessor()
         {
             @Override
@@ -887,6 +889,7 @@ public class AMQChannel
                 task.performAction(this);
             }
 
+            flushEnqueueBatch();
             _transaction.rollback();
 
             requeue();
@@ -1848,6 +1851,8 @@ public class AMQChannel
             _logger.debug("sync() called on channel " + debugIdentity());
         }
 
+        flushEnqueueBatch();
+
         AsyncCommand cmd;
         while((cmd = _unfinishedCommandsQueue.poll()) != null)
         {
@@ -1859,6 +1864,14 @@ public class AMQChannel
         }
     }
 
+    private void flushEnqueueBatch()
+    {
+        if(_transaction instanceof AsyncAutoCommitTransaction)
+        {
+            ((AsyncAutoCommitTransaction)_transaction).flushBatch();
+        }
+    }
+
     private static class AsyncCommand
     {
         private final ListenableFuture<Void> _future;
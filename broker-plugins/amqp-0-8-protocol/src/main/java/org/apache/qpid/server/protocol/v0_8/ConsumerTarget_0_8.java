@@ -316,6 +316,8 @@ public abstract class ConsumerTarget_0_8 extends AbstractConsumerTarget implemen
         _deliveryMethod = deliveryMethod;
         _recordMethod = recordMethod;
 
+        setPriority(FieldTable.convertToMap(arguments));
+
         if (arguments != null)
         {
             Object autoClose = arguments.get(AMQPFilterTypes.AUTO_CLOSE.getValue());
@@ -215,6 +215,12 @@ public class MessageMetaData implements StorableMessageMetaData
         _contentHeaderBody.clearEncodedForm();
     }
 
+    @Override
+    public synchronized void reallocate()
+    {
+        _contentHeaderBody.reallocate();
+    }
+
     private static class MetaDataFactory implements MessageMetaDataType.Factory<MessageMetaData>
     {
 
@@ -22,6 +22,8 @@
 package org.apache.qpid.amqp_1_0.codec;
 
 import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
 
@@ -32,6 +34,7 @@ public abstract class AbstractDescribedTypeWriter<V> implements ValueWriter<V>
     private static final int LARGE_COMPOUND_THRESHOLD_COUNT = 10;
     private ValueWriter _delegate;
     private static final byte DESCRIBED_TYPE = (byte)0;
+    private final Map<Class, ValueWriter> _descriptorWriterCache = new HashMap<>();
 
     public AbstractDescribedTypeWriter(final Registry registry)
     {
@@ -175,7 +178,7 @@ public abstract class AbstractDescribedTypeWriter<V> implements ValueWriter<V>
 
     protected final ValueWriter createDescriptorWriter()
     {
-        return getRegistry().getValueWriter(getDescriptor());
+        return getRegistry().getValueWriter(getDescriptor(), _descriptorWriterCache);
     }
 
     public boolean isComplete()
@@ -185,6 +188,6 @@ public abstract class AbstractDescribedTypeWriter<V> implements ValueWriter<V>
 
     public boolean isCacheable()
     {
-        return false;
+        return true;
     }
 }
@@ -30,6 +30,14 @@ public abstract class AbstractMapWriter<V> extends CompoundWriter<V>
         super(registry);
     }
 
+    @Override
+    public void setValue(final V value)
+    {
+        // a cached writer may be reused after being left part way through a map
+        onKey = false;
+        super.setValue(value);
+    }
+
     @Override
     protected byte getFourOctetEncodingCode()
     {
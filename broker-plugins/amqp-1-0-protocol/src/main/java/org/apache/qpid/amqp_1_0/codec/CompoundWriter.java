@@ -22,15 +22,19 @@
 package org.apache.qpid.amqp_1_0.codec;
 
 import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
 
 public abstract class CompoundWriter<V> implements ValueWriter<V>
 {
     private int _length;
+    private int _size;
     private Registry _registry;
     private static final int LARGE_COMPOUND_THRESHOLD_COUNT = 25;
     private ValueWriter _delegate;
+    private final Map<Class, ValueWriter> _writerCache = new HashMap<>();
 
     public CompoundWriter(final Registry registry)
     {
@@ -74,7 +78,8 @@ public abstract class CompoundWriter<V> implements ValueWriter<V>
         {
             //
 
-            final int size = (length & 0xFFFFFF00) == 0 ? 1 : 4;
+            // the width of the size and count is chosen in the first pass, so may be 4 even for a short encoding
+            final int size = _size;
             final int count = getCount();
             final int typeLength = length - (1+size);
 
@@ -192,7 +197,7 @@ public abstract class CompoundWriter<V> implements ValueWriter<V>
                             if(hasNext())
                             {
                                 Object val = next();
-                                _delegate = _registry.getValueWriter(val);
+                                _delegate = _registry.getValueWriter(val, _writerCache);
                             }
                             else
                             {
@@ -302,7 +307,7 @@ public abstract class CompoundWriter<V> implements ValueWriter<V>
         for(int i = 0; i < getCount(); i++)
         {
             Object val = next();
-            ValueWriter writer = _registry.getValueWriter(val);
+            ValueWriter writer = _registry.getValueWriter(val, _writerCache);
             if(writer == null)
             {
                 // TODO
@@ -313,6 +318,8 @@ public abstract class CompoundWriter<V> implements ValueWriter<V>
             {
                 iterPos = i;
                 _delegate = writer;
+                // the partially written writer is resumed later, so must not be reused for subsequent elements
+                _writerCache.values().remove(writer);
             }
 
             if(size == 1 && length > 255)
@@ -369,6 +376,7 @@ public abstract class CompoundWriter<V> implements ValueWriter<V>
         }
         _state = state;
         _length = length;
+        _size = size;
     }
 
     protected abstract byte getFourOctetEncodingCode();
@@ -407,7 +415,7 @@ public abstract class CompoundWriter<V> implements ValueWriter<V>
 
     public boolean isCacheable()
     {
-        return false;
+        return true;
     }
 
     public boolean isComplete()
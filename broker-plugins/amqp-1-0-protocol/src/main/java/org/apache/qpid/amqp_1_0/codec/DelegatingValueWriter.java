@@ -20,12 +20,16 @@
  */
 package org.apache.qpid.amqp_1_0.codec;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
 
 public abstract class DelegatingValueWriter<V> implements ValueWriter<V>
 {
     private ValueWriter _delegate;
     private Registry _registry;
+    private final Map<Class, ValueWriter> _writerCache = new HashMap<>();
 
 
     protected DelegatingValueWriter(final Registry registry)
@@ -40,7 +44,7 @@ public abstract class DelegatingValueWriter<V> implements ValueWriter<V>
 
     public void setValue(final V frameBody)
     {
-        _delegate = _registry.getValueWriter(getUnderlyingValue(frameBody));
+        _delegate = _registry.getValueWriter(getUnderlyingValue(frameBody), _writerCache);
     }
 
     protected abstract Object getUnderlyingValue(final V frameBody);
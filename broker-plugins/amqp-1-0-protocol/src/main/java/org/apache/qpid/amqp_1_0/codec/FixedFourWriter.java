@@ -97,11 +97,6 @@ public abstract class FixedFourWriter<T extends Object> implements ValueWriter<T
 
     public final void setValue(T value)
     {
-        if(_written==1)
-        {
-            // TODO - remove
-            System.out.println("Remove");
-        }
         _written = 0;
         _value = convertValueToInt(value);
     }
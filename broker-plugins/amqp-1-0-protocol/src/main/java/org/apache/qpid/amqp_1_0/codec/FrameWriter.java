@@ -21,9 +21,17 @@
 
 package org.apache.qpid.amqp_1_0.codec;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.apache.qpid.amqp_1_0.framing.AMQFrame;
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
 
+/**
+ * Writes the frame header and performative of an {@link AMQFrame}.  The size written into the frame header includes
+ * the frame payload, but the payload itself is not copied: callers send the buffers returned by
+ * {@link AMQFrame#getPayload()} directly after the bytes produced by this writer.
+ */
 public class FrameWriter implements ValueWriter<AMQFrame>
 {
     private Registry _registry;
@@ -32,7 +40,8 @@ public class FrameWriter implements ValueWriter<AMQFrame>
     private ValueWriter _typeWriter;
     private int _size = -1;
     private static final byte[] EMPTY_BYTE_ARRAY = new byte[] {};
-    private QpidByteBuffer _payload;
+    private long _payloadLength;
+    private final Map<Class, ValueWriter> _writerCache = new HashMap<>();
 
     enum State
     {
@@ -45,7 +54,6 @@ public class FrameWriter implements ValueWriter<AMQFrame>
         CHANNEL_0,
         CHANNEL_1,
         DELEGATE,
-        PAYLOAD,
         DONE
     }
 
@@ -76,8 +84,6 @@ public class FrameWriter implements ValueWriter<AMQFrame>
             {
                 case SIZE_0:
 
-                    int payloadLength = _payload == null ? 0 : _payload.remaining();
-
                     if(_typeWriter!=null)
                     {
 
@@ -86,12 +92,12 @@ public class FrameWriter implements ValueWriter<AMQFrame>
                                 ? buffer.duplicate().position(buffer.position() + 8)
                                 : QpidByteBuffer.wrap(EMPTY_BYTE_ARRAY);
 
-                        _size = _typeWriter.writeToBuffer(qpidByteBuffer) + 8 + payloadLength;
+                        _size = _typeWriter.writeToBuffer(qpidByteBuffer) + 8 + (int) _payloadLength;
                         qpidByteBuffer.dispose();
                     }
                     else
                     {
-                        _size = 8 + payloadLength;
+                        _size = 8 + (int) _payloadLength;
                     }
                     if(remaining >= 4)
                     {
@@ -103,42 +109,14 @@ public class FrameWriter implements ValueWriter<AMQFrame>
                             buffer.put(_frame.getFrameType()); // AMQP Frame Type
                             buffer.putShort(_frame.getChannel());
 
-                            if(_size - payloadLength > remaining)
+                            if(getHeaderSize() > remaining)
                             {
                                 buffer.position(buffer.limit());
                                 _state = State.DELEGATE;
                             }
-                            else if(_size > remaining )
-                            {
-                                buffer.position(buffer.position()+_size-8-payloadLength);
-                                if(payloadLength > 0)
-                                {
-
-                                    QpidByteBuffer dup = _payload.slice();
-                                    int payloadUsed = buffer.remaining();
-                                    dup.limit(payloadUsed);
-                                    buffer.put(dup);
-                                    dup.dispose();
-                                    _payload.position(_payload.position()+payloadUsed);
-                                }
-                                _state = State.PAYLOAD;
-                            }
                             else
                             {
-
-                                buffer.position(buffer.position()+_size-8-payloadLength);
-                                if(payloadLength > 0)
-                                {
-                                    buffer.put(_payload);
-
-                                }
-
-                                if (_payload != null)
-                                {
-                                    _payload.dispose();
-                                    _payload = null;
-                                }
-
+                                buffer.position(buffer.position() + getHeaderSize() - 8);
                                 _frame = null;
                                 _typeWriter = null;
                                 _state = State.DONE;
@@ -211,41 +189,15 @@ public class FrameWriter implements ValueWriter<AMQFrame>
                         break;
                     }
                 case DELEGATE:
-                    _typeWriter.writeToBuffer(buffer);
-                    if(_typeWriter.isComplete())
-                    {
-                        _state = State.PAYLOAD;
-                        _frame = null;
-                        _typeWriter = null;
-                    }
-                    else
+                    if(_typeWriter != null)
                     {
-                        break;
+                        _typeWriter.writeToBuffer(buffer);
                     }
-                case PAYLOAD:
-                    if(_payload == null || _payload.remaining() == 0)
+                    if(_typeWriter == null || _typeWriter.isComplete())
                     {
                         _state = State.DONE;
                         _frame = null;
                         _typeWriter = null;
-                        if (_payload != null)
-                        {
-                            _payload.dispose();
-                        }
-                        _payload = null;
-
-                    }
-                    else if(buffer.hasRemaining())
-                    {
-                        buffer.put(_payload);
-                        if(_payload.remaining() == 0)
-                        {
-                            _state = State.DONE;
-                            _frame = null;
-                            _typeWriter = null;
-                            _payload.dispose();
-                            _payload = null;
-                        }
                     }
 
             }
@@ -258,21 +210,19 @@ public class FrameWriter implements ValueWriter<AMQFrame>
     {
         _frame = frame;
         _state = State.SIZE_0;
-        _payload = frame.getPayload() == null ? null : frame.getPayload().duplicate();
+        _payloadLength = QpidByteBufferUtils.remaining(frame.getPayload());
 
-        final int payloadLength = _payload == null ? 0 : _payload.remaining();
         final Object frameBody = frame.getFrameBody();
 
-        _typeWriter = frameBody == null ? null : _registry.getValueWriter(frameBody);
+        _typeWriter = frameBody == null ? null : _registry.getValueWriter(frameBody, _writerCache);
         if (_typeWriter == null)
         {
-            _size = 8 + payloadLength;
+            _size = 8 + (int) _payloadLength;
         }
         else
         {
-            _typeWriter.setValue(_frame.getFrameBody());
             QpidByteBuffer qpidByteBuffer = QpidByteBuffer.wrap(EMPTY_BYTE_ARRAY);
-            _size = _typeWriter.writeToBuffer(qpidByteBuffer) + 8 + payloadLength;
+            _size = _typeWriter.writeToBuffer(qpidByteBuffer) + 8 + (int) _payloadLength;
         }
     }
 
@@ -280,4 +230,12 @@ public class FrameWriter implements ValueWriter<AMQFrame>
     {
         return _size;
     }
+
+    /**
+     * @return the number of bytes written by this writer, i.e. the frame size excluding the payload
+     */
+    public int getHeaderSize()
+    {
+        return _size - (int) _payloadLength;
+    }
 }
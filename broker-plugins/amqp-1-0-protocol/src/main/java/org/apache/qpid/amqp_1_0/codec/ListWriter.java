@@ -118,7 +118,7 @@ public class ListWriter implements ValueWriter<List>
 
     public boolean isCacheable()
     {
-        return false;
+        return true;
     }
 
 
@@ -0,0 +1,156 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.amqp_1_0.codec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+
+/**
+ * Helpers for treating a list of {@link QpidByteBuffer}s as a single logical (composite) buffer without
+ * copying the underlying bytes. All views returned share the memory of the source buffers and must be
+ * disposed by the caller.
+ */
+public final class QpidByteBufferUtils
+{
+    private QpidByteBufferUtils()
+    {
+    }
+
+    public static long remaining(Collection<QpidByteBuffer> buffers)
+    {
+        long remaining = 0L;
+        if (buffers != null)
+        {
+            for (QpidByteBuffer buf : buffers)
+            {
+                remaining += buf.remaining();
+            }
+        }
+        return remaining;
+    }
+
+    public static List<QpidByteBuffer> duplicate(Collection<QpidByteBuffer> buffers)
+    {
+        if (buffers == null)
+        {
+            return new ArrayList<>(0);
+        }
+        List<QpidByteBuffer> duplicates = new ArrayList<>(buffers.size());
+        for (QpidByteBuffer buf : buffers)
+        {
+            duplicates.add(buf.duplicate());
+        }
+        return duplicates;
+    }
+
+    /**
+     * Returns views over the {@code length} bytes of the composite buffer starting {@code offset} bytes
+     * after the current positions of {@code buffers}.
+     */
+    public static List<QpidByteBuffer> view(List<QpidByteBuffer> buffers, long offset, long length)
+    {
+        if (buffers == null || length <= 0)
+        {
+            return Collections.emptyList();
+        }
+        List<QpidByteBuffer> views = new ArrayList<>(buffers.size());
+        long toSkip = offset;
+        long toTake = length;
+        for (QpidByteBuffer buf : buffers)
+        {
+            if (toTake == 0)
+            {
+                break;
+            }
+            int bufRemaining = buf.remaining();
+            if (toSkip >= bufRemaining)
+            {
+                toSkip -= bufRemaining;
+                continue;
+            }
+            int start = (int) toSkip;
+            int viewLength = (int) Math.min((long) (bufRemaining - start), toTake);
+            views.add(buf.view(start, viewLength));
+            toSkip = 0;
+            toTake -= viewLength;
+        }
+        return views;
+    }
+
+    /**
+     * Copies the composite buffer into a single buffer.  Only intended for small, bounded inputs (for instance a
+     * single encoded section that happens to straddle two transfer frames).
+     */
+    public static QpidByteBuffer coalesce(List<QpidByteBuffer> buffers)
+    {
+        if (buffers == null || buffers.isEmpty())
+        {
+            return QpidByteBuffer.allocate(0);
+        }
+        else if (buffers.size() == 1)
+        {
+            return buffers.get(0).duplicate();
+        }
+        QpidByteBuffer dest = QpidByteBuffer.allocateDirect((int) remaining(buffers));
+        for (QpidByteBuffer buf : buffers)
+        {
+            QpidByteBuffer duplicate = buf.duplicate();
+            dest.put(duplicate);
+            duplicate.dispose();
+        }
+        dest.flip();
+        return dest;
+    }
+
+    /**
+     * Returns the byte at {@code offset} bytes after the current position of the composite buffer, or -1 if the
+     * composite buffer is not long enough.
+     */
+    public static int get(List<QpidByteBuffer> buffers, long offset)
+    {
+        long toSkip = offset;
+        for (QpidByteBuffer buf : buffers)
+        {
+            int bufRemaining = buf.remaining();
+            if (toSkip < bufRemaining)
+            {
+                return buf.get(buf.position() + (int) toSkip) & 0xFF;
+            }
+            toSkip -= bufRemaining;
+        }
+        return -1;
+    }
+
+    public static void dispose(Collection<QpidByteBuffer> buffers)
+    {
+        if (buffers != null)
+        {
+            for (QpidByteBuffer buf : buffers)
+            {
+                buf.dispose();
+            }
+        }
+    }
+}
@@ -145,7 +145,7 @@ public class UnsignedLongWriter implements ValueWriter<UnsignedLong>
 
     public boolean isCacheable()
     {
-        return false;
+        return true;
     }
 
 }
@@ -21,6 +21,7 @@
 package org.apache.qpid.amqp_1_0.framing;
 
 import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.Formatter;
 
 import org.slf4j.Logger;
@@ -251,7 +252,7 @@ public class FrameHandler implements ProtocolHandler
                             {
                                 if (val instanceof Transfer)
                                 {
-                                    ((Transfer) val).setPayload(in.slice());
+                                    ((Transfer) val).setPayload(Collections.singletonList(in.slice()));
                                 }
                             }
 
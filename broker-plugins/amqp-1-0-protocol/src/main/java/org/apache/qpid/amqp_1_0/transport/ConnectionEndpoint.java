@@ -33,6 +33,7 @@ import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +50,7 @@ import javax.security.sasl.SaslServer;
 import javax.xml.bind.DatatypeConverter;
 
 import org.apache.qpid.amqp_1_0.codec.DescribedTypeConstructorRegistry;
+import org.apache.qpid.amqp_1_0.codec.QpidByteBufferUtils;
 import org.apache.qpid.amqp_1_0.codec.ValueWriter;
 import org.apache.qpid.amqp_1_0.framing.AMQFrame;
 import org.apache.qpid.amqp_1_0.framing.SASLFrame;
@@ -85,6 +87,7 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
 {
     private static final short CONNECTION_CONTROL_CHANNEL = (short) 0;
     private static final QpidByteBuffer EMPTY_BYTE_BUFFER = QpidByteBuffer.wrap(new byte[0]);
+    private final Map<Class, ValueWriter> _writerCache = new HashMap<>();
     private static final Symbol SASL_PLAIN = Symbol.valueOf("PLAIN");
     private static final Symbol SASL_ANONYMOUS = Symbol.valueOf("ANONYMOUS");
     private static final Symbol SASL_EXTERNAL = Symbol.valueOf("EXTERNAL");
@@ -673,17 +676,18 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
     }
 
 
-    public synchronized int send(short channel, FrameBody body, QpidByteBuffer payload)
+    public synchronized long send(short channel, FrameBody body, List<QpidByteBuffer> payload)
     {
         if (!_closedForOutput)
         {
-            ValueWriter<FrameBody> writer = _describedTypeRegistry.getValueWriter(body);
+            ValueWriter<FrameBody> writer = _describedTypeRegistry.getValueWriter(body, _writerCache);
             int size = writer.writeToBuffer(EMPTY_BYTE_BUFFER);
-            QpidByteBuffer payloadDup = payload == null ? null : payload.duplicate();
-            int payloadSent = getMaxFrameSize() - (size + 9);
+            long payloadSize = QpidByteBufferUtils.remaining(payload);
+            long payloadSent = getMaxFrameSize() - (size + 9);
+            List<QpidByteBuffer> payloadView = null;
             try
             {
-                if (payloadSent < (payload == null ? 0 : payload.remaining()))
+                if (payloadSent < payloadSize)
                 {
 
                     if (body instanceof Transfer)
@@ -691,24 +695,20 @@ public class ConnectionEndpoint implements DescribedTypeConstructorRegistry.Sour
                         ((Transfer) body).setMore(Boolean.TRUE);
                     }
 
-                    writer = _describedTypeRegistry.getValueWriter(body);
+                    writer = _describedTypeRegistry.getValueWriter(body, _writerCache);
                     size = writer.writeToBuffer(EMPTY_BYTE_BUFFER);
                     payloadSent = getMaxFrameSize() - (size + 9);
-
-                    payloadDup.limit(payloadDup.position() + payloadSent);
                 }
                 else
                 {
-                    payloadSent = payload == null ? 0 : payload.remaining();
+                    payloadSent = payloadSize;
                 }
-                _frameOutputHandler.send(AMQFrame.createAMQFrame(channel, body, payloadDup));
+                payloadView = payload == null ? null : QpidByteBufferUtils.view(payload, 0, payloadSent);
+                _frameOutputHandler.send(AMQFrame.createAMQFrame(channel, body, payloadView));
             }
             finally
             {
-                if (payloadDup != null)
-                {
-                    payloadDup.dispose();
-                }
+                QpidByteBufferUtils.dispose(payloadView);
             }
             return payloadSent;
         }
@@ -86,6 +86,7 @@ public class ReceivingLinkEndpoint extends LinkEndpoint<ReceivingLinkListener>
     private Map<Binary, Object> _unsettledMap = new LinkedHashMap<Binary, Object>();
     private Map<Binary, TransientState> _unsettledIds = new LinkedHashMap<Binary, TransientState>();
     private boolean _creditWindow;
+    private int _creditWindowSize = -1;
     private boolean _remoteDrain;
     private UnsignedInteger _remoteTransferCount;
     private UnsignedInteger _drainLimit;
@@ -189,6 +190,10 @@ public class ReceivingLinkEndpoint extends LinkEndpoint<ReceivingLinkListener>
             // TODO XXX : need to do anything about the window here?
             if(settled(deliveryTag) && _creditWindow)
             {
+                if(_creditWindowSize >= 0)
+                {
+                    replenishCredit();
+                }
                 sendFlowConditional();
             }
         }
@@ -254,7 +259,7 @@ public class ReceivingLinkEndpoint extends LinkEndpoint<ReceivingLinkListener>
                     {
                         if(!isDetached() && _creditWindow)
                         {
-                            setLinkCredit(getLinkCredit().add(UnsignedInteger.ONE));
+                            replenishCredit();
                             sendFlowConditional();
                         }
                         else
@@ -270,7 +275,7 @@ public class ReceivingLinkEndpoint extends LinkEndpoint<ReceivingLinkListener>
                 TransientState transientState = _unsettledIds.get(deliveryTag);
                 if(_creditWindow)
                 {
-                    setLinkCredit(getLinkCredit().add(UnsignedInteger.ONE));
+                    replenishCredit();
                     sendFlowConditional();
                 }
 
@@ -292,6 +297,46 @@ public class ReceivingLinkEndpoint extends LinkEndpoint<ReceivingLinkListener>
 
     }
 
+    /**
+     * Limits the credit issued to the sender to the given window less the deliveries yet to be settled.  Once set,
+     * the credit is recalculated from the window as deliveries are settled rather than incremented, so a smaller
+     * window takes effect as the sender uses up the credit it already holds.  Credit is withdrawn immediately if the
+     * window is more than halved.
+     */
+    public void setCreditWindowSize(final int creditWindowSize)
+    {
+        synchronized (getLock())
+        {
+            final int previousCreditWindowSize = _creditWindowSize;
+            _creditWindowSize = creditWindowSize;
+            if(_creditWindow && !isDetached())
+            {
+                replenishCredit();
+                if(creditWindowSize < previousCreditWindowSize / 2
+                   || (creditWindowSize == 0 && previousCreditWindowSize != 0))
+                {
+                    sendFlow();
+                }
+                else
+                {
+                    sendFlowConditional();
+                }
+            }
+        }
+    }
+
+    private void replenishCredit()
+    {
+        if(_creditWindowSize < 0)
+        {
+            setLinkCredit(getLinkCredit().add(UnsignedInteger.ONE));
+        }
+        else
+        {
+            setLinkCredit(UnsignedInteger.valueOf(Math.max(0, _creditWindowSize - _unsettledIds.size())));
+        }
+    }
+
     public void drain()
     {
         synchronized (getLock())
@@ -312,7 +357,7 @@ public class ReceivingLinkEndpoint extends LinkEndpoint<ReceivingLinkListener>
         {
             if(Boolean.TRUE.equals(settled))
             {
-                setLinkCredit(getLinkCredit().add(UnsignedInteger.ONE));
+                replenishCredit();
                 sendFlowConditional();
             }
         }
@@ -416,7 +461,7 @@ public class ReceivingLinkEndpoint extends LinkEndpoint<ReceivingLinkListener>
                 {
                     if(settled(deliveryTag) && _creditWindow)
                     {
-                        setLinkCredit(getLinkCredit().add(UnsignedInteger.valueOf(1)));
+                        replenishCredit();
                     }
                 }
                 sendFlowConditional();
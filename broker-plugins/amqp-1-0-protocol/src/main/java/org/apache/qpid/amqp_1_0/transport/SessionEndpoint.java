@@ -26,9 +26,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 
+import org.apache.qpid.amqp_1_0.codec.QpidByteBufferUtils;
 import org.apache.qpid.amqp_1_0.framing.OversizeFrameException;
 import org.apache.qpid.amqp_1_0.type.Binary;
 import org.apache.qpid.amqp_1_0.type.DeliveryState;
@@ -324,7 +326,7 @@ public class SessionEndpoint
     }
 
 
-    private int send(final FrameBody frameBody, QpidByteBuffer payload)
+    private long send(final FrameBody frameBody, List<QpidByteBuffer> payload)
     {
         return _connection.send(this.getSendingChannel(), frameBody, payload);
     }
@@ -638,30 +640,31 @@ public class SessionEndpoint
 
         try
         {
-            QpidByteBuffer payload = xfr.getPayload();
-            int payloadSent = send(xfr, payload);
+            List<QpidByteBuffer> payload = xfr.getPayload();
+            long payloadSent = send(xfr, payload);
+            long payloadSize = QpidByteBufferUtils.remaining(payload);
 
-            if(payload != null && payloadSent < payload.remaining() && payloadSent >= 0)
+            if(payload != null && payloadSent < payloadSize && payloadSent >= 0)
             {
-                payload = payload.duplicate();
-                try
-                {
-                    payload.position(payload.position()+payloadSent);
+                List<QpidByteBuffer> remainingPayload =
+                        QpidByteBufferUtils.view(payload, payloadSent, payloadSize - payloadSent);
 
-                    Transfer secondTransfer = new Transfer();
+                Transfer secondTransfer = new Transfer();
 
-                    secondTransfer.setDeliveryTag(xfr.getDeliveryTag());
-                    secondTransfer.setHandle(xfr.getHandle());
-                    secondTransfer.setSettled(xfr.getSettled());
-                    secondTransfer.setState(xfr.getState());
-                    secondTransfer.setMessageFormat(xfr.getMessageFormat());
-                    secondTransfer.setPayload(payload);
+                secondTransfer.setDeliveryTag(xfr.getDeliveryTag());
+                secondTransfer.setHandle(xfr.getHandle());
+                secondTransfer.setSettled(xfr.getSettled());
+                secondTransfer.setState(xfr.getState());
+                secondTransfer.setMessageFormat(xfr.getMessageFormat());
+                secondTransfer.setPayload(remainingPayload);
 
+                try
+                {
                     sendTransfer(secondTransfer, endpoint, false);
                 }
                 finally
                 {
-                    payload.dispose();
+                    secondTransfer.dispose();
                 }
 
             }
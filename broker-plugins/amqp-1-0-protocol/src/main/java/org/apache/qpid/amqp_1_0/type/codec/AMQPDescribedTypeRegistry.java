@@ -26,6 +26,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.qpid.amqp_1_0.codec.*;
 import org.apache.qpid.amqp_1_0.type.RestrictedType;
@@ -297,10 +299,38 @@ public class AMQPDescribedTypeRegistry implements DescribedTypeConstructorRegist
 
     private final Map<Class, ValueWriter.Factory> _writerMap = new HashMap<Class, ValueWriter.Factory>();
 
+    /**
+     * Factories resolved by the concrete class of the value being written, including the {@link List} and
+     * {@link Map} implementations resolved to the writer registered for the interface.  Populated lazily so that
+     * steady state look-ups are a single (thread safe) map access and never mutate the registration map.
+     */
+    private final ConcurrentMap<Class, ValueWriter.Factory> _resolvedWriterFactories =
+            new ConcurrentHashMap<Class, ValueWriter.Factory>();
+
+    /**
+     * Returns a writer for the given value, reusing the writer previously cached in {@code localCache} for the
+     * value's class where there is one.  The caller owns the cache and must ensure that a cached writer is no
+     * longer in use when the same class of value is next written.  Compound writers encode their elements with a
+     * cache of their own, so a value nested within a value of the same class is never given its container's writer.
+     */
     public <V extends Object> ValueWriter<V> getValueWriter(V value, Map<Class, ValueWriter> localCache)
     {
-        return getValueWriter(value);
+        Class<? extends Object> clazz = value == null ? Void.TYPE : value.getClass();
 
+        ValueWriter<V> writer = (ValueWriter<V>) localCache.get(clazz);
+        if(writer != null)
+        {
+            writer.setValue(value);
+        }
+        else
+        {
+            writer = getValueWriter(value);
+            if(writer != null && writer.isCacheable() && !clazz.isArray())
+            {
+                localCache.put(clazz, writer);
+            }
+        }
+        return writer;
     }
 
 
@@ -310,29 +340,13 @@ public class AMQPDescribedTypeRegistry implements DescribedTypeConstructorRegist
 
         Class<? extends Object> clazz = value == null ? Void.TYPE : value.getClass();
 
-        ValueWriter.Factory<V> factory = (ValueWriter.Factory<V>) (_writerMap.get(clazz));
+        ValueWriter.Factory<V> factory = getWriterFactory(clazz);
 
         if(factory == null)
         {
-            if(value instanceof List)
-            {
-                factory = _writerMap.get(List.class);
-                _writerMap.put(value.getClass(), factory);
-                writer = factory.newInstance(this);
-                writer.setValue(value);
-
-            }
-            else if(value instanceof Map)
-            {
-                factory = _writerMap.get(Map.class);
-                _writerMap.put(value.getClass(), factory);
-                writer = factory.newInstance(this);
-                writer.setValue(value);
-
-            }
-            else if(value.getClass().isArray())
+            if(clazz.isArray())
             {
-                if(RestrictedType.class.isAssignableFrom(value.getClass().getComponentType()))
+                if(RestrictedType.class.isAssignableFrom(clazz.getComponentType()))
                 {
                     RestrictedType[] restrictedTypes = (RestrictedType[]) value;
                     Object[] newVals = (Object[]) Array.newInstance(restrictedTypes[0].getValue().getClass(),
@@ -365,10 +379,35 @@ public class AMQPDescribedTypeRegistry implements DescribedTypeConstructorRegist
 
     }
 
+    private <V extends Object> ValueWriter.Factory<V> getWriterFactory(final Class<? extends Object> clazz)
+    {
+        ValueWriter.Factory<V> factory = (ValueWriter.Factory<V>) _resolvedWriterFactories.get(clazz);
+        if(factory == null)
+        {
+            factory = (ValueWriter.Factory<V>) _writerMap.get(clazz);
+            if(factory == null)
+            {
+                if(List.class.isAssignableFrom(clazz))
+                {
+                    factory = _writerMap.get(List.class);
+                }
+                else if(Map.class.isAssignableFrom(clazz))
+                {
+                    factory = _writerMap.get(Map.class);
+                }
+            }
+            if(factory != null)
+            {
+                _resolvedWriterFactories.putIfAbsent(clazz, factory);
+            }
+        }
+        return factory;
+    }
+
     public <V extends Object> ValueWriter<V> register(Class<V> clazz, ValueWriter.Factory<V> writer)
     {
+        _resolvedWriterFactories.clear();
         return (ValueWriter<V>) _writerMap.put(clazz, writer);
     }
 
 }
-
@@ -35,6 +35,7 @@ public class AcceptedWriter extends AbstractDescribedTypeWriter<Accepted>
 {
     private Accepted _value;
     private int _count = -1;
+    private final ListWriter.EmptyListValueWriter _emptyListWriter = new ListWriter.EmptyListValueWriter();
 
     public AcceptedWriter(final Registry registry)
     {
@@ -79,7 +80,8 @@ public class AcceptedWriter extends AbstractDescribedTypeWriter<Accepted>
         }
         else
         {
-            return new ListWriter.EmptyListValueWriter();
+            _emptyListWriter.setValue(null);
+            return _emptyListWriter;
         }
 
     }
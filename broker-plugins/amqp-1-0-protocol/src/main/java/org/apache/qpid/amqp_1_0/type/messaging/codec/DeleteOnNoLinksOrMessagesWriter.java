@@ -34,6 +34,7 @@ public class DeleteOnNoLinksOrMessagesWriter extends AbstractDescribedTypeWriter
 {
     private DeleteOnNoLinksOrMessages _value;
     private int _count = -1;
+    private Writer _writer;
 
     public DeleteOnNoLinksOrMessagesWriter(final Registry registry)
     {
@@ -70,9 +71,12 @@ public class DeleteOnNoLinksOrMessagesWriter extends AbstractDescribedTypeWriter
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<DeleteOnNoLinksOrMessages>
@@ -34,6 +34,7 @@ public class DeleteOnNoMessagesWriter extends AbstractDescribedTypeWriter<Delete
 {
     private DeleteOnNoMessages _value;
     private int _count = -1;
+    private Writer _writer;
 
     public DeleteOnNoMessagesWriter(final Registry registry)
     {
@@ -70,9 +71,12 @@ public class DeleteOnNoMessagesWriter extends AbstractDescribedTypeWriter<Delete
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<DeleteOnNoMessages>
@@ -34,6 +34,7 @@ public class HeaderWriter extends AbstractDescribedTypeWriter<Header>
 {
     private Header _value;
     private int _count = -1;
+    private Writer _writer;
 
     public HeaderWriter(final Registry registry)
     {
@@ -95,9 +96,12 @@ public class HeaderWriter extends AbstractDescribedTypeWriter<Header>
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<Header>
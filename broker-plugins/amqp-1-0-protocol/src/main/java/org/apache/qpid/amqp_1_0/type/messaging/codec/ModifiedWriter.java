@@ -34,6 +34,7 @@ public class ModifiedWriter extends AbstractDescribedTypeWriter<Modified>
 {
     private Modified _value;
     private int _count = -1;
+    private Writer _writer;
 
     public ModifiedWriter(final Registry registry)
     {
@@ -85,9 +86,12 @@ public class ModifiedWriter extends AbstractDescribedTypeWriter<Modified>
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<Modified>
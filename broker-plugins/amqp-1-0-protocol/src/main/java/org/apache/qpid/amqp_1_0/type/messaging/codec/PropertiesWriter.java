@@ -34,6 +34,7 @@ public class PropertiesWriter extends AbstractDescribedTypeWriter<Properties>
 {
     private Properties _value;
     private int _count = -1;
+    private Writer _writer;
 
     public PropertiesWriter(final Registry registry)
     {
@@ -135,9 +136,12 @@ public class PropertiesWriter extends AbstractDescribedTypeWriter<Properties>
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<Properties>
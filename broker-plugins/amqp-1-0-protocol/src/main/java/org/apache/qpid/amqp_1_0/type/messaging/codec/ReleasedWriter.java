@@ -34,6 +34,7 @@ public class ReleasedWriter extends AbstractDescribedTypeWriter<Released>
 {
     private Released _value;
     private int _count = -1;
+    private Writer _writer;
 
     public ReleasedWriter(final Registry registry)
     {
@@ -70,9 +71,12 @@ public class ReleasedWriter extends AbstractDescribedTypeWriter<Released>
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<Released>
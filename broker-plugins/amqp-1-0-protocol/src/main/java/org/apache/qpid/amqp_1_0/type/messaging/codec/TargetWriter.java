@@ -34,6 +34,7 @@ public class TargetWriter extends AbstractDescribedTypeWriter<Target>
 {
     private Target _value;
     private int _count = -1;
+    private Writer _writer;
 
     public TargetWriter(final Registry registry)
     {
@@ -105,9 +106,12 @@ public class TargetWriter extends AbstractDescribedTypeWriter<Target>
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<Target>
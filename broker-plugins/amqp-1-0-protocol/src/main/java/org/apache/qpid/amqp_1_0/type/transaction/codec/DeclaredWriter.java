@@ -34,6 +34,7 @@ public class DeclaredWriter extends AbstractDescribedTypeWriter<Declared>
 {
     private Declared _value;
     private int _count = -1;
+    private Writer _writer;
 
     public DeclaredWriter(final Registry registry)
     {
@@ -75,9 +76,12 @@ public class DeclaredWriter extends AbstractDescribedTypeWriter<Declared>
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<Declared>
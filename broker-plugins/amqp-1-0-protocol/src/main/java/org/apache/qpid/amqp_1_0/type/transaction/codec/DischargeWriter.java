@@ -34,6 +34,7 @@ public class DischargeWriter extends AbstractDescribedTypeWriter<Discharge>
 {
     private Discharge _value;
     private int _count = -1;
+    private Writer _writer;
 
     public DischargeWriter(final Registry registry)
     {
@@ -80,9 +81,12 @@ public class DischargeWriter extends AbstractDescribedTypeWriter<Discharge>
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<Discharge>
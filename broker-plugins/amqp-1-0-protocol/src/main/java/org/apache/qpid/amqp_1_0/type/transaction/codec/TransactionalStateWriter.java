@@ -34,6 +34,7 @@ public class TransactionalStateWriter extends AbstractDescribedTypeWriter<Transa
 {
     private TransactionalState _value;
     private int _count = -1;
+    private Writer _writer;
 
     public TransactionalStateWriter(final Registry registry)
     {
@@ -80,9 +81,12 @@ public class TransactionalStateWriter extends AbstractDescribedTypeWriter<Transa
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<TransactionalState>
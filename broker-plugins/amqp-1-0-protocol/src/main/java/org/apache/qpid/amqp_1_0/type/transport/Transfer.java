@@ -28,8 +28,10 @@ import org.apache.qpid.amqp_1_0.transport.ConnectionEndpoint;
 
 
 import java.nio.ByteBuffer;
+import java.util.List;
 
 
+import org.apache.qpid.amqp_1_0.codec.QpidByteBufferUtils;
 import org.apache.qpid.amqp_1_0.type.*;
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
 
@@ -38,7 +40,7 @@ public class Transfer
   {
 
 
-    private volatile QpidByteBuffer _payload;
+    private volatile List<QpidByteBuffer> _payload;
 
     private UnsignedInteger _handle;
 
@@ -286,21 +288,26 @@ public class Transfer
         conn.receiveTransfer(channel, this);
     }
 
-    public void setPayload(QpidByteBuffer payload)
+    public void setPayload(List<QpidByteBuffer> payload)
     {
         _payload = payload;
     }
 
-    public QpidByteBuffer getPayload()
+    public List<QpidByteBuffer> getPayload()
     {
         return _payload;
     }
 
+    public long getPayloadSize()
+    {
+        return QpidByteBufferUtils.remaining(_payload);
+    }
+
     public void dispose()
     {
         if (_payload != null)
         {
-            _payload.dispose();
+            QpidByteBufferUtils.dispose(_payload);
             _payload = null;
         }
     }
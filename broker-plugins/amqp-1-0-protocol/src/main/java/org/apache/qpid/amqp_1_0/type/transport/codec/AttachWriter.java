@@ -34,6 +34,7 @@ public class AttachWriter extends AbstractDescribedTypeWriter<Attach>
 {
     private Attach _value;
     private int _count = -1;
+    private Writer _writer;
 
     public AttachWriter(final Registry registry)
     {
@@ -140,9 +141,12 @@ public class AttachWriter extends AbstractDescribedTypeWriter<Attach>
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<Attach>
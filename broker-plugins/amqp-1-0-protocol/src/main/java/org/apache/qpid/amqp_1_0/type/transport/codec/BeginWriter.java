@@ -34,6 +34,7 @@ public class BeginWriter extends AbstractDescribedTypeWriter<Begin>
 {
     private Begin _value;
     private int _count = -1;
+    private Writer _writer;
 
     public BeginWriter(final Registry registry)
     {
@@ -110,9 +111,12 @@ public class BeginWriter extends AbstractDescribedTypeWriter<Begin>
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<Begin>
@@ -34,6 +34,7 @@ public class DetachWriter extends AbstractDescribedTypeWriter<Detach>
 {
     private Detach _value;
     private int _count = -1;
+    private Writer _writer;
 
     public DetachWriter(final Registry registry)
     {
@@ -85,9 +86,12 @@ public class DetachWriter extends AbstractDescribedTypeWriter<Detach>
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<Detach>
@@ -34,6 +34,7 @@ public class DispositionWriter extends AbstractDescribedTypeWriter<Disposition>
 {
     private Disposition _value;
     private int _count = -1;
+    private Writer _writer;
 
     public DispositionWriter(final Registry registry)
     {
@@ -100,9 +101,12 @@ public class DispositionWriter extends AbstractDescribedTypeWriter<Disposition>
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<Disposition>
@@ -34,6 +34,7 @@ public class FlowWriter extends AbstractDescribedTypeWriter<Flow>
 {
     private Flow _value;
     private int _count = -1;
+    private Writer _writer;
 
     public FlowWriter(final Registry registry)
     {
@@ -125,9 +126,12 @@ public class FlowWriter extends AbstractDescribedTypeWriter<Flow>
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<Flow>
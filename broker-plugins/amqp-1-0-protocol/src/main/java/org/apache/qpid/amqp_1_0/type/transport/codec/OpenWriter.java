@@ -34,6 +34,7 @@ public class OpenWriter extends AbstractDescribedTypeWriter<Open>
 {
     private Open _value;
     private int _count = -1;
+    private Writer _writer;
 
     public OpenWriter(final Registry registry)
     {
@@ -120,9 +121,12 @@ public class OpenWriter extends AbstractDescribedTypeWriter<Open>
     @Override
     protected ValueWriter createDescribedWriter()
     {
-        final Writer writer = new Writer(getRegistry());
-        writer.setValue(_value);
-        return writer;
+        if(_writer == null)
+        {
+            _writer = new Writer(getRegistry());
+        }
+        _writer.setValue(_value);
+        return _writer;
     }
 
     private class Writer extends AbstractListWriter<Open>
@@ -513,15 +513,19 @@ public class AMQPConnection_1_0 extends AbstractAMQPConnection<AMQPConnection_1_
 
             _frameWriter.setValue(amqFrame);
 
-            QpidByteBuffer buffer = QpidByteBuffer.allocateDirect(_frameWriter.getSize());
+            int size = _frameWriter.getSize();
+            if (size > _endpoint.getMaxFrameSize())
+            {
+                throw new OversizeFrameException(amqFrame, size);
+            }
+
+            // Only the frame header and performative are encoded here, the payload (if any) is handed to the
+            // sender as is so that message content is never copied on its way to the network.
+            QpidByteBuffer buffer = QpidByteBuffer.allocateDirect(_frameWriter.getHeaderSize());
 
             try
             {
-                int size = _frameWriter.writeToBuffer(buffer);
-                if (size > _endpoint.getMaxFrameSize())
-                {
-                    throw new OversizeFrameException(amqFrame, size);
-                }
+                _frameWriter.writeToBuffer(buffer);
 
                 buffer.flip();
 
@@ -536,6 +540,22 @@ public class AMQPConnection_1_0 extends AbstractAMQPConnection<AMQPConnection_1_
                 }
 
                 getSender().send(buffer);
+                final List<QpidByteBuffer> payload = amqFrame.getPayload();
+                if (payload != null)
+                {
+                    for (QpidByteBuffer payloadBuffer : payload)
+                    {
+                        QpidByteBuffer dup = payloadBuffer.duplicate();
+                        try
+                        {
+                            getSender().send(dup);
+                        }
+                        finally
+                        {
+                            dup.dispose();
+                        }
+                    }
+                }
                 getSender().flush();
             }
             finally
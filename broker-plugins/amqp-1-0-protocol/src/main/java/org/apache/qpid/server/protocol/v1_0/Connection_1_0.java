@@ -94,6 +94,7 @@ public class Connection_1_0 implements ConnectionEventListener
 
 
     private boolean _closedOnOpen;
+    private volatile boolean _blocked;
 
 
     public Connection_1_0(ConnectionEndpoint connectionEndpoint,
@@ -210,6 +211,10 @@ public class Connection_1_0 implements ConnectionEventListener
         {
             final Session_1_0 session = new Session_1_0(this, endpoint);
             _sessions.add(session);
+            if(_blocked)
+            {
+                session.block();
+            }
             _amqpConnection.sessionAdded(session);
             endpoint.setSessionEventListener(new SessionEventListener()
             {
@@ -302,12 +307,32 @@ public class Connection_1_0 implements ConnectionEventListener
 
     public void block()
     {
-        // TODO
+        _blocked = true;
+        for(Session_1_0 session : getSessionModels())
+        {
+            session.block();
+        }
     }
 
     public void unblock()
     {
-        // TODO
+        _blocked = false;
+        for(Session_1_0 session : getSessionModels())
+        {
+            session.unblock();
+        }
+    }
+
+    void updateReceivingLinkCreditAsync(final Session_1_0 session)
+    {
+        addAsyncTask(new Action<Connection_1_0>()
+        {
+            @Override
+            public void performAction(final Connection_1_0 object)
+            {
+                session.updateReceivingLinkCredit();
+            }
+        });
     }
 
     public void closeSessionAsync(final Session_1_0 session, final AMQConstant cause, final String message)
@@ -21,11 +21,14 @@
 package org.apache.qpid.server.protocol.v1_0;
 
 import java.nio.ByteBuffer;
-import java.util.Collection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.qpid.amqp_1_0.codec.QpidByteBufferUtils;
 import org.apache.qpid.amqp_1_0.codec.ValueHandler;
 import org.apache.qpid.amqp_1_0.messaging.SectionEncoder;
 import org.apache.qpid.amqp_1_0.messaging.SectionEncoderImpl;
@@ -59,6 +62,16 @@ import org.apache.qpid.server.util.ConnectionScopedRuntimeException;
 class ConsumerTarget_1_0 extends AbstractConsumerTarget
 {
     private static final Logger LOGGER = LoggerFactory.getLogger(ConsumerTarget_1_0.class);
+    // The largest encoding of a header section: a described list32 of its five fields in their widest forms
+    private static final long MAX_HEADER_SECTION_SIZE = 64L;
+    // The encodings with which a section can start if it is a header: the described type constructor followed by the
+    // numeric descriptor as a smallulong or ulong, or the symbolic descriptor as a sym8 or sym32
+    private static final byte[][] HEADER_SECTION_PREFIXES = {
+            { 0x00, 0x53, 0x70 },
+            { 0x00, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0, 0x70 },
+            symbolicHeaderSectionPrefix((byte) 0xa3, 1),
+            symbolicHeaderSectionPrefix((byte) 0xb3, 4)
+    };
     private final boolean _acquires;
     private SendingLink_1_0 _link;
 
@@ -109,6 +122,40 @@ class ConsumerTarget_1_0 extends AbstractConsumerTarget
 
     }
 
+    /**
+     * Returns true if the section starting at the position of the buffer is a header.  Only the descriptor of the
+     * section is examined, so the buffer need not hold the whole of a section of another type.
+     */
+    static boolean isHeaderSection(final QpidByteBuffer buf)
+    {
+        for(byte[] prefix : HEADER_SECTION_PREFIXES)
+        {
+            if(buf.remaining() >= prefix.length)
+            {
+                int i = 0;
+                while(i < prefix.length && buf.get(buf.position() + i) == prefix[i])
+                {
+                    i++;
+                }
+                if(i == prefix.length)
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static byte[] symbolicHeaderSectionPrefix(final byte formatCode, final int lengthWidth)
+    {
+        byte[] symbol = "amqp:header:list".getBytes(StandardCharsets.US_ASCII);
+        byte[] prefix = new byte[2 + lengthWidth + symbol.length];
+        prefix[1] = formatCode;
+        prefix[1 + lengthWidth] = (byte) symbol.length;
+        System.arraycopy(symbol, 0, prefix, 2 + lengthWidth, symbol.length);
+        return prefix;
+    }
+
     public void doSend(final ConsumerImpl consumer, final MessageInstance entry, boolean batch)
     {
         // TODO
@@ -127,53 +174,48 @@ class ConsumerTarget_1_0 extends AbstractConsumerTarget
         Transfer transfer = new Transfer();
         try
         {
-            QpidByteBuffer payload = null;
-            //TODO
-            Collection<QpidByteBuffer> fragments = message.getFragments();
-            if(fragments.size() == 1)
-            {
-                payload = fragments.iterator().next();
-            }
-            else
-            {
-                int size = 0;
-                for(QpidByteBuffer fragment : fragments)
-                {
-                    size += fragment.remaining();
-                }
-
-                payload = QpidByteBuffer.allocateDirect(size);
-
-                for(QpidByteBuffer fragment : fragments)
-                {
-                    payload.put(fragment);
-                    fragment.dispose();
-                }
-
-                payload.flip();
-            }
+            // the message content is sent as the list of its stored fragments, the transport slices these into
+            // frames without copying
+            List<QpidByteBuffer> payload = new ArrayList<>(message.getFragments());
 
             if(entry.getDeliveryCount() != 0)
             {
                 ValueHandler valueHandler = new ValueHandler(_typeRegistry);
 
                 Header oldHeader = null;
-                try
+                int oldHeaderLength = 0;
+                if(!payload.isEmpty())
                 {
-                    Object value = valueHandler.parse(payload);
-                    if(value instanceof Header)
+                    // the stored header may straddle the boundary between the first fragments, so it is parsed from
+                    // a view over the leading bytes of the whole payload
+                    List<QpidByteBuffer> headerViews =
+                            QpidByteBufferUtils.view(payload, 0, Math.min(MAX_HEADER_SECTION_SIZE,
+                                                                          QpidByteBufferUtils.remaining(payload)));
+                    QpidByteBuffer leadingBytes = QpidByteBufferUtils.coalesce(headerViews);
+                    try
                     {
-                        oldHeader = (Header) value;
+                        // only a header is parsed: any other first section may be longer than the leading bytes
+                        if(isHeaderSection(leadingBytes))
+                        {
+                            int startPosition = leadingBytes.position();
+                            Object value = valueHandler.parse(leadingBytes);
+                            if(value instanceof Header)
+                            {
+                                oldHeader = (Header) value;
+                                oldHeaderLength = leadingBytes.position() - startPosition;
+                            }
+                        }
                     }
-                    else
+                    catch (AmqpErrorException e)
                     {
-                        payload.position(0);
+                        //TODO
+                        throw new ConnectionScopedRuntimeException(e);
+                    }
+                    finally
+                    {
+                        leadingBytes.dispose();
+                        QpidByteBufferUtils.dispose(headerViews);
                     }
-                }
-                catch (AmqpErrorException e)
-                {
-                    //TODO
-                    throw new ConnectionScopedRuntimeException(e);
                 }
 
                 Header header = new Header();
@@ -188,12 +230,18 @@ class ConsumerTarget_1_0 extends AbstractConsumerTarget
                 _sectionEncoder.encodeObject(header);
                 Binary encodedHeader = _sectionEncoder.getEncoding();
 
-                QpidByteBuffer oldPayload = payload;
-                payload = QpidByteBuffer.allocateDirect(oldPayload.remaining() + encodedHeader.getLength());
-                payload.put(encodedHeader.getArray(),encodedHeader.getArrayOffset(),encodedHeader.getLength());
-                payload.put(oldPayload);
-                oldPayload.dispose();
-                payload.flip();
+                QpidByteBuffer headerBuffer = QpidByteBuffer.allocateDirect(encodedHeader.getLength());
+                headerBuffer.put(encodedHeader.getArray(),encodedHeader.getArrayOffset(),encodedHeader.getLength());
+                headerBuffer.flip();
+
+                List<QpidByteBuffer> oldPayload = payload;
+                long oldPayloadSize = QpidByteBufferUtils.remaining(oldPayload);
+                payload = new ArrayList<>(oldPayload.size() + 1);
+                payload.add(headerBuffer);
+                payload.addAll(QpidByteBufferUtils.view(oldPayload,
+                                                        oldHeaderLength,
+                                                        oldPayloadSize - oldHeaderLength));
+                QpidByteBufferUtils.dispose(oldPayload);
             }
 
             transfer.setPayload(payload);
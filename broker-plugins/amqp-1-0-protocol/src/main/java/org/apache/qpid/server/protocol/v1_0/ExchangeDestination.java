@@ -27,7 +27,9 @@ import org.apache.qpid.amqp_1_0.type.messaging.TerminusDurability;
 import org.apache.qpid.amqp_1_0.type.messaging.TerminusExpiryPolicy;
 import org.apache.qpid.server.exchange.ExchangeImpl;
 import org.apache.qpid.server.message.InstanceProperties;
+import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.txn.ServerTransaction;
+import org.apache.qpid.server.util.Action;
 
 public class ExchangeDestination implements ReceivingDestination, SendingDestination
 {
@@ -52,7 +54,9 @@ public class ExchangeDestination implements ReceivingDestination, SendingDestina
         return OUTCOMES;
     }
 
-    public Outcome send(final Message_1_0 message, ServerTransaction txn)
+    public Outcome send(final Message_1_0 message,
+                        ServerTransaction txn,
+                        final Action<? super MessageInstance> postEnqueueAction)
     {
         final InstanceProperties instanceProperties =
             new InstanceProperties()
@@ -119,7 +123,7 @@ public class ExchangeDestination implements ReceivingDestination, SendingDestina
                                       routingAddress,
                                       instanceProperties,
                                       txn,
-                                      null);
+                                      postEnqueueAction);
 
 
         return enqueues == 0 ? REJECTED : ACCEPTED;
@@ -280,6 +280,12 @@ public abstract class MessageConverter_to_1_0<M extends ServerMessage> implement
                         {
                             return false;
                         }
+
+                        @Override
+                        public void reallocate()
+                        {
+
+                        }
         };
     }
 
@@ -32,6 +32,7 @@ import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.qpid.amqp_1_0.codec.QpidByteBufferUtils;
 import org.apache.qpid.amqp_1_0.codec.ValueHandler;
 import org.apache.qpid.amqp_1_0.messaging.SectionDecoder;
 import org.apache.qpid.amqp_1_0.messaging.SectionEncoder;
@@ -165,34 +166,12 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
     {
         List<Section> sections = new ArrayList<Section>(3);
 
-        QpidByteBuffer src;
-        if(fragments.length == 1)
-        {
-            src = fragments[0].duplicate();
-        }
-        else
-        {
-            int size = 0;
-            for(QpidByteBuffer buf : fragments)
-            {
-                size += buf.remaining();
-            }
-            src = QpidByteBuffer.allocateDirect(size);
-            for(QpidByteBuffer buf : fragments)
-            {
-                QpidByteBuffer duplicate = buf.duplicate();
-                src.put(duplicate);
-                duplicate.dispose();
-            }
-            src.flip();
-
-        }
-
+        CompositeSectionReader src = new CompositeSectionReader(fragments, decoder);
         try
         {
-            int startBarePos = -1;
-            int lastPos = src.position();
-            Section s = decoder.readSection(src);
+            long startBarePos = -1;
+            long lastPos = src.position();
+            Section s = src.readSection();
 
 
 
@@ -200,21 +179,21 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
             {
                 sections.add(s);
                 lastPos = src.position();
-                s = src.hasRemaining() ? decoder.readSection(src) : null;
+                s = src.hasRemaining() ? src.readSection() : null;
             }
 
             if(s instanceof DeliveryAnnotations)
             {
                 sections.add(s);
                 lastPos = src.position();
-                s = src.hasRemaining() ? decoder.readSection(src) : null;
+                s = src.hasRemaining() ? src.readSection() : null;
             }
 
             if(s instanceof MessageAnnotations)
             {
                 sections.add(s);
                 lastPos = src.position();
-                s = src.hasRemaining() ? decoder.readSection(src) : null;
+                s = src.hasRemaining() ? src.readSection() : null;
             }
 
             if(s instanceof Properties)
@@ -224,7 +203,7 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
                 {
                     startBarePos = lastPos;
                 }
-                s = src.hasRemaining() ? decoder.readSection(src) : null;
+                s = src.hasRemaining() ? src.readSection() : null;
             }
 
             if(s instanceof ApplicationProperties)
@@ -234,7 +213,7 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
                 {
                     startBarePos = lastPos;
                 }
-                s = src.hasRemaining() ? decoder.readSection(src) : null;
+                s = src.hasRemaining() ? src.readSection() : null;
             }
 
             if(s instanceof AmqpValue)
@@ -243,7 +222,7 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
                 {
                     startBarePos = lastPos;
                 }
-                s = src.hasRemaining() ? decoder.readSection(src) : null;
+                s = src.hasRemaining() ? src.readSection() : null;
             }
             else if(s instanceof Data)
             {
@@ -253,7 +232,7 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
                 }
                 do
                 {
-                    s = src.hasRemaining() ? decoder.readSection(src) : null;
+                    s = src.hasRemaining() ? src.readSection() : null;
                 } while(s instanceof Data);
             }
             else if(s instanceof AmqpSequence)
@@ -264,7 +243,7 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
                 }
                 do
                 {
-                    s = src.hasRemaining() ? decoder.readSection(src) : null;
+                    s = src.hasRemaining() ? src.readSection() : null;
                 }
                 while(s instanceof AmqpSequence);
             }
@@ -300,7 +279,7 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
     }
 
 
-    public int getStorableSize()
+    public synchronized int getStorableSize()
     {
         int size = 0;
 
@@ -326,7 +305,7 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
         return buf;
     }
 
-    public int writeToBuffer(QpidByteBuffer dest)
+    public synchronized int writeToBuffer(QpidByteBuffer dest)
     {
         QpidByteBuffer buf = _encoded;
 
@@ -351,7 +330,7 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
     }
 
     @Override
-    public Collection<QpidByteBuffer> asByteBuffers()
+    public synchronized Collection<QpidByteBuffer> asByteBuffers()
     {
         QpidByteBuffer buf = _encoded;
 
@@ -368,7 +347,7 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
         return Collections.singleton(buf);
     }
 
-    public int getContentSize()
+    public synchronized int getContentSize()
     {
         QpidByteBuffer buf = _encoded;
 
@@ -391,15 +370,18 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
     }
 
     @Override
-    public void dispose()
+    public synchronized void dispose()
     {
         for(QpidByteBuffer bin : _encodedSections)
         {
             bin.dispose();
         }
         _encodedSections = null;
-        _encoded.dispose();
-        _encoded = null;
+        if (_encoded != null)
+        {
+            _encoded.dispose();
+            _encoded = null;
+        }
     }
 
     @Override
@@ -408,6 +390,28 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
 
     }
 
+    @Override
+    public synchronized void reallocate()
+    {
+        if (_encodedSections == null)
+        {
+            return;
+        }
+        Collection<QpidByteBuffer> sections = QpidByteBuffer.reallocateIfNecessary(_encodedSections);
+        if (sections != _encodedSections)
+        {
+            _encodedSections = new ArrayList<>(sections);
+        }
+
+        QpidByteBuffer encoded = _encoded;
+        if (encoded != null && encoded.isSparse())
+        {
+            // the encoded form is just the concatenated sections, so is recreated when it is next needed
+            _encoded = null;
+            encoded.dispose();
+        }
+    }
+
     private static class MetaDataFactory implements MessageMetaDataType.Factory<MessageMetaData_1_0>
     {
         private final AMQPDescribedTypeRegistry _typeRegistry = AMQPDescribedTypeRegistry.newInstance();
@@ -623,4 +627,200 @@ public class MessageMetaData_1_0 implements StorableMessageMetaData
         }
     }
 
+
+    /**
+     * Reads the sections of a message held as a list of fragments (typically the payloads of the transfers that
+     * made up the delivery) without first concatenating the fragments.  Each non-body section is decoded in place
+     * if it lies within one fragment, and is otherwise copied on its own.  Body sections are never decoded, only
+     * their extent is determined from the encoding, so the message content is not copied.
+     */
+    private static final class CompositeSectionReader
+    {
+        private static final int DESCRIBED_TYPE = 0x00;
+        private static final int SMALL_ULONG = 0x53;
+        private static final int ULONG = 0x80;
+
+        private static final int DATA = 0x75;
+        private static final int AMQP_SEQUENCE = 0x76;
+        private static final int AMQP_VALUE = 0x77;
+
+        private static final Data SKIPPED_DATA = new Data(null);
+        private static final AmqpSequence SKIPPED_SEQUENCE = new AmqpSequence(null);
+        private static final AmqpValue SKIPPED_VALUE = new AmqpValue(null);
+
+        private final List<QpidByteBuffer> _fragments;
+        private final SectionDecoder _decoder;
+        private final long _size;
+        private long _position;
+
+        private CompositeSectionReader(final QpidByteBuffer[] fragments, final SectionDecoder decoder)
+        {
+            _fragments = new ArrayList<>(fragments.length);
+            for(QpidByteBuffer fragment : fragments)
+            {
+                _fragments.add(fragment.duplicate());
+            }
+            _decoder = decoder;
+            _size = QpidByteBufferUtils.remaining(_fragments);
+        }
+
+        long position()
+        {
+            return _position;
+        }
+
+        boolean hasRemaining()
+        {
+            return _position < _size;
+        }
+
+        Section readSection() throws AmqpErrorException
+        {
+            final long sectionLength = getSectionLength(_position);
+            if(sectionLength < 0)
+            {
+                // unrecognised encoding - fall back to decoding the remainder as one contiguous buffer
+                return decode(_size - _position);
+            }
+
+            switch(getDescriptorCode(_position))
+            {
+                case DATA:
+                    _position += sectionLength;
+                    return SKIPPED_DATA;
+                case AMQP_SEQUENCE:
+                    _position += sectionLength;
+                    return SKIPPED_SEQUENCE;
+                case AMQP_VALUE:
+                    _position += sectionLength;
+                    return SKIPPED_VALUE;
+                default:
+                    return decode(sectionLength);
+            }
+        }
+
+        private Section decode(final long length) throws AmqpErrorException
+        {
+            List<QpidByteBuffer> views = QpidByteBufferUtils.view(_fragments, _position, length);
+            QpidByteBuffer buf = QpidByteBufferUtils.coalesce(views);
+            try
+            {
+                int startPosition = buf.position();
+                Section section = _decoder.readSection(buf);
+                _position += buf.position() - startPosition;
+                return section;
+            }
+            finally
+            {
+                buf.dispose();
+                QpidByteBufferUtils.dispose(views);
+            }
+        }
+
+        private int getDescriptorCode(final long offset)
+        {
+            int descriptorFormat = get(offset + 1);
+            if(descriptorFormat == SMALL_ULONG)
+            {
+                return get(offset + 2);
+            }
+            else
+            {
+                for(int i = 2; i < 9; i++)
+                {
+                    if(get(offset + i) != 0)
+                    {
+                        return -1;
+                    }
+                }
+                return get(offset + 9);
+            }
+        }
+
+        private long getSectionLength(final long offset)
+        {
+            if(get(offset) != DESCRIBED_TYPE)
+            {
+                return -1L;
+            }
+
+            final long valueOffset;
+            int descriptorFormat = get(offset + 1);
+            if(descriptorFormat == SMALL_ULONG)
+            {
+                valueOffset = offset + 3;
+            }
+            else if(descriptorFormat == ULONG)
+            {
+                valueOffset = offset + 10;
+            }
+            else
+            {
+                return -1L;
+            }
+
+            long valueLength = getValueLength(valueOffset);
+            if(valueLength < 0 || valueOffset + valueLength > _size)
+            {
+                return -1L;
+            }
+            return valueOffset - offset + valueLength;
+        }
+
+        private long getValueLength(final long offset)
+        {
+            int formatCode = get(offset);
+            if(formatCode < 0)
+            {
+                return -1L;
+            }
+            switch((formatCode >> 4) & 0x0F)
+            {
+                case 0x4:
+                    return 1L;
+                case 0x5:
+                    return 2L;
+                case 0x6:
+                    return 3L;
+                case 0x7:
+                    return 5L;
+                case 0x8:
+                    return 9L;
+                case 0x9:
+                    return 17L;
+                case 0xa:
+                case 0xc:
+                case 0xe:
+                    int size = get(offset + 1);
+                    return size < 0 ? -1L : 2L + size;
+                case 0xb:
+                case 0xd:
+                case 0xf:
+                    long size32 = 0L;
+                    for(int i = 1; i <= 4; i++)
+                    {
+                        int b = get(offset + i);
+                        if(b < 0)
+                        {
+                            return -1L;
+                        }
+                        size32 = (size32 << 8) | b;
+                    }
+                    return 5L + size32;
+                default:
+                    return -1L;
+            }
+        }
+
+        private int get(final long offset)
+        {
+            return offset < _size ? QpidByteBufferUtils.get(_fragments, offset) : -1;
+        }
+
+        void dispose()
+        {
+            QpidByteBufferUtils.dispose(_fragments);
+        }
+    }
+
 }
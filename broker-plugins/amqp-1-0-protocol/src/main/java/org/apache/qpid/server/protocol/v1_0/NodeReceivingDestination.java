@@ -27,7 +27,9 @@ import org.apache.qpid.amqp_1_0.type.messaging.TerminusDurability;
 import org.apache.qpid.amqp_1_0.type.messaging.TerminusExpiryPolicy;
 import org.apache.qpid.server.message.InstanceProperties;
 import org.apache.qpid.server.message.MessageDestination;
+import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.txn.ServerTransaction;
+import org.apache.qpid.server.util.Action;
 
 public class NodeReceivingDestination implements ReceivingDestination
 {
@@ -51,7 +53,9 @@ public class NodeReceivingDestination implements ReceivingDestination
         return OUTCOMES;
     }
 
-    public Outcome send(final Message_1_0 message, ServerTransaction txn)
+    public Outcome send(final Message_1_0 message,
+                        ServerTransaction txn,
+                        final Action<? super MessageInstance> postEnqueueAction)
     {
         final InstanceProperties instanceProperties =
             new InstanceProperties()
@@ -100,7 +104,7 @@ public class NodeReceivingDestination implements ReceivingDestination
             }
         }
 
-        int enqueues = _destination.send(message, routingAddress, instanceProperties, txn, null);
+        int enqueues = _destination.send(message, routingAddress, instanceProperties, txn, postEnqueueAction);
 
 
         return enqueues == 0 ? REJECTED : ACCEPTED;
@@ -22,10 +22,12 @@ package org.apache.qpid.server.protocol.v1_0;
 
 import org.apache.qpid.amqp_1_0.type.Outcome;
 import org.apache.qpid.amqp_1_0.type.messaging.Accepted;
+import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.message.MessageReference;
 import org.apache.qpid.server.queue.AMQQueue;
 import org.apache.qpid.server.store.MessageEnqueueRecord;
 import org.apache.qpid.server.txn.ServerTransaction;
+import org.apache.qpid.server.util.Action;
 
 public class QueueDestination extends MessageSourceDestination implements SendingDestination, ReceivingDestination
 {
@@ -43,7 +45,9 @@ public class QueueDestination extends MessageSourceDestination implements Sendin
         return OUTCOMES;
     }
 
-    public Outcome send(final Message_1_0 message, ServerTransaction txn)
+    public Outcome send(final Message_1_0 message,
+                        ServerTransaction txn,
+                        final Action<? super MessageInstance> postEnqueueAction)
     {
 
         txn.enqueue(getQueue(),message, new ServerTransaction.EnqueueAction()
@@ -55,7 +59,7 @@ public class QueueDestination extends MessageSourceDestination implements Sendin
             {
                 try
                 {
-                    getQueue().enqueue(message, null, records[0]);
+                    getQueue().enqueue(message, postEnqueueAction, records[0]);
                 }
                 finally
                 {
@@ -22,14 +22,16 @@ package org.apache.qpid.server.protocol.v1_0;
 
 import org.apache.qpid.amqp_1_0.type.Outcome;
 
+import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.txn.ServerTransaction;
+import org.apache.qpid.server.util.Action;
 
 public interface ReceivingDestination extends Destination
 {
 
     Outcome[] getOutcomes();
 
-    Outcome send(Message_1_0 message, ServerTransaction txn);
+    Outcome send(Message_1_0 message, ServerTransaction txn, Action<? super MessageInstance> postEnqueueAction);
 
     int getCredit();
 }
@@ -0,0 +1,146 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.protocol.v1_0;
+
+/**
+ * Calculates the credit window offered to the sender on a receiving link.
+ *
+ * The window is reduced in proportion to how far the queues the link's messages are routed to have filled past their
+ * flow resume size towards their flow control size, how far the broker's claimed direct memory has risen past its flow
+ * resume threshold towards its flow control threshold, and how far the average store commit latency exceeds its
+ * target.  A fast producer therefore sees its credit shrink smoothly as the broker falls behind, rather
+ * than being stopped outright when a threshold is crossed and then released again.  The window never falls below one
+ * unless the link is blocked.
+ */
+class ReceivingLinkCreditController
+{
+    private static final int COMMIT_LATENCY_SMOOTHING = 8;
+
+    private final int _maximumCredit;
+    private final long _targetCommitLatencyNanos;
+
+    private volatile long _averageCommitLatencyNanos;
+    private volatile int _creditWindow;
+    private volatile long _throttledTransfers;
+    private volatile long _blockedCount;
+
+    ReceivingLinkCreditController(final int maximumCredit, final long targetCommitLatencyNanos)
+    {
+        _maximumCredit = Math.max(1, maximumCredit);
+        _targetCommitLatencyNanos = targetCommitLatencyNanos;
+        _creditWindow = _maximumCredit;
+    }
+
+    void recordCommitLatency(final long latencyNanos)
+    {
+        final long average = _averageCommitLatencyNanos;
+        _averageCommitLatencyNanos = average == 0l
+                ? latencyNanos
+                : average + (latencyNanos - average) / COMMIT_LATENCY_SMOOTHING;
+    }
+
+    void recordTransfer()
+    {
+        if(_creditWindow < _maximumCredit)
+        {
+            _throttledTransfers++;
+        }
+    }
+
+    int updateCreditWindow(final double capacityFactor, final boolean blocked)
+    {
+        final int creditWindow;
+        if(blocked)
+        {
+            if(_creditWindow != 0)
+            {
+                _blockedCount++;
+            }
+            creditWindow = 0;
+        }
+        else
+        {
+            final double factor = Math.min(capacityFactor, getCommitLatencyFactor());
+            creditWindow = Math.max(1, (int) (_maximumCredit * factor));
+        }
+        _creditWindow = creditWindow;
+        return creditWindow;
+    }
+
+    private double getCommitLatencyFactor()
+    {
+        final long average = _averageCommitLatencyNanos;
+        if(_targetCommitLatencyNanos <= 0l || average <= _targetCommitLatencyNanos)
+        {
+            return 1d;
+        }
+        return (double) _targetCommitLatencyNanos / (double) average;
+    }
+
+    /**
+     * Returns the proportion of the maximum credit that can be offered at the given usage: all of it up to the resume
+     * size, falling linearly to none at the flow control size.
+     */
+    static double getCapacityFactor(final long usageBytes,
+                                    final long flowControlSizeBytes,
+                                    final long flowResumeSizeBytes)
+    {
+        if(flowControlSizeBytes <= 0l)
+        {
+            return 1d;
+        }
+        final long resumeSizeBytes = Math.min(flowResumeSizeBytes, flowControlSizeBytes);
+        if(usageBytes <= resumeSizeBytes)
+        {
+            return 1d;
+        }
+        if(usageBytes >= flowControlSizeBytes)
+        {
+            return 0d;
+        }
+        return (double) (flowControlSizeBytes - usageBytes) / (double) (flowControlSizeBytes - resumeSizeBytes);
+    }
+
+    int getMaximumCredit()
+    {
+        return _maximumCredit;
+    }
+
+    int getCreditWindow()
+    {
+        return _creditWindow;
+    }
+
+    long getAverageCommitLatencyNanos()
+    {
+        return _averageCommitLatencyNanos;
+    }
+
+    long getThrottledTransfers()
+    {
+        return _throttledTransfers;
+    }
+
+    long getBlockedCount()
+    {
+        return _blockedCount;
+    }
+}
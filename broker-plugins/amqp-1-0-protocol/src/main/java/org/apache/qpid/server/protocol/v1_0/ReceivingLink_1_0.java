@@ -25,6 +25,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.amqp_1_0.codec.QpidByteBufferUtils;
 import org.apache.qpid.amqp_1_0.messaging.SectionDecoderImpl;
 import org.apache.qpid.amqp_1_0.transport.DeliveryStateHandler;
 import org.apache.qpid.amqp_1_0.transport.LinkEndpoint;
@@ -41,11 +46,19 @@ import org.apache.qpid.amqp_1_0.type.transport.Detach;
 import org.apache.qpid.amqp_1_0.type.transport.ReceiverSettleMode;
 import org.apache.qpid.amqp_1_0.type.transport.Transfer;
 import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.message.MessageInstance;
 import org.apache.qpid.server.message.MessageReference;
+import org.apache.qpid.server.model.Broker;
+import org.apache.qpid.server.model.Connection;
+import org.apache.qpid.server.protocol.CapacityChecker;
+import org.apache.qpid.server.queue.AMQQueue;
 import org.apache.qpid.server.store.MessageHandle;
 import org.apache.qpid.server.store.StoredMessage;
+import org.apache.qpid.server.store.TransactionLogResource;
+import org.apache.qpid.server.transport.AMQPConnection;
 import org.apache.qpid.server.txn.AutoCommitTransaction;
 import org.apache.qpid.server.txn.ServerTransaction;
+import org.apache.qpid.server.util.Action;
 import org.apache.qpid.server.virtualhost.VirtualHostImpl;
 
 public class ReceivingLink_1_0 implements ReceivingLinkListener, Link_1_0, DeliveryStateHandler
@@ -65,6 +78,29 @@ public class ReceivingLink_1_0 implements ReceivingLinkListener, Link_1_0, Deliv
     private Binary _messageDeliveryTag;
     private ReceiverSettleMode _receivingSettlementMode;
 
+    private final ReceivingLinkCreditController _creditController;
+    private final long _directMemoryFlowControlThreshold;
+    private final long _directMemoryFlowResumeThreshold;
+    private final Set<AMQQueue<?>> _destinationQueues =
+            Collections.newSetFromMap(new ConcurrentHashMap<AMQQueue<?>, Boolean>());
+    private final Action<MessageInstance> _postEnqueueAction = new Action<MessageInstance>()
+    {
+        @Override
+        public void performAction(final MessageInstance entry)
+        {
+            final TransactionLogResource resource = entry.getOwningResource();
+            if(resource instanceof AMQQueue)
+            {
+                _destinationQueues.add((AMQQueue<?>) resource);
+            }
+            final Session_1_0 session = getSession();
+            if(session != null && resource instanceof CapacityChecker)
+            {
+                ((CapacityChecker) resource).checkCapacity(session);
+            }
+        }
+    };
+
 
     public ReceivingLink_1_0(ReceivingLinkAttachment receivingLinkAttachment, VirtualHostImpl vhost,
                              ReceivingDestination destination)
@@ -80,6 +116,19 @@ public class ReceivingLink_1_0 implements ReceivingLinkListener, Link_1_0, Deliv
 
         _sectionDecoder = new SectionDecoderImpl(receivingLinkAttachment.getEndpoint().getSession().getConnection().getDescribedTypeRegistry());
 
+        final AMQPConnection<?> amqpConnection = receivingLinkAttachment.getSession().getAMQPConnection();
+        final long targetCommitLatency =
+                amqpConnection.getContextValue(Long.class, Connection.PUBLISH_CREDIT_TARGET_COMMIT_LATENCY);
+        _directMemoryFlowControlThreshold =
+                amqpConnection.getContextValue(Long.class, Broker.BROKER_DIRECT_MEMORY_FLOW_CONTROL_THRESHOLD);
+        _directMemoryFlowResumeThreshold =
+                amqpConnection.getContextValue(Long.class, Broker.BROKER_DIRECT_MEMORY_FLOW_RESUME_THRESHOLD);
+        _creditController = new ReceivingLinkCreditController(destination.getCredit(),
+                                                              TimeUnit.MILLISECONDS.toNanos(targetCommitLatency));
+        if(destination instanceof QueueDestination)
+        {
+            _destinationQueues.add(((QueueDestination) destination).getQueue());
+        }
 
     }
 
@@ -109,11 +158,12 @@ public class ReceivingLink_1_0 implements ReceivingLinkListener, Link_1_0, Deliv
                 return;
             }
 
+            // the delivery is kept as a composite of the transfer payloads rather than being concatenated
             fragments = new ArrayList<QpidByteBuffer>(_incompleteMessage.size());
 
             for(Transfer t : _incompleteMessage)
             {
-                fragments.add(t.getPayload().duplicate());
+                fragments.addAll(QpidByteBufferUtils.duplicate(t.getPayload()));
                 t.dispose();
             }
             _incompleteMessage=null;
@@ -123,7 +173,7 @@ public class ReceivingLink_1_0 implements ReceivingLinkListener, Link_1_0, Deliv
         {
             _resumedMessage = Boolean.TRUE.equals(xfr.getResume());
             _messageDeliveryTag = deliveryTag;
-            fragments = Collections.singletonList(xfr.getPayload().duplicate());
+            fragments = QpidByteBufferUtils.duplicate(xfr.getPayload());
             xfr.dispose();
         }
 
@@ -192,7 +242,12 @@ public class ReceivingLink_1_0 implements ReceivingLinkListener, Link_1_0, Deliv
                 transaction = session != null ? session.getTransaction(null) : new AutoCommitTransaction(_vhost.getMessageStore());
             }
 
-            Outcome outcome = _destination.send(message, transaction);
+            final long sendStartTime = System.nanoTime();
+            Outcome outcome = _destination.send(message, transaction, _postEnqueueAction);
+            if(transaction instanceof AutoCommitTransaction && message.isPersistent())
+            {
+                _creditController.recordCommitLatency(System.nanoTime() - sendStartTime);
+            }
 
             DeliveryState resultantState;
 
@@ -239,9 +294,44 @@ public class ReceivingLink_1_0 implements ReceivingLinkListener, Link_1_0, Deliv
             }
 
             reference.release();
+
+            _creditController.recordTransfer();
+            updateCredit();
+        }
+    }
+
+    void updateCredit()
+    {
+        final Session_1_0 session = getSession();
+        if(session != null)
+        {
+            getEndpoint().setCreditWindowSize(_creditController.updateCreditWindow(getCapacityFactor(),
+                                                                                   session.getBlocking()));
         }
     }
 
+    private double getCapacityFactor()
+    {
+        double capacityFactor = ReceivingLinkCreditController.getCapacityFactor(QpidByteBuffer.getPooledBufferClaimedBytes(),
+                                                                                 _directMemoryFlowControlThreshold,
+                                                                                 _directMemoryFlowResumeThreshold);
+        for(AMQQueue<?> queue : _destinationQueues)
+        {
+            if(queue.isDeleted())
+            {
+                _destinationQueues.remove(queue);
+            }
+            else
+            {
+                capacityFactor = Math.min(capacityFactor,
+                                          ReceivingLinkCreditController.getCapacityFactor(queue.getQueueDepthBytes(),
+                                                                                          queue.getQueueFlowControlSizeBytes(),
+                                                                                          queue.getQueueFlowResumeSizeBytes()));
+            }
+        }
+        return capacityFactor;
+    }
+
     private ReceiverSettleMode getReceivingSettlementMode()
     {
         return _receivingSettlementMode;
@@ -249,6 +339,12 @@ public class ReceivingLink_1_0 implements ReceivingLinkListener, Link_1_0, Deliv
 
     public void remoteDetached(LinkEndpoint endpoint, Detach detach)
     {
+        final Session_1_0 session = getSession();
+        if(session != null)
+        {
+            session.receivingLinkDetached(this);
+        }
+
         //TODO
         // if not durable or close
         if(!TerminusDurability.UNSETTLED_STATE.equals(_durability) ||
@@ -264,7 +360,11 @@ public class ReceivingLink_1_0 implements ReceivingLinkListener, Link_1_0, Deliv
 
     public void start()
     {
-        getEndpoint().setLinkCredit(UnsignedInteger.valueOf(_destination.getCredit()));
+        final Session_1_0 session = getSession();
+        final int creditWindow = _creditController.updateCreditWindow(getCapacityFactor(),
+                                                                      session != null && session.getBlocking());
+        getEndpoint().setLinkCredit(UnsignedInteger.valueOf(creditWindow));
+        getEndpoint().setCreditWindowSize(creditWindow);
         getEndpoint().setCreditWindow();
     }
 
@@ -311,4 +411,29 @@ public class ReceivingLink_1_0 implements ReceivingLinkListener, Link_1_0, Deliv
     {
         return _unsettledMap;
     }
+
+    public int getMaximumCredit()
+    {
+        return _creditController.getMaximumCredit();
+    }
+
+    public int getCreditWindow()
+    {
+        return _creditController.getCreditWindow();
+    }
+
+    public long getAverageCommitLatency()
+    {
+        return TimeUnit.NANOSECONDS.toMicros(_creditController.getAverageCommitLatencyNanos());
+    }
+
+    public long getThrottledTransfers()
+    {
+        return _creditController.getThrottledTransfers();
+    }
+
+    public long getBlockedCount()
+    {
+        return _creditController.getBlockedCount();
+    }
 }
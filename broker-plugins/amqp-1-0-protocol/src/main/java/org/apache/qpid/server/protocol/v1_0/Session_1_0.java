@@ -35,7 +35,9 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -77,6 +79,7 @@ import org.apache.qpid.server.consumer.ConsumerImpl;
 import org.apache.qpid.server.consumer.ConsumerTarget;
 import org.apache.qpid.server.exchange.ExchangeImpl;
 import org.apache.qpid.server.logging.LogSubject;
+import org.apache.qpid.server.logging.messages.ChannelMessages;
 import org.apache.qpid.server.message.MessageDestination;
 import org.apache.qpid.server.message.MessageSource;
 import org.apache.qpid.server.model.ConfigurationChangeListener;
@@ -117,6 +120,9 @@ public class Session_1_0 implements SessionEventListener, AMQSessionModel<Sessio
 
     private final CopyOnWriteArrayList<Consumer<?>> _consumers = new CopyOnWriteArrayList<Consumer<?>>();
     private final CopyOnWriteArrayList<SendingLink_1_0> _sendingLinks = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<ReceivingLink_1_0> _receivingLinks = new CopyOnWriteArrayList<>();
+    private final Set<Object> _blockingEntities = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+    private final AtomicBoolean _blocking = new AtomicBoolean();
     private final ConfigurationChangeListener _consumerClosedListener = new ConsumerClosedListener();
     private final CopyOnWriteArrayList<ConsumerListener> _consumerListeners = new CopyOnWriteArrayList<ConsumerListener>();
     private Session<?> _modelObject;
@@ -399,6 +405,7 @@ public class Session_1_0 implements SessionEventListener, AMQSessionModel<Sessio
                         receivingLinkEndpoint.setLinkEventListener(new SubjectSpecificReceivingLinkListener(receivingLink));
 
                         link = receivingLink;
+                        _receivingLinks.add(receivingLink);
                         if(TerminusDurability.UNSETTLED_STATE.equals(target.getDurable())
                            || TerminusDurability.CONFIGURATION.equals(target.getDurable()))
                         {
@@ -412,6 +419,7 @@ public class Session_1_0 implements SessionEventListener, AMQSessionModel<Sessio
                     previousLink.setLinkAttachment(new ReceivingLinkAttachment(this, receivingLinkEndpoint));
                     receivingLinkEndpoint.setLinkEventListener(previousLink);
                     link = previousLink;
+                    _receivingLinks.addIfAbsent(previousLink);
                     endpoint.setLocalUnsettled(previousLink.getUnsettledOutcomeMap());
 
                 }
@@ -668,32 +676,73 @@ public class Session_1_0 implements SessionEventListener, AMQSessionModel<Sessio
     @Override
     public void block(AMQQueue queue)
     {
-        // TODO - required for AMQSessionModel / producer side flow control
+        block(queue, queue.getName());
     }
 
     @Override
     public void unblock(AMQQueue queue)
     {
-        // TODO - required for AMQSessionModel / producer side flow control
+        unblock((Object) queue);
     }
 
     @Override
     public void block()
     {
-        // TODO - required for AMQSessionModel / producer side flow control
+        block(this, "** All Queues **");
     }
 
     @Override
     public void unblock()
     {
-        // TODO - required for AMQSessionModel / producer side flow control
+        unblock(this);
+    }
+
+    private void block(final Object entity, final String name)
+    {
+        synchronized (_blockingEntities)
+        {
+            if(_blockingEntities.add(entity) && _blocking.compareAndSet(false, true))
+            {
+                getVirtualHost().getEventLogger().message(this, ChannelMessages.FLOW_ENFORCED(name));
+                _connection.updateReceivingLinkCreditAsync(this);
+            }
+        }
+    }
+
+    private void unblock(final Object entity)
+    {
+        synchronized (_blockingEntities)
+        {
+            if(_blockingEntities.remove(entity) && _blockingEntities.isEmpty() && _blocking.compareAndSet(true, false))
+            {
+                getVirtualHost().getEventLogger().message(this, ChannelMessages.FLOW_REMOVED());
+                _connection.updateReceivingLinkCreditAsync(this);
+            }
+        }
     }
 
     @Override
     public boolean getBlocking()
     {
-        // TODO
-        return false;
+        return _blocking.get();
+    }
+
+    void updateReceivingLinkCredit()
+    {
+        for(ReceivingLink_1_0 link : _receivingLinks)
+        {
+            link.updateCredit();
+        }
+    }
+
+    void receivingLinkDetached(final ReceivingLink_1_0 link)
+    {
+        _receivingLinks.remove(link);
+    }
+
+    public List<ReceivingLink_1_0> getReceivingLinks()
+    {
+        return Collections.unmodifiableList(_receivingLinks);
     }
 
     @Override
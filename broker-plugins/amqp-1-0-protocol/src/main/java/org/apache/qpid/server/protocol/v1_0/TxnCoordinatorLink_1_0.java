@@ -28,6 +28,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.apache.qpid.amqp_1_0.codec.QpidByteBufferUtils;
 import org.apache.qpid.amqp_1_0.messaging.SectionDecoder;
 import org.apache.qpid.amqp_1_0.messaging.SectionDecoderImpl;
 import org.apache.qpid.amqp_1_0.transport.LinkEndpoint;
@@ -96,24 +97,20 @@ public class TxnCoordinatorLink_1_0 implements ReceivingLinkListener, Link_1_0
                 return;
             }
 
-            int size = 0;
+            List<QpidByteBuffer> fragments = new ArrayList<>(_incompleteMessage.size());
             for(Transfer t : _incompleteMessage)
             {
-                size += t.getPayload().limit();
-            }
-            payload = QpidByteBuffer.allocateDirect(size);
-            for(Transfer t : _incompleteMessage)
-            {
-                payload.put(t.getPayload().duplicate());
+                fragments.addAll(QpidByteBufferUtils.duplicate(t.getPayload()));
                 t.dispose();
             }
-            payload.flip();
+            payload = QpidByteBufferUtils.coalesce(fragments);
+            QpidByteBufferUtils.dispose(fragments);
             _incompleteMessage=null;
 
         }
         else
         {
-            payload = xfr.getPayload().duplicate();
+            payload = QpidByteBufferUtils.coalesce(xfr.getPayload());
             xfr.dispose();
         }
 
@@ -0,0 +1,139 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.amqp_1_0.codec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class QpidByteBufferUtilsTest extends QpidTestCase
+{
+    private static final int BUFFER_SIZE = 10;
+    private static final int POOL_SIZE = 20;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        QpidByteBuffer.initialisePool(BUFFER_SIZE, POOL_SIZE);
+    }
+
+    public void testRemaining()
+    {
+        List<QpidByteBuffer> fragments = createFragments("abc", "", "defgh");
+        assertEquals("Unexpected remaining", 8, QpidByteBufferUtils.remaining(fragments));
+
+        fragments.get(0).position(2);
+        assertEquals("Unexpected remaining after position change", 6, QpidByteBufferUtils.remaining(fragments));
+
+        assertEquals("Unexpected remaining of null", 0, QpidByteBufferUtils.remaining(null));
+    }
+
+    public void testViewAcrossFragments()
+    {
+        List<QpidByteBuffer> fragments = createFragments("abc", "defg", "hi");
+
+        List<QpidByteBuffer> views = QpidByteBufferUtils.view(fragments, 2, 5);
+        assertEquals("Unexpected number of views", 2, views.size());
+        assertEquals("Unexpected view content", "cdefg", toString(views));
+
+        assertEquals("Source positions should not have changed", 9, QpidByteBufferUtils.remaining(fragments));
+        QpidByteBufferUtils.dispose(views);
+    }
+
+    public void testViewWithinLaterFragment()
+    {
+        List<QpidByteBuffer> fragments = createFragments("abc", "defg", "hi");
+
+        List<QpidByteBuffer> views = QpidByteBufferUtils.view(fragments, 3, 2);
+        assertEquals("Unexpected number of views", 1, views.size());
+        assertEquals("Unexpected view content", "de", toString(views));
+        QpidByteBufferUtils.dispose(views);
+
+        views = QpidByteBufferUtils.view(fragments, 7, 10);
+        assertEquals("View should be truncated at the end of the fragments", "hi", toString(views));
+        QpidByteBufferUtils.dispose(views);
+    }
+
+    public void testEmptyView()
+    {
+        List<QpidByteBuffer> fragments = createFragments("abc");
+        assertTrue("Zero length view should be empty", QpidByteBufferUtils.view(fragments, 1, 0).isEmpty());
+        assertTrue("View of null should be empty", QpidByteBufferUtils.view(null, 0, 1).isEmpty());
+    }
+
+    public void testDisposeReleasesViews()
+    {
+        long claimedBytes = QpidByteBuffer.getPooledBufferClaimedBytes();
+
+        QpidByteBuffer buffer = QpidByteBuffer.allocateDirect(BUFFER_SIZE);
+        List<QpidByteBuffer> views = QpidByteBufferUtils.view(Arrays.asList(buffer), 2, 6);
+        assertEquals("Unexpected claimed bytes", claimedBytes + BUFFER_SIZE + 6,
+                     QpidByteBuffer.getPooledBufferClaimedBytes());
+
+        QpidByteBufferUtils.dispose(views);
+        assertEquals("Unexpected claimed bytes after disposing the views", claimedBytes + BUFFER_SIZE,
+                     QpidByteBuffer.getPooledBufferClaimedBytes());
+
+        buffer.dispose();
+        assertEquals("Unexpected claimed bytes after disposing the buffer", claimedBytes,
+                     QpidByteBuffer.getPooledBufferClaimedBytes());
+
+        QpidByteBufferUtils.dispose(null);
+    }
+
+    public void testCoalesce()
+    {
+        List<QpidByteBuffer> fragments = createFragments("ab", "cd");
+        QpidByteBuffer coalesced = QpidByteBufferUtils.coalesce(fragments);
+        assertEquals("Unexpected coalesced content", "abcd", toString(Arrays.asList(coalesced)));
+        assertEquals("Source positions should not have changed", 4, QpidByteBufferUtils.remaining(fragments));
+        coalesced.dispose();
+    }
+
+    private static List<QpidByteBuffer> createFragments(String... contents)
+    {
+        List<QpidByteBuffer> fragments = new ArrayList<>(contents.length);
+        for (String content : contents)
+        {
+            fragments.add(QpidByteBuffer.wrap(content.getBytes()));
+        }
+        return fragments;
+    }
+
+    private static String toString(List<QpidByteBuffer> buffers)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (QpidByteBuffer buffer : buffers)
+        {
+            QpidByteBuffer duplicate = buffer.duplicate();
+            while (duplicate.hasRemaining())
+            {
+                builder.append((char) duplicate.get());
+            }
+            duplicate.dispose();
+        }
+        return builder.toString();
+    }
+}
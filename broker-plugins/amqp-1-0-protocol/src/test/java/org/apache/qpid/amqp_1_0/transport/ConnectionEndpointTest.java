@@ -0,0 +1,139 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.amqp_1_0.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.qpid.amqp_1_0.codec.QpidByteBufferUtils;
+import org.apache.qpid.amqp_1_0.framing.AMQFrame;
+import org.apache.qpid.amqp_1_0.type.FrameBody;
+import org.apache.qpid.amqp_1_0.type.UnsignedInteger;
+import org.apache.qpid.amqp_1_0.type.transport.Transfer;
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class ConnectionEndpointTest extends QpidTestCase
+{
+    private static final int FRAGMENT_SIZE = 3000;
+    private static final int FRAGMENT_COUNT = 3;
+
+    private ConnectionEndpoint _endpoint;
+    private final List<byte[]> _framePayloads = new ArrayList<>();
+    private final List<Boolean> _frameMoreFlags = new ArrayList<>();
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _endpoint = new ConnectionEndpoint(new Container(), (SaslServerProvider) null);
+        _endpoint.setFrameOutputHandler(new RecordingFrameOutputHandler());
+    }
+
+    public void testTransferPayloadSplitAcrossFragments()
+    {
+        byte[] content = new byte[FRAGMENT_SIZE * FRAGMENT_COUNT];
+        List<QpidByteBuffer> payload = new ArrayList<>(FRAGMENT_COUNT);
+        for (int i = 0; i < content.length; i++)
+        {
+            content[i] = (byte) (i % 251);
+        }
+        for (int i = 0; i < FRAGMENT_COUNT; i++)
+        {
+            payload.add(QpidByteBuffer.wrap(content, i * FRAGMENT_SIZE, FRAGMENT_SIZE));
+        }
+
+        List<QpidByteBuffer> remaining = payload;
+        long remainingSize = QpidByteBufferUtils.remaining(remaining);
+        while (remainingSize > 0)
+        {
+            Transfer transfer = new Transfer();
+            transfer.setHandle(UnsignedInteger.ZERO);
+            long sent = _endpoint.send((short) 0, transfer, remaining);
+            assertTrue("Frame carried no payload", sent > 0);
+
+            List<QpidByteBuffer> next = QpidByteBufferUtils.view(remaining, sent, remainingSize - sent);
+            if (remaining != payload)
+            {
+                QpidByteBufferUtils.dispose(remaining);
+            }
+            remaining = next;
+            remainingSize -= sent;
+        }
+
+        assertTrue("Payload should have been split into several frames", _framePayloads.size() > 1);
+
+        ByteArrayOutputStream sentContent = new ByteArrayOutputStream();
+        for (int i = 0; i < _framePayloads.size(); i++)
+        {
+            byte[] framePayload = _framePayloads.get(i);
+            assertTrue("Frame " + i + " exceeds the maximum frame size",
+                       framePayload.length < _endpoint.getMaxFrameSize());
+            assertEquals("Unexpected more flag on frame " + i,
+                         i < _framePayloads.size() - 1, Boolean.TRUE.equals(_frameMoreFlags.get(i)));
+            sentContent.write(framePayload, 0, framePayload.length);
+        }
+        assertTrue("Sent content differs from the payload",
+                   Arrays.equals(content, sentContent.toByteArray()));
+    }
+
+    private class RecordingFrameOutputHandler implements FrameOutputHandler<FrameBody>
+    {
+        @Override
+        public boolean canSend()
+        {
+            return true;
+        }
+
+        @Override
+        public void send(final AMQFrame<FrameBody> frame)
+        {
+            // the payload views are disposed once the frame has been sent, so their content is copied now
+            List<QpidByteBuffer> payload = frame.getPayload();
+            byte[] bytes = new byte[(int) QpidByteBufferUtils.remaining(payload)];
+            int offset = 0;
+            for (QpidByteBuffer buffer : payload)
+            {
+                QpidByteBuffer duplicate = buffer.duplicate();
+                int length = duplicate.remaining();
+                duplicate.get(bytes, offset, length);
+                duplicate.dispose();
+                offset += length;
+            }
+            _framePayloads.add(bytes);
+            _frameMoreFlags.add(((Transfer) frame.getFrameBody()).getMore());
+        }
+
+        @Override
+        public void send(final AMQFrame<FrameBody> frame, final ByteBuffer payload)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.amqp_1_0.type.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.qpid.amqp_1_0.codec.ValueHandler;
+import org.apache.qpid.amqp_1_0.codec.ValueWriter;
+import org.apache.qpid.amqp_1_0.type.Binary;
+import org.apache.qpid.amqp_1_0.type.Symbol;
+import org.apache.qpid.amqp_1_0.type.UnsignedInteger;
+import org.apache.qpid.amqp_1_0.type.messaging.Accepted;
+import org.apache.qpid.amqp_1_0.type.transport.Disposition;
+import org.apache.qpid.amqp_1_0.type.transport.Flow;
+import org.apache.qpid.amqp_1_0.type.transport.Role;
+import org.apache.qpid.amqp_1_0.type.transport.Transfer;
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class AMQPDescribedTypeRegistryTest extends QpidTestCase
+{
+    private AMQPDescribedTypeRegistry _registry;
+    private Map<Class, ValueWriter> _writerCache;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _registry = AMQPDescribedTypeRegistry.newInstance()
+                .registerTransportLayer()
+                .registerMessagingLayer()
+                .registerTransactionLayer()
+                .registerSecurityLayer();
+        _writerCache = new HashMap<>();
+    }
+
+    public void testNestedListsOfSameType() throws Exception
+    {
+        List<Object> innermost = Arrays.<Object>asList("c", 3);
+        List<Object> inner = Arrays.<Object>asList("b", innermost, new ArrayList<>(), 2);
+        List<Object> value = Arrays.<Object>asList("a", inner, Arrays.<Object>asList("d"), 1, inner);
+        assertRoundTrip(value);
+
+        List<Object> other = Arrays.<Object>asList(Arrays.<Object>asList(Arrays.<Object>asList("x")), "y");
+        assertRoundTrip(other);
+        assertRoundTrip(value);
+    }
+
+    public void testLargeNestedListsOfSameType() throws Exception
+    {
+        List<Object> value = new ArrayList<>();
+        for (int i = 0; i < 30; i++)
+        {
+            List<Object> element = new ArrayList<>();
+            for (int j = 0; j <= i; j++)
+            {
+                element.add("element-" + i + "-" + j);
+            }
+            value.add(element);
+        }
+        assertRoundTrip(value);
+        assertRoundTrip(value.get(29));
+        assertRoundTrip(value);
+    }
+
+    public void testNestedMapsOfSameType() throws Exception
+    {
+        Map<Object, Object> innermost = new LinkedHashMap<>();
+        innermost.put("c", "d");
+        Map<Object, Object> inner = new LinkedHashMap<>();
+        inner.put("b", innermost);
+        inner.put("e", Arrays.<Object>asList(innermost, "f"));
+        Map<Object, Object> value = new LinkedHashMap<>();
+        value.put("a", inner);
+        value.put(Symbol.valueOf("g"), innermost);
+        value.put("h", Collections.emptyMap());
+        assertRoundTrip(value);
+
+        Map<Object, Object> other = new LinkedHashMap<>();
+        other.put("x", Collections.singletonMap("y", Collections.singletonMap("z", 1)));
+        assertRoundTrip(other);
+        assertRoundTrip(value);
+    }
+
+    public void testPartialBufferWrites() throws Exception
+    {
+        Map<Object, Object> map = new LinkedHashMap<>();
+        map.put("key", Arrays.<Object>asList("value", Collections.singletonMap("nested", 1)));
+        List<Object> list = new ArrayList<>();
+        List<Object> shortElements = new ArrayList<>();
+        for (int i = 0; i < 30; i++)
+        {
+            list.add(Arrays.<Object>asList(i, "element-" + i, map));
+            shortElements.add(i);
+        }
+
+        for (Object value : Arrays.asList(list, shortElements, map,
+                                          createTransfer(7), createFlow(11), createDisposition(13)))
+        {
+            byte[] expected = encode(value, new HashMap<Class, ValueWriter>(), 65536);
+            for (int chunkSize = 1; chunkSize <= 64; chunkSize++)
+            {
+                byte[] actual = encode(value, _writerCache, chunkSize);
+                assertTrue("Unexpected encoding of " + value + " in chunks of " + chunkSize,
+                           Arrays.equals(expected, actual));
+            }
+        }
+    }
+
+    public void testTransferEncodedTwiceWithCachedWriter() throws Exception
+    {
+        assertPerformativeEncodedTwice(createTransfer(1), createTransfer(2));
+    }
+
+    public void testFlowEncodedTwiceWithCachedWriter() throws Exception
+    {
+        assertPerformativeEncodedTwice(createFlow(1), createFlow(2));
+    }
+
+    public void testDispositionEncodedTwiceWithCachedWriter() throws Exception
+    {
+        assertPerformativeEncodedTwice(createDisposition(1), createDisposition(2));
+    }
+
+    private void assertPerformativeEncodedTwice(final Object first, final Object second) throws Exception
+    {
+        byte[] firstExpected = encode(first, new HashMap<Class, ValueWriter>(), 65536);
+        byte[] secondExpected = encode(second, new HashMap<Class, ValueWriter>(), 65536);
+
+        ValueWriter<Object> firstWriter = _registry.getValueWriter(first, _writerCache);
+        byte[] firstActual = encode(first, _writerCache, 65536);
+        byte[] secondActual = encode(second, _writerCache, 65536);
+        assertSame("Performative writer should have been reused", firstWriter,
+                   _registry.getValueWriter(second, _writerCache));
+
+        assertTrue("Unexpected encoding of " + first, Arrays.equals(firstExpected, firstActual));
+        assertTrue("Unexpected encoding of " + second, Arrays.equals(secondExpected, secondActual));
+        assertEquals("Unexpected decoded value", first.toString(), decode(firstActual).toString());
+        assertEquals("Unexpected decoded value", second.toString(), decode(secondActual).toString());
+    }
+
+    private void assertRoundTrip(final Object value) throws Exception
+    {
+        byte[] encoded = encode(value, _writerCache, 65536);
+        assertEquals("Unexpected decoded value", value, decode(encoded));
+        assertTrue("Encoding with cached writers differs from encoding with new writers",
+                   Arrays.equals(encode(value, new HashMap<Class, ValueWriter>(), 65536), encoded));
+    }
+
+    private byte[] encode(final Object value, final Map<Class, ValueWriter> writerCache, final int chunkSize)
+    {
+        ValueWriter<Object> writer = _registry.getValueWriter(value, writerCache);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] chunk = new byte[chunkSize];
+        do
+        {
+            QpidByteBuffer buffer = QpidByteBuffer.wrap(chunk);
+            writer.writeToBuffer(buffer);
+            output.write(chunk, 0, buffer.position());
+            buffer.dispose();
+        }
+        while (!writer.isComplete());
+        return output.toByteArray();
+    }
+
+    private Object decode(final byte[] encoded) throws Exception
+    {
+        QpidByteBuffer buffer = QpidByteBuffer.wrap(encoded);
+        try
+        {
+            Object value = new ValueHandler(_registry).parse(buffer);
+            assertFalse("Encoded value was not fully decoded", buffer.hasRemaining());
+            return value;
+        }
+        finally
+        {
+            buffer.dispose();
+        }
+    }
+
+    private static Transfer createTransfer(final int id)
+    {
+        Transfer transfer = new Transfer();
+        transfer.setHandle(UnsignedInteger.valueOf(id));
+        transfer.setDeliveryId(UnsignedInteger.valueOf(id * 100));
+        transfer.setDeliveryTag(new Binary(("tag-" + id).getBytes()));
+        transfer.setMessageFormat(UnsignedInteger.ZERO);
+        transfer.setSettled(id % 2 == 0);
+        transfer.setMore(id % 2 != 0);
+        return transfer;
+    }
+
+    private static Flow createFlow(final int id)
+    {
+        Flow flow = new Flow();
+        flow.setNextIncomingId(UnsignedInteger.valueOf(id));
+        flow.setIncomingWindow(UnsignedInteger.valueOf(2048));
+        flow.setNextOutgoingId(UnsignedInteger.valueOf(id + 1));
+        flow.setOutgoingWindow(UnsignedInteger.valueOf(id * 1000));
+        flow.setHandle(UnsignedInteger.valueOf(id));
+        flow.setDeliveryCount(UnsignedInteger.valueOf(id * 10));
+        flow.setLinkCredit(UnsignedInteger.valueOf(id * 50));
+        flow.setDrain(id % 2 == 0);
+        return flow;
+    }
+
+    private static Disposition createDisposition(final int id)
+    {
+        Disposition disposition = new Disposition();
+        disposition.setRole(id % 2 == 0 ? Role.SENDER : Role.RECEIVER);
+        disposition.setFirst(UnsignedInteger.valueOf(id));
+        disposition.setLast(UnsignedInteger.valueOf(id * 3));
+        disposition.setSettled(Boolean.TRUE);
+        disposition.setState(new Accepted());
+        return disposition;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.protocol.v1_0;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.qpid.amqp_1_0.codec.ValueHandler;
+import org.apache.qpid.amqp_1_0.messaging.SectionEncoder;
+import org.apache.qpid.amqp_1_0.messaging.SectionEncoderImpl;
+import org.apache.qpid.amqp_1_0.type.Binary;
+import org.apache.qpid.amqp_1_0.type.UnsignedInteger;
+import org.apache.qpid.amqp_1_0.type.codec.AMQPDescribedTypeRegistry;
+import org.apache.qpid.amqp_1_0.type.messaging.Data;
+import org.apache.qpid.amqp_1_0.type.messaging.Header;
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class ConsumerTarget_1_0Test extends QpidTestCase
+{
+    // the number of leading bytes of the payload examined for a header on redelivery
+    private static final int LEADING_BYTES = 64;
+
+    private AMQPDescribedTypeRegistry _registry;
+    private SectionEncoder _sectionEncoder;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _registry = AMQPDescribedTypeRegistry.newInstance()
+                .registerTransportLayer()
+                .registerMessagingLayer()
+                .registerTransactionLayer()
+                .registerSecurityLayer();
+        _sectionEncoder = new SectionEncoderImpl(_registry);
+    }
+
+    public void testLargeFirstSectionWithoutHeaderIsNotTakenForHeader() throws Exception
+    {
+        Binary encoded = new Data(new Binary(new byte[1024])).encode(_sectionEncoder);
+        assertTrue("Section should be larger than the leading bytes", encoded.getLength() > LEADING_BYTES);
+
+        QpidByteBuffer leadingBytes = QpidByteBuffer.wrap(encoded.getArray(), encoded.getArrayOffset(), LEADING_BYTES);
+        try
+        {
+            assertFalse("Data section taken for a header", ConsumerTarget_1_0.isHeaderSection(leadingBytes));
+            assertEquals("Leading bytes should not have been consumed", 0, leadingBytes.position());
+        }
+        finally
+        {
+            leadingBytes.dispose();
+        }
+    }
+
+    public void testHeaderSectionRecognised() throws Exception
+    {
+        Header header = new Header();
+        header.setDurable(true);
+        header.setDeliveryCount(UnsignedInteger.valueOf(3));
+        Binary encoded = header.encode(_sectionEncoder);
+
+        QpidByteBuffer buf = QpidByteBuffer.wrap(encoded.getArray(), encoded.getArrayOffset(), encoded.getLength());
+        try
+        {
+            assertTrue("Header section not recognised", ConsumerTarget_1_0.isHeaderSection(buf));
+            Object parsed = new ValueHandler(_registry).parse(buf);
+            assertTrue("Unexpected section " + parsed, parsed instanceof Header);
+            assertEquals("Unexpected delivery count",
+                         UnsignedInteger.valueOf(3), ((Header) parsed).getDeliveryCount());
+        }
+        finally
+        {
+            buf.dispose();
+        }
+    }
+
+    public void testHeaderSectionWithSymbolicDescriptorRecognised() throws Exception
+    {
+        byte[] symbol = "amqp:header:list".getBytes(StandardCharsets.US_ASCII);
+        byte[] encoded = new byte[3 + symbol.length + 1];
+        encoded[1] = (byte) 0xa3;
+        encoded[2] = (byte) symbol.length;
+        System.arraycopy(symbol, 0, encoded, 3, symbol.length);
+        // an empty list
+        encoded[encoded.length - 1] = 0x45;
+
+        QpidByteBuffer buf = QpidByteBuffer.wrap(encoded);
+        try
+        {
+            assertTrue("Header section not recognised", ConsumerTarget_1_0.isHeaderSection(buf));
+            assertTrue("Header expected", new ValueHandler(_registry).parse(buf) instanceof Header);
+        }
+        finally
+        {
+            buf.dispose();
+        }
+    }
+
+    public void testTruncatedHeaderDescriptorNotRecognised() throws Exception
+    {
+        QpidByteBuffer buf = QpidByteBuffer.wrap(new byte[] { 0x00, 0x53 });
+        try
+        {
+            assertFalse("Truncated descriptor taken for a header", ConsumerTarget_1_0.isHeaderSection(buf));
+        }
+        finally
+        {
+            buf.dispose();
+        }
+    }
+}
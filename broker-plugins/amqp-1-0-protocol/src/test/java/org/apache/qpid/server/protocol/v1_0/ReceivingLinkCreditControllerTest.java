@@ -0,0 +1,91 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.protocol.v1_0;
+
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class ReceivingLinkCreditControllerTest extends QpidTestCase
+{
+    private static final int MAXIMUM_CREDIT = 100;
+    private static final long TARGET_COMMIT_LATENCY = 1000l;
+
+    private ReceivingLinkCreditController _controller;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _controller = new ReceivingLinkCreditController(MAXIMUM_CREDIT, TARGET_COMMIT_LATENCY);
+    }
+
+    public void testCapacityFactor()
+    {
+        assertEquals(1d, ReceivingLinkCreditController.getCapacityFactor(1000, 0, 0));
+        assertEquals(1d, ReceivingLinkCreditController.getCapacityFactor(800, 1000, 800));
+        assertEquals(0.5d, ReceivingLinkCreditController.getCapacityFactor(900, 1000, 800));
+        assertEquals(0d, ReceivingLinkCreditController.getCapacityFactor(1000, 1000, 800));
+        assertEquals("Resume size should be capped at the flow control size",
+                     0d, ReceivingLinkCreditController.getCapacityFactor(1000, 1000, 2000));
+    }
+
+    public void testCreditWindowReducedByQueueCapacity()
+    {
+        assertEquals(MAXIMUM_CREDIT, _controller.updateCreditWindow(1d, false));
+        assertEquals(25, _controller.updateCreditWindow(0.25d, false));
+        assertEquals("Credit window should not fall below one", 1, _controller.updateCreditWindow(0d, false));
+    }
+
+    public void testCreditWindowReducedByCommitLatency()
+    {
+        _controller.recordCommitLatency(TARGET_COMMIT_LATENCY);
+        assertEquals(MAXIMUM_CREDIT, _controller.updateCreditWindow(1d, false));
+
+        _controller = new ReceivingLinkCreditController(MAXIMUM_CREDIT, TARGET_COMMIT_LATENCY);
+        _controller.recordCommitLatency(4 * TARGET_COMMIT_LATENCY);
+        assertEquals(25, _controller.updateCreditWindow(1d, false));
+        assertEquals("The lower of the queue and commit latency factors should apply",
+                     10, _controller.updateCreditWindow(0.1d, false));
+
+        _controller.recordCommitLatency(0l);
+        assertEquals("Average commit latency should decay smoothly",
+                     4 * TARGET_COMMIT_LATENCY - (4 * TARGET_COMMIT_LATENCY) / 8,
+                     _controller.getAverageCommitLatencyNanos());
+    }
+
+    public void testBlockedLinkHasNoCredit()
+    {
+        assertEquals(0, _controller.updateCreditWindow(1d, true));
+        assertEquals(0, _controller.updateCreditWindow(1d, true));
+        assertEquals(1, _controller.getBlockedCount());
+
+        assertEquals(MAXIMUM_CREDIT, _controller.updateCreditWindow(1d, false));
+    }
+
+    public void testThrottledTransfersCounted()
+    {
+        _controller.recordTransfer();
+        assertEquals(0, _controller.getThrottledTransfers());
+
+        _controller.updateCreditWindow(0.5d, false);
+        _controller.recordTransfer();
+        assertEquals(1, _controller.getThrottledTransfers());
+    }
+}
@@ -126,6 +126,12 @@ public class MessageConverter_1_0_to_v0_8 implements MessageConverter<Message_1_
             {
                 return false;
             }
+
+            @Override
+            public void reallocate()
+            {
+
+            }
         };
     }
 
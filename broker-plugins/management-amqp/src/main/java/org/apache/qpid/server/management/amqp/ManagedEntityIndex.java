@@ -0,0 +1,91 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.management.amqp;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.qpid.server.model.ConfiguredObject;
+
+/**
+ * The entities of a single managed entity type, indexed by name and by identity.
+ *
+ * Entities are iterated in name order so that paged queries see a stable ordering, and iteration does not need to
+ * lock or copy the index.  A page can resume iteration directly after the last name returned by the previous page.
+ * The number of entities is counted separately as the size of the underlying skip list is not known without
+ * traversing it.
+ */
+class ManagedEntityIndex
+{
+    private final ConcurrentNavigableMap<String, ConfiguredObject> _entitiesByName = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, ConfiguredObject> _entitiesById = new ConcurrentHashMap<>();
+    private final AtomicInteger _size = new AtomicInteger();
+
+    void add(final ConfiguredObject entity)
+    {
+        ConfiguredObject previous = _entitiesByName.put(entity.getName(), entity);
+        if (previous == null)
+        {
+            _size.incrementAndGet();
+        }
+        else if (previous != entity)
+        {
+            _entitiesById.remove(previous.getId().toString(), previous);
+        }
+        _entitiesById.put(entity.getId().toString(), entity);
+    }
+
+    void remove(final ConfiguredObject entity)
+    {
+        if (_entitiesByName.remove(entity.getName(), entity))
+        {
+            _size.decrementAndGet();
+        }
+        _entitiesById.remove(entity.getId().toString(), entity);
+    }
+
+    ConfiguredObject getByName(final String name)
+    {
+        return _entitiesByName.get(name);
+    }
+
+    ConfiguredObject getById(final String id)
+    {
+        return _entitiesById.get(id);
+    }
+
+    /**
+     * Returns the entities whose names follow the given name, in name order, or all the entities if the name is null.
+     */
+    Collection<ConfiguredObject> getEntitiesAfter(final String name)
+    {
+        return name == null ? _entitiesByName.values() : _entitiesByName.tailMap(name, false).values();
+    }
+
+    int size()
+    {
+        return _size.get();
+    }
+}
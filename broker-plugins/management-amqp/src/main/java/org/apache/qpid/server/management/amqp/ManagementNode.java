@@ -100,6 +100,13 @@ class ManagementNode implements MessageSource, MessageDestination
     public static final int STATUS_CODE_INTERNAL_ERROR = 500;
     public static final String ATTRIBUTE_NAMES = "attributeNames";
     public static final String RESULTS = "results";
+    public static final String FILTER = "filter";
+    public static final String MORE_RESULTS_HEADER = "moreResults";
+    public static final String RESUME_ENTITY_TYPE_HEADER = "resumeEntityType";
+    public static final String RESUME_NAME_HEADER = "resumeName";
+
+    // The maximum number of rows sent in each of the response messages to a query
+    static final int QUERY_RESPONSE_BATCH_SIZE = 1000;
 
 
     private final VirtualHostImpl _virtualHost;
@@ -112,7 +119,7 @@ class ManagementNode implements MessageSource, MessageDestination
 
     private Map<String,ManagedEntityType> _entityTypes = Collections.synchronizedMap(new LinkedHashMap<String, ManagedEntityType>());
 
-    private Map<ManagedEntityType,Map<String,ConfiguredObject>> _entities = Collections.synchronizedMap(new LinkedHashMap<ManagedEntityType,Map<String,ConfiguredObject>>());
+    private Map<ManagedEntityType,ManagedEntityIndex> _entities = Collections.synchronizedMap(new LinkedHashMap<ManagedEntityType,ManagedEntityIndex>());
 
 
     public ManagementNode(final SystemNodeCreator.SystemNodeRegistry registry,
@@ -236,7 +243,7 @@ class ManagementNode implements MessageSource, MessageDestination
                                                               clazz).toArray(new String[0])),
                                                       opsList.toArray(new String[opsList.size()]));
             _entityTypes.put(clazz.getName(),managedEntityType);
-            _entities.put(managedEntityType, Collections.synchronizedMap(new LinkedHashMap<String, ConfiguredObject>()));
+            _entities.put(managedEntityType, new ManagedEntityIndex());
 
             if(ConfiguredObject.class.isAssignableFrom(clazz))
             {
@@ -355,8 +362,13 @@ class ManagementNode implements MessageSource, MessageDestination
         }
 
 
-        ManagementNodeConsumer consumer = _consumers.get(message.getMessageHeader().getReplyTo());
-        response.setInitialRoutingAddress(message.getMessageHeader().getReplyTo());
+        sendResponse(message, response);
+    }
+
+    private void sendResponse(final InternalMessage requestMessage, final InternalMessage response)
+    {
+        ManagementNodeConsumer consumer = _consumers.get(requestMessage.getMessageHeader().getReplyTo());
+        response.setInitialRoutingAddress(requestMessage.getMessageHeader().getReplyTo());
         if(consumer != null)
         {
             // TODO - check same owner
@@ -365,7 +377,7 @@ class ManagementNode implements MessageSource, MessageDestination
         else
         {
             _virtualHost.getDefaultDestination().send(response,
-                                                      message.getMessageHeader().getReplyTo(), InstanceProperties.EMPTY,
+                                                      requestMessage.getMessageHeader().getReplyTo(), InstanceProperties.EMPTY,
                                                       new AutoCommitTransaction(_virtualHost.getMessageStore()),
                                                       null);
         }
@@ -394,7 +406,7 @@ class ManagementNode implements MessageSource, MessageDestination
                             ConfiguredObject child = _managedObject.createChild(clazz, (Map) messageBody);
                             if(child == null)
                             {
-                                child = _entities.get(entityType).get(message.getMessageHeader().getHeader(NAME_ATTRIBUTE));
+                                child = _entities.get(entityType).getByName((String) message.getMessageHeader().getHeader(NAME_ATTRIBUTE));
                             }
                             response = performReadOperation(message, child);
                         }
@@ -572,27 +584,15 @@ class ManagementNode implements MessageSource, MessageDestination
     private ConfiguredObject findSubject(final String name, final String id, final ManagedEntityType entityType)
     {
 
-        Map<String, ConfiguredObject> objects = _entities.get(entityType);
+        ManagedEntityIndex objects = _entities.get(entityType);
         if(name != null)
         {
-            ConfiguredObject subject = objects.get(name);
-            if(subject != null)
-            {
-                return subject;
-            }
+            return objects.getByName(name);
         }
         else
         {
-            final Collection<ConfiguredObject> values = new ArrayList<ConfiguredObject>(objects.values());
-            for(ConfiguredObject o : values)
-            {
-                if(o.getId().toString().equals(id))
-                {
-                    return o;
-                }
-            }
+            return objects.getById(id);
         }
-        return null;
     }
 
     private InternalMessage createFailureResponse(final InternalMessage requestMessage,
@@ -642,7 +642,7 @@ class ManagementNode implements MessageSource, MessageDestination
         }
         else if(QUERY.equals(operation))
         {
-            responseMessage = performQuery(requestHeader, msg.getMessageBody(), responseHeader);
+            responseMessage = performQuery(msg, msg.getMessageBody(), responseHeader);
         }
         else
         {
@@ -770,14 +770,28 @@ class ManagementNode implements MessageSource, MessageDestination
         return responseMessage;
     }
 
-    private InternalMessage performQuery(final InternalMessageHeader requestHeader,
+    /**
+     * Performs a query, returning the final response message.  Rows are filtered on the server according to the
+     * optional filter map in the request body, which selects entities whose attributes have the given string values.
+     * Entities selected by name or identity are looked up in the index rather than found by iteration.  Results
+     * larger than {@link #QUERY_RESPONSE_BATCH_SIZE} are streamed to the requester in several response messages, all
+     * but the last of which have the {@link #MORE_RESULTS_HEADER} set.
+     *
+     * Each response carries the entity type and name of its last row in the {@link #RESUME_ENTITY_TYPE_HEADER} and
+     * {@link #RESUME_NAME_HEADER}.  A request carrying these headers resumes directly after that row, with any offset
+     * counted from there, rather than skipping the offset rows one at a time.
+     */
+    private InternalMessage performQuery(final InternalMessage requestMessage,
                                          final Object messageBody, final MutableMessageHeader responseHeader)
     {
-        final InternalMessage responseMessage;
+        final InternalMessageHeader requestHeader = requestMessage.getMessageHeader();
         List<String> restriction;
         List<String> attributes;
+        Map<String, Object> filter;
         int offset;
         int count;
+        String resumeType;
+        String resumeName;
 
         if(requestHeader.containsHeader(ENTITY_TYPE_HEADER))
         {
@@ -813,10 +827,18 @@ class ManagementNode implements MessageSource, MessageDestination
 
         }
 
+        if(messageBody instanceof Map && ((Map)messageBody).get(FILTER) instanceof Map)
+        {
+            filter = (Map<String, Object>) ((Map)messageBody).get(FILTER);
+        }
+        else
+        {
+            filter = Collections.emptyMap();
+        }
+
         if(requestHeader.containsHeader(OFFSET_HEADER))
         {
             offset = ((Number) requestHeader.getHeader(OFFSET_HEADER)).intValue();
-            responseHeader.setHeader(OFFSET_HEADER,offset);
         }
         else
         {
@@ -832,65 +854,167 @@ class ManagementNode implements MessageSource, MessageDestination
             count = Integer.MAX_VALUE;
         }
 
+        if(requestHeader.getHeader(RESUME_ENTITY_TYPE_HEADER) != null
+           && requestHeader.getHeader(RESUME_NAME_HEADER) != null
+           && restriction.contains(String.valueOf(requestHeader.getHeader(RESUME_ENTITY_TYPE_HEADER))))
+        {
+            resumeType = String.valueOf(requestHeader.getHeader(RESUME_ENTITY_TYPE_HEADER));
+            resumeName = String.valueOf(requestHeader.getHeader(RESUME_NAME_HEADER));
+            restriction = restriction.subList(restriction.indexOf(resumeType), restriction.size());
+        }
+        else
+        {
+            resumeType = null;
+            resumeName = null;
+        }
 
         responseHeader.setHeader(STATUS_CODE_HEADER, STATUS_CODE_OK);
         List<List<? extends Object>> responseList = new ArrayList<List<? extends Object>>();
         int rowNo = 0;
+        int rowsReturned = 0;
+        int batchOffset = offset;
+        String lastType = null;
+        String lastName = null;
         for(String type : restriction)
         {
             ManagedEntityType entityType = _entityTypes.get(type);
-            if(entityType != null)
+            ManagedEntityIndex entityIndex = entityType == null ? null : _entities.get(entityType);
+            String afterName = type.equals(resumeType) ? resumeName : null;
+            if(entityIndex != null)
             {
-                Map<String, ConfiguredObject> entityMap = _entities.get(entityType);
-                if(entityMap  != null)
+                if(filter.isEmpty() && afterName == null && rowNo + entityIndex.size() <= offset)
                 {
-                    List<ConfiguredObject> entities;
-                    synchronized(entityMap)
+                    // the whole type precedes the requested page
+                    rowNo += entityIndex.size();
+                    continue;
+                }
+
+                for(ConfiguredObject entity : getQueryCandidates(entityIndex, filter, afterName))
+                {
+                    if(rowsReturned == count)
                     {
-                        entities = new ArrayList<ConfiguredObject>(entityMap.values());
+                        break;
                     }
-                    for(ConfiguredObject entity : entities)
+                    if(matchesFilter(entity, entityType, filter) && rowNo++ >= offset)
                     {
-                        if(rowNo++ >= offset)
+                        Object[] attrValue = new Object[attributes.size()];
+                        int col = 0;
+                        for(String attr : attributes)
                         {
-                            Object[] attrValue = new Object[attributes.size()];
-                            int col = 0;
-                            for(String attr : attributes)
+                            Object value;
+                            if(TYPE_ATTRIBUTE.equals(attr))
                             {
-                                Object value;
-                                if(TYPE_ATTRIBUTE.equals(attr))
-                                {
-                                    value = entityType.getName();
-                                }
-                                else
-                                {
-                                    value = fixValue(entity.getAttribute(attr));
-                                }
-                                attrValue[col++] = value;
+                                value = entityType.getName();
                             }
-                            responseList.add(Arrays.asList(attrValue));
+                            else
+                            {
+                                value = fixValue(entity.getAttribute(attr));
+                            }
+                            attrValue[col++] = value;
                         }
-                        if(responseList.size()==count+1)
+                        responseList.add(Arrays.asList(attrValue));
+                        rowsReturned++;
+                        lastType = type;
+                        lastName = entity.getName();
+
+                        if(responseList.size() == QUERY_RESPONSE_BATCH_SIZE && rowsReturned != count)
                         {
-                            break;
+                            sendResponse(requestMessage,
+                                         createQueryResponse(responseHeader, attributes, responseList, batchOffset,
+                                                             lastType, lastName, true));
+                            batchOffset += responseList.size();
+                            responseList = new ArrayList<List<? extends Object>>();
                         }
                     }
                 }
             }
 
-            if(responseList.size()==count)
+            if(rowsReturned == count)
             {
                 break;
             }
         }
-        responseHeader.setHeader(COUNT_HEADER, responseList.size());
+        return createQueryResponse(responseHeader, attributes, responseList, batchOffset, lastType, lastName, false);
+    }
+
+    private InternalMessage createQueryResponse(final MutableMessageHeader responseHeader,
+                                                final List<String> attributes,
+                                                final List<List<? extends Object>> responseList,
+                                                final int offset,
+                                                final String lastType,
+                                                final String lastName,
+                                                final boolean moreResults)
+    {
+        final MutableMessageHeader header = new MutableMessageHeader();
+        header.setCorrelationId(responseHeader.getCorrelationId());
+        header.setMessageId(UUID.randomUUID().toString());
+        for(String headerName : responseHeader.getHeaderNames())
+        {
+            header.setHeader(headerName, responseHeader.getHeader(headerName));
+        }
+        header.setHeader(OFFSET_HEADER, offset);
+        header.setHeader(COUNT_HEADER, responseList.size());
+        header.setHeader(MORE_RESULTS_HEADER, moreResults);
+        if(lastType != null)
+        {
+            header.setHeader(RESUME_ENTITY_TYPE_HEADER, lastType);
+            header.setHeader(RESUME_NAME_HEADER, lastName);
+        }
+
         Map<String,List> responseMap = new HashMap<String, List>();
         responseMap.put(ATTRIBUTE_NAMES, attributes);
         responseMap.put(RESULTS, responseList);
-        responseMessage = InternalMessage.createMapMessage(_virtualHost.getMessageStore(),
-                                                           responseHeader,
-                                                           responseMap);
-        return responseMessage;
+        return InternalMessage.createMapMessage(_virtualHost.getMessageStore(), header, responseMap);
+    }
+
+    private Collection<ConfiguredObject> getQueryCandidates(final ManagedEntityIndex entityIndex,
+                                                            final Map<String, Object> filter,
+                                                            final String afterName)
+    {
+        final ConfiguredObject entity;
+        if(filter.get(NAME_ATTRIBUTE) != null)
+        {
+            entity = entityIndex.getByName(String.valueOf(filter.get(NAME_ATTRIBUTE)));
+        }
+        else if(filter.get(IDENTITY_ATTRIBUTE) != null)
+        {
+            entity = entityIndex.getById(String.valueOf(filter.get(IDENTITY_ATTRIBUTE)));
+        }
+        else
+        {
+            return entityIndex.getEntitiesAfter(afterName);
+        }
+        return entity == null || (afterName != null && entity.getName().compareTo(afterName) <= 0)
+                ? Collections.<ConfiguredObject>emptyList()
+                : Collections.singletonList(entity);
+    }
+
+    private boolean matchesFilter(final ConfiguredObject entity,
+                                  final ManagedEntityType entityType,
+                                  final Map<String, Object> filter)
+    {
+        for(Map.Entry<String, Object> entry : filter.entrySet())
+        {
+            final String attr = entry.getKey();
+            final Object value;
+            if(TYPE_ATTRIBUTE.equals(attr))
+            {
+                value = entityType.getName();
+            }
+            else if(IDENTITY_ATTRIBUTE.equals(attr))
+            {
+                value = entity.getId();
+            }
+            else
+            {
+                value = entity.getAttribute(attr);
+            }
+            if(!String.valueOf(entry.getValue()).equals(String.valueOf(value)))
+            {
+                return false;
+            }
+        }
+        return true;
     }
 
     private Object fixValue(final Object value)
@@ -1223,7 +1347,7 @@ class ManagementNode implements MessageSource, MessageDestination
             {
                 populateTypeMetaData(object.getClass(), false);
                 final Class managementClass = getManagementClass(_managedObject.getClass());
-                _entities.get(_entityTypes.get(managementClass.getName())).put(_managedObject.getName(), _managedObject);
+                _entities.get(_entityTypes.get(managementClass.getName())).add(_managedObject);
 
                 Collection<Class<? extends ConfiguredObject>> childClasses = object.getModel().getChildTypes(managementClass);
                 for(Class<? extends ConfiguredObject> childClass : childClasses)
@@ -1232,7 +1356,7 @@ class ManagementNode implements MessageSource, MessageDestination
                     {
                         for(ConfiguredObject child : _managedObject.getChildren(childClass))
                         {
-                            _entities.get(_entityTypes.get(getManagementClass(childClass).getName())).put(child.getName(), child);
+                            _entities.get(_entityTypes.get(getManagementClass(childClass).getName())).add(child);
                         }
                     }
                 }
@@ -1247,7 +1371,7 @@ class ManagementNode implements MessageSource, MessageDestination
             final ManagedEntityType entityType = _entityTypes.get(managementClass.getName());
             if(entityType != null)
             {
-                _entities.get(entityType).put(child.getName(), child);
+                _entities.get(entityType).add(child);
             }
         }
 
@@ -1257,7 +1381,7 @@ class ManagementNode implements MessageSource, MessageDestination
             final ManagedEntityType entityType = _entityTypes.get(getManagementClass(child.getClass()).getName());
             if(entityType != null)
             {
-                _entities.get(entityType).remove(child.getName());
+                _entities.get(entityType).remove(child);
             }
         }
 
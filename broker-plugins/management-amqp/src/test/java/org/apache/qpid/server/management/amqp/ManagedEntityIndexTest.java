@@ -0,0 +1,149 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.management.amqp;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.qpid.server.model.ConfiguredObject;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class ManagedEntityIndexTest extends QpidTestCase
+{
+    private ManagedEntityIndex _index;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _index = new ManagedEntityIndex();
+    }
+
+    public void testSizeCountsEachNameOnce()
+    {
+        ConfiguredObject a = createEntity("a");
+        ConfiguredObject b = createEntity("b");
+        _index.add(a);
+        _index.add(b);
+        _index.add(a);
+        assertEquals("Unexpected size", 2, _index.size());
+
+        ConfiguredObject replacement = createEntity("a");
+        _index.add(replacement);
+        assertEquals("Unexpected size after replacing an entity", 2, _index.size());
+        assertSame("Unexpected entity by name", replacement, _index.getByName("a"));
+        assertNull("Replaced entity should not be found by identity", _index.getById(a.getId().toString()));
+        assertSame("Unexpected entity by identity", replacement, _index.getById(replacement.getId().toString()));
+
+        _index.remove(a);
+        assertEquals("Removing a replaced entity should not change the size", 2, _index.size());
+        assertSame("Removing a replaced entity should not remove its replacement", replacement, _index.getByName("a"));
+
+        _index.remove(replacement);
+        _index.remove(replacement);
+        assertEquals("Unexpected size after removal", 1, _index.size());
+        assertNull("Removed entity should not be found by name", _index.getByName("a"));
+        assertSame("Unexpected entity by name", b, _index.getByName("b"));
+    }
+
+    public void testEntitiesAfterName()
+    {
+        for (String name : Arrays.asList("c", "a", "d", "b"))
+        {
+            _index.add(createEntity(name));
+        }
+
+        assertEquals("Unexpected entities", Arrays.asList("a", "b", "c", "d"), getNames(_index.getEntitiesAfter(null)));
+        assertEquals("Unexpected entities after an indexed name",
+                     Arrays.asList("c", "d"), getNames(_index.getEntitiesAfter("b")));
+        assertEquals("Unexpected entities after a name not in the index",
+                     Arrays.asList("c", "d"), getNames(_index.getEntitiesAfter("bb")));
+        assertEquals("Unexpected entities after the last name",
+                     Collections.<String>emptyList(), getNames(_index.getEntitiesAfter("d")));
+    }
+
+    public void testPagesResumedAfterLastNameSeeEachEntityOnce()
+    {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 25; i++)
+        {
+            String name = String.format("entity-%02d", i);
+            expected.add(name);
+            _index.add(createEntity(name));
+        }
+
+        List<String> seen = new ArrayList<>();
+        String lastName = null;
+        int pages = 0;
+        do
+        {
+            List<String> page = new ArrayList<>();
+            for (String name : getNames(_index.getEntitiesAfter(lastName)))
+            {
+                if (page.size() == 10)
+                {
+                    break;
+                }
+                page.add(name);
+            }
+            if (page.isEmpty())
+            {
+                break;
+            }
+            pages++;
+            seen.addAll(page);
+            lastName = page.get(page.size() - 1);
+
+            // entities removed from the pages already returned do not shift the following pages
+            _index.remove(_index.getByName(page.get(0)));
+        }
+        while (true);
+
+        assertEquals("Unexpected number of pages", 3, pages);
+        assertEquals("Unexpected entities", expected, seen);
+        assertEquals("Unexpected size", 22, _index.size());
+    }
+
+    private static List<String> getNames(final Collection<ConfiguredObject> entities)
+    {
+        List<String> names = new ArrayList<>();
+        for (ConfiguredObject entity : entities)
+        {
+            names.add(entity.getName());
+        }
+        return names;
+    }
+
+    private static ConfiguredObject createEntity(final String name)
+    {
+        ConfiguredObject entity = mock(ConfiguredObject.class);
+        when(entity.getName()).thenReturn(name);
+        when(entity.getId()).thenReturn(UUID.randomUUID());
+        return entity;
+    }
+}
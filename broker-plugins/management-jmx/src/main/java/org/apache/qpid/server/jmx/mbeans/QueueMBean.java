@@ -63,6 +63,7 @@ import org.apache.qpid.server.model.QueueNotificationListener;
 import org.apache.qpid.server.model.VirtualHost;
 import org.apache.qpid.server.queue.NotificationCheck;
 import org.apache.qpid.server.queue.QueueEntry;
+import org.apache.qpid.server.queue.QueueEntryPage;
 import org.apache.qpid.server.queue.QueueEntryVisitor;
 import org.apache.qpid.server.store.TransactionLogResource;
 import org.apache.qpid.server.util.ServerScopedRuntimeException;
@@ -77,6 +78,7 @@ public class QueueMBean extends AMQManagedObject implements ManagedQueue, QueueN
     private static final OpenType[] MSG_ATTRIBUTE_TYPES;
     private static final CompositeType MSG_DATA_TYPE;
     private static final TabularType MSG_LIST_DATA_TYPE;
+    private static final CompositeType MSG_PAGE_TYPE;
     private static final CompositeType MSG_CONTENT_TYPE;
     private static final String[] VIEW_MSG_COMPOSITE_ITEM_NAMES_ARRAY = VIEW_MSG_CONTENT_COMPOSITE_ITEM_NAMES_DESC.toArray(
             new String[VIEW_MSG_CONTENT_COMPOSITE_ITEM_NAMES_DESC.size()]);
@@ -102,6 +104,11 @@ public class QueueMBean extends AMQManagedObject implements ManagedQueue, QueueN
             MSG_LIST_DATA_TYPE = new TabularType("Messages", "List of messages", MSG_DATA_TYPE,
                                                 VIEW_MSGS_TABULAR_UNIQUE_INDEX.toArray(new String[VIEW_MSGS_TABULAR_UNIQUE_INDEX.size()]));
 
+            MSG_PAGE_TYPE = new CompositeType("Message Page", "Page of AMQ Messages",
+                    VIEW_MSG_PAGE_COMPOSITE_ITEM_NAMES_DESC.toArray(new String[VIEW_MSG_PAGE_COMPOSITE_ITEM_NAMES_DESC.size()]),
+                    VIEW_MSG_PAGE_COMPOSITE_ITEM_NAMES_DESC.toArray(new String[VIEW_MSG_PAGE_COMPOSITE_ITEM_NAMES_DESC.size()]),
+                    new OpenType[] { SimpleType.STRING, MSG_LIST_DATA_TYPE });
+
             OpenType[] msgContentAttrs = new OpenType[] {
                     SimpleType.LONG, // For message id
                     SimpleType.STRING, // For MimeType
@@ -345,6 +352,36 @@ public class QueueMBean extends AMQManagedObject implements ManagedQueue, QueueN
 
         List<QueueEntry> messages = getMessages(startPosition, endPosition);
 
+        return createMessageTable(messages, startPosition);
+
+    }
+
+    public CompositeData viewMessagePage(String cursor, int count) throws IOException, JMException
+    {
+        if (count < 1)
+        {
+            throw new OperationsException("Count = " + count + "\n\"Count\" should be greater than 0");
+        }
+
+        final QueueEntryPage page;
+        try
+        {
+            page = _queue.browse(cursor, count);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new OperationsException(e.getMessage());
+        }
+
+        return new CompositeDataSupport(MSG_PAGE_TYPE,
+                                        VIEW_MSG_PAGE_COMPOSITE_ITEM_NAMES_DESC.toArray(new String[VIEW_MSG_PAGE_COMPOSITE_ITEM_NAMES_DESC.size()]),
+                                        new Object[] { page.getCursor(),
+                                                       createMessageTable(page.getEntries(), page.getFirstPosition()) });
+    }
+
+    private TabularData createMessageTable(final List<QueueEntry> messages, final long startPosition)
+            throws OpenDataException
+    {
         TabularDataSupport messageTable = new TabularDataSupport(MSG_LIST_DATA_TYPE);
 
 
@@ -45,6 +45,6 @@ public class MemoryVirtualHost extends AbstractVirtualHost<MemoryVirtualHost>
     @Override
     protected MessageStore createMessageStore()
     {
-        return new MemoryMessageStore();
+        return new MemoryMessageStore(createMessageContentSpillStore());
     }
 }
@@ -31,7 +31,10 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.net.ssl.SSLContext;
@@ -72,6 +75,11 @@ class WebSocketProvider implements AcceptingTransport
     private static final Logger LOGGER = LoggerFactory.getLogger(WebSocketProvider.class);
     public static final String AMQP_WEBSOCKET_SUBPROTOCOL = "AMQPWSB10";
     public static final String X509_CERTIFICATES = "javax.servlet.request.X509Certificate";
+
+    // Pending output is gathered into a pooled array as the websocket API only sends byte arrays, which it copies.
+    // Only as many arrays as there are connections writing at the same time are needed, so few are kept.
+    private static final int MAX_POOLED_OUTPUT_BUFFERS = 16;
+
     private final Transport _transport;
     private final SSLContext _sslContext;
     private final AmqpPort<?> _port;
@@ -80,6 +88,8 @@ class WebSocketProvider implements AcceptingTransport
     private final MultiVersionProtocolEngineFactory _factory;
     private Server _server;
     private final long _outboundMessageBufferLimit;
+    private final int _networkBufferSize;
+    private final BlockingQueue<byte[]> _outputBufferPool = new ArrayBlockingQueue<>(MAX_POOLED_OUTPUT_BUFFERS);
 
     WebSocketProvider(final Transport transport,
                       final SSLContext sslContext,
@@ -95,6 +105,7 @@ class WebSocketProvider implements AcceptingTransport
 
         _outboundMessageBufferLimit = (long) _port.getContextValue(Long.class,
                                                                    AmqpPort.PORT_AMQP_OUTBOUND_MESSAGE_BUFFER_SIZE);
+        _networkBufferSize = _port.getNetworkBufferSize();
         _factory = new MultiVersionProtocolEngineFactory(
                         _port.getParent(Broker.class),
                         _supported,
@@ -239,35 +250,11 @@ class WebSocketProvider implements AcceptingTransport
         @Override
         public void onMessage(final byte[] data, final int offset, final int length)
         {
-            synchronized (_connectionWrapper)
-            {
-
-                _protocolEngine.clearWork();
-                try
-                {
-                    _protocolEngine.setIOThread(Thread.currentThread());
-                    _protocolEngine.setMessageAssignmentSuspended(true, true);
-                    Iterator<Runnable> iter = _protocolEngine.processPendingIterator();
-                    while(iter.hasNext())
-                    {
-                        iter.next().run();
-                    }
-
-                    QpidByteBuffer buffer = QpidByteBuffer.allocateDirect(length);
-                    buffer.put(data, offset, length);
-                    buffer.flip();
-                    _protocolEngine.received(buffer);
-                    buffer.dispose();
-
-                    _connectionWrapper.doWrite();
-
-                    _protocolEngine.setMessageAssignmentSuspended(false, true);
-                }
-                finally
-                {
-                    _protocolEngine.setIOThread(null);
-                }
-            }
+            // the data is only valid for the duration of the call, so is copied into a pooled buffer
+            QpidByteBuffer buffer = QpidByteBuffer.allocateDirect(length);
+            buffer.put(data, offset, length);
+            buffer.flip();
+            _connectionWrapper.received(buffer);
         }
 
         @Override
@@ -278,8 +265,13 @@ class WebSocketProvider implements AcceptingTransport
 
             connection.setMaxBinaryMessageSize(0);
 
-            _connectionWrapper =
-                    new ConnectionWrapper(connection, _localAddress, _remoteAddress, _protocolEngine);
+            _connectionWrapper = new ConnectionWrapper(connection,
+                                                       _localAddress,
+                                                       _remoteAddress,
+                                                       _protocolEngine,
+                                                       _outboundMessageBufferLimit,
+                                                       _networkBufferSize,
+                                                       _outputBufferPool);
             _connectionWrapper.setPeerCertificate(_userCertificate);
             _protocolEngine.setNetworkConnection(_connectionWrapper);
             _protocolEngine.setWorkListener(new Action<ProtocolEngine>()
@@ -292,7 +284,7 @@ class WebSocketProvider implements AcceptingTransport
                         @Override
                         public void run()
                         {
-                            _connectionWrapper.doWork();
+                            _connectionWrapper.processWork();
                         }
                     });
                 }
@@ -304,31 +296,50 @@ class WebSocketProvider implements AcceptingTransport
         @Override
         public void onClose(final int closeCode, final String message)
         {
-            _protocolEngine.closed();
+            _connectionWrapper.closed();
         }
     }
 
-    private class ConnectionWrapper implements ServerNetworkConnection, ByteBufferSender
+    static class ConnectionWrapper implements ServerNetworkConnection, ByteBufferSender
     {
         private final WebSocket.Connection _connection;
         private final SocketAddress _localAddress;
         private final SocketAddress _remoteAddress;
+        private final long _outboundMessageBufferLimit;
+        private final int _networkBufferSize;
+        private final BlockingQueue<byte[]> _outputBufferPool;
         private final ConcurrentLinkedQueue<QpidByteBuffer> _buffers = new ConcurrentLinkedQueue<>();
         private final MultiVersionProtocolEngine _protocolEngine;
         private final AtomicLong _usedOutboundMessageSpace = new AtomicLong();
+        private final ConcurrentLinkedQueue<QpidByteBuffer> _inboundMessages = new ConcurrentLinkedQueue<>();
+        private final AtomicLong _inboundBytes = new AtomicLong();
+        private final AtomicBoolean _workPending = new AtomicBoolean();
+        private final AtomicBoolean _working = new AtomicBoolean();
+        private final List<QpidByteBuffer> _toBeWritten = new ArrayList<>();
+        private volatile boolean _closed;
+
+        /** Unprocessed data at the end of the last inbound message, being an incomplete AMQP frame. */
+        private QpidByteBuffer _incompleteFrame;
 
         private Certificate _certificate;
         private long _maxWriteIdleMillis;
         private long _maxReadIdleMillis;
 
-        public ConnectionWrapper(final WebSocket.Connection connection,
-                                 final SocketAddress localAddress,
-                                 final SocketAddress remoteAddress, final MultiVersionProtocolEngine protocolEngine)
+        ConnectionWrapper(final WebSocket.Connection connection,
+                          final SocketAddress localAddress,
+                          final SocketAddress remoteAddress,
+                          final MultiVersionProtocolEngine protocolEngine,
+                          final long outboundMessageBufferLimit,
+                          final int networkBufferSize,
+                          final BlockingQueue<byte[]> outputBufferPool)
         {
             _connection = connection;
             _localAddress = localAddress;
             _remoteAddress = remoteAddress;
             _protocolEngine = protocolEngine;
+            _outboundMessageBufferLimit = outboundMessageBufferLimit;
+            _networkBufferSize = networkBufferSize;
+            _outputBufferPool = outputBufferPool;
         }
 
         @Override
@@ -427,43 +438,206 @@ class WebSocketProvider implements AcceptingTransport
             _certificate = certificate;
         }
 
-        public synchronized void doWrite()
+        /**
+         * Queues an inbound message for processing.  Rather than holding up the calling thread while another thread
+         * works on the connection, the message is left for that thread to process unless the amount of inbound data
+         * waiting to be processed exceeds the network buffer size.
+         */
+        void received(final QpidByteBuffer buffer)
+        {
+            if (_closed)
+            {
+                buffer.dispose();
+                return;
+            }
+            _inboundBytes.addAndGet(buffer.remaining());
+            _inboundMessages.add(buffer);
+            processWork();
+            awaitInboundCapacity();
+        }
+
+        void closed()
+        {
+            _closed = true;
+            try
+            {
+                _protocolEngine.closed();
+            }
+            finally
+            {
+                processWork();
+            }
+        }
+
+        /**
+         * Performs the work on the connection on the calling thread, unless another thread is already doing so, in
+         * which case that thread will perform it once it has finished its current work.
+         */
+        void processWork()
+        {
+            _workPending.set(true);
+            while (_workPending.get() && _working.compareAndSet(false, true))
+            {
+                try
+                {
+                    while (_workPending.getAndSet(false))
+                    {
+                        if (_closed)
+                        {
+                            releaseBuffers();
+                        }
+                        else
+                        {
+                            doWork();
+                        }
+                    }
+                }
+                finally
+                {
+                    _working.set(false);
+                }
+            }
+        }
+
+        private void awaitInboundCapacity()
+        {
+            if (_inboundBytes.get() > _networkBufferSize)
+            {
+                synchronized (_inboundMessages)
+                {
+                    while (_inboundBytes.get() > _networkBufferSize && !_closed)
+                    {
+                        try
+                        {
+                            _inboundMessages.wait();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        private void processInbound()
+        {
+            QpidByteBuffer message;
+            while ((message = _inboundMessages.poll()) != null)
+            {
+                final int length = message.remaining();
+                final long inboundBytes = _inboundBytes.addAndGet(-length);
+                if (inboundBytes <= _networkBufferSize && inboundBytes + length > _networkBufferSize)
+                {
+                    synchronized (_inboundMessages)
+                    {
+                        _inboundMessages.notifyAll();
+                    }
+                }
+
+                QpidByteBuffer buffer;
+                if (_incompleteFrame == null)
+                {
+                    buffer = message;
+                }
+                else
+                {
+                    buffer = QpidByteBuffer.allocateDirect(_incompleteFrame.remaining() + length);
+                    buffer.put(_incompleteFrame);
+                    buffer.put(message);
+                    buffer.flip();
+                    _incompleteFrame.dispose();
+                    _incompleteFrame = null;
+                    message.dispose();
+                }
+
+                _protocolEngine.received(buffer);
+
+                if (buffer.hasRemaining())
+                {
+                    _incompleteFrame = buffer.slice();
+                }
+                buffer.dispose();
+            }
+        }
+
+        private void doWrite()
         {
             int size = 0;
-            List<QpidByteBuffer> toBeWritten = new ArrayList<>(_buffers.size());
             QpidByteBuffer buf;
             while((buf = _buffers.poll())!= null)
             {
                 size += buf.remaining();
-                toBeWritten.add(buf);
+                _toBeWritten.add(buf);
             }
 
-            byte[] data = new byte[size];
-            int offset = 0;
-
-            for(QpidByteBuffer tmp : toBeWritten)
-            {
-                int remaining = tmp.remaining();
-                tmp.get(data, offset, remaining);
-                tmp.dispose();
-                offset += remaining;
-            }
-            if(size > 0)
+            try
             {
-                try
+                if (size > 0)
                 {
-                    _connection.sendMessage(data, 0, size);
+                    if (_toBeWritten.size() == 1 && _toBeWritten.get(0).hasArray())
+                    {
+                        buf = _toBeWritten.get(0);
+                        _connection.sendMessage(buf.array(), buf.arrayOffset() + buf.position(), size);
+                    }
+                    else
+                    {
+                        byte[] data = getOutputBuffer(size);
+                        try
+                        {
+                            int offset = 0;
+                            for (QpidByteBuffer tmp : _toBeWritten)
+                            {
+                                int remaining = tmp.remaining();
+                                tmp.get(data, offset, remaining);
+                                offset += remaining;
+                            }
+                            _connection.sendMessage(data, 0, size);
+                        }
+                        finally
+                        {
+                            returnOutputBuffer(data);
+                        }
+                    }
                     _usedOutboundMessageSpace.set(0);
                 }
-                catch (IOException e)
+            }
+            catch (IOException e)
+            {
+                LOGGER.info("Exception on write: {}", e.getMessage());
+                close();
+            }
+            finally
+            {
+                for (QpidByteBuffer tmp : _toBeWritten)
                 {
-                    LOGGER.info("Exception on write: {}", e.getMessage());
-                    close();
+                    tmp.dispose();
                 }
+                _toBeWritten.clear();
+            }
+        }
+
+        private byte[] getOutputBuffer(final int size)
+        {
+            if (size > _networkBufferSize)
+            {
+                return new byte[size];
+            }
+            byte[] data = _outputBufferPool.poll();
+            return data == null ? new byte[_networkBufferSize] : data;
+        }
+
+        private void returnOutputBuffer(final byte[] data)
+        {
+            // the websocket API has copied the data by the time sendMessage returns, so the array can be reused
+            if (data.length == _networkBufferSize)
+            {
+                _outputBufferPool.offer(data);
             }
         }
 
-        public synchronized void doWork()
+        private void doWork()
         {
             _protocolEngine.clearWork();
             try
@@ -477,6 +651,8 @@ class WebSocketProvider implements AcceptingTransport
                     iter.next().run();
                 }
 
+                processInbound();
+
                 doWrite();
 
                 _protocolEngine.setMessageAssignmentSuspended(false, true);
@@ -487,5 +663,28 @@ class WebSocketProvider implements AcceptingTransport
             }
 
         }
+
+        private void releaseBuffers()
+        {
+            QpidByteBuffer buf;
+            while ((buf = _inboundMessages.poll()) != null)
+            {
+                buf.dispose();
+            }
+            while ((buf = _buffers.poll()) != null)
+            {
+                buf.dispose();
+            }
+            if (_incompleteFrame != null)
+            {
+                _incompleteFrame.dispose();
+                _incompleteFrame = null;
+            }
+            _inboundBytes.set(0);
+            synchronized (_inboundMessages)
+            {
+                _inboundMessages.notifyAll();
+            }
+        }
     }
 }
@@ -0,0 +1,248 @@
+/*
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.apache.qpid.server.transport.websocket;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.websocket.WebSocket;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.apache.qpid.bytebuffer.QpidByteBuffer;
+import org.apache.qpid.server.transport.MultiVersionProtocolEngine;
+import org.apache.qpid.test.utils.QpidTestCase;
+
+public class WebSocketProviderTest extends QpidTestCase
+{
+    private static final int NETWORK_BUFFER_SIZE = 1024;
+    private static final long OUTBOUND_MESSAGE_BUFFER_LIMIT = 4096;
+    private static final int MESSAGE_COUNT = 200;
+
+    private final ByteArrayOutputStream _inbound = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream _outbound = new ByteArrayOutputStream();
+    private final AtomicInteger _threadsWorking = new AtomicInteger();
+    private final AtomicBoolean _concurrentWork = new AtomicBoolean();
+    private final BlockingQueue<byte[]> _outputBufferPool = new ArrayBlockingQueue<>(4);
+    private volatile CountDownLatch _engineEntered;
+    private volatile CountDownLatch _engineRelease;
+    private MultiVersionProtocolEngine _protocolEngine;
+    private WebSocketProvider.ConnectionWrapper _connectionWrapper;
+
+    @Override
+    public void setUp() throws Exception
+    {
+        super.setUp();
+        _protocolEngine = mock(MultiVersionProtocolEngine.class);
+        when(_protocolEngine.processPendingIterator()).thenReturn(Collections.<Runnable>emptyIterator());
+        doAnswer(new Answer<Void>()
+        {
+            @Override
+            public Void answer(final InvocationOnMock invocation) throws Exception
+            {
+                if (_threadsWorking.incrementAndGet() != 1)
+                {
+                    _concurrentWork.set(true);
+                }
+                try
+                {
+                    CountDownLatch engineEntered = _engineEntered;
+                    if (engineEntered != null)
+                    {
+                        _engineEntered = null;
+                        engineEntered.countDown();
+                        assertTrue("Engine was not released", _engineRelease.await(5, TimeUnit.SECONDS));
+                    }
+                    QpidByteBuffer buffer = (QpidByteBuffer) invocation.getArguments()[0];
+                    byte[] data = new byte[buffer.remaining()];
+                    buffer.get(data);
+                    _inbound.write(data, 0, data.length);
+                    return null;
+                }
+                finally
+                {
+                    _threadsWorking.decrementAndGet();
+                }
+            }
+        }).when(_protocolEngine).received(any(QpidByteBuffer.class));
+
+        WebSocket.Connection connection = mock(WebSocket.Connection.class);
+        doAnswer(new Answer<Void>()
+        {
+            @Override
+            public Void answer(final InvocationOnMock invocation)
+            {
+                if (_threadsWorking.incrementAndGet() != 1)
+                {
+                    _concurrentWork.set(true);
+                }
+                Object[] args = invocation.getArguments();
+                _outbound.write((byte[]) args[0], (Integer) args[1], (Integer) args[2]);
+                _threadsWorking.decrementAndGet();
+                return null;
+            }
+        }).when(connection).sendMessage(any(byte[].class), anyInt(), anyInt());
+
+        _connectionWrapper = new WebSocketProvider.ConnectionWrapper(connection,
+                                                                     new InetSocketAddress(5672),
+                                                                     new InetSocketAddress(5673),
+                                                                     _protocolEngine,
+                                                                     OUTBOUND_MESSAGE_BUFFER_LIMIT,
+                                                                     NETWORK_BUFFER_SIZE,
+                                                                     _outputBufferPool);
+    }
+
+    public void testConcurrentInboundAndOutboundWork() throws Exception
+    {
+        final ByteArrayOutputStream expectedInbound = new ByteArrayOutputStream();
+        final ByteArrayOutputStream expectedOutbound = new ByteArrayOutputStream();
+        final byte[][] inboundMessages = new byte[MESSAGE_COUNT][];
+        final byte[][] outboundMessages = new byte[MESSAGE_COUNT][];
+        for (int i = 0; i < MESSAGE_COUNT; i++)
+        {
+            inboundMessages[i] = createMessage(50 + (i * 7) % 300, i);
+            outboundMessages[i] = createMessage(50 + (i * 11) % 300, i + 1);
+            expectedInbound.write(inboundMessages[i], 0, inboundMessages[i].length);
+            expectedOutbound.write(outboundMessages[i], 0, outboundMessages[i].length);
+        }
+
+        Thread reader = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                for (byte[] message : inboundMessages)
+                {
+                    _connectionWrapper.received(QpidByteBuffer.wrap(message));
+                }
+            }
+        });
+        Thread writer = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                for (byte[] message : outboundMessages)
+                {
+                    QpidByteBuffer buffer = QpidByteBuffer.allocateDirect(message.length);
+                    buffer.put(message);
+                    buffer.flip();
+                    _connectionWrapper.send(buffer);
+                    buffer.dispose();
+                    _connectionWrapper.processWork();
+                }
+            }
+        });
+
+        reader.start();
+        writer.start();
+        reader.join(10000);
+        writer.join(10000);
+        assertFalse("Reader did not finish", reader.isAlive());
+        assertFalse("Writer did not finish", writer.isAlive());
+        _connectionWrapper.processWork();
+
+        assertFalse("Connection was worked on by more than one thread at a time", _concurrentWork.get());
+        assertTrue("Inbound data differs from the data received",
+                   Arrays.equals(expectedInbound.toByteArray(), _inbound.toByteArray()));
+        assertTrue("Outbound data differs from the data sent",
+                   Arrays.equals(expectedOutbound.toByteArray(), _outbound.toByteArray()));
+        assertEquals("Output buffer should have been returned to the pool", 1, _outputBufferPool.size());
+    }
+
+    public void testReceiveBlocksWhileInboundDataExceedsNetworkBuffer() throws Exception
+    {
+        final byte[] first = createMessage(10, 1);
+        final byte[] second = createMessage(NETWORK_BUFFER_SIZE + 1, 2);
+        final CountDownLatch engineEntered = new CountDownLatch(1);
+        _engineEntered = engineEntered;
+        _engineRelease = new CountDownLatch(1);
+        final CountDownLatch secondReceived = new CountDownLatch(1);
+
+        Thread working = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                _connectionWrapper.received(QpidByteBuffer.wrap(first));
+            }
+        });
+        working.start();
+        assertTrue("Protocol engine was not entered", engineEntered.await(5, TimeUnit.SECONDS));
+
+        Thread blocked = new Thread(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                _connectionWrapper.received(QpidByteBuffer.wrap(second));
+                secondReceived.countDown();
+            }
+        });
+        blocked.start();
+
+        assertFalse("Receiving thread should wait while the inbound data exceeds the network buffer",
+                    secondReceived.await(200, TimeUnit.MILLISECONDS));
+        assertEquals("Queued message should not have been processed", 0, _inbound.size());
+
+        _engineRelease.countDown();
+        assertTrue("Receiving thread should continue once the queued data has been processed",
+                   secondReceived.await(5, TimeUnit.SECONDS));
+        working.join(5000);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(first, 0, first.length);
+        expected.write(second, 0, second.length);
+        assertTrue("Inbound data differs from the data received",
+                   Arrays.equals(expected.toByteArray(), _inbound.toByteArray()));
+    }
+
+    public void testOutboundBufferLimitSuspendsMessageAssignment() throws Exception
+    {
+        _connectionWrapper.reserveOutboundMessageSpace(OUTBOUND_MESSAGE_BUFFER_LIMIT + 1);
+        verify(_protocolEngine).setMessageAssignmentSuspended(true, false);
+    }
+
+    private static byte[] createMessage(final int size, final int seed)
+    {
+        byte[] message = new byte[size];
+        for (int i = 0; i < size; i++)
+        {
+            message[i] = (byte) ((i + seed) % 251);
+        }
+        return message;
+    }
+}
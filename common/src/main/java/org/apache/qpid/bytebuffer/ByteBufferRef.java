@@ -24,11 +24,13 @@ import java.nio.ByteBuffer;
 
 public interface ByteBufferRef
 {
-    void incrementRef();
+    void incrementRef(int capacity);
 
-    void decrementRef();
+    void decrementRef(int capacity);
 
     ByteBuffer getBuffer();
 
     void removeFromPool();
+
+    boolean isSparse(double minimumSparsityFraction);
 }
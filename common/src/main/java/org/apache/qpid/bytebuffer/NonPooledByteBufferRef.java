@@ -32,13 +32,13 @@ class NonPooledByteBufferRef implements ByteBufferRef
     }
 
     @Override
-    public void incrementRef()
+    public void incrementRef(final int capacity)
     {
 
     }
 
     @Override
-    public void decrementRef()
+    public void decrementRef(final int capacity)
     {
 
     }
@@ -54,4 +54,10 @@ class NonPooledByteBufferRef implements ByteBufferRef
     {
 
     }
+
+    @Override
+    public boolean isSparse(final double minimumSparsityFraction)
+    {
+        return false;
+    }
 }
@@ -22,35 +22,58 @@ package org.apache.qpid.bytebuffer;
 
 import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Reference to a buffer taken from the pool, which is returned to the pool once every {@link QpidByteBuffer}
+ * viewing it has been disposed.
+ *
+ * As well as the number of views, the ref tracks the number of bytes of the buffer they claim, so that a buffer
+ * which is pinned in memory by a few small views (for instance the content of a message which has been queued for
+ * a long time) can be recognised as sparse and those views copied into compact buffers.
+ */
 class PooledByteBufferRef implements ByteBufferRef
 {
     private static final AtomicIntegerFieldUpdater<PooledByteBufferRef> REF_COUNT = AtomicIntegerFieldUpdater.newUpdater(PooledByteBufferRef.class, "_refCount");
+    private static final AtomicIntegerFieldUpdater<PooledByteBufferRef> CLAIMED_BYTES = AtomicIntegerFieldUpdater.newUpdater(PooledByteBufferRef.class, "_claimedBytes");
+
+    private static final AtomicLong ACTIVE_BUFFER_BYTES = new AtomicLong();
+    private static final AtomicLong CLAIMED_BUFFER_BYTES = new AtomicLong();
 
     private final ByteBuffer _buffer;
     private volatile int _refCount;
+    private volatile int _claimedBytes;
 
     PooledByteBufferRef(final ByteBuffer buffer)
     {
         _buffer = buffer;
+        ACTIVE_BUFFER_BYTES.addAndGet(buffer.capacity());
     }
 
     @Override
-    public void incrementRef()
+    public void incrementRef(final int capacity)
     {
 
         if(REF_COUNT.get(this) >= 0)
         {
             REF_COUNT.incrementAndGet(this);
+            CLAIMED_BYTES.addAndGet(this, capacity);
+            CLAIMED_BUFFER_BYTES.addAndGet(capacity);
         }
     }
 
     @Override
-    public void decrementRef()
+    public void decrementRef(final int capacity)
     {
-        if(REF_COUNT.get(this) > 0 && REF_COUNT.decrementAndGet(this) == 0)
+        if(REF_COUNT.get(this) > 0)
         {
-            QpidByteBuffer.returnToPool(_buffer);
+            CLAIMED_BYTES.addAndGet(this, -capacity);
+            CLAIMED_BUFFER_BYTES.addAndGet(-capacity);
+            if(REF_COUNT.decrementAndGet(this) == 0)
+            {
+                ACTIVE_BUFFER_BYTES.addAndGet(-_buffer.capacity());
+                QpidByteBuffer.returnToPool(_buffer);
+            }
         }
     }
 
@@ -63,8 +86,29 @@ class PooledByteBufferRef implements ByteBufferRef
     @Override
     public void removeFromPool()
     {
-        REF_COUNT.set(this, Integer.MIN_VALUE/2);
+        if(REF_COUNT.getAndSet(this, Integer.MIN_VALUE/2) > 0)
+        {
+            CLAIMED_BUFFER_BYTES.addAndGet(-CLAIMED_BYTES.getAndSet(this, 0));
+            ACTIVE_BUFFER_BYTES.addAndGet(-_buffer.capacity());
+        }
     }
 
+    @Override
+    public boolean isSparse(final double minimumSparsityFraction)
+    {
+        return REF_COUNT.get(this) > 0
+               && minimumSparsityFraction > (double) CLAIMED_BYTES.get(this) / (double) _buffer.capacity();
+    }
+
+    /** Returns the total capacity of the pooled buffers which are currently in use. */
+    static long getActiveBufferBytes()
+    {
+        return ACTIVE_BUFFER_BYTES.get();
+    }
 
+    /** Returns the number of bytes of the pooled buffers in use which are claimed by undisposed views. */
+    static long getClaimedBufferBytes()
+    {
+        return CLAIMED_BUFFER_BYTES.get();
+    }
 }
@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
@@ -68,6 +69,7 @@ public final class QpidByteBuffer
     private volatile static BufferPool _bufferPool;
     private volatile static int _pooledBufferSize;
     private volatile static ByteBuffer _zeroed;
+    private volatile static double _sparsityFraction;
 
     QpidByteBuffer(ByteBufferRef ref)
     {
@@ -78,7 +80,7 @@ public final class QpidByteBuffer
     {
         _buffer = buf;
         _ref = ref;
-        ref.incrementRef();
+        ref.incrementRef(buf.capacity());
     }
 
 
@@ -424,7 +426,7 @@ public final class QpidByteBuffer
     {
         if(DISPOSED_UPDATER.compareAndSet(this,0,1))
         {
-            _ref.decrementRef();
+            _ref.decrementRef(_buffer.capacity());
             _buffer = null;
         }
     }
@@ -541,6 +543,84 @@ public final class QpidByteBuffer
         }
     }
 
+    /**
+     * Returns true if this buffer is a view of a pooled buffer of which too little is still in use to justify the
+     * whole of it being held in memory.
+     */
+    public boolean isSparse()
+    {
+        return _ref.isSparse(_sparsityFraction);
+    }
+
+    /**
+     * Copies the remaining content of the given buffer into a compact buffer if the pooled buffer it is a view of
+     * is sparse, disposing the given buffer.  Otherwise the given buffer is returned unchanged.
+     */
+    public static QpidByteBuffer reallocateIfNecessary(QpidByteBuffer data)
+    {
+        if (data != null && data.isDirect() && data.isSparse())
+        {
+            QpidByteBuffer newBuf = allocateDirect(data.remaining());
+            newBuf.putCopyOf(data);
+            newBuf.flip();
+            data.dispose();
+            return newBuf;
+        }
+        return data;
+    }
+
+    /**
+     * Reallocates any of the given buffers which are views of sparse pooled buffers, returning the given collection
+     * itself if none of them are.
+     */
+    public static Collection<QpidByteBuffer> reallocateIfNecessary(Collection<QpidByteBuffer> data)
+    {
+        if (data == null || !isSparse(data))
+        {
+            return data;
+        }
+        List<QpidByteBuffer> reallocated = new ArrayList<>(data.size());
+        for (QpidByteBuffer buf : data)
+        {
+            reallocated.add(reallocateIfNecessary(buf));
+        }
+        return reallocated;
+    }
+
+    private static boolean isSparse(final Collection<QpidByteBuffer> data)
+    {
+        for (QpidByteBuffer buf : data)
+        {
+            if (buf.isDirect() && buf.isSparse())
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if, taken together, the pooled buffers in use are sparse, so that it is worth looking for
+     * long-lived buffers to reallocate.
+     */
+    public static boolean arePooledBuffersSparse()
+    {
+        return PooledByteBufferRef.getClaimedBufferBytes()
+               < _sparsityFraction * (double) PooledByteBufferRef.getActiveBufferBytes();
+    }
+
+    /** Returns the total capacity of the pooled buffers currently in use, including any parts no longer viewed. */
+    public static long getPooledBufferBytes()
+    {
+        return PooledByteBufferRef.getActiveBufferBytes();
+    }
+
+    /** Returns the number of bytes of the pooled buffers in use which are viewed by undisposed buffers. */
+    public static long getPooledBufferClaimedBytes()
+    {
+        return PooledByteBufferRef.getClaimedBufferBytes();
+    }
+
     public ByteBuffer asByteBuffer()
     {
         _ref.removeFromPool();
@@ -557,6 +637,11 @@ public final class QpidByteBuffer
         return channel.read(_buffer);
     }
 
+    public int read(FileChannel channel, long position) throws IOException
+    {
+        return channel.read(_buffer, position);
+    }
+
 
     public SSLEngineResult decryptSSL(SSLEngine engine, QpidByteBuffer dest) throws SSLException
     {
@@ -680,6 +765,14 @@ public final class QpidByteBuffer
     }
 
     public synchronized static void initialisePool(int bufferSize, int maxPoolSize)
+    {
+        initialisePool(bufferSize, maxPoolSize, 0d);
+    }
+
+    /**
+     * Initialises the pool, with pooled buffers of which less than the given fraction is in use considered sparse.
+     */
+    public synchronized static void initialisePool(int bufferSize, int maxPoolSize, double sparsityFraction)
     {
         if (_isPoolInitialized && (bufferSize != _pooledBufferSize || maxPoolSize != _bufferPool.getMaxSize()))
         {
@@ -692,6 +785,11 @@ public final class QpidByteBuffer
         {
             throw new IllegalArgumentException("Negative or zero bufferSize illegal : " + bufferSize);
         }
+        if (sparsityFraction < 0d || sparsityFraction > 1d)
+        {
+            throw new IllegalArgumentException("Sparsity fraction must be between 0 and 1 : " + sparsityFraction);
+        }
+        _sparsityFraction = sparsityFraction;
 
 
         _bufferPool = new BufferPool(maxPoolSize);
@@ -986,6 +986,15 @@ public class BasicContentHeaderProperties
         }
     }
 
+    /**
+     * Copies the encoded form into a compact buffer if it is held in a sparsely used pooled buffer.  The encoded form
+     * of the headers is left in place, as copies of these properties share it.
+     */
+    public synchronized void reallocate()
+    {
+        _encodedForm = QpidByteBuffer.reallocateIfNecessary(_encodedForm);
+    }
+
     private synchronized void nullEncodedForm()
     {
         if(_encodedForm != null)
@@ -209,4 +209,9 @@ public class ContentHeaderBody implements AMQBody
     {
         _properties.clearEncodedForm();
     }
+
+    public void reallocate()
+    {
+        _properties.reallocate();
+    }
 }
@@ -20,124 +20,137 @@
  */
 package org.apache.qpid.transport;
 
+import static org.apache.qpid.util.Serial.ge;
+import static org.apache.qpid.util.Serial.gt;
+import static org.apache.qpid.util.Serial.le;
 import static org.apache.qpid.util.Serial.lt;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.List;
-import java.util.ListIterator;
+import java.util.NoSuchElementException;
 
+/**
+ * A sorted set of disjoint, non-adjacent ranges held as parallel arrays of lower and upper bounds.
+ *
+ * Bounds are ordered using serial number arithmetic.  Lookups use a binary search, and adding or
+ * subtracting a range coalesces/splits the affected neighbours in place, so that the common case of
+ * extending the last range (consecutive command ids) is constant time.
+ */
 public class RangeSetImpl implements RangeSet
 {
+    private static final int DEFAULT_CAPACITY = 4;
 
-    private List<Range> ranges;
+    private int[] lowers;
+    private int[] uppers;
+    private int count;
+    private int modCount;
 
     public RangeSetImpl()
     {
-        ranges =  new ArrayList<Range>();
+        this(DEFAULT_CAPACITY);
     }
 
     public RangeSetImpl(int size)
     {
-        ranges =  new ArrayList<Range>(size);
+        int capacity = Math.max(size, 1);
+        lowers = new int[capacity];
+        uppers = new int[capacity];
     }
 
 
     public RangeSetImpl(org.apache.qpid.transport.RangeSetImpl copy)
     {
-        ranges = new ArrayList<Range>(copy.ranges);
+        int capacity = Math.max(copy.count, 1);
+        lowers = Arrays.copyOf(copy.lowers, capacity);
+        uppers = Arrays.copyOf(copy.uppers, capacity);
+        count = copy.count;
     }
 
     public int size()
     {
-        return ranges.size();
+        return count;
     }
 
     public Iterator<Range> iterator()
     {
-        return ranges.iterator();
+        return new RangeSetIterator();
     }
 
     public Range getFirst()
     {
-        return ranges.get(0);
+        if (count == 0)
+        {
+            throw new IndexOutOfBoundsException("Range set is empty");
+        }
+        return Range.newInstance(lowers[0], uppers[0]);
     }
 
     public Range getLast()
     {
-        return ranges.get(ranges.size() - 1);
+        if (count == 0)
+        {
+            throw new IndexOutOfBoundsException("Range set is empty");
+        }
+        return Range.newInstance(lowers[count - 1], uppers[count - 1]);
     }
 
     public boolean includes(Range range)
     {
-        for (Range r : this)
-        {
-            if (r.includes(range))
-            {
-                return true;
-            }
-        }
-
-        return false;
+        int idx = firstUpperNotBefore(range.getLower());
+        return idx < count && le(lowers[idx], range.getLower()) && ge(uppers[idx], range.getUpper());
     }
 
     public boolean includes(int n)
     {
-        for (Range r : this)
-        {
-            if (r.includes(n))
-            {
-                return true;
-            }
-        }
-
-        return false;
+        int idx = firstUpperNotBefore(n);
+        return idx < count && le(lowers[idx], n);
     }
 
     public void add(Range range)
     {
-        ListIterator<Range> it = ranges.listIterator();
+        add(range.getLower(), range.getUpper());
+    }
 
-        while (it.hasNext())
+    public void add(int lower, int upper)
+    {
+        modCount++;
+        if (count == 0 || gt(lower, uppers[count - 1] + 1))
         {
-            Range next = it.next();
-            if (range.touches(next))
-            {
-                it.remove();
-                range = range.span(next);
-            }
-            else if (lt(range.getUpper(), next.getLower()))
+            // fast path: append after the last range
+            replace(count, count, 1);
+            lowers[count - 1] = lower;
+            uppers[count - 1] = upper;
+            return;
+        }
+        if (ge(lower, lowers[count - 1]))
+        {
+            // fast path: extend the last range
+            if (gt(upper, uppers[count - 1]))
             {
-                it.previous();
-                it.add(range);
-                return;
+                uppers[count - 1] = upper;
             }
+            return;
         }
 
-        it.add(range);
-    }
+        // ranges in [start, end) overlap or abut [lower, upper]
+        int start = firstUpperNotBefore(lower - 1);
+        int end = firstLowerAfter(upper + 1);
 
-    public void add(int lower, int upper)
-    {
-        switch(ranges.size())
+        if (start == end)
         {
-            case 0:
-                ranges.add(Range.newInstance(lower, upper));
-                break;
-
-            case 1:
-                Range first = ranges.get(0);
-                if(first.getUpper() + 1 >= lower && upper >= first.getUpper())
-                {
-                    ranges.set(0, Range.newInstance(first.getLower(), upper));
-                    break;
-                }
-
-            default:
-                add(Range.newInstance(lower, upper));
+            replace(start, end, 1);
+            lowers[start] = lower;
+            uppers[start] = upper;
+        }
+        else
+        {
+            int newLower = lt(lowers[start], lower) ? lowers[start] : lower;
+            int newUpper = gt(uppers[end - 1], upper) ? uppers[end - 1] : upper;
+            replace(start, end, 1);
+            lowers[start] = newLower;
+            uppers[start] = newUpper;
         }
-
-
     }
 
     public void add(int value)
@@ -147,69 +160,119 @@ public class RangeSetImpl implements RangeSet
 
     public void clear()
     {
-        ranges.clear();
+        modCount++;
+        count = 0;
     }
 
     public void subtract(final RangeSet other)
     {
-        final Iterator<Range> otherIter = other.iterator() ;
-        if (otherIter.hasNext())
+        for (Range range : other)
+        {
+            if (count == 0)
+            {
+                break;
+            }
+            subtract(range.getLower(), range.getUpper());
+        }
+    }
+
+    private void subtract(final int lower, final int upper)
+    {
+        // ranges in [start, end) intersect [lower, upper]
+        int start = firstUpperNotBefore(lower);
+        int end = firstLowerAfter(upper);
+        if (start >= end)
+        {
+            return;
+        }
+
+        modCount++;
+        int firstLower = lowers[start];
+        int lastUpper = uppers[end - 1];
+        boolean keepLeft = lt(firstLower, lower);
+        boolean keepRight = gt(lastUpper, upper);
+
+        replace(start, end, (keepLeft ? 1 : 0) + (keepRight ? 1 : 0));
+        int idx = start;
+        if (keepLeft)
+        {
+            lowers[idx] = firstLower;
+            uppers[idx] = lower - 1;
+            idx++;
+        }
+        if (keepRight)
+        {
+            lowers[idx] = upper + 1;
+            uppers[idx] = lastUpper;
+        }
+    }
+
+    /**
+     * Returns the index of the first range whose upper bound is not before {@code value}, or {@link #count}
+     * if there is no such range.
+     */
+    private int firstUpperNotBefore(int value)
+    {
+        int low = 0;
+        int high = count;
+        while (low < high)
         {
-            Range otherRange = otherIter.next();
-            final ListIterator<Range> iter = ranges.listIterator() ;
-            if (iter.hasNext())
+            int mid = (low + high) >>> 1;
+            if (lt(uppers[mid], value))
             {
-                Range range = iter.next();
-                do
-                {
-                    if (otherRange.getUpper() < range.getLower())
-                    {
-                        otherRange = nextRange(otherIter) ;
-                    }
-                    else if (range.getUpper() < otherRange.getLower())
-                    {
-                        range = nextRange(iter) ;
-                    }
-                    else
-                    {
-                        final boolean first = range.getLower() < otherRange.getLower() ;
-                        final boolean second = otherRange.getUpper() < range.getUpper() ;
-
-                        if (first)
-                        {
-                            iter.set(Range.newInstance(range.getLower(), otherRange.getLower()-1)) ;
-                            if (second)
-                            {
-                                iter.add(Range.newInstance(otherRange.getUpper()+1, range.getUpper())) ;
-                                iter.previous() ;
-                                range = iter.next() ;
-                            }
-                            else
-                            {
-                                range = nextRange(iter) ;
-                            }
-                        }
-                        else if (second)
-                        {
-                            range = Range.newInstance(otherRange.getUpper()+1, range.getUpper()) ;
-                            iter.set(range) ;
-                            otherRange = nextRange(otherIter) ;
-                        }
-                        else
-                        {
-                            iter.remove() ;
-                            range = nextRange(iter) ;
-                        }
-                    }
-                }
-                while ((otherRange != null) && (range != null)) ;
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
             }
         }
+        return low;
     }
 
-    private Range nextRange(final Iterator<Range> iter)
+    /**
+     * Returns the index of the first range whose lower bound is after {@code value}, or {@link #count}
+     * if there is no such range.
+     */
+    private int firstLowerAfter(int value)
     {
-        return (iter.hasNext() ? iter.next() : null) ;
+        int low = 0;
+        int high = count;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (le(lowers[mid], value))
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Replaces the ranges at indices [start, end) with {@code replacements} slots (to be filled in by the caller)
+     * shifting any following ranges as necessary.
+     */
+    private void replace(int start, int end, int replacements)
+    {
+        int tail = count - end;
+        int newCount = start + replacements + tail;
+        if (newCount > lowers.length)
+        {
+            int capacity = Math.max(newCount, lowers.length + (lowers.length >> 1) + 1);
+            lowers = Arrays.copyOf(lowers, capacity);
+            uppers = Arrays.copyOf(uppers, capacity);
+        }
+        if (tail > 0 && end != start + replacements)
+        {
+            System.arraycopy(lowers, end, lowers, start + replacements, tail);
+            System.arraycopy(uppers, end, uppers, start + replacements, tail);
+        }
+        count = newCount;
     }
 
     public RangeSet copy()
@@ -219,22 +282,60 @@ public class RangeSetImpl implements RangeSet
 
     public String toString()
     {
-        StringBuffer str = new StringBuffer();
+        StringBuilder str = new StringBuilder();
         str.append("{");
-        boolean first = true;
-        for (Range range : ranges)
+        for (int i = 0; i < count; i++)
         {
-            if (first)
-            {
-                first = false;
-            }
-            else
+            if (i > 0)
             {
                 str.append(", ");
             }
-            str.append(range);
+            str.append("[").append(lowers[i]).append(", ").append(uppers[i]).append("]");
         }
         str.append("}");
         return str.toString();
     }
+
+    private class RangeSetIterator implements Iterator<Range>
+    {
+        private int next;
+        private int expectedModCount = modCount;
+        private boolean canRemove;
+
+        public boolean hasNext()
+        {
+            return next < count;
+        }
+
+        public Range next()
+        {
+            if (expectedModCount != modCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= count)
+            {
+                throw new NoSuchElementException();
+            }
+            canRemove = true;
+            int idx = next++;
+            return Range.newInstance(lowers[idx], uppers[idx]);
+        }
+
+        public void remove()
+        {
+            if (!canRemove)
+            {
+                throw new IllegalStateException();
+            }
+            if (expectedModCount != modCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+            canRemove = false;
+            next--;
+            replace(next, next + 1, 0);
+            expectedModCount = ++modCount;
+        }
+    }
 }
@@ -109,6 +109,54 @@ public class QpidByteBufferTest extends QpidTestCase
         }
     }
 
+    public void testPooledBufferBytesTracked() throws Exception
+    {
+        long pooledBytes = QpidByteBuffer.getPooledBufferBytes();
+        long claimedBytes = QpidByteBuffer.getPooledBufferClaimedBytes();
+
+        QpidByteBuffer buffer = QpidByteBuffer.allocateDirect(BUFFER_SIZE);
+        QpidByteBuffer view = buffer.view(0, 4);
+        assertEquals("Unexpected pooled bytes", pooledBytes + BUFFER_SIZE, QpidByteBuffer.getPooledBufferBytes());
+        assertEquals("Unexpected claimed bytes", claimedBytes + BUFFER_SIZE + 4, QpidByteBuffer.getPooledBufferClaimedBytes());
+
+        buffer.dispose();
+        assertEquals("Unexpected pooled bytes", pooledBytes + BUFFER_SIZE, QpidByteBuffer.getPooledBufferBytes());
+        assertEquals("Unexpected claimed bytes", claimedBytes + 4, QpidByteBuffer.getPooledBufferClaimedBytes());
+
+        view.dispose();
+        assertEquals("Unexpected pooled bytes", pooledBytes, QpidByteBuffer.getPooledBufferBytes());
+        assertEquals("Unexpected claimed bytes", claimedBytes, QpidByteBuffer.getPooledBufferClaimedBytes());
+    }
+
+    public void testReallocateIfNecessary() throws Exception
+    {
+        QpidByteBuffer.initialisePool(BUFFER_SIZE, POOL_SIZE, 0.5);
+
+        QpidByteBuffer buffer = QpidByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.put(new byte[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+        buffer.flip();
+        QpidByteBuffer first = buffer.view(0, 4);
+        QpidByteBuffer second = buffer.view(4, 2);
+        buffer.dispose();
+
+        assertFalse("Buffer with 6 of its 10 bytes in use should not be sparse", second.isSparse());
+        assertSame("Buffer should not have been reallocated", second, QpidByteBuffer.reallocateIfNecessary(second));
+
+        first.dispose();
+        assertTrue("Buffer with 2 of its 10 bytes in use should be sparse", second.isSparse());
+
+        QpidByteBuffer reallocated = QpidByteBuffer.reallocateIfNecessary(second);
+        assertNotSame("Buffer should have been reallocated", second, reallocated);
+        assertFalse("Reallocated buffer should not be sparse", reallocated.isSparse());
+        assertEquals("Unexpected remaining", 2, reallocated.remaining());
+        assertEquals("Unexpected content", 4, reallocated.get());
+        assertEquals("Unexpected content", 5, reallocated.get());
+        reallocated.dispose();
+
+        QpidByteBuffer heapBuffer = QpidByteBuffer.wrap(new byte[] {0, 1});
+        assertSame("Heap buffer should not have been reallocated", heapBuffer, QpidByteBuffer.reallocateIfNecessary(heapBuffer));
+    }
+
     public void testDeflateInflateDirect() throws Exception
     {
         byte[] input = "aaabbbcccddddeeeffff".getBytes();
@@ -325,6 +325,65 @@ public class RangeSetTest extends QpidTestCase
         checkRange(orig) ;
     }
     
+    public void testAddCoalescesAcrossManyRanges()
+    {
+        RangeSet rs = RangeSetFactory.createRangeSet();
+        for (int i = 0; i < 100; i += 2)
+        {
+            rs.add(i);
+        }
+        assertEquals(50, rs.size());
+        check(rs);
+
+        rs.add(1, 97);
+        checkRange(rs, 0, 98);
+    }
+
+    public void testIncludesWithManyRanges()
+    {
+        RangeSet rs = createRangeSet(0, 2, 10, 12, 20, 22, 30, 32);
+        assertTrue(rs.includes(11));
+        assertTrue(rs.includes(Range.newInstance(20, 22)));
+        assertFalse(rs.includes(Range.newInstance(12, 20)));
+        assertFalse(rs.includes(5));
+        assertFalse(rs.includes(33));
+        assertFalse(rs.includes(-1));
+    }
+
+    public void testAddAndSubtractAcrossSerialWrap()
+    {
+        RangeSet rs = RangeSetFactory.createRangeSet();
+        rs.add(Integer.MAX_VALUE - 1, Integer.MAX_VALUE);
+        rs.add(Integer.MIN_VALUE, Integer.MIN_VALUE + 1);
+        checkRange(rs, Integer.MAX_VALUE - 1, Integer.MIN_VALUE + 1);
+
+        rs.subtract(createRangeSet(Integer.MAX_VALUE, Integer.MAX_VALUE));
+        checkRange(rs, Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 1, Integer.MIN_VALUE, Integer.MIN_VALUE + 1);
+        assertFalse(rs.includes(Integer.MAX_VALUE));
+        assertTrue(rs.includes(Integer.MIN_VALUE));
+    }
+
+    public void testCopyIsIndependent()
+    {
+        RangeSet rs = createRangeSet(0, 5, 10, 15);
+        RangeSet copy = rs.copy();
+        rs.add(6, 9);
+        checkRange(rs, 0, 15);
+        checkRange(copy, 0, 5, 10, 15);
+    }
+
+    public void testIteratorRemove()
+    {
+        RangeSet rs = createRangeSet(0, 5, 10, 15, 20, 25);
+        Iterator<Range> iter = rs.iterator();
+        iter.next();
+        iter.next();
+        iter.remove();
+        assertTrue(iter.hasNext());
+        assertEquals(20, iter.next().getLower());
+        checkRange(rs, 0, 5, 20, 25);
+    }
+
     private RangeSet createRangeSet(int ... bounds)
     {
         RangeSet set = RangeSetFactory.createRangeSet();
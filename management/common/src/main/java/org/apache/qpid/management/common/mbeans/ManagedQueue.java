@@ -57,6 +57,11 @@ public interface ManagedQueue
     String MSG_DELIVERY_COUNT = "Delivery Count";
     List<String> VIEW_MSGS_COMPOSITE_ITEM_NAMES_DESC = Collections.unmodifiableList(Arrays.asList(MSG_AMQ_ID, MSG_HEADER, MSG_SIZE, MSG_REDELIVERED, MSG_QUEUE_POS, MSG_DELIVERY_COUNT));
     List<String> VIEW_MSGS_TABULAR_UNIQUE_INDEX = Collections.unmodifiableList(Arrays.asList(MSG_QUEUE_POS));
+
+    //CompositeType key information for a page of the message list
+    String MSG_PAGE_CURSOR = "Cursor";
+    String MSG_PAGE_MESSAGES = "Messages";
+    List<String> VIEW_MSG_PAGE_COMPOSITE_ITEM_NAMES_DESC = Collections.unmodifiableList(Arrays.asList(MSG_PAGE_CURSOR, MSG_PAGE_MESSAGES));
   
     //CompositeType key/description information for message content
     //For compatibility reasons, DONT MODIFY the existing key values if expanding the set.
@@ -450,6 +455,23 @@ public interface ManagedQueue
                              @MBeanOperationParameter(name="end position", description="end position")long endPosition)
             throws IOException, JMException;
 
+    /**
+     * Returns a page of the messages stored on the queue, following the position recorded by the given cursor.
+     * The page holds the cursor from which the following page may be viewed, so that viewing successive pages
+     * does not require the queue to be scanned from its head each time.
+     * @param cursor
+     * @param count
+     * @return
+     * @throws IOException
+     * @throws JMException
+     */
+    @MBeanOperation(name="viewMessagePage",
+                    description="Message headers for up to the given number of messages following the cursor returned with the previous page",
+                    impact= MBeanOperationInfo.INFO)
+    CompositeData viewMessagePage(@MBeanOperationParameter(name="cursor", description="cursor, or empty for the first page")String cursor,
+                                  @MBeanOperationParameter(name="count", description="maximum number of messages")int count)
+            throws IOException, JMException;
+
     /**
      * Returns the content for the given AMQ Message ID.
      * 